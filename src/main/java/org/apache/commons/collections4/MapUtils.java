@@ -39,6 +39,7 @@ import org.apache.commons.collections4.map.AbstractMapDecorator;
 import org.apache.commons.collections4.map.AbstractSortedMapDecorator;
 import org.apache.commons.collections4.map.FixedSizeMap;
 import org.apache.commons.collections4.map.FixedSizeSortedMap;
+import org.apache.commons.collections4.map.FrozenMap;
 import org.apache.commons.collections4.map.LazyMap;
 import org.apache.commons.collections4.map.LazySortedMap;
 import org.apache.commons.collections4.map.ListOrderedMap;
@@ -213,6 +214,24 @@ public class MapUtils {
         return FixedSizeSortedMap.fixedSizeSortedMap(map);
     }
 
+    /**
+     * Returns an unmodifiable copy of the given map stored in flat arrays.
+     * <p>
+     * Unlike {@link #unmodifiableMap(Map)}, the returned map does not retain the given
+     * map, and is intended for large read-only lookup tables.
+     * </p>
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     * @param map The map to copy, must not be null
+     * @return An unmodifiable copy of the given map
+     * @throws NullPointerException if the map is null
+     * @since 4.6.1
+     */
+    public static <K, V> IterableMap<K, V> frozenMap(final Map<? extends K, ? extends V> map) {
+        return FrozenMap.frozenMap(map);
+    }
+
     /**
      * Gets a Boolean from a Map in a null-safe manner.
      * <p>
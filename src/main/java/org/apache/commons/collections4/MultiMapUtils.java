@@ -19,13 +19,21 @@ package org.apache.commons.collections4;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 import org.apache.commons.collections4.bag.HashBag;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.apache.commons.collections4.multimap.PackedListValuedMap;
 import org.apache.commons.collections4.multimap.TransformedMultiValuedMap;
 import org.apache.commons.collections4.multimap.UnmodifiableMultiValuedMap;
 import org.apache.commons.collections4.multiset.HashMultiSet;
@@ -44,6 +52,40 @@ import org.apache.commons.collections4.multiset.HashMultiSet;
  */
 public class MultiMapUtils {
 
+    /**
+     * The values of each key gathered by a collector, in lists.
+     */
+    private static final class Grouping<K, V> {
+
+        private final Map<K, List<V>> groups;
+
+        Grouping(final Map<K, List<V>> groups) {
+            this.groups = groups;
+        }
+
+        void add(final K key, final V value) {
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+
+        <M extends MultiValuedMap<K, V>> M into(final M map) {
+            groups.forEach(map::putAll);
+            return map;
+        }
+
+        /**
+         * Appends the values of another grouping, taking over its lists of the keys absent here.
+         */
+        Grouping<K, V> merge(final Grouping<K, V> other) {
+            other.groups.forEach((key, values) -> {
+                final List<V> list = groups.putIfAbsent(key, values);
+                if (list != null) {
+                    list.addAll(values);
+                }
+            });
+            return this;
+        }
+    }
+
     /**
      * An empty {@link UnmodifiableMultiValuedMap}.
      */
@@ -74,6 +116,26 @@ public class MultiMapUtils {
     public static <K, V> MultiValuedMap<K, V> emptyMultiValuedMap() {
         return EMPTY_MULTI_VALUED_MAP;
     }
+
+    /**
+     * Returns an immutable copy of the given map, packed into a few arrays.
+     * <p>
+     * Unlike {@link #unmodifiableMultiValuedMap(MultiValuedMap)}, the copy does not keep the
+     * map and its value collections alive, and needs much less memory. The values of each key
+     * are returned as a list, in the iteration order of the collection they are copied from.
+     * </p>
+     *
+     * @param <K> The key type.
+     * @param <V> The value type.
+     * @param map The {@link MultiValuedMap} to copy, must not be null.
+     * @return An immutable {@link ListValuedMap} with the mappings of the given map.
+     * @throws NullPointerException if map is null.
+     * @see PackedListValuedMap
+     * @since 4.6.1
+     */
+    public static <K, V> ListValuedMap<K, V> freeze(final MultiValuedMap<? extends K, ? extends V> map) {
+        return PackedListValuedMap.<K, V>packedListValuedMap(map);
+    }
     // Null safe methods
 
     /**
@@ -200,6 +262,69 @@ public class MultiMapUtils {
         return new HashSetValuedHashMap<>();
     }
 
+    /**
+     * Returns a {@code Collector} grouping elements into an {@link ArrayListValuedHashMap}.
+     * <p>
+     * The values of each key are first gathered in a list, and added to the map at once
+     * when the collection completes, so that each element costs a single hash lookup and
+     * the value lists of the map are created with their exact size. For a parallel stream,
+     * the partial groupings of the threads are merged by appending lists, the values of
+     * each key keeping the encounter order.
+     * </p>
+     *
+     * @param <T> The type of the input elements.
+     * @param <K> The key type.
+     * @param <V> The value type.
+     * @param keyMapper The function producing the key of an element, must not be null.
+     * @param valueMapper The function producing the value of an element, must not be null.
+     * @return A {@code Collector} grouping the values of the elements by key.
+     * @throws NullPointerException if a mapper is null.
+     * @since 4.6.1
+     */
+    public static <T, K, V> Collector<T, ?, ListValuedMap<K, V>> toListValuedMap(
+            final Function<? super T, ? extends K> keyMapper, final Function<? super T, ? extends V> valueMapper) {
+        Objects.requireNonNull(keyMapper, "keyMapper");
+        Objects.requireNonNull(valueMapper, "valueMapper");
+        return Collector.<T, Grouping<K, V>, ListValuedMap<K, V>>of(
+                () -> new Grouping<>(new HashMap<>()),
+                (grouping, element) -> grouping.add(keyMapper.apply(element), valueMapper.apply(element)),
+                Grouping::merge,
+                grouping -> grouping.into(new ArrayListValuedHashMap<>(grouping.groups.size() * 4 / 3 + 1, 0)));
+    }
+
+    /**
+     * Returns a {@code Collector} grouping elements into a {@link MultiValuedMap} created by a supplier.
+     * <p>
+     * The values of each key are first gathered in a list, and added to the map with a single
+     * {@link MultiValuedMap#putAll(Object, Iterable)} when the collection completes. The keys
+     * are added in their encounter order. For a parallel stream, the partial groupings of the
+     * threads are merged by appending lists, the values of each key keeping the encounter order.
+     * </p>
+     *
+     * @param <T> The type of the input elements.
+     * @param <K> The key type.
+     * @param <V> The value type.
+     * @param <M> The type of the resulting map.
+     * @param keyMapper The function producing the key of an element, must not be null.
+     * @param valueMapper The function producing the value of an element, must not be null.
+     * @param mapSupplier The supplier of the map to fill, must not be null.
+     * @return A {@code Collector} grouping the values of the elements by key.
+     * @throws NullPointerException if a mapper or the supplier is null.
+     * @since 4.6.1
+     */
+    public static <T, K, V, M extends MultiValuedMap<K, V>> Collector<T, ?, M> toMultiValuedMap(
+            final Function<? super T, ? extends K> keyMapper, final Function<? super T, ? extends V> valueMapper,
+            final Supplier<M> mapSupplier) {
+        Objects.requireNonNull(keyMapper, "keyMapper");
+        Objects.requireNonNull(valueMapper, "valueMapper");
+        Objects.requireNonNull(mapSupplier, "mapSupplier");
+        return Collector.<T, Grouping<K, V>, M>of(
+                () -> new Grouping<>(new LinkedHashMap<>()),
+                (grouping, element) -> grouping.add(keyMapper.apply(element), valueMapper.apply(element)),
+                Grouping::merge,
+                grouping -> grouping.into(mapSupplier.get()));
+    }
+
     /**
      * Returns a {@code TransformedMultiValuedMap} backed by the given map.
      * <p>
@@ -17,7 +17,10 @@
 package org.apache.commons.collections4;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.PriorityQueue;
 
 import org.apache.commons.collections4.multiset.HashMultiSet;
 import org.apache.commons.collections4.multiset.PredicatedMultiSet;
@@ -38,6 +41,49 @@ import org.apache.commons.collections4.multiset.UnmodifiableSortedMultiSet;
  */
 public class MultiSetUtils {
 
+    /**
+     * An entry holding the count an element had when it was read.
+     */
+    private static final class CountSnapshot<E> implements MultiSet.Entry<E> {
+
+        private final E element;
+        private final int count;
+
+        CountSnapshot(final E element, final int count) {
+            this.element = element;
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (object instanceof MultiSet.Entry) {
+                final MultiSet.Entry<?> other = (MultiSet.Entry<?>) object;
+                return count == other.getCount() && Objects.equals(element, other.getElement());
+            }
+            return false;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(element) ^ count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%d", element, count);
+        }
+    }
+
     /**
      * An empty unmodifiable multiset.
      */
@@ -283,6 +329,57 @@ public class MultiSetUtils {
         return SynchronizedSortedMultiSet.synchronizedSortedMultiSet(multiset);
     }
 
+    /**
+     * Returns the elements with the highest counts in a multiset, most frequent first.
+     * <p>
+     * The counts are read once into a heap of at most {@code k} entries, so this takes
+     * <i>O(n log k)</i> time and <i>O(k)</i> space for <i>n</i> distinct elements,
+     * instead of sorting a copy of the whole entry set. Elements with equal counts are
+     * returned in an unspecified order.
+     * </p>
+     * <p>
+     * The returned entries keep the counts read and do not change with the multiset.
+     * </p>
+     *
+     * @param <E> The element type
+     * @param multiset The multiset to read, must not be null
+     * @param k The maximum number of entries to return
+     * @return A new list of at most {@code k} entries, in descending order of count
+     * @throws NullPointerException if the MultiSet is null
+     * @throws IllegalArgumentException if k is negative
+     * @since 4.6.1
+     */
+    public static <E> List<MultiSet.Entry<E>> topK(final MultiSet<E> multiset, final int k) {
+        Objects.requireNonNull(multiset, "multiset");
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        // a min-heap of the best entries so far, the weakest at its head
+        final PriorityQueue<MultiSet.Entry<E>> heap = new PriorityQueue<>(Math.min(k, 1024),
+                (a, b) -> Integer.compare(a.getCount(), b.getCount()));
+        for (final MultiSet.Entry<E> entry : multiset.entrySet()) {
+            final int count = entry.getCount();
+            if (count <= 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new CountSnapshot<>(entry.getElement(), count));
+            } else if (count > heap.peek().getCount()) {
+                heap.poll();
+                heap.add(new CountSnapshot<>(entry.getElement(), count));
+            }
+        }
+        final List<MultiSet.Entry<E>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
     /**
      * Returns a transformed multiset backed by the given multiset.
      * <p>
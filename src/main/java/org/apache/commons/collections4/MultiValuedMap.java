@@ -20,7 +20,9 @@ package org.apache.commons.collections4;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Defines a map that holds a collection of values against each key.
@@ -115,6 +117,27 @@ public interface MultiValuedMap<K, V> {
      * @return A set view of the mappings contained in this map.
      */
     Collection<Entry<K, V>> entries();
+
+    /**
+     * Performs the given action for each key-value mapping of this multivalued map, until all mappings have been processed or the action throws an
+     * exception.
+     * <p>
+     * The default implementation walks a {@link #mapIterator()}, so that no {@code Map.Entry} is created for the mappings. Implementations may override it
+     * to visit their storage directly.
+     * </p>
+     *
+     * @param action The action to perform for each mapping.
+     * @throws NullPointerException if the action is null.
+     * @since 4.6.1
+     */
+    default void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        final MapIterator<K, V> it = mapIterator();
+        while (it.hasNext()) {
+            final K key = it.next();
+            action.accept(key, it.getValue());
+        }
+    }
     // Modification operations
 
     /**
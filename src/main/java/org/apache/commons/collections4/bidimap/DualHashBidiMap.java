@@ -30,8 +30,8 @@ import org.apache.commons.collections4.BidiMap;
  * <p>
  * Two {@link HashMap} instances are used in this class.
  * This provides fast lookups at the expense of storing two sets of map entries.
- * Commons Collections would welcome the addition of a direct hash-based
- * implementation of the {@link BidiMap} interface.
+ * {@link HashBidiMap} is a direct hash-based implementation of the
+ * {@link BidiMap} interface, storing a single entry per mapping.
  * </p>
  * <p>
  * NOTE: From Commons Collections 3.1, all subclasses will use {@link HashMap}
@@ -0,0 +1,1040 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.KeyValue;
+import org.apache.commons.collections4.MapIterator;
+
+/**
+ * Hash-based implementation of {@link BidiMap} storing each mapping in a
+ * single node.
+ * <p>
+ * Every node is linked both into a hash table of the keys and into a hash
+ * table of the values, so that a key may look up its value and a value its key
+ * with a single hash lookup, without the second set of entries that
+ * {@link DualHashBidiMap} keeps in its reverse map. A put computes the hash
+ * codes of the key and value once, and creates at most one node.
+ * </p>
+ * <p>
+ * The inverse map returned by {@link #inverseBidiMap()} is created once, and
+ * reads the same nodes through the value table. Null keys and values are
+ * supported. The iteration order is not specified.
+ * </p>
+ * <p>
+ * The {@code setValue} methods of the entries and map iterators only allow a
+ * new value to be set: if the value is already mapped to another key, an
+ * {@code IllegalArgumentException} is thrown, as {@code setValue} cannot
+ * change the size of the map.
+ * </p>
+ * <p>
+ * <strong>Note that HashBidiMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. This class may throw exceptions when accessed
+ * by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public class HashBidiMap<K, V> extends AbstractMap<K, V> implements BidiMap<K, V>, Serializable {
+
+    /**
+     * The entry of the inverse map for a node.
+     */
+    final class InverseEntry implements Map.Entry<V, K>, KeyValue<V, K> {
+
+        private final Node node;
+
+        InverseEntry(final Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public V getKey() {
+            return node.value;
+        }
+
+        @Override
+        public K getValue() {
+            return node.key;
+        }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode();
+        }
+
+        @Override
+        public K setValue(final K key) {
+            return node.setKey(key);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * The inverse map implementation, reading the nodes through the value table.
+     */
+    final class Inverse extends AbstractMap<V, K> implements BidiMap<V, K> {
+
+        /** Store the keySet once created. */
+        private Set<V> inverseKeySet;
+
+        /** Store the values once created. */
+        private Set<K> inverseValuesSet;
+
+        /** Store the entrySet once created. */
+        private Set<Map.Entry<V, K>> inverseEntrySet;
+
+        @Override
+        public void clear() {
+            HashBidiMap.this.clear();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return HashBidiMap.this.containsValue(key);
+        }
+
+        @Override
+        public boolean containsValue(final Object value) {
+            return HashBidiMap.this.containsKey(value);
+        }
+
+        @Override
+        public Set<Map.Entry<V, K>> entrySet() {
+            if (inverseEntrySet == null) {
+                inverseEntrySet = new View<Map.Entry<V, K>>(true) {
+                    @Override
+                    public boolean contains(final Object obj) {
+                        if (!(obj instanceof Map.Entry)) {
+                            return false;
+                        }
+                        final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                        final Node node = lookupValue(entry.getKey());
+                        return node != null && Objects.equals(node.key, entry.getValue());
+                    }
+
+                    @Override
+                    Map.Entry<V, K> element(final Node node) {
+                        return new InverseEntry(node);
+                    }
+
+                    @Override
+                    public boolean remove(final Object obj) {
+                        if (!contains(obj)) {
+                            return false;
+                        }
+                        removeNode(lookupValue(((Map.Entry<?, ?>) obj).getKey()));
+                        return true;
+                    }
+                };
+            }
+            return inverseEntrySet;
+        }
+
+        @Override
+        public K get(final Object key) {
+            return HashBidiMap.this.getKey(key);
+        }
+
+        @Override
+        public V getKey(final Object value) {
+            return HashBidiMap.this.get(value);
+        }
+
+        @Override
+        public BidiMap<K, V> inverseBidiMap() {
+            return HashBidiMap.this;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return HashBidiMap.this.isEmpty();
+        }
+
+        @Override
+        public Set<V> keySet() {
+            if (inverseKeySet == null) {
+                inverseKeySet = new ValueView(true);
+            }
+            return inverseKeySet;
+        }
+
+        @Override
+        public MapIterator<V, K> mapIterator() {
+            return new InverseMapIterator();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K put(final V key, final K value) {
+            return (K) doPut(value, key, true);
+        }
+
+        @Override
+        public K remove(final Object key) {
+            return HashBidiMap.this.removeValue(key);
+        }
+
+        @Override
+        public V removeValue(final Object value) {
+            return HashBidiMap.this.remove(value);
+        }
+
+        @Override
+        public int size() {
+            return HashBidiMap.this.size();
+        }
+
+        @Override
+        public Set<K> values() {
+            if (inverseValuesSet == null) {
+                inverseValuesSet = new KeyView(true);
+            }
+            return inverseValuesSet;
+        }
+    }
+
+    /**
+     * The map iterator of the inverse map.
+     */
+    final class InverseMapIterator extends NodeIterator<V> implements MapIterator<V, K> {
+
+        InverseMapIterator() {
+            super(true);
+        }
+
+        @Override
+        V element(final Node node) {
+            return node.value;
+        }
+
+        @Override
+        public V getKey() {
+            return current().value;
+        }
+
+        @Override
+        public K getValue() {
+            return current().key;
+        }
+
+        @Override
+        public K setValue(final K value) {
+            return current().setKey(value);
+        }
+    }
+
+    /**
+     * The view of the keys, iterated through either table.
+     */
+    final class KeyView extends View<K> {
+
+        KeyView(final boolean inverse) {
+            super(inverse);
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return containsKey(obj);
+        }
+
+        @Override
+        K element(final Node node) {
+            return node.key;
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            final Node node = lookupKey(obj);
+            if (node == null) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
+    }
+
+    /**
+     * A mapping, linked into the chains of both tables.
+     */
+    final class Node implements Map.Entry<K, V>, KeyValue<K, V> {
+
+        private K key;
+        private V value;
+        private int keyHash;
+        private int valueHash;
+        /** The next node of the chain in the key table */
+        private Node nextKey;
+        /** The next node of the chain in the value table */
+        private Node nextValue;
+
+        Node(final K key, final int keyHash, final V value, final int valueHash) {
+            this.key = key;
+            this.keyHash = keyHash;
+            this.value = value;
+            this.valueHash = valueHash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        /**
+         * Changes the key of this mapping.
+         * <p>
+         * Once the mapping has been removed from the map, only this entry changes.
+         * </p>
+         *
+         * @param newKey  The new key
+         * @return The old key
+         * @throws IllegalArgumentException if the key is mapped to another value
+         */
+        K setKey(final K newKey) {
+            final int hash = hash(newKey);
+            if (lookupValue(value, valueHash) != this) {
+                final K oldKey = key;
+                key = newKey;
+                keyHash = hash;
+                return oldKey;
+            }
+            final Node node = lookupKey(newKey, hash);
+            if (node == this) {
+                return key;
+            }
+            if (node != null) {
+                throw new IllegalArgumentException("Cannot use setValue() when the object being set is already in the map");
+            }
+            final K oldKey = key;
+            unlinkKey(this);
+            key = newKey;
+            keyHash = hash;
+            linkKey(this);
+            keyModCount++;
+            return oldKey;
+        }
+
+        /**
+         * Changes the value of this mapping.
+         * <p>
+         * Once the mapping has been removed from the map, only this entry changes.
+         * </p>
+         *
+         * @param newValue  The new value
+         * @return The old value
+         * @throws IllegalArgumentException if the value is mapped to another key
+         */
+        @Override
+        public V setValue(final V newValue) {
+            final int hash = hash(newValue);
+            if (lookupKey(key, keyHash) != this) {
+                final V oldValue = value;
+                value = newValue;
+                valueHash = hash;
+                return oldValue;
+            }
+            final Node node = lookupValue(newValue, hash);
+            if (node == this) {
+                return value;
+            }
+            if (node != null) {
+                throw new IllegalArgumentException("Cannot use setValue() when the object being set is already in the map");
+            }
+            final V oldValue = value;
+            unlinkValue(this);
+            value = newValue;
+            valueHash = hash;
+            linkValue(this);
+            valueModCount++;
+            return oldValue;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Iterates over the nodes, along the chains of the key table, or of the
+     * value table for the views of the inverse map.
+     * <p>
+     * Changing the value of a node only moves it in the value table, and changing
+     * its key only in the key table, so that an iterator may change the mappings
+     * it returns. An iterator fails fast when the chains of the table it walks
+     * change in any other way.
+     * </p>
+     */
+    abstract class NodeIterator<E> implements Iterator<E> {
+
+        private final boolean inverse;
+        private final Node[] table;
+        private int index;
+        private Node next;
+        private Node last;
+        private int expectedModCount;
+
+        NodeIterator(final boolean inverse) {
+            this.inverse = inverse;
+            table = inverse ? valueTable : keyTable;
+            expectedModCount = modCount();
+            advance();
+        }
+
+        private void advance() {
+            while (next == null && index < table.length) {
+                next = table[index++];
+            }
+        }
+
+        Node current() {
+            if (last == null) {
+                throw new IllegalStateException("Iterator getKey(), getValue() and setValue() can only be called after next() and before remove()");
+            }
+            return last;
+        }
+
+        /**
+         * Gets the element for a node.
+         *
+         * @param node  The node
+         * @return The element
+         */
+        abstract E element(Node node);
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        private int modCount() {
+            return inverse ? valueModCount : keyModCount;
+        }
+
+        @Override
+        public E next() {
+            if (modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = inverse ? next.nextValue : next.nextKey;
+            advance();
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            if (modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeNode(last);
+            expectedModCount = modCount();
+            last = null;
+        }
+
+        @Override
+        public String toString() {
+            if (last != null) {
+                return "MapIterator[" + last.key + "=" + last.value + "]";
+            }
+            return "MapIterator[]";
+        }
+    }
+
+    /**
+     * The map iterator of the map.
+     */
+    final class ViewMapIterator extends NodeIterator<K> implements MapIterator<K, V> {
+
+        ViewMapIterator() {
+            super(false);
+        }
+
+        @Override
+        K element(final Node node) {
+            return node.key;
+        }
+
+        @Override
+        public K getKey() {
+            return current().key;
+        }
+
+        @Override
+        public V getValue() {
+            return current().value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            return current().setValue(value);
+        }
+    }
+
+    /**
+     * The view of the values, iterated through either table.
+     */
+    final class ValueView extends View<V> {
+
+        ValueView(final boolean inverse) {
+            super(inverse);
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return containsValue(obj);
+        }
+
+        @Override
+        V element(final Node node) {
+            return node.value;
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            final Node node = lookupValue(obj);
+            if (node == null) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
+    }
+
+    /**
+     * A view of the nodes.
+     */
+    abstract class View<E> extends AbstractSet<E> {
+
+        /** Whether the nodes are iterated through the value table */
+        private final boolean inverse;
+
+        View(final boolean inverse) {
+            this.inverse = inverse;
+        }
+
+        @Override
+        public void clear() {
+            HashBidiMap.this.clear();
+        }
+
+        /**
+         * Gets the element for a node.
+         *
+         * @param node  The node
+         * @return The element
+         */
+        abstract E element(Node node);
+
+        @Override
+        public Iterator<E> iterator() {
+            return new NodeIterator<E>(inverse) {
+                @Override
+                E element(final Node node) {
+                    return View.this.element(node);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return HashBidiMap.this.size();
+        }
+    }
+
+    /** Serialization Version */
+    private static final long serialVersionUID = 20261019L;
+
+    /**
+     * The initial table capacity used when none specified in constructor.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The largest table capacity.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor of the tables.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Spreads the hash code of an object, null having the hash code zero.
+     */
+    private static int hash(final Object obj) {
+        final int h = obj == null ? 0 : obj.hashCode();
+        return h ^ h >>> 16;
+    }
+
+    private static int tableCapacity(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must be a non negative number");
+        }
+        final int capacity = (int) Math.min((long) (initialCapacity / LOAD_FACTOR) + 1, MAXIMUM_CAPACITY);
+        return Math.max(Integer.highestOneBit(capacity - 1) << 1, 1);
+    }
+
+    /** The chains of the nodes by key hash */
+    private transient Node[] keyTable;
+
+    /** The chains of the nodes by value hash, of the same length as the key table */
+    private transient Node[] valueTable;
+
+    /** The number of mappings */
+    private transient int size;
+
+    /** The number of changes to the chains of the key table, for the iterators to fail fast */
+    private transient int keyModCount;
+
+    /** The number of changes to the chains of the value table, for the iterators to fail fast */
+    private transient int valueModCount;
+
+    /** Store the keySet once created. */
+    private transient Set<K> keySet;
+
+    /** Store the values once created. */
+    private transient Set<V> valuesSet;
+
+    /** Store the entrySet once created. */
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /** The inverse map, created once. */
+    private transient Inverse inverse;
+
+    /**
+     * Constructs an empty {@code HashBidiMap} with the default initial capacity (16).
+     */
+    public HashBidiMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@code HashBidiMap} able to hold the given number of
+     * mappings without growing.
+     *
+     * @param initialCapacity  The initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public HashBidiMap(final int initialCapacity) {
+        init(tableCapacity(initialCapacity));
+    }
+
+    /**
+     * Constructs a {@code HashBidiMap} and copies the mappings from
+     * specified {@code Map}.
+     *
+     * @param map  The map whose mappings are to be placed in this map
+     */
+    public HashBidiMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keyTable, null);
+            Arrays.fill(valueTable, null);
+            size = 0;
+            keyModCount++;
+            valueModCount++;
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return lookupKey(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return lookupValue(value) != null;
+    }
+
+    /**
+     * Maps a key to a value, removing any other mapping of either.
+     *
+     * @param key  The key
+     * @param value  The value
+     * @param byValue  Whether to return the previous key of the value rather than the previous value of the key
+     * @return The previous value of the key, or key of the value, null if none
+     */
+    private Object doPut(final K key, final V value, final boolean byValue) {
+        final int keyHash = hash(key);
+        final int valueHash = hash(value);
+        final Node keyNode = lookupKey(key, keyHash);
+        final Node valueNode = lookupValue(value, valueHash);
+        final Object previous;
+        if (byValue) {
+            previous = valueNode == null ? null : valueNode.key;
+        } else {
+            previous = keyNode == null ? null : keyNode.value;
+        }
+        if (keyNode != null && keyNode == valueNode) {
+            return previous;
+        }
+        // an existing node of the key or value is reused
+        if (keyNode != null) {
+            if (valueNode != null) {
+                removeNode(valueNode);
+            }
+            unlinkValue(keyNode);
+            keyNode.value = value;
+            keyNode.valueHash = valueHash;
+            linkValue(keyNode);
+            valueModCount++;
+        } else if (valueNode != null) {
+            unlinkKey(valueNode);
+            valueNode.key = key;
+            valueNode.keyHash = keyHash;
+            linkKey(valueNode);
+            keyModCount++;
+        } else {
+            final Node node = new Node(key, keyHash, value, valueHash);
+            linkKey(node);
+            linkValue(node);
+            size++;
+            keyModCount++;
+            valueModCount++;
+            if (size > keyTable.length * LOAD_FACTOR && keyTable.length < MAXIMUM_CAPACITY) {
+                resize(keyTable.length << 1);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new View<Map.Entry<K, V>>(false) {
+                @Override
+                public boolean contains(final Object obj) {
+                    if (!(obj instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                    final Node node = lookupKey(entry.getKey());
+                    return node != null && Objects.equals(node.value, entry.getValue());
+                }
+
+                @Override
+                Map.Entry<K, V> element(final Node node) {
+                    return node;
+                }
+
+                @Override
+                public boolean remove(final Object obj) {
+                    if (!contains(obj)) {
+                        return false;
+                    }
+                    removeNode(lookupKey(((Map.Entry<?, ?>) obj).getKey()));
+                    return true;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Node node = lookupKey(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public K getKey(final Object value) {
+        final Node node = lookupValue(value);
+        return node == null ? null : node.key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init(final int capacity) {
+        keyTable = new HashBidiMap.Node[capacity];
+        valueTable = new HashBidiMap.Node[capacity];
+    }
+
+    /**
+     * Gets the inverse map, a view of this map created once.
+     *
+     * @return The inverse map
+     */
+    @Override
+    public BidiMap<V, K> inverseBidiMap() {
+        if (inverse == null) {
+            inverse = new Inverse();
+        }
+        return inverse;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeyView(false);
+        }
+        return keySet;
+    }
+
+    private void linkKey(final Node node) {
+        final int index = node.keyHash & keyTable.length - 1;
+        node.nextKey = keyTable[index];
+        keyTable[index] = node;
+    }
+
+    private void linkValue(final Node node) {
+        final int index = node.valueHash & valueTable.length - 1;
+        node.nextValue = valueTable[index];
+        valueTable[index] = node;
+    }
+
+    private Node lookupKey(final Object key) {
+        return lookupKey(key, hash(key));
+    }
+
+    private Node lookupKey(final Object key, final int hash) {
+        for (Node node = keyTable[hash & keyTable.length - 1]; node != null; node = node.nextKey) {
+            if (node.keyHash == hash && Objects.equals(node.key, key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private Node lookupValue(final Object value) {
+        return lookupValue(value, hash(value));
+    }
+
+    private Node lookupValue(final Object value, final int hash) {
+        for (Node node = valueTable[hash & valueTable.length - 1]; node != null; node = node.nextValue) {
+            if (node.valueHash == hash && Objects.equals(node.value, value)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned iterator creates no object per mapping.
+     * </p>
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new ViewMapIterator();
+    }
+
+    /**
+     * Puts the key-value pair into the map, replacing any previous pair.
+     * <p>
+     * If the key is already mapped, its node is given the new value, and any
+     * other mapping of the value is removed.
+     * </p>
+     *
+     * @param key  The key to store
+     * @param value  The value to store
+     * @return The previous value mapped to the key
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        return (V) doPut(key, value, false);
+    }
+
+    /**
+     * Deserializes an instance from an ObjectInputStream.
+     *
+     * @param in The source ObjectInputStream.
+     * @throws IOException            Any of the usual Input/Output related exceptions.
+     * @throws ClassNotFoundException A class of a serialized object cannot be found.
+     */
+    @SuppressWarnings("unchecked") // will fail at runtime if stream is incorrect
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        init(tableCapacity(count));
+        for (int i = 0; i < count; i++) {
+            final K key = (K) in.readObject();
+            final V value = (V) in.readObject();
+            put(key, value);
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final Node node = lookupKey(key);
+        if (node == null) {
+            return null;
+        }
+        removeNode(node);
+        return node.value;
+    }
+
+    private void removeNode(final Node node) {
+        unlinkKey(node);
+        unlinkValue(node);
+        size--;
+        keyModCount++;
+        valueModCount++;
+    }
+
+    @Override
+    public K removeValue(final Object value) {
+        final Node node = lookupValue(value);
+        if (node == null) {
+            return null;
+        }
+        removeNode(node);
+        return node.key;
+    }
+
+    private void resize(final int capacity) {
+        final Node[] oldKeyTable = keyTable;
+        init(capacity);
+        // relinking along the key chains reaches every node once
+        for (Node head : oldKeyTable) {
+            while (head != null) {
+                final Node node = head;
+                head = head.nextKey;
+                linkKey(node);
+                linkValue(node);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void unlinkKey(final Node node) {
+        final int index = node.keyHash & keyTable.length - 1;
+        Node previous = keyTable[index];
+        if (previous == node) {
+            keyTable[index] = node.nextKey;
+        } else {
+            while (previous.nextKey != node) {
+                previous = previous.nextKey;
+            }
+            previous.nextKey = node.nextKey;
+        }
+    }
+
+    private void unlinkValue(final Node node) {
+        final int index = node.valueHash & valueTable.length - 1;
+        Node previous = valueTable[index];
+        if (previous == node) {
+            valueTable[index] = node.nextValue;
+        } else {
+            while (previous.nextValue != node) {
+                previous = previous.nextValue;
+            }
+            previous.nextValue = node.nextValue;
+        }
+    }
+
+    @Override
+    public Set<V> values() {
+        if (valuesSet == null) {
+            valuesSet = new ValueView(false);
+        }
+        return valuesSet;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (final MapIterator<K, V> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());
+            out.writeObject(it.getValue());
+        }
+    }
+
+}
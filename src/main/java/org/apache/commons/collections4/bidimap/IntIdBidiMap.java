@@ -0,0 +1,887 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+
+/**
+ * Implements {@link BidiMap} from keys to non-negative {@code int} ids, storing
+ * the ids in primitive arrays.
+ * <p>
+ * This map is meant for dictionary encodings, where ids are dense: the keys are
+ * stored in an array indexed by id, so that {@link #getKey(int)} is an array
+ * read, and found from a key through an open-addressing table of ids, so that
+ * {@link #getId(Object)} creates no object. The methods taking and returning
+ * {@code int} ids never box them; the {@code Map} and {@code BidiMap} methods
+ * are also supported, with {@code Integer} values.
+ * </p>
+ * <p>
+ * The memory used grows with the greatest id, rather than with the number of
+ * mappings. {@link #assignId(Object)} maps a new key to the id following the
+ * greatest one ever mapped, so that ids are not reused once removed. The
+ * mappings are iterated in ascending order of their ids.
+ * </p>
+ * <p>
+ * Null keys are not supported, and neither are the {@code setValue} methods of
+ * the entries and map iterators. Use {@link #put(Object, int)} to change the
+ * id of a key.
+ * </p>
+ * <p>
+ * <strong>Note that IntIdBidiMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. This class may throw exceptions when accessed
+ * by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @since 4.6.1
+ */
+public class IntIdBidiMap<K> extends AbstractMap<K, Integer> implements BidiMap<K, Integer>, Serializable {
+
+    /**
+     * Iterates over the ids in ascending order.
+     */
+    abstract class IdIterator<E> implements Iterator<E> {
+
+        private int next;
+        private int last = NO_ID;
+        private int expectedModCount = modCount;
+
+        IdIterator() {
+            next = nextMappedId(0);
+        }
+
+        int current() {
+            if (last == NO_ID) {
+                throw new IllegalStateException("Iterator getKey() and getValue() can only be called after next() and before remove()");
+            }
+            return last;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < nextId;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= nextId) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = nextMappedId(next + 1);
+            return next(last);
+        }
+
+        /**
+         * Gets the element for an id.
+         *
+         * @param id  The id
+         * @return The element
+         */
+        abstract E next(int id);
+
+        @Override
+        public void remove() {
+            if (last == NO_ID) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeId(last);
+            expectedModCount = modCount;
+            last = NO_ID;
+        }
+
+        @Override
+        public String toString() {
+            if (last != NO_ID) {
+                return "MapIterator[" + keys[last] + "=" + last + "]";
+            }
+            return "MapIterator[]";
+        }
+    }
+
+    /**
+     * The inverse map implementation, from ids to keys.
+     */
+    final class Inverse extends AbstractMap<Integer, K> implements BidiMap<Integer, K> {
+
+        /** Store the entrySet once created. */
+        private Set<Map.Entry<Integer, K>> inverseEntrySet;
+
+        @Override
+        public void clear() {
+            IntIdBidiMap.this.clear();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return IntIdBidiMap.this.containsValue(key);
+        }
+
+        @Override
+        public boolean containsValue(final Object value) {
+            return IntIdBidiMap.this.containsKey(value);
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, K>> entrySet() {
+            if (inverseEntrySet == null) {
+                inverseEntrySet = new View<Map.Entry<Integer, K>>() {
+                    @Override
+                    public boolean contains(final Object obj) {
+                        if (!(obj instanceof Map.Entry)) {
+                            return false;
+                        }
+                        final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                        return entry.getKey() instanceof Integer && entry.getValue() != null
+                            && entry.getValue().equals(IntIdBidiMap.this.getKey(((Integer) entry.getKey()).intValue()));
+                    }
+
+                    @Override
+                    Map.Entry<Integer, K> element(final int id) {
+                        return new UnmodifiableMapEntry<>(Integer.valueOf(id), key(id));
+                    }
+
+                    @Override
+                    public boolean remove(final Object obj) {
+                        if (!contains(obj)) {
+                            return false;
+                        }
+                        removeId(((Integer) ((Map.Entry<?, ?>) obj).getKey()).intValue());
+                        return true;
+                    }
+                };
+            }
+            return inverseEntrySet;
+        }
+
+        @Override
+        public K get(final Object key) {
+            return IntIdBidiMap.this.getKey(key);
+        }
+
+        @Override
+        public Integer getKey(final Object value) {
+            return IntIdBidiMap.this.get(value);
+        }
+
+        @Override
+        public BidiMap<K, Integer> inverseBidiMap() {
+            return IntIdBidiMap.this;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            return IntIdBidiMap.this.values();
+        }
+
+        @Override
+        public MapIterator<Integer, K> mapIterator() {
+            return new InverseMapIterator();
+        }
+
+        @Override
+        public K put(final Integer key, final K value) {
+            final int id = checkId(Objects.requireNonNull(key, "key").intValue());
+            final K old = IntIdBidiMap.this.getKey(id);
+            IntIdBidiMap.this.put(value, id);
+            return old;
+        }
+
+        @Override
+        public K remove(final Object key) {
+            return IntIdBidiMap.this.removeValue(key);
+        }
+
+        @Override
+        public Integer removeValue(final Object value) {
+            return IntIdBidiMap.this.remove(value);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<K> values() {
+            return IntIdBidiMap.this.keySet();
+        }
+    }
+
+    /**
+     * The map iterator of the inverse map.
+     */
+    final class InverseMapIterator extends IdIterator<Integer> implements MapIterator<Integer, K> {
+
+        @Override
+        public Integer getKey() {
+            return Integer.valueOf(current());
+        }
+
+        @Override
+        public K getValue() {
+            return key(current());
+        }
+
+        @Override
+        Integer next(final int id) {
+            return Integer.valueOf(id);
+        }
+
+        @Override
+        public K setValue(final K value) {
+            throw new UnsupportedOperationException("setValue() is not supported");
+        }
+    }
+
+    /**
+     * The map iterator of the map.
+     */
+    final class KeyMapIterator extends IdIterator<K> implements MapIterator<K, Integer> {
+
+        @Override
+        public K getKey() {
+            return key(current());
+        }
+
+        @Override
+        public Integer getValue() {
+            return Integer.valueOf(current());
+        }
+
+        @Override
+        K next(final int id) {
+            return key(id);
+        }
+
+        @Override
+        public Integer setValue(final Integer value) {
+            throw new UnsupportedOperationException("setValue() is not supported");
+        }
+    }
+
+    /**
+     * A view of the mappings, in ascending order of their ids.
+     */
+    abstract class View<E> extends AbstractSet<E> {
+
+        @Override
+        public void clear() {
+            IntIdBidiMap.this.clear();
+        }
+
+        /**
+         * Gets the element for an id.
+         *
+         * @param id  The id
+         * @return The element
+         */
+        abstract E element(int id);
+
+        @Override
+        public Iterator<E> iterator() {
+            return new IdIterator<E>() {
+                @Override
+                E next(final int id) {
+                    return element(id);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The value standing for no id.
+     */
+    public static final int NO_ID = -1;
+
+    /** Serialization Version */
+    private static final long serialVersionUID = 20261019L;
+
+    /**
+     * The initial capacity used when none specified in constructor.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static int checkId(final int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must be a non negative number: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Spreads the hash code of a key.
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * Gets a table length, a power of two leaving at least a third of the slots
+     * empty for the given number of ids.
+     */
+    private static int tableLength(final int count) {
+        return Math.max(Integer.highestOneBit(Math.max(count * 3 / 2, 1)) << 1, 2);
+    }
+
+    /** The key of each id, null for an unmapped id */
+    private transient Object[] keys;
+
+    /** The spread hash code of the key of each id */
+    private transient int[] hashes;
+
+    /** The id plus one of the key in each slot, zero for an empty slot, probed linearly */
+    private transient int[] table;
+
+    /** The number of mappings */
+    private transient int size;
+
+    /** One past the greatest id mapped since the last clear */
+    private transient int nextId;
+
+    /** The number of modifications, for the iterators to fail fast */
+    private transient int modCount;
+
+    /** Store the keySet once created. */
+    private transient Set<K> keySet;
+
+    /** Store the values once created. */
+    private transient Set<Integer> valuesSet;
+
+    /** Store the entrySet once created. */
+    private transient Set<Map.Entry<K, Integer>> entrySet;
+
+    /** The inverse map, created once. */
+    private transient Inverse inverse;
+
+    /**
+     * Constructs an empty {@code IntIdBidiMap} with the default initial capacity (16).
+     */
+    public IntIdBidiMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@code IntIdBidiMap} able to hold the ids from zero to
+     * the given capacity without growing.
+     *
+     * @param initialCapacity  The initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntIdBidiMap(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must be a non negative number");
+        }
+        keys = new Object[initialCapacity];
+        hashes = new int[initialCapacity];
+        table = new int[tableLength(initialCapacity)];
+    }
+
+    /**
+     * Constructs an {@code IntIdBidiMap} and copies the mappings from
+     * specified {@code Map}.
+     *
+     * @param map  The map whose mappings are to be placed in this map
+     * @throws NullPointerException if the map contains a null key or value
+     * @throws IllegalArgumentException if the map contains a negative value
+     */
+    public IntIdBidiMap(final Map<? extends K, ? extends Integer> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Gets the id of a key, mapping the key to the id following the greatest
+     * one ever mapped if it has none.
+     *
+     * @param key  The key, may not be null
+     * @return The id of the key
+     * @throws NullPointerException if the key is null
+     */
+    public int assignId(final K key) {
+        Objects.requireNonNull(key, "key");
+        final int hash = hash(key);
+        final int slot = slotOf(key, hash);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        final int id = nextId;
+        add(key, hash, id, slot);
+        return id;
+    }
+
+    /**
+     * Maps a key to a free id, in the given empty slot of the table.
+     */
+    private void add(final K key, final int hash, final int id, final int slot) {
+        ensureCapacity(id);
+        keys[id] = key;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        size++;
+        nextId = Math.max(nextId, id + 1);
+        modCount++;
+        if (size * 3L > table.length * 2L) {
+            rehash(table.length << 1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0, nextId, null);
+            Arrays.fill(table, 0);
+            size = 0;
+            modCount++;
+        }
+        nextId = 0;
+    }
+
+    /**
+     * Tests whether an id is mapped.
+     *
+     * @param id  The id
+     * @return true if a key is mapped to the id
+     */
+    public boolean containsId(final int id) {
+        return id >= 0 && id < nextId && keys[id] != null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return getId(key) != NO_ID;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return value instanceof Integer && containsId(((Integer) value).intValue());
+    }
+
+    /**
+     * Grows the arrays indexed by id to hold an id.
+     */
+    private void ensureCapacity(final int id) {
+        if (id >= keys.length) {
+            final int length = (int) Math.min(Math.max(id + 1L, keys.length * 3L / 2 + 1), Integer.MAX_VALUE - 8);
+            keys = Arrays.copyOf(keys, length);
+            hashes = Arrays.copyOf(hashes, length);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, Integer>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new View<Map.Entry<K, Integer>>() {
+                @Override
+                public boolean contains(final Object obj) {
+                    if (!(obj instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                    if (!(entry.getValue() instanceof Integer)) {
+                        return false;
+                    }
+                    final int id = getId(entry.getKey());
+                    return id != NO_ID && id == ((Integer) entry.getValue()).intValue();
+                }
+
+                @Override
+                Map.Entry<K, Integer> element(final int id) {
+                    return new UnmodifiableMapEntry<>(key(id), Integer.valueOf(id));
+                }
+
+                @Override
+                public boolean remove(final Object obj) {
+                    if (!contains(obj)) {
+                        return false;
+                    }
+                    removeId(((Integer) ((Map.Entry<?, ?>) obj).getValue()).intValue());
+                    return true;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Performs the given action for each key and its id, in ascending order of
+     * the ids, without boxing them.
+     *
+     * @param action  The action to perform for each mapping
+     * @throws NullPointerException if the action is null
+     */
+    public void forEachId(final ObjIntConsumer<? super K> action) {
+        Objects.requireNonNull(action, "action");
+        final int expectedModCount = modCount;
+        for (int id = nextMappedId(0); id < nextId; id = nextMappedId(id + 1)) {
+            action.accept(key(id), id);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Integer get(final Object key) {
+        final int id = getId(key);
+        return id == NO_ID ? null : Integer.valueOf(id);
+    }
+
+    /**
+     * Gets the id of a key.
+     *
+     * @param key  The key
+     * @return The id of the key, {@link #NO_ID} if not mapped
+     */
+    public int getId(final Object key) {
+        if (key == null) {
+            return NO_ID;
+        }
+        return table[slotOf(key, hash(key))] - 1;
+    }
+
+    /**
+     * Gets the key of an id, reading it from an array.
+     *
+     * @param id  The id
+     * @return The key of the id, null if not mapped
+     */
+    public K getKey(final int id) {
+        return id >= 0 && id < nextId ? key(id) : null;
+    }
+
+    @Override
+    public K getKey(final Object value) {
+        return value instanceof Integer ? getKey(((Integer) value).intValue()) : null;
+    }
+
+    /**
+     * Gets the inverse map, a view of this map created once.
+     *
+     * @return The inverse map
+     */
+    @Override
+    public BidiMap<Integer, K> inverseBidiMap() {
+        if (inverse == null) {
+            inverse = new Inverse();
+        }
+        return inverse;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(final int id) {
+        return (K) keys[id];
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new View<K>() {
+                @Override
+                public boolean contains(final Object obj) {
+                    return containsKey(obj);
+                }
+
+                @Override
+                K element(final int id) {
+                    return key(id);
+                }
+
+                @Override
+                public boolean remove(final Object obj) {
+                    return removeKey(obj) != NO_ID;
+                }
+            };
+        }
+        return keySet;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned iterator goes through the ids in ascending order; it does not
+     * support {@code setValue}.
+     * </p>
+     */
+    @Override
+    public MapIterator<K, Integer> mapIterator() {
+        return new KeyMapIterator();
+    }
+
+    /**
+     * Gets the first mapped id from an id on.
+     */
+    private int nextMappedId(final int from) {
+        int id = from;
+        while (id < nextId && keys[id] == null) {
+            id++;
+        }
+        return id;
+    }
+
+    /**
+     * Maps a key to an id, replacing the previous id of the key and the
+     * previous key of the id.
+     *
+     * @param key  The key, may not be null
+     * @param id  The id, may not be negative
+     * @return The previous id of the key, {@link #NO_ID} if none
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the id is negative
+     */
+    public int put(final K key, final int id) {
+        Objects.requireNonNull(key, "key");
+        checkId(id);
+        final int hash = hash(key);
+        final K previousKey = getKey(id);
+        if (previousKey != null) {
+            if (hashes[id] == hash && previousKey.equals(key)) {
+                return id;
+            }
+            removeId(id);
+        }
+        final int slot = slotOf(key, hash);
+        if (table[slot] == 0) {
+            add(key, hash, id, slot);
+            return NO_ID;
+        }
+        final int previousId = table[slot] - 1;
+        keys[previousId] = null;
+        ensureCapacity(id);
+        keys[id] = key;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        nextId = Math.max(nextId, id + 1);
+        modCount++;
+        return previousId;
+    }
+
+    /**
+     * Puts the key-value pair into the map, replacing any previous pair.
+     *
+     * @param key  The key to store, may not be null
+     * @param value  The id to store, may not be null or negative
+     * @return The previous id mapped to this key
+     * @throws NullPointerException if the key or value is null
+     * @throws IllegalArgumentException if the value is negative
+     */
+    @Override
+    public Integer put(final K key, final Integer value) {
+        final int previous = put(key, Objects.requireNonNull(value, "value").intValue());
+        return previous == NO_ID ? null : Integer.valueOf(previous);
+    }
+
+    /**
+     * Deserializes an instance from an ObjectInputStream.
+     *
+     * @param in The source ObjectInputStream.
+     * @throws IOException            Any of the usual Input/Output related exceptions.
+     * @throws ClassNotFoundException A class of a serialized object cannot be found.
+     */
+    @SuppressWarnings("unchecked") // will fail at runtime if stream is incorrect
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        final int length = in.readInt();
+        keys = new Object[length];
+        hashes = new int[length];
+        table = new int[tableLength(count)];
+        for (int i = 0; i < count; i++) {
+            final K key = (K) in.readObject();
+            put(key, in.readInt());
+        }
+    }
+
+    /**
+     * Rebuilds the table with the given length.
+     */
+    private void rehash(final int length) {
+        table = new int[length];
+        final int mask = length - 1;
+        for (int id = 0; id < nextId; id++) {
+            if (keys[id] != null) {
+                int slot = hashes[id] & mask;
+                while (table[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                table[slot] = id + 1;
+            }
+        }
+    }
+
+    @Override
+    public Integer remove(final Object key) {
+        final int id = removeKey(key);
+        return id == NO_ID ? null : Integer.valueOf(id);
+    }
+
+    /**
+     * Removes the mapping of an id.
+     *
+     * @param id  The id
+     * @return The key which was mapped to the id, null if none
+     */
+    public K removeId(final int id) {
+        final K key = getKey(id);
+        if (key != null) {
+            removeSlot(slotOf(key, hashes[id]));
+            keys[id] = null;
+            size--;
+            modCount++;
+        }
+        return key;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key  The key
+     * @return The id which was mapped to the key, {@link #NO_ID} if none
+     */
+    public int removeKey(final Object key) {
+        final int id = getId(key);
+        if (id != NO_ID) {
+            removeId(id);
+        }
+        return id;
+    }
+
+    /**
+     * Empties a slot of the table, moving back the following ids of the probe
+     * sequence which would no longer be found.
+     */
+    private void removeSlot(final int slot) {
+        final int mask = table.length - 1;
+        int hole = slot;
+        table[hole] = 0;
+        for (int i = slot + 1 & mask; table[i] != 0; i = i + 1 & mask) {
+            final int home = hashes[table[i] - 1] & mask;
+            // move the id if the hole is between its home slot and its slot
+            if ((i - home & mask) >= (i - hole & mask)) {
+                table[hole] = table[i];
+                table[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    @Override
+    public K removeValue(final Object value) {
+        return value instanceof Integer ? removeId(((Integer) value).intValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot of a key, or the empty slot ending its probe sequence.
+     */
+    private int slotOf(final Object key, final int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (hashes[entry - 1] == hash && key.equals(keys[entry - 1])) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    public Set<Integer> values() {
+        if (valuesSet == null) {
+            valuesSet = new View<Integer>() {
+                @Override
+                public boolean contains(final Object obj) {
+                    return containsValue(obj);
+                }
+
+                @Override
+                Integer element(final int id) {
+                    return Integer.valueOf(id);
+                }
+
+                @Override
+                public boolean remove(final Object obj) {
+                    return removeValue(obj) != null;
+                }
+            };
+        }
+        return valuesSet;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        out.writeInt(nextId);
+        for (int id = nextMappedId(0); id < nextId; id = nextMappedId(id + 1)) {
+            out.writeObject(keys[id]);
+            out.writeInt(id);
+        }
+    }
+
+}
@@ -24,18 +24,21 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.commons.collections4.KeyValue;
 import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.OrderedBidiMap;
 import org.apache.commons.collections4.OrderedIterator;
+import org.apache.commons.collections4.OrderedMap;
 import org.apache.commons.collections4.OrderedMapIterator;
 import org.apache.commons.collections4.iterators.EmptyOrderedMapIterator;
 import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
@@ -74,6 +77,11 @@ import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
  * required by two TreeMaps.
  * </p>
  * <p>
+ * Each node also counts the nodes below it in both trees, so the position of a
+ * key or value and the key or value at a position are found in logarithmic time,
+ * see {@link #indexOfKey(Object)} and {@link #getKeyAt(int)}.
+ * </p>
+ * <p>
  * The Map.Entry instances returned by the appropriate methods will
  * not allow setValue() and will throw an
  * UnsupportedOperationException on attempts to call that method.
@@ -576,6 +584,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         private final Node<K, V>[] rightNode;
         private final Node<K, V>[] parentNode;
         private final boolean[] blackColor;
+        private final int[] subtreeSize;
         private int hashCodeValue;
         private boolean calculatedHashCode;
 
@@ -594,6 +603,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             rightNode = new Node[2];
             parentNode = new Node[2];
             blackColor = new boolean[] { true, true };
+            subtreeSize = new int[] { 1, 1 };
             calculatedHashCode = false;
         }
 
@@ -701,6 +711,17 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             return blackColor[dataElement.ordinal()];
         }
 
+        /**
+         * Gets the number of nodes in the subtree rooted at this node.
+         *
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         * @return the number of nodes, including this one
+         */
+        private int getSubtreeSize(final DataElement dataElement) {
+            return subtreeSize[dataElement.ordinal()];
+        }
+
         private boolean isLeftChild(final DataElement dataElement) {
             return parentNode[dataElement.ordinal()] != null
                     && parentNode[dataElement.ordinal()].leftNode[dataElement.ordinal()] == this;
@@ -761,6 +782,10 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             rightNode[dataElement.ordinal()] = node;
         }
 
+        private void setSubtreeSize(final int size, final DataElement dataElement) {
+            subtreeSize[dataElement.ordinal()] = size;
+        }
+
         /**
          * Optional operation that is not permitted in this implementation.
          *
@@ -786,6 +811,20 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             node.blackColor[dataElement.ordinal()] ^= blackColor[dataElement.ordinal()];
             blackColor[dataElement.ordinal()]      ^= node.blackColor[dataElement.ordinal()];
         }
+
+        /**
+         * Exchanges subtree sizes with another node, as they belong to the
+         * position in the tree rather than to the node.
+         *
+         * @param node  The node to swap with
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         */
+        private void swapSubtreeSizes(final Node<K, V> node, final DataElement dataElement) {
+            final int size = subtreeSize[dataElement.ordinal()];
+            subtreeSize[dataElement.ordinal()] = node.subtreeSize[dataElement.ordinal()];
+            node.subtreeSize[dataElement.ordinal()] = size;
+        }
     }
 
     final class ValueView extends AbstractView<V> {
@@ -1008,6 +1047,47 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         }
     }
 
+    /**
+     * Computes the depth at which a balanced tree built from sorted nodes has
+     * its red nodes, as in {@link TreeMap}. This is the deepest level when it
+     * is incomplete, and below all nodes otherwise.
+     *
+     * @param size  the number of nodes
+     * @return the depth of the red nodes
+     */
+    private static int redLevel(final int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Gets the number of nodes in a subtree, handling null.
+     *
+     * @param node  the root of the subtree, may be null
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the number of nodes, zero if node is null
+     */
+    private static int subtreeSize(final Node<?, ?> node, final DataElement dataElement) {
+        return node == null ? 0 : node.getSubtreeSize(dataElement);
+    }
+
+    /**
+     * Recomputes the subtree size of a node from its children.
+     *
+     * @param node  the node to update
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     */
+    private static void updateSubtreeSize(final Node<?, ?> node, final DataElement dataElement) {
+        node.setSubtreeSize(
+            subtreeSize(node.getLeft(dataElement), dataElement) + subtreeSize(node.getRight(dataElement), dataElement) + 1,
+            dataElement);
+    }
+
     private transient Node<K, V>[] rootNode;
 
     private transient int nodeCount;
@@ -1032,6 +1112,11 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
     /**
      * Constructs a new TreeBidiMap by copying an existing Map.
+     * <p>
+     * If the map is a {@link SortedMap} or an {@link OrderedMap} iterating in ascending
+     * key order, such as another TreeBidiMap, both trees are built directly in linear
+     * time, plus the time to sort the values unless they ascend as well.
+     * </p>
      *
      * @param map  The map to copy
      * @throws ClassCastException if the keys/values in the map are
@@ -1043,6 +1128,73 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         putAll(map);
     }
 
+    /**
+     * Builds both trees of this empty map from nodes in strictly ascending
+     * key order, without any comparison or rebalancing in the key tree.
+     *
+     * @param nodes  the new nodes, in ascending key order
+     * @return false, leaving this map empty, if two nodes have equal values
+     */
+    private boolean buildFromSorted(final Node<K, V>[] nodes) {
+        Node<K, V>[] valueOrder = nodes;
+        for (int i = 1; i < nodes.length; i++) {
+            if (compare(nodes[i - 1].getValue(), nodes[i].getValue()) >= 0) {
+                valueOrder = nodes.clone();
+                Arrays.sort(valueOrder, (a, b) -> compare(a.getValue(), b.getValue()));
+                for (int j = 1; j < valueOrder.length; j++) {
+                    if (compare(valueOrder[j - 1].getValue(), valueOrder[j].getValue()) == 0) {
+                        return false;
+                    }
+                }
+                break;
+            }
+        }
+        final int redLevel = redLevel(nodes.length);
+        rootNode[KEY.ordinal()] = buildTree(nodes, 0, nodes.length - 1, 0, redLevel, KEY);
+        rootNode[VALUE.ordinal()] = buildTree(valueOrder, 0, nodes.length - 1, 0, redLevel, VALUE);
+        nodeCount = nodes.length;
+        modify();
+        return true;
+    }
+
+    /**
+     * Links a sorted range of nodes into a balanced subtree, as in
+     * {@link TreeMap}. All levels are black except the deepest one when
+     * it is incomplete, which is red.
+     *
+     * @param nodes  the nodes in ascending order
+     * @param lo  the first index of the range
+     * @param hi  the last index of the range
+     * @param level  the depth of the subtree root
+     * @param redLevel  the depth of the red nodes
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the root of the subtree, null if the range is empty
+     */
+    private Node<K, V> buildTree(final Node<K, V>[] nodes, final int lo, final int hi, final int level,
+            final int redLevel, final DataElement dataElement) {
+        if (hi < lo) {
+            return null;
+        }
+        final int mid = lo + hi >>> 1;
+        final Node<K, V> node = nodes[mid];
+        final Node<K, V> left = buildTree(nodes, lo, mid - 1, level + 1, redLevel, dataElement);
+        final Node<K, V> right = buildTree(nodes, mid + 1, hi, level + 1, redLevel, dataElement);
+        node.setLeft(left, dataElement);
+        node.setRight(right, dataElement);
+        if (left != null) {
+            left.setParent(node, dataElement);
+        }
+        if (right != null) {
+            right.setParent(node, dataElement);
+        }
+        if (level == redLevel) {
+            node.setRed(dataElement);
+        }
+        node.setSubtreeSize(hi - lo + 1, dataElement);
+        return node;
+    }
+
     /**
      * Removes all mappings from this map.
      */
@@ -1199,6 +1351,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                         insertValue(newNode);
                         node.setLeft(newNode, KEY);
                         newNode.setParent(node, KEY);
+                        growAncestors(newNode, KEY);
                         doRedBlackInsert(newNode, KEY);
                         grow();
 
@@ -1212,6 +1365,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                         insertValue(newNode);
                         node.setRight(newNode, KEY);
                         newNode.setParent(node, KEY);
+                        growAncestors(newNode, KEY);
                         doRedBlackInsert(newNode, KEY);
                         grow();
 
@@ -1236,6 +1390,12 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             if (deletedNode.getLeft(dataElement) != null && deletedNode.getRight(dataElement) != null) {
                 swapPosition(nextGreater(deletedNode, dataElement), deletedNode, dataElement);
             }
+            // the node no longer counts, even while the fixup below still links it
+            deletedNode.setSubtreeSize(0, dataElement);
+            for (Node<K, V> ancestor = deletedNode.getParent(dataElement); ancestor != null;
+                    ancestor = ancestor.getParent(dataElement)) {
+                ancestor.setSubtreeSize(ancestor.getSubtreeSize(dataElement) - 1, dataElement);
+            }
             final Node<K, V> replacement = deletedNode.getLeft(dataElement) != null ? deletedNode.getLeft(dataElement) : deletedNode.getRight(dataElement);
             if (replacement != null) {
                 replacement.setParent(deletedNode.getParent(dataElement), dataElement);
@@ -1371,7 +1531,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         while (currentNode != null
             && currentNode != rootNode[dataElement.ordinal()]
             && isRed(currentNode.getParent(dataElement), dataElement)) {
-            if (currentNode.isLeftChild(dataElement)) {
+            if (getParent(currentNode, dataElement).isLeftChild(dataElement)) {
                 final Node<K, V> y = getRightChild(getGrandParent(currentNode, dataElement), dataElement);
 
                 if (isRed(y, dataElement)) {
@@ -1381,7 +1541,6 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
                     currentNode = getGrandParent(currentNode, dataElement);
                 } else {
-                    //dead code?
                     if (currentNode.isRightChild(dataElement)) {
                         currentNode = getParent(currentNode, dataElement);
 
@@ -1407,7 +1566,6 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
                     currentNode = getGrandParent(currentNode, dataElement);
                 } else {
-                    //dead code?
                     if (currentNode.isLeftChild(dataElement)) {
                         currentNode = getParent(currentNode, dataElement);
 
@@ -1574,6 +1732,21 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return node == null ? null : node.getKey();
     }
 
+    /**
+     * Gets the key at the specified position in key order.
+     * <p>
+     * This takes logarithmic time.
+     * </p>
+     *
+     * @param index  the index of the key, from zero
+     * @return the key at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @since 4.6.1
+     */
+    public K getKeyAt(final int index) {
+        return nodeAt(index, KEY).getKey();
+    }
+
     /**
      * Gets a node's left child. mind you, the node may not exist. no
      * problem.
@@ -1621,6 +1794,21 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return node == null ? null : node.getRight(dataElement);
     }
 
+    /**
+     * Gets the value at the specified position in value order.
+     * <p>
+     * This takes logarithmic time.
+     * </p>
+     *
+     * @param index  the index of the value, from zero
+     * @return the value at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @since 4.6.1
+     */
+    public V getValueAt(final int index) {
+        return nodeAt(index, VALUE).getValue();
+    }
+
     /**
      * Finds the greatest node from a given node.
      *
@@ -1639,6 +1827,20 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return rval;
     }
 
+    /**
+     * Counts a newly linked leaf in the subtree sizes of all its ancestors.
+     *
+     * @param newNode  the node just linked into the tree
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     */
+    private void growAncestors(final Node<K, V> newNode, final DataElement dataElement) {
+        for (Node<K, V> ancestor = newNode.getParent(dataElement); ancestor != null;
+                ancestor = ancestor.getParent(dataElement)) {
+            ancestor.setSubtreeSize(ancestor.getSubtreeSize(dataElement) + 1, dataElement);
+        }
+    }
+
     /**
      * Bumps up the size and note that the map has changed.
      */
@@ -1657,6 +1859,62 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return this.doHashCode(KEY);
     }
 
+    /**
+     * Gets the position of a node in the specified order.
+     *
+     * @param node  the node, may be null
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the number of nodes before it, or -1 if node is null
+     */
+    private int indexOf(final Node<K, V> node, final DataElement dataElement) {
+        if (node == null) {
+            return -1;
+        }
+        int index = subtreeSize(node.getLeft(dataElement), dataElement);
+        for (Node<K, V> child = node, parent = node.getParent(dataElement); parent != null;
+                child = parent, parent = parent.getParent(dataElement)) {
+            if (child == parent.getRight(dataElement)) {
+                index += subtreeSize(parent.getLeft(dataElement), dataElement) + 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the position of the specified key in key order.
+     * <p>
+     * This takes logarithmic time.
+     * </p>
+     *
+     * @param key  the key to find
+     * @return the index of the key, or -1 if not present
+     * @throws ClassCastException if the key is of an inappropriate type
+     * @throws NullPointerException if the key is null
+     * @since 4.6.1
+     */
+    public int indexOfKey(final Object key) {
+        checkKey(key);
+        return indexOf(lookupKey(key), KEY);
+    }
+
+    /**
+     * Gets the position of the specified value in value order.
+     * <p>
+     * This takes logarithmic time.
+     * </p>
+     *
+     * @param value  the value to find
+     * @return the index of the value, or -1 if not present
+     * @throws ClassCastException if the value is of an inappropriate type
+     * @throws NullPointerException if the value is null
+     * @since 4.6.1
+     */
+    public int indexOfValue(final Object value) {
+        checkValue(value);
+        return indexOf(lookupValue(value), VALUE);
+    }
+
     /**
      * Inserts a node by its value.
      *
@@ -1678,6 +1936,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                 if (node.getLeft(VALUE) == null) {
                     node.setLeft(newNode, VALUE);
                     newNode.setParent(node, VALUE);
+                    growAncestors(newNode, VALUE);
                     doRedBlackInsert(newNode, VALUE);
 
                     break;
@@ -1687,6 +1946,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                 if (node.getRight(VALUE) == null) {
                     node.setRight(newNode, VALUE);
                     newNode.setParent(node, VALUE);
+                    growAncestors(newNode, VALUE);
                     doRedBlackInsert(newNode, VALUE);
 
                     break;
@@ -1908,6 +2168,34 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return rval;
     }
 
+    /**
+     * Finds the node at the specified position in the specified order.
+     *
+     * @param index  the index, from zero
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the node at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private Node<K, V> nodeAt(final int index, final DataElement dataElement) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " is invalid for size " + nodeCount);
+        }
+        Node<K, V> node = rootNode[dataElement.ordinal()];
+        int remaining = index;
+        while (true) {
+            final int leftSize = subtreeSize(node.getLeft(dataElement), dataElement);
+            if (remaining < leftSize) {
+                node = node.getLeft(dataElement);
+            } else if (remaining == leftSize) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.getRight(dataElement);
+            }
+        }
+    }
+
     /**
      * Gets the previous key before the one specified.
      * <p>
@@ -1958,16 +2246,46 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      * Puts all the mappings from the specified map into this map.
      * <p>
      * All keys and values must implement {@code Comparable}.
+     * <p>
+     * When this map is empty and the specified map is a {@link SortedMap} or an
+     * {@link OrderedMap} iterating in ascending key order, the trees are built
+     * directly from the sorted mappings instead of by repeated insertion.
+     * </p>
      *
      * @param map  The map to copy from
      */
     @Override
     public void putAll(final Map<? extends K, ? extends V> map) {
+        if (nodeCount == 0 && (map instanceof SortedMap || map instanceof OrderedMap) && putAllSorted(map)) {
+            return;
+        }
         for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
             put(e.getKey(), e.getValue());
         }
     }
 
+    /**
+     * Builds this empty map from a map iterating in ascending key order.
+     *
+     * @param map  The map to copy from
+     * @return false, leaving this map empty, if the keys do not ascend or the values are not unique
+     */
+    @SuppressWarnings("unchecked")
+    private boolean putAllSorted(final Map<? extends K, ? extends V> map) {
+        final Node<K, V>[] nodes = new Node[map.size()];
+        int count = 0;
+        for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            final K key = e.getKey();
+            final V value = e.getValue();
+            checkKeyAndValue(key, value);
+            if (count == nodes.length || count > 0 && compare(nodes[count - 1].getKey(), key) >= 0) {
+                return false;
+            }
+            nodes[count++] = new Node<>(key, value);
+        }
+        return count == nodes.length && buildFromSorted(nodes);
+    }
+
     /**
      * Deserializes the content of the stream.
      *
@@ -1980,10 +2298,20 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         stream.defaultReadObject();
         rootNode = new Node[2];
         final int size = stream.readInt();
+        // mappings are written in key order, so the trees can usually be built directly
+        final Node<K, V>[] nodes = new Node[Math.max(size, 0)];
+        boolean ascending = true;
         for (int i = 0; i < size; i++) {
             final K k = (K) stream.readObject();
             final V v = (V) stream.readObject();
-            put(k, v);
+            checkKeyAndValue(k, v);
+            ascending = ascending && (i == 0 || compare(nodes[i - 1].getKey(), k) < 0);
+            nodes[i] = new Node<>(k, v);
+        }
+        if (!ascending || !buildFromSorted(nodes)) {
+            for (final Node<K, V> node : nodes) {
+                doPut(node.getKey(), node.getValue());
+            }
         }
     }
 
@@ -2046,6 +2374,9 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
         rightChild.setLeft(node, dataElement);
         node.setParent(rightChild, dataElement);
+
+        rightChild.setSubtreeSize(node.getSubtreeSize(dataElement), dataElement);
+        updateSubtreeSize(node, dataElement);
     }
 
     /**
@@ -2074,6 +2405,9 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
         leftChild.setRight(node, dataElement);
         node.setParent(leftChild, dataElement);
+
+        leftChild.setSubtreeSize(node.getSubtreeSize(dataElement), dataElement);
+        updateSubtreeSize(node, dataElement);
     }
 
     /**
@@ -2185,6 +2519,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         }
 
         x.swapColors(y, dataElement);
+        x.swapSubtreeSizes(y, dataElement);
 
         // Check if root changed
         if (rootNode[dataElement.ordinal()] == x) {
@@ -30,6 +30,8 @@
  *   <li>DualHashBidiMap - uses two HashMaps to implement BidiMap</li>
  *   <li>DualLinkedHashBidiMap - uses two LinkedHashMaps to implement BidiMap</li>
  *   <li>DualTreeBidiMap - uses two TreeMaps to implement SortedBidiMap</li>
+ *   <li>HashBidiMap - hash tables of keys and values sharing one node per mapping</li>
+ *   <li>IntIdBidiMap - maps keys to dense int ids held in primitive arrays</li>
  *   <li>TreeBidiMap - red-black tree implementation of OrderedBidiMap</li>
  * </ul>
  * <p>
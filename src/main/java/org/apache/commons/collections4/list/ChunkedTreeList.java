@@ -0,0 +1,855 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@code List} implementation that is optimized for fast insertions and
+ * removals at any index in the list, while storing its elements in arrays.
+ * <p>
+ * This list implementation is a B+-tree whose leaves are chunks holding up to
+ * {@value #CHUNK_CAPACITY} consecutive elements in an array, and whose branches
+ * know the number of elements below each of their children. All insertions,
+ * removals and positional accesses are O(log n), like {@link TreeList}, but the
+ * tree is only a few levels deep, and iteration walks the chunks in order as it
+ * would walk an {@code ArrayList}.
+ * </p>
+ * <p>
+ * {@code TreeList} uses one node object per element. This list uses one array
+ * slot per element plus one chunk per several dozen elements, which is close
+ * to the memory use of an {@code ArrayList}, and it is the better choice for
+ * large lists that are iterated or indexed more than they are changed in the
+ * middle.
+ * </p>
+ * <p>
+ * Note that this list is not synchronized and is not serializable.
+ * </p>
+ *
+ * @param <E> The type of the elements in the list.
+ * @since 4.6.1
+ */
+public class ChunkedTreeList<E> extends AbstractList<E> {
+
+    /**
+     * A branch of the tree, holding the chunks or branches one level down.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    static final class Branch<E> extends Node<E> {
+
+        /** The children, all at the same depth. */
+        private final Node<E>[] children;
+
+        /** The number of elements below each child, kept next to each other for the scans. */
+        private final int[] sizes;
+
+        /** The number of children in use. */
+        private int childCount;
+
+        @SuppressWarnings("unchecked")
+        Branch() {
+            children = new Node[BRANCH_CAPACITY];
+            sizes = new int[BRANCH_CAPACITY];
+        }
+
+        @Override
+        void absorb(final Node<E> node) {
+            final Branch<E> right = (Branch<E>) node;
+            System.arraycopy(right.children, 0, children, childCount, right.childCount);
+            System.arraycopy(right.sizes, 0, sizes, childCount, right.childCount);
+            childCount += right.childCount;
+            size += right.size;
+        }
+
+        /**
+         * Adds a child, splitting this branch when it is full.
+         *
+         * @param index  the index of the new child
+         * @param child  the new child
+         * @return the new right sibling of this branch, or null if it did not split
+         */
+        private Branch<E> addChild(final int index, final Node<E> child) {
+            if (childCount < BRANCH_CAPACITY) {
+                System.arraycopy(children, index, children, index + 1, childCount - index);
+                System.arraycopy(sizes, index, sizes, index + 1, childCount - index);
+                children[index] = child;
+                sizes[index] = child.size;
+                childCount++;
+                return null;
+            }
+            final Branch<E> sibling = new Branch<>();
+            final int keep = childCount / 2;
+            sibling.childCount = childCount - keep;
+            System.arraycopy(children, keep, sibling.children, 0, sibling.childCount);
+            System.arraycopy(sizes, keep, sibling.sizes, 0, sibling.childCount);
+            Arrays.fill(children, keep, childCount, null);
+            childCount = keep;
+            if (index <= keep) {
+                addChild(index, child);
+            } else {
+                sibling.addChild(index - keep, child);
+            }
+            sibling.size = sibling.sumSizes();
+            size = sumSizes();
+            return sibling;
+        }
+
+        @Override
+        void balance(final Node<E> node) {
+            final Branch<E> right = (Branch<E>) node;
+            final int total = childCount + right.childCount;
+            final int keep = total / 2;
+            if (childCount > keep) {
+                final int move = childCount - keep;
+                System.arraycopy(right.children, 0, right.children, move, right.childCount);
+                System.arraycopy(right.sizes, 0, right.sizes, move, right.childCount);
+                System.arraycopy(children, keep, right.children, 0, move);
+                System.arraycopy(sizes, keep, right.sizes, 0, move);
+                Arrays.fill(children, keep, childCount, null);
+            } else {
+                final int move = keep - childCount;
+                System.arraycopy(right.children, 0, children, childCount, move);
+                System.arraycopy(right.sizes, 0, sizes, childCount, move);
+                System.arraycopy(right.children, move, right.children, 0, right.childCount - move);
+                System.arraycopy(right.sizes, move, right.sizes, 0, right.childCount - move);
+                Arrays.fill(right.children, right.childCount - move, right.childCount, null);
+            }
+            childCount = keep;
+            right.childCount = total - keep;
+            size = sumSizes();
+            right.size = right.sumSizes();
+        }
+
+        @Override
+        E get(final int index) {
+            int offset = index;
+            int i = 0;
+            while (offset >= sizes[i]) {
+                offset -= sizes[i++];
+            }
+            return children[i].get(offset);
+        }
+
+        @Override
+        Node<E> insert(final int index, final E element) {
+            int offset = index;
+            int i = 0;
+            // an index at the end of a child appends to that child
+            while (i < childCount - 1 && offset > sizes[i]) {
+                offset -= sizes[i++];
+            }
+            final Node<E> split = children[i].insert(offset, element);
+            size++;
+            sizes[i] = children[i].size;
+            return split == null ? null : addChild(i + 1, split);
+        }
+
+        @Override
+        boolean isUnderfull() {
+            return childCount < BRANCH_CAPACITY / 2;
+        }
+
+        @Override
+        E remove(final int index) {
+            int offset = index;
+            int i = 0;
+            while (offset >= sizes[i]) {
+                offset -= sizes[i++];
+            }
+            final Node<E> child = children[i];
+            final E removed = child.remove(offset);
+            size--;
+            sizes[i]--;
+            if (child.isUnderfull() && childCount > 1) {
+                final int left = i > 0 ? i - 1 : i;
+                final Node<E> leftChild = children[left];
+                final Node<E> rightChild = children[left + 1];
+                if (leftChild.width() + rightChild.width() <= leftChild.capacity()) {
+                    leftChild.absorb(rightChild);
+                    System.arraycopy(children, left + 2, children, left + 1, childCount - left - 2);
+                    System.arraycopy(sizes, left + 2, sizes, left + 1, childCount - left - 2);
+                    children[--childCount] = null;
+                } else {
+                    leftChild.balance(rightChild);
+                    sizes[left + 1] = rightChild.size;
+                }
+                sizes[left] = leftChild.size;
+            }
+            return removed;
+        }
+
+        @Override
+        E set(final int index, final E element) {
+            int offset = index;
+            int i = 0;
+            while (offset >= sizes[i]) {
+                offset -= sizes[i++];
+            }
+            return children[i].set(offset, element);
+        }
+
+        private int sumSizes() {
+            int sum = 0;
+            for (int i = 0; i < childCount; i++) {
+                sum += sizes[i];
+            }
+            return sum;
+        }
+
+        @Override
+        int capacity() {
+            return BRANCH_CAPACITY;
+        }
+
+        @Override
+        int width() {
+            return childCount;
+        }
+    }
+
+    /**
+     * A leaf of the tree, holding consecutive elements of the list.
+     * Chunks are linked in list order for iteration.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    static final class Chunk<E> extends Node<E> {
+
+        /** The elements, followed by unused slots. */
+        private Object[] elements;
+
+        /** The chunk holding the elements before this one, null if first. */
+        private Chunk<E> previous;
+
+        /** The chunk holding the elements after this one, null if last. */
+        private Chunk<E> next;
+
+        Chunk(final int capacity) {
+            elements = new Object[capacity];
+        }
+
+        @Override
+        void absorb(final Node<E> node) {
+            final Chunk<E> right = (Chunk<E>) node;
+            ensureCapacity(size + right.size);
+            System.arraycopy(right.elements, 0, elements, size, right.size);
+            size += right.size;
+            next = right.next;
+            if (next != null) {
+                next.previous = this;
+            }
+        }
+
+        @Override
+        void balance(final Node<E> node) {
+            final Chunk<E> right = (Chunk<E>) node;
+            final int total = size + right.size;
+            final int keep = total / 2;
+            if (size > keep) {
+                final int move = size - keep;
+                right.ensureCapacity(right.size + move);
+                System.arraycopy(right.elements, 0, right.elements, move, right.size);
+                System.arraycopy(elements, keep, right.elements, 0, move);
+                Arrays.fill(elements, keep, size, null);
+            } else {
+                final int move = keep - size;
+                ensureCapacity(keep);
+                System.arraycopy(right.elements, 0, elements, size, move);
+                System.arraycopy(right.elements, move, right.elements, 0, right.size - move);
+                Arrays.fill(right.elements, right.size - move, right.size, null);
+            }
+            size = keep;
+            right.size = total - keep;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > elements.length) {
+                elements = Arrays.copyOf(elements, Math.min(Math.max(capacity, elements.length * 2), CHUNK_CAPACITY));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        E get(final int index) {
+            return (E) elements[index];
+        }
+
+        @Override
+        Node<E> insert(final int index, final E element) {
+            if (size < CHUNK_CAPACITY) {
+                insertAt(index, element);
+                return null;
+            }
+            // appending to the last chunk leaves it full, so that lists built by add() are packed
+            final int keep = index == size && next == null ? size : size / 2;
+            final Chunk<E> sibling = new Chunk<>(CHUNK_CAPACITY);
+            System.arraycopy(elements, keep, sibling.elements, 0, size - keep);
+            Arrays.fill(elements, keep, size, null);
+            sibling.size = size - keep;
+            size = keep;
+            sibling.previous = this;
+            sibling.next = next;
+            if (next != null) {
+                next.previous = sibling;
+            }
+            next = sibling;
+            if (index < keep) {
+                insertAt(index, element);
+            } else {
+                sibling.insertAt(index - keep, element);
+            }
+            return sibling;
+        }
+
+        private void insertAt(final int index, final E element) {
+            ensureCapacity(size + 1);
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+            elements[index] = element;
+            size++;
+        }
+
+        @Override
+        boolean isUnderfull() {
+            return size < CHUNK_CAPACITY / 2;
+        }
+
+        @Override
+        E remove(final int index) {
+            final E removed = get(index);
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            elements[--size] = null;
+            return removed;
+        }
+
+        @Override
+        E set(final int index, final E element) {
+            final E previousElement = get(index);
+            elements[index] = element;
+            return previousElement;
+        }
+
+        @Override
+        int capacity() {
+            return CHUNK_CAPACITY;
+        }
+
+        @Override
+        int width() {
+            return size;
+        }
+    }
+
+    /**
+     * A list iterator over a ChunkedTreeList, walking the chunks in order.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    static class ChunkedTreeListIterator<E> implements ListIterator<E> {
+
+        /** The parent list */
+        private final ChunkedTreeList<E> parent;
+
+        /**
+         * The chunk holding the next element, or the one before it,
+         * null when it has to be looked up again from {@link #nextIndex}.
+         */
+        private Chunk<E> chunk;
+
+        /** The offset of the next element in {@link #chunk}. */
+        private int offset;
+
+        /** The index of the next element to be returned. */
+        private int nextIndex;
+
+        /** The chunk holding the last element returned, null if none. */
+        private Chunk<E> lastChunk;
+
+        /** The offset of the last element returned in {@link #lastChunk}. */
+        private int lastOffset;
+
+        /** The index of the last element returned, -1 if none. */
+        private int lastIndex;
+
+        /**
+         * The modification count that the list is expected to have. If the list
+         * doesn't have this count, then a
+         * {@link ConcurrentModificationException} may be thrown by
+         * the operations.
+         */
+        private int expectedModCount;
+
+        /**
+         * Create a ListIterator for a list.
+         *
+         * @param parent  The parent list
+         * @param fromIndex  The index to start at
+         */
+        ChunkedTreeListIterator(final ChunkedTreeList<E> parent, final int fromIndex) {
+            checkInterval(fromIndex, 0, parent.size(), parent.size());
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+            this.nextIndex = fromIndex;
+            this.lastIndex = -1;
+        }
+
+        @Override
+        public void add(final E obj) {
+            checkModCount();
+            parent.add(nextIndex++, obj);
+            forget();
+        }
+
+        /**
+         * Checks the modification count of the list is the value that this
+         * object expects.
+         *
+         * @throws ConcurrentModificationException If the list's modification
+         * count isn't the value that was expected.
+         */
+        private void checkModCount() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        /**
+         * Drops the cached chunks after a structural change made by this iterator.
+         */
+        private void forget() {
+            chunk = null;
+            lastChunk = null;
+            lastIndex = -1;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            checkModCount();
+            if (!hasNext()) {
+                throw new NoSuchElementException("No element at index " + nextIndex + ".");
+            }
+            if (chunk == null) {
+                seek();
+            }
+            while (offset == chunk.size) {
+                chunk = chunk.next;
+                offset = 0;
+            }
+            lastChunk = chunk;
+            lastOffset = offset++;
+            lastIndex = nextIndex++;
+            return (E) chunk.elements[lastOffset];
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E previous() {
+            checkModCount();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException("Already at start of list.");
+            }
+            if (chunk == null) {
+                seek();
+            }
+            while (offset == 0) {
+                chunk = chunk.previous;
+                offset = chunk.size;
+            }
+            lastChunk = chunk;
+            lastOffset = --offset;
+            lastIndex = --nextIndex;
+            return (E) chunk.elements[lastOffset];
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkModCount();
+            if (lastIndex == -1) {
+                throw new IllegalStateException();
+            }
+            parent.remove(lastIndex);
+            if (nextIndex != lastIndex) {
+                // remove() following next()
+                nextIndex--;
+            }
+            forget();
+        }
+
+        /**
+         * Looks up the chunk and offset of {@link #nextIndex} from the root.
+         */
+        private void seek() {
+            Node<E> node = parent.root;
+            int position = nextIndex;
+            while (node instanceof Branch) {
+                final Branch<E> branch = (Branch<E>) node;
+                int i = 0;
+                while (i < branch.childCount - 1 && position >= branch.sizes[i]) {
+                    position -= branch.sizes[i++];
+                }
+                node = branch.children[i];
+            }
+            chunk = (Chunk<E>) node;
+            offset = position;
+        }
+
+        @Override
+        public void set(final E obj) {
+            checkModCount();
+            if (lastChunk == null) {
+                throw new IllegalStateException();
+            }
+            lastChunk.elements[lastOffset] = obj;
+        }
+    }
+
+    /**
+     * A node of the tree, knowing the number of elements below it.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    abstract static class Node<E> {
+
+        /** The number of elements in this subtree. */
+        int size;
+
+        /**
+         * Moves all the entries of the next node at the same depth into this one.
+         *
+         * @param right  the next node, whose entries fit in this one
+         */
+        abstract void absorb(Node<E> right);
+
+        /**
+         * Moves entries between this node and the next one at the same depth
+         * so that both have about the same number.
+         *
+         * @param right  the next node
+         */
+        abstract void balance(Node<E> right);
+
+        /**
+         * Gets the maximum number of entries of this node.
+         *
+         * @return the capacity of this node
+         */
+        abstract int capacity();
+
+        abstract E get(int index);
+
+        /**
+         * Inserts an element, splitting this node when it is full.
+         *
+         * @param index  the index of the element in this subtree
+         * @param element  the element to insert
+         * @return the new right sibling of this node, or null if it did not split
+         */
+        abstract Node<E> insert(int index, E element);
+
+        /**
+         * Tests whether this node should be merged or balanced with a neighbor.
+         *
+         * @return whether less than half of the capacity is used
+         */
+        abstract boolean isUnderfull();
+
+        abstract E remove(int index);
+
+        abstract E set(int index, E element);
+
+        /**
+         * Gets the number of entries of this node, elements or children.
+         *
+         * @return the number of entries
+         */
+        abstract int width();
+    }
+
+    /** The maximum number of elements in a chunk. */
+    static final int CHUNK_CAPACITY = 64;
+
+    /** The maximum number of children of a branch. */
+    static final int BRANCH_CAPACITY = 32;
+
+    /** The initial capacity of the chunk of a new list. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  The index to check.
+     * @param startIndex  The first allowed index.
+     * @param endIndex  The last allowed index.
+     * @param size  The size.
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private static void checkInterval(final int index, final int startIndex, final int endIndex, final int size) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size);
+        }
+    }
+
+    /**
+     * Splits a number of entries as evenly as possible into groups.
+     *
+     * @param total  The number of entries
+     * @param groups  The number of groups
+     * @param group  The index of the group
+     * @return The index of the first entry of the group
+     */
+    private static int groupStart(final int total, final int groups, final int group) {
+        return (int) ((long) total * group / groups);
+    }
+
+    /** The root of the tree, a single chunk for small lists. */
+    private Node<E> root;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public ChunkedTreeList() {
+        root = new Chunk<>(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection.
+     * <p>
+     * This runs in linear time, building the tree directly with full chunks.
+     * </p>
+     *
+     * @param coll  The collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public ChunkedTreeList(final Collection<? extends E> coll) {
+        final Object[] array = coll.toArray();
+        if (array.length == 0) {
+            root = new Chunk<>(INITIAL_CAPACITY);
+            return;
+        }
+        final int chunkCount = (array.length + CHUNK_CAPACITY - 1) / CHUNK_CAPACITY;
+        List<Node<E>> level = new ArrayList<>(chunkCount);
+        Chunk<E> previous = null;
+        for (int i = 0; i < chunkCount; i++) {
+            final int from = groupStart(array.length, chunkCount, i);
+            final Chunk<E> chunk = new Chunk<>(CHUNK_CAPACITY);
+            chunk.size = groupStart(array.length, chunkCount, i + 1) - from;
+            System.arraycopy(array, from, chunk.elements, 0, chunk.size);
+            chunk.previous = previous;
+            if (previous != null) {
+                previous.next = chunk;
+            }
+            previous = chunk;
+            level.add(chunk);
+        }
+        while (level.size() > 1) {
+            final int branchCount = (level.size() + BRANCH_CAPACITY - 1) / BRANCH_CAPACITY;
+            final List<Node<E>> branches = new ArrayList<>(branchCount);
+            for (int i = 0; i < branchCount; i++) {
+                final Branch<E> branch = new Branch<>();
+                final int end = groupStart(level.size(), branchCount, i + 1);
+                for (int j = groupStart(level.size(), branchCount, i); j < end; j++) {
+                    final Node<E> child = level.get(j);
+                    branch.children[branch.childCount] = child;
+                    branch.sizes[branch.childCount++] = child.size;
+                    branch.size += child.size;
+                }
+                branches.add(branch);
+            }
+            level = branches;
+        }
+        root = level.get(0);
+    }
+
+    /**
+     * Adds a new element to the list.
+     *
+     * @param index  The index to add before
+     * @param obj  The element to add
+     */
+    @Override
+    public void add(final int index, final E obj) {
+        checkInterval(index, 0, size());
+        modCount++;
+        final Node<E> split = root.insert(index, obj);
+        if (split != null) {
+            final Branch<E> branch = new Branch<>();
+            branch.children[0] = root;
+            branch.sizes[0] = root.size;
+            branch.children[1] = split;
+            branch.sizes[1] = split.size;
+            branch.childCount = 2;
+            branch.size = root.size + split.size;
+            root = branch;
+        }
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  The index to check
+     * @param startIndex  The first allowed index
+     * @param endIndex  The last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        checkInterval(index, startIndex, endIndex, size());
+    }
+
+    /**
+     * Clears the list, removing all entries.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        root = new Chunk<>(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  The index to retrieve
+     * @return The element at the specified index
+     */
+    @Override
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1);
+        return root.get(index);
+    }
+
+    /**
+     * Gets an iterator over the list.
+     *
+     * @return An iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @return The new iterator
+     */
+    @Override
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @param fromIndex  The index to start from.
+     * @return The new iterator.
+     */
+    @Override
+    public ListIterator<E> listIterator(final int fromIndex) {
+        return new ChunkedTreeListIterator<>(this, fromIndex);
+    }
+
+    /**
+     * Removes the element at the specified index.
+     *
+     * @param index  The index to remove
+     * @return The previous object at that index
+     */
+    @Override
+    public E remove(final int index) {
+        checkInterval(index, 0, size() - 1);
+        modCount++;
+        final E result = root.remove(index);
+        while (root instanceof Branch && ((Branch<E>) root).childCount == 1) {
+            root = ((Branch<E>) root).children[0];
+        }
+        return result;
+    }
+
+    /**
+     * Sets the element at the specified index.
+     *
+     * @param index  The index to set
+     * @param obj  The object to store at the specified index
+     * @return The previous object at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E set(final int index, final E obj) {
+        checkInterval(index, 0, size() - 1);
+        return root.set(index, obj);
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return The current size
+     */
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * Converts the list into an array, copying a chunk at a time.
+     *
+     * @return The list as an array
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] array = new Object[size()];
+        Node<E> node = root;
+        while (node instanceof Branch) {
+            node = ((Branch<E>) node).children[0];
+        }
+        int index = 0;
+        for (Chunk<E> chunk = (Chunk<E>) node; chunk != null; chunk = chunk.next) {
+            System.arraycopy(chunk.elements, 0, array, index, chunk.size);
+            index += chunk.size;
+        }
+        return array;
+    }
+
+}
@@ -0,0 +1,567 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.commons.collections4.Unmodifiable;
+
+/**
+ * An immutable {@code List} whose changes produce new versions of the list,
+ * sharing most of their structure with the original.
+ * <p>
+ * Like {@link TreeList}, this list is an AVL tree in which each node knows
+ * the size of its subtree. Nodes are never modified: changing a list copies
+ * only the path from the root to the changed element, and returns the new
+ * version while the original stays as it was. A snapshot is the list itself,
+ * so keeping any number of versions, for example for undo, costs O(1) each
+ * beyond the O(log n) nodes that every change copies.
+ * </p>
+ * <p>
+ * {@link #with(int, Object)}, {@link #insert(int, Object)} and
+ * {@link #delete(int)} make new versions in O(log n) time.
+ * {@link #concat(PersistentTreeList)} and {@link #subList(int, int)} join and
+ * split lists in O(log n) time as well, whatever their sizes.
+ * </p>
+ * <p>
+ * The {@code List} methods that would change this list throw
+ * {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <E> The type of the elements in the list.
+ * @since 4.6.1
+ */
+public class PersistentTreeList<E> extends AbstractList<E> implements Unmodifiable {
+
+    /**
+     * An immutable AVL node.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    static final class Node<E> {
+
+        private final E value;
+        private final Node<E> left;
+        private final Node<E> right;
+
+        /** The number of elements in this subtree. */
+        private final int size;
+
+        /** The height of this subtree, one for a leaf. */
+        private final int height;
+
+        Node(final E value, final Node<E> left, final Node<E> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /**
+     * Iterates over the nodes in order, keeping the path to the next one.
+     *
+     * @param <E> the type of the elements in the list.
+     */
+    private static final class NodeIterator<E> implements Iterator<E> {
+
+        /** The nodes whose values and right subtrees are still to be visited. */
+        private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+        NodeIterator(final Node<E> root) {
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            final Node<E> node = stack.pop();
+            pushLeft(node.right);
+            return node.value;
+        }
+
+        private void pushLeft(final Node<E> root) {
+            for (Node<E> node = root; node != null; node = node.left) {
+                stack.push(node);
+            }
+        }
+    }
+
+    /**
+     * Makes a node from AVL subtrees whose heights differ by up to two,
+     * rotating once or twice as needed.
+     *
+     * @param <E> the type of the elements in the list.
+     * @param value  The value of the node
+     * @param left  The left subtree, may be null
+     * @param right  The right subtree, may be null
+     * @return The balanced subtree
+     */
+    private static <E> Node<E> balance(final E value, final Node<E> left, final Node<E> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            return new Node<>(left.right.value, new Node<>(left.value, left.left, left.right.left),
+                    new Node<>(value, left.right.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            return new Node<>(right.left.value, new Node<>(value, left, right.left.left),
+                    new Node<>(right.value, right.left.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+
+    /**
+     * Builds a perfectly balanced tree from a range of an array.
+     *
+     * @param <E> the type of the elements in the list.
+     * @param array  The elements
+     * @param from  The first index, inclusive
+     * @param to  The last index, exclusive
+     * @return The root of the tree, null if the range is empty
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(final Object[] array, final int from, final int to) {
+        if (from >= to) {
+            return null;
+        }
+        final int mid = from + to >>> 1;
+        return new Node<>((E) array[mid], build(array, from, mid), build(array, mid + 1, to));
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  The index to check.
+     * @param startIndex  The first allowed index.
+     * @param endIndex  The last allowed index.
+     * @param size  The size.
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private static void checkInterval(final int index, final int startIndex, final int endIndex, final int size) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size);
+        }
+    }
+
+    private static <E> Node<E> delete(final Node<E> node, final int index) {
+        final int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node.value, delete(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.value, node.left, delete(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        return balance(get(node.right, 0), node.left, delete(node.right, 0));
+    }
+
+    /**
+     * Removes the first elements of a tree.
+     *
+     * @param <E> the type of the elements in the list.
+     * @param node  The root of the tree, may be null
+     * @param count  The number of elements to remove
+     * @return The root of the remaining tree, may be null
+     */
+    private static <E> Node<E> drop(final Node<E> node, final int count) {
+        if (count == 0) {
+            return node;
+        }
+        if (count == node.size) {
+            return null;
+        }
+        final int leftSize = size(node.left);
+        if (count > leftSize) {
+            return drop(node.right, count - leftSize - 1);
+        }
+        return join(drop(node.left, count), node.value, node.right);
+    }
+
+    private static <E> E get(final Node<E> root, final int index) {
+        Node<E> node = root;
+        int offset = index;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (offset < leftSize) {
+                node = node.left;
+            } else if (offset == leftSize) {
+                return node.value;
+            } else {
+                offset -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <E> Node<E> insert(final Node<E> node, final int index, final E element) {
+        if (node == null) {
+            return new Node<>(element, null, null);
+        }
+        final int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node.value, insert(node.left, index, element), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - leftSize - 1, element));
+    }
+
+    /**
+     * Joins two trees with a value between them, in time proportional to
+     * the difference of their heights.
+     *
+     * @param <E> the type of the elements in the list.
+     * @param left  The tree of the elements before the value, may be null
+     * @param value  The value
+     * @param right  The tree of the elements after the value, may be null
+     * @return The root of the joined tree
+     */
+    private static <E> Node<E> join(final Node<E> left, final E value, final Node<E> right) {
+        if (height(left) > height(right) + 1) {
+            return balance(left.value, left.left, join(left.right, value, right));
+        }
+        if (height(right) > height(left) + 1) {
+            return balance(right.value, join(left, value, right.left), right.right);
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static <E> Node<E> set(final Node<E> node, final int index, final E element) {
+        final int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(node.value, set(node.left, index, element), node.right);
+        }
+        if (index > leftSize) {
+            return new Node<>(node.value, node.left, set(node.right, index - leftSize - 1, element));
+        }
+        return new Node<>(element, node.left, node.right);
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Keeps the first elements of a tree.
+     *
+     * @param <E> the type of the elements in the list.
+     * @param node  The root of the tree, may be null
+     * @param count  The number of elements to keep
+     * @return The root of the kept tree, may be null
+     */
+    private static <E> Node<E> take(final Node<E> node, final int count) {
+        if (count == 0) {
+            return null;
+        }
+        if (count == node.size) {
+            return node;
+        }
+        final int leftSize = size(node.left);
+        if (count <= leftSize) {
+            return take(node.left, count);
+        }
+        return join(node.left, node.value, take(node.right, count - leftSize - 1));
+    }
+
+    private static <E> void toArray(final Node<E> node, final Object[] array, final int from) {
+        if (node != null) {
+            toArray(node.left, array, from);
+            array[from + size(node.left)] = node.value;
+            toArray(node.right, array, from + size(node.left) + 1);
+        }
+    }
+
+    /** The root of the tree, null if empty. */
+    private final Node<E> root;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public PersistentTreeList() {
+        this((Node<E>) null);
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection, in linear time.
+     *
+     * @param coll  The collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public PersistentTreeList(final Collection<? extends E> coll) {
+        final Object[] array = coll.toArray();
+        root = build(array, 0, array.length);
+    }
+
+    private PersistentTreeList(final Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param coll Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param index Ignored.
+     * @param coll Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets a list with the specified element appended.
+     *
+     * @param element  The element to append
+     * @return The new list
+     */
+    public PersistentTreeList<E> append(final E element) {
+        return insert(size(), element);
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets a list with the elements of this list followed by those of the
+     * specified list. This takes O(log n) time and shares the nodes of both.
+     *
+     * @param other  The list to append
+     * @return The new list
+     * @throws NullPointerException if the list is null
+     */
+    public PersistentTreeList<E> concat(final PersistentTreeList<E> other) {
+        Objects.requireNonNull(other, "other");
+        if (other.root == null) {
+            return this;
+        }
+        if (root == null) {
+            return other;
+        }
+        return new PersistentTreeList<>(join(root, get(other.root, 0), drop(other.root, 1)));
+    }
+
+    /**
+     * Gets a list without the element at the specified index.
+     *
+     * @param index  The index to remove
+     * @return The new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> delete(final int index) {
+        checkInterval(index, 0, size() - 1, size());
+        return new PersistentTreeList<>(delete(root, index));
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        forEach(root, action);
+    }
+
+    private void forEach(final Node<E> node, final Consumer<? super E> action) {
+        if (node != null) {
+            forEach(node.left, action);
+            action.accept(node.value);
+            forEach(node.right, action);
+        }
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  The index to retrieve
+     * @return The element at the specified index
+     */
+    @Override
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1, size());
+        return get(root, index);
+    }
+
+    /**
+     * Gets a list with the specified element inserted.
+     *
+     * @param index  The index to insert before
+     * @param element  The element to insert
+     * @return The new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> insert(final int index, final E element) {
+        checkInterval(index, 0, size(), size());
+        return new PersistentTreeList<>(insert(root, index, element));
+    }
+
+    /**
+     * Gets an iterator over the list.
+     *
+     * @return An iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new NodeIterator<>(root);
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param object Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean remove(final Object object) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param coll Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param filter Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param coll Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean retainAll(final Collection<?> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return The current size
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets the elements between the specified indexes as a list of its own.
+     * This takes O(log n) time and shares the nodes of this list, so it also
+     * splits this list.
+     *
+     * @param fromIndex  The first index, inclusive
+     * @param toIndex  The last index, exclusive
+     * @return The new list
+     * @throws IndexOutOfBoundsException if an index is out of range
+     * @throws IllegalArgumentException if fromIndex is greater than toIndex
+     */
+    @Override
+    public PersistentTreeList<E> subList(final int fromIndex, final int toIndex) {
+        checkInterval(fromIndex, 0, size(), size());
+        checkInterval(toIndex, 0, size(), size());
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        }
+        if (fromIndex == 0 && toIndex == size()) {
+            return this;
+        }
+        return new PersistentTreeList<>(drop(take(root, toIndex), fromIndex));
+    }
+
+    /**
+     * Converts the list into an array.
+     *
+     * @return The list as an array
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] array = new Object[size()];
+        toArray(root, array, 0);
+        return array;
+    }
+
+    /**
+     * Gets a list with the element at the specified index replaced.
+     *
+     * @param index  The index to set
+     * @param element  The element to store at the specified index
+     * @return The new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> with(final int index, final E element) {
+        checkInterval(index, 0, size() - 1, size());
+        return new PersistentTreeList<>(set(root, index, element));
+    }
+
+}
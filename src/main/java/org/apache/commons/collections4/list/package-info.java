@@ -21,6 +21,8 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>TreeList - a list that is optimized for insertions and removals at any index in the list</li>
+ *   <li>ChunkedTreeList - a list that is optimized for insertions and removals at any index, storing elements in arrays</li>
+ *   <li>PersistentTreeList - an immutable list whose changes return new versions sharing most of their nodes</li>
  *   <li>CursorableLinkedList - a list that can be modified while the listIterator (cursor) is being used</li>
  *   <li>NodeCachingLinkedList - a linked list that caches the storage nodes for a performance gain</li>
  * </ul>
@@ -436,6 +436,16 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
             return result;
         }
 
+        @Override
+        public boolean removeAll(final Collection<?> coll) {
+            return parent.removeAll(coll);
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> coll) {
+            return parent.retainAll(coll);
+        }
+
         @Override
         public int size() {
             return parent.size();
@@ -1253,6 +1263,40 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return Objects.equals(key1, key2);
     }
 
+    /**
+     * Checks whether this map converts, hashes and compares keys with the
+     * implementations of {@link #convertKey(Object)}, {@link #hash(Object)} and
+     * {@link #isEqualKey(Object, Object)} in this class.
+     * <p>
+     * This implementation returns false. Subclasses that keep those methods
+     * override this to return true, so that {@link #putAll(Map)} can reuse the
+     * hash codes cached in the entries of such maps.
+     * </p>
+     *
+     * @return true if this map uses the default key handling
+     * @since 4.6.1
+     */
+    protected boolean hasDefaultKeyHandling() {
+        return false;
+    }
+
+    /**
+     * Checks whether this map can reuse the hash codes cached in the entries of
+     * the specified map, instead of calling {@link #hash(Object)} for every key.
+     * <p>
+     * This is only the case when both maps convert, hash and compare keys in the
+     * same way. This implementation returns true when both maps
+     * {@link #hasDefaultKeyHandling() use the default key handling}.
+     * </p>
+     *
+     * @param map  The map to copy from, not null
+     * @return true if the cached hash codes of the map can be reused
+     * @since 4.6.1
+     */
+    protected boolean isHashCompatible(final AbstractHashedMap<?, ?> map) {
+        return hasDefaultKeyHandling() && map.hasDefaultKeyHandling();
+    }
+
     /**
      * Compares two values, in external form, to see if they are equal.
      * This implementation uses the equals method and assumes neither value is null.
@@ -1330,26 +1374,60 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Puts all the values from the specified map into this map.
      * <p>
-     * This implementation iterates around the specified map and
-     * uses {@link #put(Object, Object)}.
+     * This implementation resizes the data storage once for the combined size,
+     * then iterates around the specified map and uses {@link #put(Object, Object)}.
+     * When the specified map is an {@code AbstractHashedMap} whose hash codes are
+     * {@link #isHashCompatible(AbstractHashedMap) compatible}, the hash codes cached
+     * in its entries are reused and {@link #hash(Object)} is not called.
      * </p>
      *
      * @param map  The map to add
      * @throws NullPointerException if the map is null
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void putAll(final Map<? extends K, ? extends V> map) {
         final int mapSize = map.size();
-        if (mapSize == 0) {
+        if (mapSize == 0 || map == this) {
             return;
         }
         final int newSize = (int) ((size + mapSize) / loadFactor + 1);
         ensureCapacity(calculateNewCapacity(newSize));
+        if (map instanceof AbstractHashedMap && isHashCompatible((AbstractHashedMap<?, ?>) map)) {
+            putAllHashed((AbstractHashedMap<? extends K, ? extends V>) map);
+            return;
+        }
         for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) {
             put(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Puts all the values from a compatible hashed map into this map,
+     * reusing the hash codes cached in its entries.
+     *
+     * @param map  The map to add
+     */
+    @SuppressWarnings("unchecked")
+    private void putAllHashed(final AbstractHashedMap<? extends K, ? extends V> map) {
+        final Iterator<? extends Map.Entry<? extends K, ? extends V>> it = map.createEntrySetIterator();
+        while (it.hasNext()) {
+            final HashEntry<? extends K, ? extends V> source = (HashEntry<? extends K, ? extends V>) it.next();
+            final int hashCode = source.hashCode;
+            final Object convertedKey = source.key;
+            final int index = hashIndex(hashCode, data.length);
+            HashEntry<K, V> entry = data[index];
+            while (entry != null && (entry.hashCode != hashCode || !isEqualKey(convertedKey, entry.key))) {
+                entry = entry.next;
+            }
+            if (entry != null) {
+                updateEntry(entry, source.getValue());
+            } else {
+                addMapping(index, hashCode, source.getKey(), source.getValue());
+            }
+        }
+    }
+
     /**
      * Removes the specified mapping from this map.
      *
@@ -1375,6 +1453,34 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return null;
     }
 
+    /**
+     * Removes the mappings for all the specified keys from this map.
+     * <p>
+     * This implementation looks up each key once, so the cost is proportional
+     * to the number of keys rather than to the size of this map.
+     * </p>
+     *
+     * @param keys  The keys to remove
+     * @return true if this map changed as a result of the call
+     * @throws NullPointerException if the collection is null
+     * @since 4.6.1
+     */
+    public boolean removeAll(final Collection<?> keys) {
+        Objects.requireNonNull(keys, "keys");
+        if (size == 0 || keys.isEmpty()) {
+            return false;
+        }
+        if (keys == keySet) {
+            clear();
+            return true;
+        }
+        final int oldSize = size;
+        for (final Object key : keys) {
+            remove(key);
+        }
+        return size != oldSize;
+    }
+
     /**
      * Removes an entry from the chain stored in a particular index.
      * <p>
@@ -1414,6 +1520,41 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         destroyEntry(entry);
     }
 
+    /**
+     * Retains only the mappings whose keys are in the specified collection.
+     * <p>
+     * This implementation walks the data storage once and unlinks the
+     * mappings in place, without looking any key up again.
+     * </p>
+     *
+     * @param keys  The keys to retain
+     * @return true if this map changed as a result of the call
+     * @throws NullPointerException if the collection is null
+     * @since 4.6.1
+     */
+    public boolean retainAll(final Collection<?> keys) {
+        Objects.requireNonNull(keys, "keys");
+        if (size == 0) {
+            return false;
+        }
+        final int oldSize = size;
+        final HashEntry<K, V>[] data = this.data;
+        for (int i = 0; i < data.length; i++) {
+            HashEntry<K, V> previous = null;
+            HashEntry<K, V> entry = data[i];
+            while (entry != null) {
+                final HashEntry<K, V> next = entry.next;
+                if (keys.contains(entry.getKey())) {
+                    previous = entry;
+                } else {
+                    removeMapping(entry, i, previous);
+                }
+                entry = next;
+            }
+        }
+        return size != oldSize;
+    }
+
     /**
      * Reuses an existing key-value mapping, storing completely new data.
      * <p>
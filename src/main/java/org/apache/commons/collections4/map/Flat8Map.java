@@ -0,0 +1,949 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.iterators.EmptyIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+
+/**
+ * A {@code Map} implementation that stores data in small flat arrays until
+ * the size is greater than 8.
+ * <p>
+ * This map extends the design of {@link Flat3Map} to maps of up to 8 entries,
+ * which is a typical size for per-request attribute maps.
+ * </p>
+ * <ul>
+ * <li>Optimized for operation at size 8 or less.</li>
+ * <li>Still works well once size 8 exceeded.</li>
+ * <li>No Map Entry object is created on put while at size 8 or less.</li>
+ * </ul>
+ * <p>
+ * The design uses two distinct modes of operation - flat and delegate.
+ * While the map is size 8 or less, keys and values are stored side by side in
+ * one array and the key hash codes in a parallel {@code int} array. Lookups scan
+ * the cached hash codes and only call {@code equals()} when a hash code matches.
+ * Once size 9 is reached, the map switches to delegate mode and only switches
+ * back when cleared. In delegate mode, all operations are forwarded straight to
+ * a HashedMap.
+ * </p>
+ * <p>
+ * Removing a mapping in flat mode moves the last mapping into the freed position,
+ * so the iteration order is the insertion order only as long as nothing is removed.
+ * </p>
+ * <p>
+ * Do not use {@code Flat8Map} if the size is likely to grow beyond 8.
+ * </p>
+ * <p>
+ * <strong>Note that Flat8Map is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @see Flat3Map
+ * @since 4.6.1
+ */
+public class Flat8Map<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    abstract static class EntryIterator<K, V> {
+        private final Flat8Map<K, V> parent;
+        private int nextIndex;
+        private FlatMapEntry<K, V> currentEntry;
+
+        /**
+         * Create a new Flat8Map.EntryIterator.
+         */
+        EntryIterator(final Flat8Map<K, V> parent) {
+            this.parent = parent;
+        }
+
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        public Map.Entry<K, V> nextEntry() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            currentEntry = new FlatMapEntry<>(parent, nextIndex++);
+            return currentEntry;
+        }
+
+        public void remove() {
+            if (currentEntry == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.remove(currentEntry.getKey());
+            currentEntry.setRemoved(true);
+            nextIndex--;
+            currentEntry = null;
+        }
+
+    }
+
+    /**
+     * EntrySet
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final Flat8Map<K, V> parent;
+
+        EntrySet(final Flat8Map<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.entrySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<Map.Entry<K, V>>emptyIterator();
+            }
+            return new EntrySetIterator<>(parent);
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            if (!contains(obj)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            parent.remove(entry.getKey());
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+    }
+
+    /**
+     * EntrySetIterator and MapEntry
+     */
+    static class EntrySetIterator<K, V> extends EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        EntrySetIterator(final Flat8Map<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            return nextEntry();
+        }
+    }
+
+    static class FlatMapEntry<K, V> implements Map.Entry<K, V> {
+        private final Flat8Map<K, V> parent;
+        private final int index;
+        private volatile boolean removed;
+
+        FlatMapEntry(final Flat8Map<K, V> parent, final int index) {
+            this.parent = parent;
+            this.index = index;
+            this.removed = false;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (removed) {
+                return false;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(getKey(), other.getKey()) &&
+                   Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public K getKey() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return parent.keyAt(index);
+        }
+
+        @Override
+        public V getValue() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return parent.valueAt(index);
+        }
+
+        @Override
+        public int hashCode() {
+            if (removed) {
+                return 0;
+            }
+            final Object key = getKey();
+            final Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^
+                   (value == null ? 0 : value.hashCode());
+        }
+
+        /**
+         * Used by the iterator that created this entry to indicate that
+         * {@link java.util.Iterator#remove()} has been called.
+         * <p>
+         * As a consequence, all subsequent call to {@link #getKey()},
+         * {@link #setValue(Object)} and {@link #getValue()} will fail.
+         *
+         * @param removed The new value of the removed flag
+         */
+        void setRemoved(final boolean removed) {
+            this.removed = removed;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            return parent.setValueAt(index, value);
+        }
+
+        @Override
+        public String toString() {
+            if (!removed) {
+                return getKey() + "=" + getValue();
+            }
+            return "";
+        }
+
+    }
+
+    /**
+     * FlatMapIterator
+     */
+    static class FlatMapIterator<K, V> implements MapIterator<K, V>, ResettableIterator<K> {
+        private final Flat8Map<K, V> parent;
+        private int nextIndex;
+        private boolean canRemove;
+
+        FlatMapIterator(final Flat8Map<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public K getKey() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return parent.keyAt(nextIndex - 1);
+        }
+
+        @Override
+        public V getValue() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return parent.valueAt(nextIndex - 1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            canRemove = true;
+            nextIndex++;
+            return getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.remove(getKey());
+            nextIndex--;
+            canRemove = false;
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+            canRemove = false;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            return parent.setValueAt(nextIndex - 1, value);
+        }
+
+        @Override
+        public String toString() {
+            if (canRemove) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * KeySet
+     */
+    static class KeySet<K> extends AbstractSet<K> {
+
+        private final Flat8Map<K, ?> parent;
+
+        KeySet(final Flat8Map<K, ?> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return parent.containsKey(key);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.keySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<K>emptyIterator();
+            }
+            return new KeySetIterator<>(parent);
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            final boolean result = parent.containsKey(key);
+            parent.remove(key);
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+    }
+
+    /**
+     * KeySetIterator
+     */
+    static class KeySetIterator<K> extends EntryIterator<K, Object> implements Iterator<K> {
+
+        @SuppressWarnings("unchecked")
+        KeySetIterator(final Flat8Map<K, ?> parent) {
+            super((Flat8Map<K, Object>) parent);
+        }
+
+        @Override
+        public K next() {
+            return nextEntry().getKey();
+        }
+    }
+
+    /**
+     * Values
+     */
+    static class Values<V> extends AbstractCollection<V> {
+
+        private final Flat8Map<?, V> parent;
+
+        Values(final Flat8Map<?, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return parent.containsValue(value);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.values().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<V>emptyIterator();
+            }
+            return new ValuesIterator<>(parent);
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+    }
+
+    /**
+     * ValuesIterator
+     */
+    static class ValuesIterator<V> extends EntryIterator<Object, V> implements Iterator<V> {
+
+        @SuppressWarnings("unchecked")
+        ValuesIterator(final Flat8Map<?, V> parent) {
+            super((Flat8Map<Object, V>) parent);
+        }
+
+        @Override
+        public V next() {
+            return nextEntry().getValue();
+        }
+    }
+
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** The maximum number of mappings held in flat mode */
+    static final int MAX_FLAT_SIZE = 8;
+
+    /** The size of the map, used while in flat mode */
+    private transient int size;
+
+    /** Hash codes of the keys, used while in flat mode */
+    private transient int[] hashes;
+
+    /** Keys at even and values at odd indexes, used while in flat mode */
+    private transient Object[] table;
+
+    /** Map, used while in delegate mode */
+    private transient AbstractHashedMap<K, V> delegateMap;
+
+    /**
+     * Constructs a new instance.
+     */
+    public Flat8Map() {
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  The map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public Flat8Map(final Map<? extends K, ? extends V> map) {
+        putAll(map);
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        if (delegateMap != null) {
+            delegateMap.clear();  // should aid gc
+            delegateMap = null;  // switch back to flat mode
+        } else if (size > 0) {
+            for (int i = 0; i < size << 1; i++) {
+                table[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return A shallow clone
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Flat8Map<K, V> clone() {
+        try {
+            final Flat8Map<K, V> cloned = (Flat8Map<K, V>) super.clone();
+            if (cloned.delegateMap != null) {
+                cloned.delegateMap = cloned.delegateMap.clone();
+            }
+            if (cloned.table != null) {
+                cloned.hashes = cloned.hashes.clone();
+                cloned.table = cloned.table.clone();
+            }
+            return cloned;
+        } catch (final CloneNotSupportedException ex) {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  The key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  The value to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (delegateMap != null) {
+            return delegateMap.containsValue(value);
+        }
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(value, table[(i << 1) + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the flat map data to a map.
+     */
+    private void convertToMap() {
+        delegateMap = createDelegateMap();
+        for (int i = 0; i < size; i++) {
+            delegateMap.put(keyAt(i), valueAt(i));
+        }
+        size = 0;
+        hashes = null;
+        table = null;
+    }
+
+    /**
+     * Create an instance of the map used for storage when in delegation mode.
+     * <p>
+     * This can be overridden by subclasses to provide a different map implementation.
+     * Not every AbstractHashedMap is suitable, identity and reference based maps
+     * would be poor choices.
+     * </p>
+     *
+     * @return A new AbstractHashedMap or subclass
+     */
+    protected AbstractHashedMap<K, V> createDelegateMap() {
+        return new HashedMap<>();
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * <p>
+     * The returned Map Entry will be an independent object and will
+     * not change anymore as the iterator progresses. To avoid this additional object
+     * creation and simply iterate through the entries, use {@link #mapIterator()}.
+     * </p>
+     *
+     * @return The entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (delegateMap != null) {
+            return delegateMap.entrySet();
+        }
+        return new EntrySet<>(this);
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  The object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (delegateMap != null) {
+            return delegateMap.equals(obj);
+        }
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        if (size != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            final Object key = table[i << 1];
+            if (!other.containsKey(key) || !Objects.equals(table[(i << 1) + 1], other.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  The key
+     * @return The mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.get(key);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return The hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        if (delegateMap != null) {
+            return delegateMap.hashCode();
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            final Object value = table[(i << 1) + 1];
+            total += hashes[i] ^ (value == null ? 0 : value.hashCode());
+        }
+        return total;
+    }
+
+    /**
+     * Gets the index of the specified key in flat mode.
+     * <p>
+     * The cached hash codes are compared first, {@code equals()} is only
+     * called for a matching hash code.
+     * </p>
+     *
+     * @param key  The key to search for
+     * @return The index of the key, -1 if not found
+     */
+    private int indexOf(final Object key) {
+        final int size = this.size;
+        if (size == 0) {
+            return -1;
+        }
+        final int[] hashes = this.hashes;
+        final Object[] table = this.table;
+        if (key == null) {
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == 0 && table[i << 1] == null) {
+                    return i;
+                }
+            }
+        } else {
+            final int hashCode = key.hashCode();
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == hashCode && key.equals(table[i << 1])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(final int index) {
+        return (K) table[index << 1];
+    }
+
+    /**
+     * Gets the keySet view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the keys, use {@link #mapIterator()}.
+     *
+     * @return The keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (delegateMap != null) {
+            return delegateMap.keySet();
+        }
+        return new KeySet<>(this);
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     * <p>
+     * A MapIterator returns the keys in the map. It also provides convenient
+     * methods to get the key and value, and set the value.
+     * It avoids the need to create an entrySet/keySet/values object.
+     * It also avoids creating the Map Entry object.
+     * </p>
+     *
+     * @return The map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        if (delegateMap != null) {
+            return delegateMap.mapIterator();
+        }
+        if (size == 0) {
+            return EmptyMapIterator.<K, V>emptyMapIterator();
+        }
+        return new FlatMapIterator<>(this);
+    }
+
+    /**
+     * Puts a key-value mapping into this map.
+     *
+     * @param key  The key to add
+     * @param value  The value to add
+     * @return The value previously mapped to this key, null if none
+     */
+    @Override
+    public V put(final K key, final V value) {
+        if (delegateMap != null) {
+            return delegateMap.put(key, value);
+        }
+        // change existing mapping
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return setValueAt(index, value);
+        }
+        // add new mapping
+        if (size == MAX_FLAT_SIZE) {
+            convertToMap();
+            delegateMap.put(key, value);
+            return null;
+        }
+        if (table == null) {
+            hashes = new int[MAX_FLAT_SIZE];
+            table = new Object[MAX_FLAT_SIZE << 1];
+        }
+        hashes[size] = key == null ? 0 : key.hashCode();
+        table[size << 1] = key;
+        table[(size << 1) + 1] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Puts all the values from the specified map into this map.
+     *
+     * @param map  The map to add
+     * @throws NullPointerException if the map is null
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final int size = map.size();
+        if (size == 0) {
+            return;
+        }
+        if (delegateMap != null) {
+            delegateMap.putAll(map);
+            return;
+        }
+        if (size <= MAX_FLAT_SIZE) {
+            for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        } else {
+            convertToMap();
+            delegateMap.putAll(map);
+        }
+    }
+
+    /**
+     * Deserializes the map in using a custom routine.
+     *
+     * @param in The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        if (count > MAX_FLAT_SIZE) {
+            delegateMap = createDelegateMap();
+        }
+        for (int i = count; i > 0; i--) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  The mapping to remove
+     * @return The value mapped to the removed key, null if key not in map
+     */
+    @Override
+    public V remove(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        final V old = valueAt(index);
+        final int last = size - 1;
+        // move the last mapping into the freed position
+        hashes[index] = hashes[last];
+        table[index << 1] = table[last << 1];
+        table[(index << 1) + 1] = table[(last << 1) + 1];
+        table[last << 1] = null;
+        table[(last << 1) + 1] = null;
+        size = last;
+        return old;
+    }
+
+    /**
+     * Sets the value at the specified index in flat mode.
+     *
+     * @param index  The index of the mapping
+     * @param value  The new value
+     * @return The previous value
+     */
+    private V setValueAt(final int index, final V value) {
+        final V old = valueAt(index);
+        table[(index << 1) + 1] = value;
+        return old;
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return The size
+     */
+    @Override
+    public int size() {
+        if (delegateMap != null) {
+            return delegateMap.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return A string version of the map
+     */
+    @Override
+    public String toString() {
+        if (delegateMap != null) {
+            return delegateMap.toString();
+        }
+        if (size == 0) {
+            return "{}";
+        }
+        final StringBuilder buf = new StringBuilder(128);
+        buf.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(CollectionUtils.COMMA);
+            }
+            final Object key = table[i << 1];
+            final Object value = table[(i << 1) + 1];
+            buf.append(key == this ? "(this Map)" : key);
+            buf.append('=');
+            buf.append(value == this ? "(this Map)" : value);
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int index) {
+        return (V) table[(index << 1) + 1];
+    }
+
+    /**
+     * Gets the values view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the values, use {@link #mapIterator()}.
+     *
+     * @return The values view
+     */
+    @Override
+    public Collection<V> values() {
+        if (delegateMap != null) {
+            return delegateMap.values();
+        }
+        return new Values<>(this);
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final MapIterator<?, ?> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());  // key
+            out.writeObject(it.getValue());  // value
+        }
+    }
+
+}
@@ -0,0 +1,507 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.collection.UnmodifiableCollection;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * An unmodifiable {@code Map} holding a frozen copy of another map in flat arrays.
+ * <p>
+ * Unlike {@link UnmodifiableMap}, which decorates a mutable map, this class copies
+ * the mappings once into parallel key, value and hash code arrays indexed by an
+ * open-addressed table of {@code int} slots kept at most half full. There is no
+ * entry object per mapping, so the footprint is about four references and three
+ * {@code int}s per mapping, and {@code get()} probes a short run of {@code int}s
+ * comparing cached hash codes before calling {@code equals()}.
+ * </p>
+ * <p>
+ * This map is intended for large read-only lookup tables such as static configuration
+ * or dictionaries. Iteration follows the iteration order of the copied map.
+ * Null keys and values are supported.
+ * </p>
+ * <p>
+ * Attempts to modify it will result in an UnsupportedOperationException.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public final class FrozenMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V>, Unmodifiable, Serializable {
+
+    /**
+     * Iterates over the mappings in index order.
+     *
+     * @param <E> The type of the returned elements
+     */
+    private abstract class ArrayIterator<E> implements ResettableIterator<E> {
+
+        /** The index of the next mapping */
+        int next;
+
+        /** The index of the last returned mapping, -1 if none */
+        int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        int nextIndex() {
+            if (next >= keys.length) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            last = next++;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reset() {
+            next = 0;
+            last = -1;
+        }
+    }
+
+    /**
+     * MapIterator implementation.
+     */
+    private final class FrozenMapIterator extends ArrayIterator<K> implements MapIterator<K, V> {
+
+        @Override
+        public K getKey() {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return keyAt(last);
+        }
+
+        @Override
+        public V getValue() {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return valueAt(last);
+        }
+
+        @Override
+        public K next() {
+            return keyAt(nextIndex());
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            if (last >= 0) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** The smallest table, holding one mapping */
+    private static final int MINIMUM_TABLE_SIZE = 2;
+
+    /**
+     * Factory method to create a frozen copy of a map.
+     * <p>
+     * If the map is already a {@code FrozenMap} it is returned directly.
+     * </p>
+     *
+     * @param <K>  the key type
+     * @param <V>  the value type
+     * @param map  The map to copy, must not be null
+     * @return A new frozen map
+     * @throws NullPointerException if map is null
+     */
+    public static <K, V> FrozenMap<K, V> frozenMap(final Map<? extends K, ? extends V> map) {
+        if (map instanceof FrozenMap) {
+            @SuppressWarnings("unchecked") // safe to upcast
+            final FrozenMap<K, V> tmpMap = (FrozenMap<K, V>) map;
+            return tmpMap;
+        }
+        return new FrozenMap<>(map);
+    }
+
+    /**
+     * Gets the hash code of a key as stored in the hash code array.
+     *
+     * @param key  The key, may be null
+     * @return The spread hash code
+     */
+    private static int hash(final Object key) {
+        if (key == null) {
+            return 0;
+        }
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    /** The keys, in iteration order */
+    private transient Object[] keys;
+
+    /** The values, parallel to the keys */
+    private transient Object[] values;
+
+    /** The hash codes of the keys, parallel to the keys */
+    private transient int[] hashes;
+
+    /** Open-addressed table of key indexes plus one, zero for an empty slot */
+    private transient int[] table;
+
+    /** Entry set */
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /** Key set */
+    private transient Set<K> keySet;
+
+    /** Values */
+    private transient Collection<V> valuesView;
+
+    /**
+     * Constructor that copies the mappings.
+     *
+     * @param map  The map to copy, must not be null
+     * @throws NullPointerException if map is null
+     */
+    private FrozenMap(final Map<? extends K, ? extends V> map) {
+        final int size = map.size();
+        final Object[] keys = new Object[size];
+        final Object[] values = new Object[size];
+        int i = 0;
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        init(keys, values);
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        for (final Object v : values) {
+            if (Objects.equals(value, v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = UnmodifiableSet.unmodifiableSet(new AbstractSet<Map.Entry<K, V>>() {
+
+                @Override
+                public boolean contains(final Object obj) {
+                    if (!(obj instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                    final int index = indexOf(entry.getKey());
+                    return index >= 0 && Objects.equals(values[index], entry.getValue());
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new ArrayIterator<Map.Entry<K, V>>() {
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            final int index = nextIndex();
+                            return new UnmodifiableMapEntry<>(keyAt(index), valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            });
+        }
+        return entrySet;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final int index = indexOf(key);
+        return index < 0 ? defaultValue : valueAt(index);
+    }
+
+    /**
+     * Gets the index of a key in the key array.
+     *
+     * @param key  The key to find, may be null
+     * @return The index, or -1 if the key is not mapped
+     */
+    private int indexOf(final Object key) {
+        final int hashCode = hash(key);
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        for (int slot = hashCode & mask;; slot = slot + 1 & mask) {
+            final int index = table[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (hashes[index] == hashCode && Objects.equals(key, keys[index])) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Builds the hash code array and the slot table for the given mappings.
+     *
+     * @param keys  The distinct keys
+     * @param values  The values, parallel to the keys
+     */
+    private void init(final Object[] keys, final Object[] values) {
+        final int size = keys.length;
+        int tableSize = MINIMUM_TABLE_SIZE;
+        while (tableSize < size * 2) {
+            tableSize <<= 1;
+        }
+        final int mask = tableSize - 1;
+        final int[] hashes = new int[size];
+        final int[] table = new int[tableSize];
+        for (int i = 0; i < size; i++) {
+            final int hashCode = hash(keys[i]);
+            hashes[i] = hashCode;
+            int slot = hashCode & mask;
+            while (table[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+            table[slot] = i + 1;
+        }
+        this.keys = keys;
+        this.values = values;
+        this.hashes = hashes;
+        this.table = table;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(final int index) {
+        return (K) keys[index];
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = UnmodifiableSet.unmodifiableSet(new AbstractSet<K>() {
+
+                @Override
+                public boolean contains(final Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public Iterator<K> iterator() {
+                    return new FrozenMapIterator();
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            });
+        }
+        return keySet;
+    }
+
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new FrozenMapIterator();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @param value Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param mapToCopy Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> mapToCopy) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Deserializes the map in using a custom routine.
+     *
+     * @param in  The input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        if (size < 0) {
+            throw new InvalidObjectException("Size must not be negative: " + size);
+        }
+        final Object[] keys = new Object[size];
+        final Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = in.readObject();
+            values[i] = in.readObject();
+        }
+        init(keys, values);
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = UnmodifiableCollection.unmodifiableCollection(new AbstractCollection<V>() {
+
+                @Override
+                public boolean contains(final Object value) {
+                    return containsValue(value);
+                }
+
+                @Override
+                public Iterator<V> iterator() {
+                    return new ArrayIterator<V>() {
+                        @Override
+                        public V next() {
+                            return valueAt(nextIndex());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            });
+        }
+        return valuesView;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out the target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.writeObject(keys[i]);
+            out.writeObject(values[i]);
+        }
+    }
+
+}
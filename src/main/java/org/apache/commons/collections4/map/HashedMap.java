@@ -100,6 +100,19 @@ public class HashedMap<K, V>
         return (HashedMap<K, V>) super.clone();
     }
 
+    /**
+     * Returns true for a {@code HashedMap} itself, which hashes keys with
+     * {@code hashCode} and compares them with {@code equals}. Subclasses that keep
+     * this key handling override this method to opt in.
+     *
+     * @return true if this is a {@code HashedMap}
+     * @since 4.6.1
+     */
+    @Override
+    protected boolean hasDefaultKeyHandling() {
+        return getClass() == HashedMap.class;
+    }
+
     /**
      * Deserializes the map in using a custom routine.
      *
@@ -356,6 +356,18 @@ public class LRUMap<K, V>
         return entry.getValue();
     }
 
+    /**
+     * Returns true for an {@code LRUMap} itself. The eviction policy does not
+     * affect the key handling, but a subclass must override this method to opt in.
+     *
+     * @return true if this is an {@code LRUMap}
+     * @since 4.6.1
+     */
+    @Override
+    protected boolean hasDefaultKeyHandling() {
+        return getClass() == LRUMap.class;
+    }
+
     /**
      * Returns true if this map is full and no new mappings can be added.
      *
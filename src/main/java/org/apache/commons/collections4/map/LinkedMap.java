@@ -283,6 +283,18 @@ public class LinkedMap<K, V> extends AbstractLinkedMap<K, V> implements Serializ
         return (LinkedMap<K, V>) super.clone();
     }
 
+    /**
+     * Returns true unless this is a subclass, which may change how keys are
+     * converted, hashed or compared.
+     *
+     * @return true if this is a {@code LinkedMap}
+     * @since 4.6.1
+     */
+    @Override
+    protected boolean hasDefaultKeyHandling() {
+        return getClass() == LinkedMap.class;
+    }
+
     /**
      * Gets the key at the specified index.
      *
@@ -0,0 +1,773 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+
+/**
+ * A StripedBucketMap is a thread-safe implementation of {@link java.util.Map}
+ * that grows with its content and does not lock on reads.
+ * <p>
+ * The map is an alternative to {@link StaticBucketMap} for read-heavy workloads.
+ * The entries are spread over a fixed number of stripes, each stripe owning its
+ * own hash table and its own monitor. Writes lock only the stripe of the key;
+ * {@link #get(Object) get}, {@link #containsKey(Object) containsKey} and
+ * {@link #size() size} never lock. Each stripe doubles its table once it is
+ * three quarters full, so the map does not degrade when it outgrows its
+ * initial capacity.
+ * </p>
+ * <p>
+ * As with {@link StaticBucketMap}, bulk operations, such as
+ * {@link #putAll(Map) putAll} or the {@link Collection#retainAll(Collection) retainAll}
+ * operation in collection views, are <em>not</em> atomic, and the results of
+ * {@link #size()} and {@link #isEmpty()} are out-of-date as soon as they are
+ * produced. {@link #putIfAbsent(Object, Object) putIfAbsent} and
+ * {@link #remove(Object, Object) remove(key, value)} are atomic.
+ * </p>
+ * <p>
+ * The iterators returned by the collection views of this class are <em>not</em>
+ * fail-fast.  They will <em>never</em> raise a
+ * {@link ConcurrentModificationException}.  Keys and values
+ * added to the map after the iterator is created do not necessarily appear
+ * during iteration.  Similarly, the iterator does not necessarily fail to
+ * return keys and values that were removed after the iterator was created.
+ * Calling {@code setValue} on an entry returned by the entry set iterator
+ * puts the new value into the map.
+ * </p>
+ * <p>
+ * The {@link #atomic(Runnable)} method is provided to allow atomic iterations
+ * and bulk operations by holding the monitors of all stripes. Readers are not
+ * blocked by it.
+ * </p>
+ * <p>
+ * Null keys and values are supported.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @see StaticBucketMap
+ * @since 4.6.1
+ */
+public final class StripedBucketMap<K, V> extends AbstractIterableMap<K, V> {
+
+    class BaseIterator {
+        private final ArrayList<Node<K, V>> current = new ArrayList<>();
+        private int stripe;
+        private Node<K, V> last;
+
+        public boolean hasNext() {
+            if (!current.isEmpty()) {
+                return true;
+            }
+            while (stripe < stripes.length) {
+                final AtomicReferenceArray<Node<K, V>> table = stripes[stripe++].table;
+                for (int i = 0; i < table.length(); i++) {
+                    for (Node<K, V> n = table.get(i); n != null; n = n.next) {
+                        current.add(n);
+                    }
+                }
+                if (!current.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        protected Node<K, V> nextNode() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current.remove(current.size() - 1);
+            return last;
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            StripedBucketMap.this.remove(last.key);
+            last = null;
+        }
+    }
+
+    private final class EntryIterator extends BaseIterator implements Iterator<Map.Entry<K, V>> {
+
+        @Override
+        public Map.Entry<K, V> next() {
+            final Node<K, V> n = nextNode();
+            return new WriteThroughEntry(n.key, n.value);
+        }
+
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public void clear() {
+            StripedBucketMap.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry<?, ?>)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Node<K, V> n = getNode(entry.getKey());
+            return n != null && Objects.equals(n.value, entry.getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry<?, ?>)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return StripedBucketMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public int size() {
+            return StripedBucketMap.this.size();
+        }
+
+    }
+
+    private final class KeyIterator extends BaseIterator implements Iterator<K> {
+
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
+
+    }
+
+    private final class KeySet extends AbstractSet<K> {
+
+        @Override
+        public void clear() {
+            StripedBucketMap.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return StripedBucketMap.this.containsKey(obj);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            return removeNode(obj, null, false) != null;
+        }
+
+        @Override
+        public int size() {
+            return StripedBucketMap.this.size();
+        }
+
+    }
+
+    /**
+     * A node in the hash chain of a stripe. Only the value and the link are mutable,
+     * and both are volatile so that readers never need the stripe's monitor.
+     */
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(final int hash, final K key, final V value, final Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A stripe, which is also the monitor guarding writes to its table.
+     */
+    private static final class Stripe<K, V> {
+        /** The hash table, replaced by a larger copy when resized */
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        /** The number of mappings in this stripe */
+        volatile int size;
+        /** The size at which the table is doubled */
+        int threshold;
+
+        Stripe(final int capacity) {
+            reset(capacity);
+        }
+
+        void reset(final int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+            threshold = capacity - (capacity >>> 2);
+            size = 0;
+        }
+    }
+
+    private final class ValueIterator extends BaseIterator implements Iterator<V> {
+
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+
+    }
+
+    private final class Values extends AbstractCollection<V> {
+
+        @Override
+        public void clear() {
+            StripedBucketMap.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return StripedBucketMap.this.containsValue(obj);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size() {
+            return StripedBucketMap.this.size();
+        }
+
+    }
+
+    /**
+     * The entry returned by the entry set iterator, writing value changes through to the map.
+     */
+    private final class WriteThroughEntry extends AbstractMapEntry<K, V> {
+
+        WriteThroughEntry(final K key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            final V old = super.setValue(value);
+            put(getKey(), value);
+            return old;
+        }
+    }
+
+    /** The default number of stripes to use */
+    private static final int DEFAULT_STRIPES = 16;
+
+    /** The default initial capacity */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /** The maximum number of stripes */
+    private static final int MAXIMUM_STRIPES = 1 << 16;
+
+    /** The minimum table length of a stripe */
+    private static final int MINIMUM_STRIPE_CAPACITY = 2;
+
+    /** The maximum table length of a stripe */
+    private static final int MAXIMUM_STRIPE_CAPACITY = 1 << 30;
+
+    /**
+     * Spreads the hash code of the key so that both the high bits, which select
+     * the stripe, and the low bits, which select the bucket, are well distributed.
+     */
+    private static int hash(final Object key) {
+        if (key == null) {
+            return 0;
+        }
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    private static int roundUpToPowerOfTwo(final int value, final int max) {
+        if (value >= max) {
+            return max;
+        }
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /** The stripes, fixed at construction time */
+    private final Stripe<K, V>[] stripes;
+
+    /** The shift selecting the stripe from the high bits of the hash */
+    private final int stripeShift;
+
+    /** The table length each stripe starts with */
+    private final int stripeCapacity;
+
+    /**
+     * Initializes the map with the default number of stripes (16) and
+     * the default initial capacity (64).
+     */
+    public StripedBucketMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Initializes the map with a specified number of stripes and the default initial capacity (64).
+     *
+     * @param numStripes  The number of stripes, rounded up to a power of two
+     * @throws IllegalArgumentException if the number of stripes is less than one
+     */
+    public StripedBucketMap(final int numStripes) {
+        this(DEFAULT_CAPACITY, numStripes);
+    }
+
+    /**
+     * Initializes the map with a specified initial capacity and number of stripes.
+     * <p>
+     * The number of stripes is the number of writers that can modify the map at
+     * the same time without contention. It is rounded up to a power of two and
+     * never changes. The initial capacity is spread over the stripes, each of
+     * which grows independently.
+     * </p>
+     *
+     * @param initialCapacity  The number of mappings to allocate room for
+     * @param numStripes  The number of stripes, rounded up to a power of two
+     * @throws IllegalArgumentException if the initial capacity is negative or the number of stripes is less than one
+     */
+    @SuppressWarnings("unchecked")
+    public StripedBucketMap(final int initialCapacity, final int numStripes) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must not be negative");
+        }
+        if (numStripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be greater than zero");
+        }
+        final int count = roundUpToPowerOfTwo(numStripes, MAXIMUM_STRIPES);
+        final int perStripe = (int) Math.min(MAXIMUM_STRIPE_CAPACITY, ((long) initialCapacity + count - 1) / count * 4 / 3);
+        stripeCapacity = Math.max(MINIMUM_STRIPE_CAPACITY, roundUpToPowerOfTwo(perStripe, MAXIMUM_STRIPE_CAPACITY));
+        stripeShift = count == 1 ? 0 : Integer.numberOfLeadingZeros(count) + 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>(stripeCapacity);
+        }
+    }
+
+    /**
+     * Prevents any write operations from occurring on this map while the given {@link Runnable} executes.
+     * This method can be used, for instance, to execute a bulk operation atomically:
+     * <pre>
+     * stripedBucketMapInstance.atomic(() -&gt; stripedBucketMapInstance.putAll(map));
+     * </pre>
+     * <p>
+     * It can also be used if you need a reliable iterator, as long as the other threads only write:
+     * </p>
+     *
+     * <pre>
+     * stripedBucketMapInstance.atomic(() -&gt; {
+     *     for (Map.Entry entry : stripedBucketMapInstance.entrySet()) {
+     *         foo(entry);
+     *     }
+     * });
+     * </pre>
+     * <p>
+     * <strong>Implementation note:</strong> The monitor of each stripe is entered recursively,
+     * so the stack depth is proportional to the number of stripes. Reads are lock-free and are
+     * not blocked by this method.
+     * </p>
+     *
+     * @param runnable The code to execute atomically
+     */
+    public void atomic(final Runnable runnable) {
+        atomic(Objects.requireNonNull(runnable, "runnable"), 0);
+    }
+
+    private void atomic(final Runnable r, final int stripe) {
+        if (stripe >= stripes.length) {
+            r.run();
+            return;
+        }
+        synchronized (stripes[stripe]) {
+            atomic(r, stripe + 1);
+        }
+    }
+
+    /**
+     * Clears the map of all entries, shrinking each stripe back to its initial capacity.
+     */
+    @Override
+    public void clear() {
+        for (final Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.reset(stripeCapacity);
+            }
+        }
+    }
+
+    /**
+     * Checks if the map contains the specified key.
+     *
+     * @param key  The key to check
+     * @return true if found
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * Checks if the map contains the specified value.
+     *
+     * @param value  The value to check
+     * @return true if found
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        for (final Stripe<K, V> stripe : stripes) {
+            final AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            for (int i = 0; i < table.length(); i++) {
+                for (Node<K, V> n = table.get(i); n != null; n = n.next) {
+                    if (Objects.equals(n.value, value)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the entry set.
+     *
+     * @return The entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Compares this map to another, as per the Map specification.
+     *
+     * @param obj  The object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Map<?, ?>)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        return entrySet().equals(other.entrySet());
+    }
+
+    /**
+     * Gets the value associated with the key.
+     *
+     * @param key  The key to retrieve
+     * @return The associated value
+     */
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> n = getNode(key);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Finds the node of the specified key without locking.
+     *
+     * @param key  The key to find
+     * @return The node, null if not found
+     */
+    private Node<K, V> getNode(final Object key) {
+        final int hash = hash(key);
+        final AtomicReferenceArray<Node<K, V>> table = stripeFor(hash).table;
+        for (Node<K, V> n = table.get(hash & table.length() - 1); n != null; n = n.next) {
+            if (n.hash == hash && Objects.equals(n.key, key)) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the hash code, as per the Map specification.
+     *
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (final Stripe<K, V> stripe : stripes) {
+            final AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            for (int i = 0; i < table.length(); i++) {
+                for (Node<K, V> n = table.get(i); n != null; n = n.next) {
+                    final Object value = n.value;
+                    hashCode += (n.key == null ? 0 : n.key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+                }
+            }
+        }
+        return hashCode;
+    }
+
+    /**
+     * Checks if the size is currently zero.
+     *
+     * @return true if empty
+     */
+    @Override
+    public boolean isEmpty() {
+        for (final Stripe<K, V> stripe : stripes) {
+            if (stripe.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the key set.
+     *
+     * @return The key set
+     */
+    @Override
+    public Set<K> keySet() {
+        return new KeySet();
+    }
+
+    /**
+     * Puts a new key value mapping into the map.
+     *
+     * @param key  The key to use
+     * @param value  The value to use
+     * @return The previous mapping for the key
+     */
+    @Override
+    public V put(final K key, final V value) {
+        return putNode(key, value, false);
+    }
+
+    /**
+     * Puts all the entries from the specified map into this map.
+     * This operation is <strong>not atomic</strong> and may have undesired effects.
+     *
+     * @param map  The map of entries to add
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Puts a new key value mapping into the map if the key is not mapped to a non-null value.
+     * This operation is atomic.
+     *
+     * @param key  The key to use
+     * @param value  The value to use
+     * @return The current value for the key, null if there was none
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        return putNode(key, value, true);
+    }
+
+    private V putNode(final K key, final V value, final boolean onlyIfAbsent) {
+        final int hash = hash(key);
+        final Stripe<K, V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            final int index = hash & table.length() - 1;
+            final Node<K, V> head = table.get(index);
+            for (Node<K, V> n = head; n != null; n = n.next) {
+                if (n.hash == hash && Objects.equals(n.key, key)) {
+                    final V old = n.value;
+                    if (!onlyIfAbsent || old == null) {
+                        n.value = value;
+                    }
+                    return old;
+                }
+            }
+            // the new node is fully built before it becomes visible to readers
+            table.set(index, new Node<>(hash, key, value, head));
+            if (++stripe.size > stripe.threshold) {
+                resize(stripe);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the specified key from the map.
+     *
+     * @param key  The key to remove
+     * @return The previous value at this key
+     */
+    @Override
+    public V remove(final Object key) {
+        final Node<K, V> n = removeNode(key, null, false);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Removes the specified key from the map if it is mapped to the specified value.
+     * This operation is atomic.
+     *
+     * @param key  The key to remove
+     * @param value  The value expected for the key
+     * @return true if the mapping was removed
+     */
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        return removeNode(key, value, true) != null;
+    }
+
+    private Node<K, V> removeNode(final Object key, final Object value, final boolean matchValue) {
+        final int hash = hash(key);
+        final Stripe<K, V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            final int index = hash & table.length() - 1;
+            Node<K, V> prev = null;
+            for (Node<K, V> n = table.get(index); n != null; n = n.next) {
+                if (n.hash == hash && Objects.equals(n.key, key)) {
+                    if (matchValue && !Objects.equals(n.value, value)) {
+                        return null;
+                    }
+                    // readers positioned on the node still see its successor
+                    if (prev == null) {
+                        table.set(index, n.next);
+                    } else {
+                        prev.next = n.next;
+                    }
+                    stripe.size--;
+                    return n;
+                }
+                prev = n;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Doubles the table of a stripe. Must be called holding the stripe's monitor.
+     * <p>
+     * The nodes are copied rather than relinked, so that readers still traversing
+     * the old table see consistent chains.
+     * </p>
+     */
+    private void resize(final Stripe<K, V> stripe) {
+        final AtomicReferenceArray<Node<K, V>> oldTable = stripe.table;
+        final int oldCapacity = oldTable.length();
+        if (oldCapacity >= MAXIMUM_STRIPE_CAPACITY) {
+            stripe.threshold = Integer.MAX_VALUE;
+            return;
+        }
+        final int newCapacity = oldCapacity << 1;
+        final AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(newCapacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            for (Node<K, V> n = oldTable.get(i); n != null; n = n.next) {
+                final int index = n.hash & newCapacity - 1;
+                newTable.lazySet(index, new Node<>(n.hash, n.key, n.value, newTable.get(index)));
+            }
+        }
+        stripe.threshold = newCapacity - (newCapacity >>> 2);
+        stripe.table = newTable;
+    }
+
+    /**
+     * Gets the current size of the map.
+     * The value is the sum of the per-stripe counters, read without locking.
+     *
+     * @return The current size
+     */
+    @Override
+    public int size() {
+        long count = 0;
+        for (final Stripe<K, V> stripe : stripes) {
+            count += stripe.size;
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private Stripe<K, V> stripeFor(final int hash) {
+        return stripes[stripeShift == 0 ? 0 : hash >>> stripeShift];
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return The number of stripes, a power of two
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return A string version of the map
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        final Iterator<Map.Entry<K, V>> it = entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<K, V> entry = it.next();
+            final Object key = entry.getKey();
+            final Object value = entry.getValue();
+            buf.append(key == this ? "(this Map)" : key).append('=').append(value == this ? "(this Map)" : value);
+            if (it.hasNext()) {
+                buf.append(", ");
+            }
+        }
+        return buf.append('}').toString();
+    }
+
+    /**
+     * Gets the values.
+     *
+     * @return The values
+     */
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@code Map} implementation bounded by the total weight of its entries
+ * which removes the least recently used entries when that weight is exceeded.
+ * <p>
+ * Each mapping is assigned a weight by a {@link Weigher} when it is added or
+ * its value is replaced. The weight is cached in the entry, so the running
+ * total is maintained in constant time on put, update and remove. After a put,
+ * least recently used entries are passed to {@link #removeLRU(AbstractLinkedMap.LinkEntry)}
+ * and removed one by one until the total weight no longer exceeds the
+ * {@link #maxWeight() maximum weight}. The most recently used entry is never
+ * removed this way, so a single entry heavier than the maximum weight is kept
+ * on its own until another mapping is added.
+ * </p>
+ * <p>
+ * The number of entries is not bounded: {@link #maxSize()} returns
+ * {@link Integer#MAX_VALUE} and {@link #isFull()} reports whether the total
+ * weight has reached the maximum weight.
+ * </p>
+ * <p>
+ * Setting a value through an iterator or an entry updates the total weight,
+ * but entries are only removed on the next {@code put}, so that live iterators
+ * are not invalidated.
+ * </p>
+ * <p>
+ * <strong>Note that WeightedLRUMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public class WeightedLRUMap<K, V> extends LRUMap<K, V> {
+
+    /**
+     * Computes the weight of a key-value mapping.
+     * <p>
+     * The weigher is stored with the map, so it must be serializable for the
+     * map to be serializable.
+     * </p>
+     *
+     * @param <K> The key object type.
+     * @param <V> The value object type
+     * @since 4.6.1
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> extends Serializable {
+
+        /**
+         * Gets the weight of the given key-value mapping.
+         *
+         * @param key The key of the mapping, may be null.
+         * @param value The value of the mapping, may be null.
+         * @return The weight of the mapping, must not be negative.
+         */
+        long weigh(K key, V value);
+    }
+
+    /**
+     * A {@link Weigher} which gives every mapping a weight of one.
+     */
+    private enum UnitWeigher implements Weigher<Object, Object> {
+
+        INSTANCE;
+
+        @Override
+        public long weigh(final Object key, final Object value) {
+            return 1;
+        }
+    }
+
+    /**
+     * LinkEntry that caches the weight of its mapping.
+     *
+     * @param <K> The type of the keys in the map
+     * @param <V> The type of the values in the map
+     */
+    protected static class WeightedEntry<K, V> extends LinkEntry<K, V> {
+
+        /** The parent map */
+        private final WeightedLRUMap<K, V> parent;
+
+        /** The weight accounted for this entry in the parent */
+        protected long weight;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param parent  The parent map
+         * @param next  The next entry in the hash bucket sequence
+         * @param hashCode  The hash code
+         * @param key  The key
+         * @param value  The value
+         */
+        protected WeightedEntry(final WeightedLRUMap<K, V> parent, final HashEntry<K, V> next, final int hashCode,
+                                final Object key, final V value) {
+            super(next, hashCode, key, value);
+            this.parent = parent;
+        }
+
+        /**
+         * Sets the value of the entry, updating the total weight of the parent.
+         *
+         * @param value  The new value
+         * @return The previous value
+         */
+        @Override
+        public V setValue(final V value) {
+            final V old = super.setValue(value);
+            parent.updateWeight(this);
+            return old;
+        }
+    }
+
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** Maximum total weight */
+    private transient long maxWeight;
+
+    /** Weigher of the mappings */
+    private transient Weigher<? super K, ? super V> weigher;
+
+    /** Current total weight */
+    private transient long weight;
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight where
+     * every mapping has a weight of one.
+     *
+     * @param maxWeight  The maximum total weight of the map
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     */
+    public WeightedLRUMap(final long maxWeight) {
+        this(maxWeight, UnitWeigher.INSTANCE);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight and weigher.
+     *
+     * @param maxWeight  The maximum total weight of the map
+     * @param weigher  The weigher of the mappings
+     * @throws NullPointerException if the weigher is null
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     */
+    public WeightedLRUMap(final long maxWeight, final Weigher<? super K, ? super V> weigher) {
+        this(maxWeight, weigher, false);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight and weigher.
+     *
+     * @param maxWeight  The maximum total weight of the map
+     * @param weigher  The weigher of the mappings
+     * @param scanUntilRemovable  scan until a removable entry is found, default false
+     * @throws NullPointerException if the weigher is null
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     */
+    public WeightedLRUMap(final long maxWeight, final Weigher<? super K, ? super V> weigher,
+                          final boolean scanUntilRemovable) {
+        this(maxWeight, weigher, DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, scanUntilRemovable);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight, weigher,
+     * initial capacity and load factor.
+     *
+     * @param maxWeight  The maximum total weight of the map
+     * @param weigher  The weigher of the mappings
+     * @param initialSize  The initial size of the map
+     * @param loadFactor  The load factor
+     * @param scanUntilRemovable  scan until a removable entry is found, default false
+     * @throws NullPointerException if the weigher is null
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     * @throws IllegalArgumentException if the initial size is negative
+     * @throws IllegalArgumentException if the load factor is less than zero
+     */
+    public WeightedLRUMap(final long maxWeight,
+                          final Weigher<? super K, ? super V> weigher,
+                          final int initialSize,
+                          final float loadFactor,
+                          final boolean scanUntilRemovable) {
+        super(Integer.MAX_VALUE, initialSize, loadFactor, scanUntilRemovable);
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("WeightedLRUMap max weight must be greater than 0");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher, "weigher");
+    }
+
+    /**
+     * Adds an entry into this map, adding its weight to the total weight.
+     *
+     * @param entry  The entry to add
+     * @param hashIndex  The index into the data array to store at
+     */
+    @Override
+    protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        super.addEntry(entry, hashIndex);
+        updateWeight((WeightedEntry<K, V>) entry);
+    }
+
+    /**
+     * Adds a new key-value mapping into this map.
+     * <p>
+     * This implementation always adds the mapping, rather than reusing the
+     * least recently used entry when the map {@link #isFull() is full} as
+     * {@link LRUMap} does, then removes least recently used entries until the
+     * total weight fits the maximum weight again. The weight of the new
+     * mapping thus decides whether anything is removed.
+     * </p>
+     *
+     * @param hashIndex  The index into the data array to store at
+     * @param hashCode  The hash code of the key to add
+     * @param key  The key to add
+     * @param value  The value to add
+     */
+    @Override
+    protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
+        modCount++;
+        addEntry(createEntry(data[hashIndex], hashCode, key, value), hashIndex);
+        size++;
+        checkCapacity();
+        removeOverweight();
+    }
+
+    /**
+     * Clears the map, resetting the size and the total weight to zero.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        weight = 0;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return A shallow clone
+     */
+    @Override
+    public WeightedLRUMap<K, V> clone() {
+        return (WeightedLRUMap<K, V>) super.clone();
+    }
+
+    /**
+     * Creates an entry to store the key-value data.
+     *
+     * @param next  The next entry in sequence
+     * @param hashCode  The hash code to use
+     * @param key  The key to store
+     * @param value  The value to store
+     * @return The newly created entry
+     */
+    @Override
+    protected WeightedEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new WeightedEntry<>(this, next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Reads the data necessary for {@code put()} to work in the superclass.
+     *
+     * @param in  The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doReadObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        maxWeight = in.readLong();
+        if (maxWeight < 1) {
+            throw new InvalidObjectException("WeightedLRUMap max weight must be greater than 0");
+        }
+        weigher = (Weigher<? super K, ? super V>) in.readObject();
+        if (weigher == null) {
+            throw new InvalidObjectException("WeightedLRUMap weigher must not be null");
+        }
+        super.doReadObject(in);
+    }
+
+    /**
+     * Writes the data necessary for {@code put()} to work in deserialization.
+     *
+     * @param out  The output stream
+     * @throws IOException Thrown if an error occurs while writing to the stream
+     */
+    @Override
+    protected void doWriteObject(final ObjectOutputStream out) throws IOException {
+        out.writeLong(maxWeight);
+        out.writeObject(weigher);
+        super.doWriteObject(out);
+    }
+
+    /**
+     * Returns true for a {@code WeightedLRUMap} itself, as the weigher does not
+     * affect how keys are hashed. A subclass must override this method to opt in.
+     *
+     * @return true if this is a {@code WeightedLRUMap}
+     * @since 4.6.1
+     */
+    @Override
+    protected boolean hasDefaultKeyHandling() {
+        return getClass() == WeightedLRUMap.class;
+    }
+
+    /**
+     * Initialize this map, resetting the total weight to zero.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        weight = 0;
+    }
+
+    /**
+     * Returns true if the total weight of this map has reached the maximum weight.
+     *
+     * @return {@code true} if the map is full
+     */
+    @Override
+    public boolean isFull() {
+        return weight >= maxWeight;
+    }
+
+    /**
+     * Gets the maximum total weight of the map (the bound).
+     *
+     * @return The maximum total weight the map can hold
+     */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Removes an entry from the chain stored in a particular index,
+     * subtracting its weight from the total weight.
+     *
+     * @param entry  The entry to remove
+     * @param hashIndex  The index into the data structure
+     * @param previous  The previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        final WeightedEntry<K, V> weighted = (WeightedEntry<K, V>) entry;
+        weight -= weighted.weight;
+        weighted.weight = 0;
+        super.removeEntry(entry, hashIndex, previous);
+    }
+
+    /**
+     * Removes least recently used entries until the total weight no longer
+     * exceeds the maximum weight, never removing the most recently used entry.
+     */
+    private void removeOverweight() {
+        LinkEntry<K, V> entry = header.after;
+        while (weight > maxWeight && entry != header.before) {
+            final LinkEntry<K, V> next = entry.after;
+            if (removeLRU(entry)) {
+                final int index = hashIndex(entry.hashCode, data.length);
+                HashEntry<K, V> previous = null;
+                HashEntry<K, V> loop = data[index];
+                while (loop != entry) {
+                    previous = loop;
+                    loop = loop.next;
+                }
+                removeMapping(entry, index, previous);
+            } else if (!isScanUntilRemovable()) {
+                break;
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Updates an existing key-value mapping.
+     * <p>
+     * This implementation moves the updated entry to the end of the list
+     * and removes least recently used entries if the new value made the
+     * map overweight.
+     * </p>
+     *
+     * @param entry  The entry to update
+     * @param newValue  The new value to store
+     */
+    @Override
+    protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        super.updateEntry(entry, newValue);
+        removeOverweight();
+    }
+
+    /**
+     * Weighs the mapping of an entry and updates the total weight.
+     *
+     * @param entry  The entry to weigh
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    private void updateWeight(final WeightedEntry<K, V> entry) {
+        final long newWeight = weigher.weigh(entry.getKey(), entry.getValue());
+        if (newWeight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + newWeight);
+        }
+        weight += newWeight - entry.weight;
+        entry.weight = newWeight;
+    }
+
+    /**
+     * Gets the current total weight of the map.
+     *
+     * @return The sum of the weights of all mappings
+     */
+    public long weight() {
+        return weight;
+    }
+
+}
@@ -22,13 +22,14 @@ import java.io.ObjectOutputStream;
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableUtils;
@@ -40,8 +41,6 @@ import org.apache.commons.collections4.Transformer;
 import org.apache.commons.collections4.iterators.AbstractIteratorDecorator;
 import org.apache.commons.collections4.iterators.EmptyMapIterator;
 import org.apache.commons.collections4.iterators.IteratorChain;
-import org.apache.commons.collections4.iterators.LazyIteratorChain;
-import org.apache.commons.collections4.iterators.TransformIterator;
 import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
 import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
 import org.apache.commons.collections4.multiset.AbstractMultiSet;
@@ -192,19 +191,23 @@ public abstract class AbstractMultiValuedMap<K, V> implements MultiValuedMap<K,
 
         @Override
         public Iterator<Entry<K, V>> iterator() {
-            return new LazyIteratorChain<Entry<K, V>>() {
+            final MapIterator<K, V> it = mapIterator();
+            return new Iterator<Entry<K, V>>() {
 
-                final Collection<K> keysCol = new ArrayList<>(getMap().keySet());
-                final Iterator<K> keyIterator = keysCol.iterator();
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
 
                 @Override
-                protected Iterator<? extends Entry<K, V>> nextIterator(final int count) {
-                    if (!keyIterator.hasNext()) {
-                        return null;
-                    }
-                    final K key = keyIterator.next();
-                    final Transformer<V, Entry<K, V>> entryTransformer = input -> new MultiValuedMapEntry(key, input);
-                    return new TransformIterator<>(new ValuesIterator(key), entryTransformer);
+                public Entry<K, V> next() {
+                    final K key = it.next();
+                    return new MultiValuedMapEntry(key, it.getValue());
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
                 }
             };
         }
@@ -300,56 +303,103 @@ public abstract class AbstractMultiValuedMap<K, V> implements MultiValuedMap<K,
     }
 
     /**
-     * Inner class for MapIterator.
+     * Inner class for MapIterator, moving over the collections of the underlying
+     * map without creating an entry per mapping.
+     * <p>
+     * The collections of the map may be empty, when a view of one of them was
+     * cleared, and are skipped. {@code remove()} cannot be called once
+     * {@code hasNext()} has moved to the collection of another key.
+     * </p>
      */
     private final class MultiValuedMapIterator implements MapIterator<K, V> {
 
-        private final Iterator<Entry<K, V>> it;
+        private final Iterator<Map.Entry<K, Collection<V>>> entryIterator = map.entrySet().iterator();
 
-        private Entry<K, V> current;
+        /** The key of the collection the cursor is in */
+        private K nextKey;
 
-        MultiValuedMapIterator() {
-            this.it = AbstractMultiValuedMap.this.entries().iterator();
-        }
+        private Collection<V> values;
+
+        private Iterator<V> valueIterator = IteratorUtils.emptyIterator();
+
+        /** The iterator that returned the current mapping */
+        private Iterator<V> lastValueIterator;
+
+        private K key;
+
+        private V value;
+
+        private boolean current;
 
         @Override
         public K getKey() {
-            if (current == null) {
+            if (!current) {
                 throw new IllegalStateException();
             }
-            return current.getKey();
+            return key;
         }
 
         @Override
         public V getValue() {
-            if (current == null) {
+            if (!current) {
                 throw new IllegalStateException();
             }
-            return current.getValue();
+            return value;
         }
 
         @Override
         public boolean hasNext() {
-            return it.hasNext();
+            while (!valueIterator.hasNext()) {
+                if (!entryIterator.hasNext()) {
+                    return false;
+                }
+                final Map.Entry<K, Collection<V>> entry = entryIterator.next();
+                nextKey = entry.getKey();
+                values = entry.getValue();
+                valueIterator = values.iterator();
+            }
+            return true;
         }
 
         @Override
         public K next() {
-            current = it.next();
-            return current.getKey();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            key = nextKey;
+            value = valueIterator.next();
+            lastValueIterator = valueIterator;
+            current = true;
+            return key;
         }
 
+        /**
+         * Removes the current mapping, and the key once it has no value.
+         *
+         * @throws IllegalStateException if {@code next()} was not called, or
+         *  {@code hasNext()} has moved to the collection of another key since
+         */
         @Override
         public void remove() {
-            it.remove();
+            if (!current) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            if (lastValueIterator != valueIterator) {
+                throw new IllegalStateException("remove() cannot be called after hasNext() moved to another key");
+            }
+            valueIterator.remove();
+            current = false;
+            if (values.isEmpty()) {
+                entryIterator.remove();
+            }
         }
 
         @Override
         public V setValue(final V value) {
-            if (current == null) {
+            if (!current) {
                 throw new IllegalStateException();
             }
-            return current.setValue(value);
+            throw new UnsupportedOperationException();
         }
 
     }
@@ -714,6 +764,26 @@ public abstract class AbstractMultiValuedMap<K, V> implements MultiValuedMap<K,
         return map;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation visits the collection of each key of the underlying map
+     * in place, without creating an entry per mapping.
+     * </p>
+     *
+     * @since 4.6.1
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        for (final Map.Entry<K, ? extends Collection<V>> entry : getMap().entrySet()) {
+            final K key = entry.getKey();
+            for (final V value : entry.getValue()) {
+                action.accept(key, value);
+            }
+        }
+    }
+
     @Override
     public int hashCode() {
         return getMap().hashCode();
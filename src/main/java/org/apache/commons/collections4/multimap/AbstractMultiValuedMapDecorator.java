@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.MultiSet;
@@ -105,6 +106,11 @@ public abstract class AbstractMultiValuedMapDecorator<K, V>
         return decorated().equals(object);
     }
 
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        decorated().forEach(action);
+    }
+
     @Override
     public Collection<V> get(final K key) {
         return decorated().get(key);
@@ -0,0 +1,617 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.MultiMapUtils;
+import org.apache.commons.collections4.MultiValuedMap;
+
+/**
+ * Implements a {@code ListValuedMap}, using a {@link HashMap} to provide data
+ * storage without a list object per key.
+ * <p>
+ * The values of a key are stored directly in the {@link HashMap}, in the most
+ * compact form for their number:
+ * </p>
+ * <ul>
+ * <li>a single value is stored as is;</li>
+ * <li>up to eight values are stored in an array of exactly their number, copied
+ * when a value is added or removed;</li>
+ * <li>more values are stored in a growable list.</li>
+ * </ul>
+ * <p>
+ * A map where most keys have one or a few values thus needs little more memory
+ * than the {@link HashMap} itself, several times less than
+ * {@link ArrayListValuedHashMap}, which allocates an {@link ArrayList} and its
+ * array for every key. The lists returned by {@link #get(Object)} are views
+ * which look the values up in the {@link HashMap} on each access.
+ * </p>
+ * <p>
+ * <strong>Note that CompactListValuedHashMap is not synchronized and is not
+ * thread-safe.</strong> If you wish to use this map from multiple threads
+ * concurrently, you must use appropriate synchronization. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public class CompactListValuedHashMap<K, V> extends AbstractListValuedMap<K, V>
+    implements Serializable {
+
+    /**
+     * The growable storage of the values of a key.
+     */
+    private static final class GrowableValues extends ArrayList<Object> {
+
+        private static final long serialVersionUID = 20261019L;
+
+        GrowableValues(final Object[] values) {
+            super(values.length * 3 / 2);
+            addAll(Arrays.asList(values));
+        }
+    }
+
+    /**
+     * The live view of the values of one key.
+     */
+    private static final class KeyList<K, V> extends AbstractList<V> implements RandomAccess {
+
+        private final Map<K, Object> slots;
+        private final K key;
+
+        KeyList(final Map<K, Object> slots, final K key) {
+            this.slots = slots;
+            this.key = key;
+        }
+
+        @Override
+        public void add(final int index, final V value) {
+            final Object slot = slots.get(key);
+            final int size = slotSize(slot);
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            final Object newSlot = insert(slot, index, value);
+            if (newSlot != slot) {
+                slots.put(key, newSlot);
+            }
+            modCount++;
+        }
+
+        private void checkIndex(final int index, final int size) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        @Override
+        public void clear() {
+            if (slots.remove(key) != null) {
+                modCount++;
+            }
+        }
+
+        @Override
+        public V get(final int index) {
+            final Object slot = slots.get(key);
+            checkIndex(index, slotSize(slot));
+            return valueAt(slot, index);
+        }
+
+        @Override
+        public V remove(final int index) {
+            final Object slot = slots.get(key);
+            final int size = slotSize(slot);
+            checkIndex(index, size);
+            final V value = valueAt(slot, index);
+            final Object newSlot = removeAt(slot, index);
+            if (newSlot == null) {
+                slots.remove(key);
+            } else if (newSlot != slot) {
+                slots.put(key, newSlot);
+            }
+            modCount++;
+            return value;
+        }
+
+        @Override
+        public V set(final int index, final V value) {
+            final Object slot = slots.get(key);
+            checkIndex(index, slotSize(slot));
+            final V old = valueAt(slot, index);
+            if (slot instanceof GrowableValues) {
+                ((GrowableValues) slot).set(index, value);
+            } else if (slot instanceof Object[]) {
+                ((Object[]) slot)[index] = value;
+            } else {
+                slots.put(key, single(value));
+            }
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return slotSize(slots.get(key));
+        }
+    }
+
+    /**
+     * Iterates over the mappings, reading the values of each key in place.
+     */
+    private static final class MappingIterator<K, V> implements MapIterator<K, V> {
+
+        private final Iterator<Map.Entry<K, Object>> slotIterator;
+        private Map.Entry<K, Object> entry;
+        /** The index of the next value in the values of the current key */
+        private int index;
+        private int size;
+        private boolean current;
+
+        MappingIterator(final Map<K, Object> slots) {
+            slotIterator = slots.entrySet().iterator();
+        }
+
+        @Override
+        public K getKey() {
+            if (!current) {
+                throw new IllegalStateException();
+            }
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            if (!current) {
+                throw new IllegalStateException();
+            }
+            return valueAt(entry.getValue(), index - 1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size || slotIterator.hasNext();
+        }
+
+        @Override
+        public K next() {
+            if (index >= size) {
+                entry = slotIterator.next();
+                size = slotSize(entry.getValue());
+                index = 0;
+            }
+            index++;
+            current = true;
+            return entry.getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (!current) {
+                throw new IllegalStateException();
+            }
+            final Object slot = removeAt(entry.getValue(), --index);
+            if (slot == null) {
+                slotIterator.remove();
+            } else {
+                entry.setValue(slot);
+            }
+            size--;
+            current = false;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!current) {
+                throw new IllegalStateException();
+            }
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * The map of the values of each key, as seen by {@link AbstractMultiValuedMap}.
+     */
+    private static final class SlotMap<K, V> extends AbstractMap<K, List<V>> {
+
+        /** The values of each key, in the form described by the class comment */
+        final HashMap<K, Object> slots;
+
+        SlotMap(final HashMap<K, Object> slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public void clear() {
+            slots.clear();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public Set<Map.Entry<K, List<V>>> entrySet() {
+            return new AbstractSet<Map.Entry<K, List<V>>>() {
+                @Override
+                public void clear() {
+                    slots.clear();
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, List<V>>> iterator() {
+                    final Iterator<K> iterator = slots.keySet().iterator();
+                    return new Iterator<Map.Entry<K, List<V>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<K, List<V>> next() {
+                            final K key = iterator.next();
+                            return new SimpleImmutableEntry<>(key, new KeyList<>(slots, key));
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+            };
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<V> get(final Object key) {
+            return slots.containsKey(key) ? new KeyList<>(slots, (K) key) : null;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return slots.keySet();
+        }
+
+        /**
+         * Replaces the values of a key by a copy of the given ones.
+         */
+        @Override
+        public List<V> put(final K key, final List<V> values) {
+            final List<V> old = remove(key);
+            final KeyList<K, V> list = new KeyList<>(slots, key);
+            list.addAll(values);
+            return old;
+        }
+
+        /**
+         * Removes a key, returning a copy of its values.
+         */
+        @Override
+        public List<V> remove(final Object key) {
+            final Object slot = slots.remove(key);
+            if (slot == null) {
+                return null;
+            }
+            final int size = slotSize(slot);
+            final List<V> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(valueAt(slot, i));
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+    }
+
+    /** Serialization Version */
+    private static final long serialVersionUID = 20261019L;
+
+    /**
+     * The initial map capacity used when none specified in constructor.
+     */
+    private static final int DEFAULT_INITIAL_MAP_CAPACITY = 16;
+
+    /**
+     * The largest number of values stored in an exact-sized array.
+     */
+    private static final int MAXIMUM_ARRAY_LENGTH = 8;
+
+    /**
+     * Stands for a single null value.
+     */
+    private static final Object NULL = new Object();
+
+    private static <V> V decode(final Object stored) {
+        @SuppressWarnings("unchecked")
+        final V value = stored == NULL ? null : (V) stored;
+        return value;
+    }
+
+    /**
+     * Gets the values after inserting one into the values of a key, which may be modified.
+     */
+    private static Object insert(final Object slot, final int index, final Object value) {
+        if (slot == null) {
+            return single(value);
+        }
+        if (slot instanceof GrowableValues) {
+            ((GrowableValues) slot).add(index, value);
+            return slot;
+        }
+        final Object[] array = slot instanceof Object[] ? (Object[]) slot : new Object[] {decode(slot)};
+        final Object[] newArray = new Object[array.length + 1];
+        System.arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = value;
+        System.arraycopy(array, index, newArray, index + 1, array.length - index);
+        return newArray.length > MAXIMUM_ARRAY_LENGTH ? new GrowableValues(newArray) : newArray;
+    }
+
+    /**
+     * Gets the values after removing one from the values of a key, which may be modified,
+     * or null if none is left.
+     */
+    private static Object removeAt(final Object slot, final int index) {
+        final int size = slotSize(slot);
+        if (size == 1) {
+            return null;
+        }
+        if (slot instanceof GrowableValues) {
+            ((GrowableValues) slot).remove(index);
+            return slot;
+        }
+        final Object[] array = (Object[]) slot;
+        if (size == 2) {
+            return single(decode(array[1 - index]));
+        }
+        final Object[] newArray = new Object[size - 1];
+        System.arraycopy(array, 0, newArray, 0, index);
+        System.arraycopy(array, index + 1, newArray, index, size - index - 1);
+        return newArray;
+    }
+
+    /**
+     * Gets the stored form of a single value, which is wrapped in an array when it
+     * could be taken for the storage of several values.
+     */
+    private static Object single(final Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        return value instanceof Object[] || value instanceof GrowableValues ? new Object[] {value} : value;
+    }
+
+    private static int slotSize(final Object slot) {
+        if (slot == null) {
+            return 0;
+        }
+        if (slot instanceof Object[]) {
+            return ((Object[]) slot).length;
+        }
+        return slot instanceof GrowableValues ? ((GrowableValues) slot).size() : 1;
+    }
+
+    /**
+     * Gets the most compact storage for the values of a key.
+     */
+    private static Object trim(final Object slot) {
+        if (!(slot instanceof GrowableValues)) {
+            return slot;
+        }
+        final GrowableValues values = (GrowableValues) slot;
+        if (values.size() == 1) {
+            return single(values.get(0));
+        }
+        if (values.size() <= MAXIMUM_ARRAY_LENGTH) {
+            return values.toArray();
+        }
+        values.trimToSize();
+        return values;
+    }
+
+    private static <V> V valueAt(final Object slot, final int index) {
+        if (slot instanceof Object[]) {
+            @SuppressWarnings("unchecked")
+            final V value = (V) ((Object[]) slot)[index];
+            return value;
+        }
+        if (slot instanceof GrowableValues) {
+            @SuppressWarnings("unchecked")
+            final V value = (V) ((GrowableValues) slot).get(index);
+            return value;
+        }
+        return decode(slot);
+    }
+
+    /**
+     * Creates an empty CompactListValuedHashMap with the default initial
+     * map capacity (16).
+     */
+    public CompactListValuedHashMap() {
+        this(DEFAULT_INITIAL_MAP_CAPACITY);
+    }
+
+    /**
+     * Creates an empty CompactListValuedHashMap with the specified initial
+     * map capacity.
+     *
+     * @param initialMapCapacity  The initial hashmap capacity
+     */
+    public CompactListValuedHashMap(final int initialMapCapacity) {
+        super(new SlotMap<>(new HashMap<>(initialMapCapacity)));
+    }
+
+    /**
+     * Creates a CompactListValuedHashMap copying all the mappings of the given map.
+     *
+     * @param map A {@code Map} to copy into this map
+     */
+    public CompactListValuedHashMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        super.putAll(map);
+    }
+
+    /**
+     * Creates a CompactListValuedHashMap copying all the mappings of the given map.
+     *
+     * @param map A {@code MultiValuedMap} to copy into this map
+     */
+    public CompactListValuedHashMap(final MultiValuedMap<? extends K, ? extends V> map) {
+        this(map.keySet().size());
+        super.putAll(map);
+    }
+
+    /**
+     * Creates a list holding values removed from this map.
+     *
+     * @return A new list
+     */
+    @Override
+    protected ArrayList<V> createCollection() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the values of each key in place, without
+     * creating views.
+     * </p>
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        for (final Map.Entry<K, Object> entry : getSlots().entrySet()) {
+            final K key = entry.getKey();
+            final Object slot = entry.getValue();
+            final int size = slotSize(slot);
+            for (int i = 0; i < size; i++) {
+                action.accept(key, CompactListValuedHashMap.<V>valueAt(slot, i));
+            }
+        }
+    }
+
+    private HashMap<K, Object> getSlots() {
+        return ((SlotMap<K, V>) getMap()).slots;
+    }
+
+    @Override
+    public CompactListValuedHashMap<V, K> inverted() {
+        return MultiMapUtils.invert(this, new CompactListValuedHashMap<V, K>());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned iterator reads the values of each key in place, without
+     * creating views.
+     * </p>
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new MappingIterator<>(getSlots());
+    }
+
+    @Override
+    public boolean put(final K key, final V value) {
+        getSlots().compute(key, (k, slot) -> insert(slot, slotSize(slot), value));
+        return true;
+    }
+
+    /**
+     * Deserializes an instance from an ObjectInputStream.
+     *
+     * @param in The source ObjectInputStream.
+     * @throws IOException            Any of the usual Input/Output related exceptions.
+     * @throws ClassNotFoundException A class of a serialized object cannot be found.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setMap(new SlotMap<>(new HashMap<>()));
+        doReadObject(in);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation sums the numbers of values of the keys without
+     * creating views.
+     * </p>
+     */
+    @Override
+    public int size() {
+        long size = 0;
+        for (final Object slot : getSlots().values()) {
+            size += slotSize(slot);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stores the values of every key in the most compact form for their number,
+     * which values removed from large groups may have left in growable storage.
+     */
+    public void trimToSize() {
+        getSlots().replaceAll((key, slot) -> trim(slot));
+    }
+
+    @Override
+    List<V> wrappedCollection(final K key) {
+        return new KeyList<>(getSlots(), key);
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        doWriteObject(out);
+    }
+
+}
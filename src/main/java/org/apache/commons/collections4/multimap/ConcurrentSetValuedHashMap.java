@@ -0,0 +1,491 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.MultiMapUtils;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+
+/**
+ * Implements a thread-safe {@code SetValuedMap}, using a {@link ConcurrentHashMap}
+ * to provide data storage and concurrent sets as value collections.
+ * <p>
+ * Every change of the values of a key is made atomically within
+ * {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction) compute}
+ * on that key, so that concurrent {@code put}, {@code remove} and
+ * {@code removeMapping} calls never lose a value, and a key is mapped exactly
+ * while it has values. Reads take no lock.
+ * </p>
+ * <p>
+ * The collections returned by {@link #get(Object)}, {@link #values()},
+ * {@link #entries()} and the other views make their changes through these atomic
+ * operations. Their iterators are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException}, and may or may not reflect
+ * changes made after their creation. Bulk operations such as {@code size()} and
+ * {@code equals()} are not atomic.
+ * </p>
+ * <p>
+ * Like {@link ConcurrentHashMap}, this map does not allow null keys or values.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public class ConcurrentSetValuedHashMap<K, V> extends AbstractSetValuedMap<K, V>
+    implements Serializable {
+
+    /**
+     * Inner class that provides the entries view.
+     */
+    private final class Entries extends AbstractCollection<Map.Entry<K, V>> {
+
+        @Override
+        public void clear() {
+            ConcurrentSetValuedHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new MappingIterator<Map.Entry<K, V>>() {
+                @Override
+                Map.Entry<K, V> next(final K key, final V value) {
+                    return new UnmodifiableMapEntry<>(key, value);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentSetValuedHashMap.this.size();
+        }
+    }
+
+    /**
+     * Iterates over the mappings, removing them atomically.
+     */
+    private abstract class MappingIterator<T> implements Iterator<T> {
+
+        private final Iterator<Map.Entry<K, Set<V>>> entryIterator = getMap().entrySet().iterator();
+        private Iterator<V> valueIterator = Collections.emptyIterator();
+        private K key;
+        K lastKey;
+        V lastValue;
+
+        @Override
+        public boolean hasNext() {
+            while (!valueIterator.hasNext()) {
+                if (!entryIterator.hasNext()) {
+                    return false;
+                }
+                final Map.Entry<K, Set<V>> entry = entryIterator.next();
+                key = entry.getKey();
+                valueIterator = entry.getValue().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastKey = key;
+            lastValue = valueIterator.next();
+            return next(lastKey, lastValue);
+        }
+
+        /**
+         * Gets the element for a mapping.
+         *
+         * @param key  The key
+         * @param value  The value
+         * @return The element
+         */
+        abstract T next(K key, V value);
+
+        @Override
+        public void remove() {
+            if (lastValue == null) {
+                throw new IllegalStateException();
+            }
+            removeMapping(lastKey, lastValue);
+            lastValue = null;
+        }
+    }
+
+    /**
+     * Inner class for MapIterator.
+     */
+    private final class MultiValuedMapIterator extends MappingIterator<K> implements MapIterator<K, V> {
+
+        @Override
+        public K getKey() {
+            if (lastValue == null) {
+                throw new IllegalStateException();
+            }
+            return lastKey;
+        }
+
+        @Override
+        public V getValue() {
+            if (lastValue == null) {
+                throw new IllegalStateException();
+            }
+            return lastValue;
+        }
+
+        @Override
+        K next(final K key, final V value) {
+            return key;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (lastValue == null) {
+                throw new IllegalStateException();
+            }
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Inner class that provides the values view.
+     */
+    private final class Values extends AbstractCollection<V> {
+
+        @Override
+        public void clear() {
+            ConcurrentSetValuedHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new MappingIterator<V>() {
+                @Override
+                V next(final K key, final V value) {
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentSetValuedHashMap.this.size();
+        }
+    }
+
+    /**
+     * The set of values of one key, making its changes on the map.
+     */
+    private final class ValueSet extends AbstractSet<V> {
+
+        private final K key;
+
+        ValueSet(final K key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean add(final V value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends V> values) {
+            return putAll(key, values);
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentSetValuedHashMap.this.remove(key);
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return containsMapping(key, value);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            final Set<V> values = getMap().get(key);
+            final Iterator<V> iterator = values == null ? Collections.<V>emptyIterator() : values.iterator();
+            return new Iterator<V>() {
+                private V last;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public V next() {
+                    last = iterator.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    removeMapping(key, last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public boolean remove(final Object value) {
+            return removeMapping(key, value);
+        }
+
+        @Override
+        public int size() {
+            final Set<V> values = getMap().get(key);
+            return values == null ? 0 : values.size();
+        }
+    }
+
+    /** Serialization Version */
+    private static final long serialVersionUID = 20261019L;
+
+    /**
+     * The initial map capacity used when none specified in constructor.
+     */
+    private static final int DEFAULT_INITIAL_MAP_CAPACITY = 16;
+
+    /** The values view */
+    private transient Values valuesView;
+
+    /** The entries view */
+    private transient Entries entriesView;
+
+    /**
+     * Creates an empty ConcurrentSetValuedHashMap with the default initial
+     * map capacity (16).
+     */
+    public ConcurrentSetValuedHashMap() {
+        this(DEFAULT_INITIAL_MAP_CAPACITY);
+    }
+
+    /**
+     * Creates an empty ConcurrentSetValuedHashMap with the specified initial
+     * map capacity.
+     *
+     * @param initialMapCapacity  The initial map capacity
+     */
+    public ConcurrentSetValuedHashMap(final int initialMapCapacity) {
+        super(new ConcurrentHashMap<>(initialMapCapacity));
+    }
+
+    /**
+     * Creates a ConcurrentSetValuedHashMap copying all the mappings of the given map.
+     *
+     * @param map A {@code Map} to copy into this map
+     */
+    public ConcurrentSetValuedHashMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        super.putAll(map);
+    }
+
+    /**
+     * Creates a ConcurrentSetValuedHashMap copying all the mappings of the given map.
+     *
+     * @param map A {@code MultiValuedMap} to copy into this map
+     */
+    public ConcurrentSetValuedHashMap(final MultiValuedMap<? extends K, ? extends V> map) {
+        this(map.keySet().size());
+        super.putAll(map);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key != null && super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsMapping(final Object key, final Object value) {
+        return key != null && value != null && super.containsMapping(key, value);
+    }
+
+    @Override
+    protected Set<V> createCollection() {
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public Collection<Map.Entry<K, V>> entries() {
+        return entriesView != null ? entriesView : (entriesView = new Entries());
+    }
+
+    @Override
+    public ConcurrentSetValuedHashMap<V, K> inverted() {
+        return MultiMapUtils.invert(this, new ConcurrentSetValuedHashMap<V, K>());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned iterator is weakly consistent, and removes mappings atomically.
+     * </p>
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new MultiValuedMapIterator();
+    }
+
+    /**
+     * Adds a value to the set of a key atomically.
+     *
+     * @param key The key to store against
+     * @param value The value to add to the set at the key
+     * @return true if the map changed
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public boolean put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        return putAll(key, Collections.singleton(value));
+    }
+
+    /**
+     * Adds values to the set of a key atomically.
+     *
+     * @param key The key to store against
+     * @param values The values to add to the set at the key, may not be null
+     * @return true if the map changed
+     * @throws NullPointerException if the key, values, or any of the values is null
+     */
+    @Override
+    public boolean putAll(final K key, final Iterable<? extends V> values) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(values, "values");
+        // check the values before changing the set of the key
+        final List<V> list = new ArrayList<>();
+        for (final V value : values) {
+            list.add(Objects.requireNonNull(value, "value"));
+        }
+        if (list.isEmpty()) {
+            return false;
+        }
+        final boolean[] changed = new boolean[1];
+        getMap().compute(key, (k, set) -> {
+            final Set<V> target = set != null ? set : createCollection();
+            changed[0] = target.addAll(list);
+            return target;
+        });
+        return changed[0];
+    }
+
+    /**
+     * Deserializes an instance from an ObjectInputStream.
+     *
+     * @param in The source ObjectInputStream.
+     * @throws IOException            Any of the usual Input/Output related exceptions.
+     * @throws ClassNotFoundException A class of a serialized object cannot be found.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setMap(new ConcurrentHashMap<>());
+        doReadObject(in);
+    }
+
+    @Override
+    public Set<V> remove(final Object key) {
+        return key == null ? Collections.emptySet() : super.remove(key);
+    }
+
+    /**
+     * Removes a value from the set of a key atomically, unmapping the key if
+     * it was its last value.
+     *
+     * @param key The key to remove from
+     * @param value The value to remove
+     * @return true if the mapping was removed, false otherwise
+     */
+    @Override
+    public boolean removeMapping(final Object key, final Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        final boolean[] changed = new boolean[1];
+        @SuppressWarnings("unchecked")
+        final K k = (K) key;
+        getMap().computeIfPresent(k, (k1, set) -> {
+            changed[0] = set.remove(value);
+            return set.isEmpty() ? null : set;
+        });
+        return changed[0];
+    }
+
+    @Override
+    public Collection<V> values() {
+        return valuesView != null ? valuesView : (valuesView = new Values());
+    }
+
+    @Override
+    Set<V> wrappedCollection(final K key) {
+        return new ValueSet(key);
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream, writing a snapshot of
+     * the mappings.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final List<Map.Entry<K, Object[]>> snapshot = new ArrayList<>();
+        for (final Map.Entry<K, Set<V>> entry : getMap().entrySet()) {
+            final Object[] values = entry.getValue().toArray();
+            if (values.length > 0) {
+                snapshot.add(new UnmodifiableMapEntry<>(entry.getKey(), values));
+            }
+        }
+        out.writeInt(snapshot.size());
+        for (final Map.Entry<K, Object[]> entry : snapshot) {
+            out.writeObject(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            for (final Object value : entry.getValue()) {
+                out.writeObject(value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,557 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.MultiMapUtils;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.collection.UnmodifiableCollection;
+import org.apache.commons.collections4.iterators.UnmodifiableMapIterator;
+import org.apache.commons.collections4.map.UnmodifiableMap;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * An immutable {@code ListValuedMap} packed into a few arrays, in compressed
+ * sparse row layout.
+ * <p>
+ * The keys are stored in one array and the values of all the keys in another,
+ * those of the key at index <i>i</i> occupying the range given by an array of
+ * offsets. An open addressing table of key indices finds a key in constant
+ * time. A snapshot of a {@link MultiValuedMap} thus needs a few arrays instead
+ * of a hash map entry and a value collection per key, and {@link #get(Object)}
+ * returns a view of a range of the values array without copying.
+ * </p>
+ * <p>
+ * The keys keep the iteration order of the map packed, and the values of a key
+ * the iteration order of its collection. Null keys and values are supported.
+ * Attempts to modify the map result in an {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public final class PackedListValuedMap<K, V> extends AbstractListValuedMap<K, V>
+        implements Unmodifiable, Serializable {
+
+    /**
+     * The arrays, seen as a map of lists.
+     */
+    private static final class PackedMap<K, V> extends AbstractMap<K, List<V>> {
+
+        static <K, V> PackedMap<K, V> of(final MultiValuedMap<? extends K, ? extends V> map) {
+            final Map<? extends K, ? extends Collection<? extends V>> asMap = map.asMap();
+            final Object[] keys = new Object[asMap.size()];
+            final int[] offsets = new int[keys.length + 1];
+            Object[] values = new Object[map.size()];
+            int k = 0;
+            int v = 0;
+            for (final Map.Entry<? extends K, ? extends Collection<? extends V>> entry : asMap.entrySet()) {
+                keys[k] = entry.getKey();
+                offsets[k++] = v;
+                for (final V value : entry.getValue()) {
+                    if (v == values.length) {
+                        values = Arrays.copyOf(values, v + 1);
+                    }
+                    values[v++] = value;
+                }
+            }
+            offsets[k] = v;
+            return new PackedMap<>(keys, offsets, v == values.length ? values : Arrays.copyOf(values, v));
+        }
+
+        private static int spread(final Object key) {
+            final int h = key == null ? 0 : key.hashCode();
+            return h ^ h >>> 16;
+        }
+
+        /** The keys, in iteration order */
+        final Object[] keys;
+
+        /** The start of the values of each key, followed by the number of values */
+        final int[] offsets;
+
+        /** The values of all the keys */
+        final Object[] values;
+
+        /** The index plus one of the key in each slot, zero for an empty slot */
+        private final int[] table;
+
+        private PackedMap(final Object[] keys, final int[] offsets, final Object[] values) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.values = values;
+            // a power of two leaving at least a third of the slots empty
+            table = new int[Integer.highestOneBit(Math.max(keys.length * 3 / 2, 1)) << 1];
+            final int mask = table.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int slot = spread(keys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Set<Map.Entry<K, List<V>>> entrySet() {
+            return new AbstractSet<Map.Entry<K, List<V>>>() {
+                @Override
+                public Iterator<Map.Entry<K, List<V>>> iterator() {
+                    return new KeyIndexIterator<Map.Entry<K, List<V>>>(keys.length) {
+                        @Override
+                        Map.Entry<K, List<V>> next(final int index) {
+                            return new SimpleImmutableEntry<>(key(index), valuesOf(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        @Override
+        public List<V> get(final Object key) {
+            final int index = indexOf(key);
+            return index >= 0 ? valuesOf(index) : null;
+        }
+
+        int indexOf(final Object key) {
+            final int mask = table.length - 1;
+            int slot = spread(key) & mask;
+            int index;
+            while ((index = table[slot] - 1) >= 0) {
+                if (Objects.equals(keys[index], key)) {
+                    return index;
+                }
+                slot = slot + 1 & mask;
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(final int index) {
+            return (K) keys[index];
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return new AbstractSet<K>() {
+                @Override
+                public boolean contains(final Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public Iterator<K> iterator() {
+                    return new KeyIndexIterator<K>(keys.length) {
+                        @Override
+                        K next(final int index) {
+                            return key(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        List<V> valuesOf(final int index) {
+            return new ValueList<>(values, offsets[index], offsets[index + 1]);
+        }
+    }
+
+    /**
+     * Iterates over the key indices.
+     */
+    private abstract static class KeyIndexIterator<T> implements Iterator<T> {
+
+        private final int size;
+        private int index;
+
+        KeyIndexIterator(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            return next(index++);
+        }
+
+        /**
+         * Gets the element for a key index.
+         *
+         * @param index  The key index
+         * @return The element
+         */
+        abstract T next(int index);
+    }
+
+    /**
+     * An unmodifiable view of a range of the values array.
+     */
+    private static final class ValueList<V> extends AbstractList<V> implements RandomAccess {
+
+        private final Object[] values;
+        private final int from;
+        private final int to;
+
+        ValueList(final Object[] values, final int from, final int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean add(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends V> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(final int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return (V) values[from + index];
+        }
+
+        @Override
+        public boolean remove(final Object object) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeAll(final Collection<?> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeIf(final Predicate<? super V> filter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(values, from, to);
+        }
+    }
+
+    /** Serialization Version */
+    private static final long serialVersionUID = 20261019L;
+
+    /**
+     * Factory method to create a packed copy of a MultiValuedMap.
+     * <p>
+     * If the map passed in is already a PackedListValuedMap, it is returned.
+     * </p>
+     *
+     * @param <K> The type of key elements
+     * @param <V> The type of value elements
+     * @param map  The map to copy, may not be null
+     * @return A packed, immutable copy of the map
+     * @throws NullPointerException if map is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PackedListValuedMap<K, V> packedListValuedMap(
+            final MultiValuedMap<? extends K, ? extends V> map) {
+        Objects.requireNonNull(map, "map");
+        if (map instanceof PackedListValuedMap) {
+            return (PackedListValuedMap<K, V>) map;
+        }
+        return new PackedListValuedMap<>(PackedMap.of(map));
+    }
+
+    /**
+     * Constructor that wraps the packed arrays.
+     *
+     * @param map  The packed map
+     */
+    private PackedListValuedMap(final PackedMap<K, V> map) {
+        super(map);
+    }
+
+    @Override
+    public Map<K, Collection<V>> asMap() {
+        return UnmodifiableMap.unmodifiableMap(super.asMap());
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    protected List<V> createCollection() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Map.Entry<K, V>> entries() {
+        return UnmodifiableCollection.unmodifiableCollection(super.entries());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the arrays directly, without creating views.
+     * </p>
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        final PackedMap<K, V> packed = getPackedMap();
+        final int[] offsets = packed.offsets;
+        for (int k = 0; k < packed.keys.length; k++) {
+            final K key = packed.key(k);
+            for (int v = offsets[k]; v < offsets[k + 1]; v++) {
+                @SuppressWarnings("unchecked")
+                final V value = (V) packed.values[v];
+                action.accept(key, value);
+            }
+        }
+    }
+
+    /**
+     * Gets an unmodifiable view of the values of a key, without copying them.
+     *
+     * @param key  The key to retrieve
+     * @return The values of the key, an empty list for no mapping
+     */
+    @Override
+    public List<V> get(final K key) {
+        return wrappedCollection(key);
+    }
+
+    private PackedMap<K, V> getPackedMap() {
+        return (PackedMap<K, V>) getMap();
+    }
+
+    @Override
+    public PackedListValuedMap<V, K> inverted() {
+        return packedListValuedMap(MultiMapUtils.invert(this, new ArrayListValuedLinkedHashMap<V, K>()));
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return UnmodifiableSet.unmodifiableSet(super.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned map iterator's {@link MapIterator#setValue(Object)} method is not supported
+     * and will throw an {@link UnsupportedOperationException}.
+     * </p>
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return UnmodifiableMapIterator.unmodifiableMapIterator(super.mapIterator());
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @param value Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @param values Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean putAll(final K key, final Iterable<? extends V> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param map Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean putAll(final Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param map Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean putAll(final MultiValuedMap<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Deserializes an instance from an ObjectInputStream.
+     *
+     * @param in The source ObjectInputStream.
+     * @throws IOException            Any of the usual Input/Output related exceptions.
+     * @throws ClassNotFoundException A class of a serialized object cannot be found.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final ArrayListValuedLinkedHashMap<K, V> map = new ArrayListValuedLinkedHashMap<>();
+        map.doReadObject(in);
+        setMap(PackedMap.of(map));
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public List<V> remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @param item Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public boolean removeMapping(final Object key, final Object item) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return getPackedMap().values.length;
+    }
+
+    /**
+     * Gets an unmodifiable view of all the values, without copying them.
+     *
+     * @return A list of the values of all the keys, in iteration order
+     */
+    @Override
+    public List<V> values() {
+        final Object[] values = getPackedMap().values;
+        return new ValueList<>(values, 0, values.length);
+    }
+
+    @Override
+    List<V> wrappedCollection(final K key) {
+        final List<V> values = getPackedMap().get(key);
+        return values != null ? values : Collections.emptyList();
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        doWriteObject(out);
+    }
+
+}
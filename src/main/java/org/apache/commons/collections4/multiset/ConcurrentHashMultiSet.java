@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.collections4.MultiSet;
+
+/**
+ * Implements {@code MultiSet} for concurrent use, using a {@link ConcurrentHashMap}
+ * of atomic counters.
+ * <p>
+ * Unlike a multiset wrapped with
+ * {@link org.apache.commons.collections4.MultiSetUtils#synchronizedMultiSet(MultiSet)
+ * MultiSetUtils.synchronizedMultiSet(MultiSet)}, no lock is shared by all the elements:
+ * changing the count of an element present is a compare-and-set on its own counter,
+ * so threads counting different elements do not contend, and the total size is kept
+ * in a {@link LongAdder}, which spreads updates over several cells.
+ * </p>
+ * <p>
+ * {@link #add(Object, int)}, {@link #remove(Object, int)}, {@link #setCount(Object, int)}
+ * and {@link #setCount(Object, int, int)} are atomic and return the count the element
+ * had just before. Bulk operations such as {@link #addAll(java.util.Collection)} are not
+ * atomic. {@link #size()} is exact when the multiset is not being modified.
+ * </p>
+ * <p>
+ * The iterators and views are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException} and reflect some, all or none of
+ * the changes made after they were created. The entries are views whose
+ * {@link MultiSet.Entry#getCount()} returns the current count of their element.
+ * </p>
+ * <p>
+ * Null elements are not supported.
+ * </p>
+ *
+ * @param <E> The type held in the multiset
+ * @since 4.6.1
+ */
+public class ConcurrentHashMultiSet<E> extends AbstractMultiSet<E> implements Serializable {
+
+    /**
+     * A view of the count of one element.
+     */
+    private final class CountEntry extends AbstractEntry<E> {
+
+        private final E element;
+
+        CountEntry(final E element) {
+            this.element = element;
+        }
+
+        @Override
+        public int getCount() {
+            return ConcurrentHashMultiSet.this.getCount(element);
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+    }
+
+    /**
+     * Iterates over the elements with a positive count.
+     */
+    private final class EntrySetIterator implements Iterator<Entry<E>> {
+
+        private final Iterator<Map.Entry<E, AtomicInteger>> iterator = map.entrySet().iterator();
+
+        private E next;
+
+        private E last;
+
+        EntrySetIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (iterator.hasNext()) {
+                final Map.Entry<E, AtomicInteger> entry = iterator.next();
+                // skip the counters being removed
+                if (entry.getValue().get() > 0) {
+                    next = entry.getKey();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<E> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return new CountEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            setCount(last, 0);
+            last = null;
+        }
+    }
+
+    /** Serial version lock */
+    private static final long serialVersionUID = 20261019L;
+
+    /** The counters, a counter at zero being removed */
+    private transient ConcurrentMap<E, AtomicInteger> map;
+
+    /** The total size of the multiset */
+    private transient LongAdder size;
+
+    /**
+     * Constructs an empty {@link ConcurrentHashMultiSet}.
+     */
+    public ConcurrentHashMultiSet() {
+        map = new ConcurrentHashMap<>();
+        size = new LongAdder();
+    }
+
+    /**
+     * Constructs a multiset containing all the members of the given Iterable.
+     *
+     * @param iterable  An iterable to copy into this multiset
+     * @throws NullPointerException if the iterable contains null
+     */
+    public ConcurrentHashMultiSet(final Iterable<? extends E> iterable) {
+        this();
+        iterable.forEach(this::add);
+    }
+
+    /**
+     * Adds a number of occurrences of an element atomically.
+     * <p>
+     * The count of an element stops at {@link Integer#MAX_VALUE}.
+     * </p>
+     *
+     * @param object  The element to add, must not be null
+     * @param occurrences  The number of occurrences to add, may be zero
+     * @return The number of occurrences before the addition
+     * @throws IllegalArgumentException if occurrences is negative
+     * @throws NullPointerException if object is null
+     */
+    @Override
+    public int add(final E object, final int occurrences) {
+        Objects.requireNonNull(object, "object");
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        if (occurrences == 0) {
+            return getCount(object);
+        }
+        while (true) {
+            final AtomicInteger counter = map.get(object);
+            if (counter == null) {
+                if (map.putIfAbsent(object, new AtomicInteger(occurrences)) == null) {
+                    size.add(occurrences);
+                    return 0;
+                }
+                continue;
+            }
+            final int oldCount = counter.get();
+            if (oldCount == 0) {
+                // the counter is being removed, put a new one in its place
+                if (map.replace(object, counter, new AtomicInteger(occurrences))) {
+                    size.add(occurrences);
+                    return 0;
+                }
+                continue;
+            }
+            final int applied = Math.min(occurrences, Integer.MAX_VALUE - oldCount);
+            if (counter.compareAndSet(oldCount, oldCount + applied)) {
+                size.add(applied);
+                return oldCount;
+            }
+        }
+    }
+
+    /**
+     * Clears the multiset. Elements added during the call may remain.
+     */
+    @Override
+    public void clear() {
+        for (final Map.Entry<E, AtomicInteger> entry : map.entrySet()) {
+            final AtomicInteger counter = entry.getValue();
+            size.add(-counter.getAndSet(0));
+            map.remove(entry.getKey(), counter);
+        }
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return getCount(object) > 0;
+    }
+
+    @Override
+    protected Iterator<Entry<E>> createEntrySetIterator() {
+        return new EntrySetIterator();
+    }
+
+    @Override
+    public int getCount(final Object object) {
+        if (object == null) {
+            return 0;
+        }
+        final AtomicInteger counter = map.get(object);
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !createEntrySetIterator().hasNext();
+    }
+
+    /**
+     * Deserializes the multiset in using a custom routine.
+     *
+     * @param in The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        map = new ConcurrentHashMap<>();
+        size = new LongAdder();
+        final int entrySize = in.readInt();
+        for (int i = 0; i < entrySize; i++) {
+            @SuppressWarnings("unchecked") // This will fail at runtime if the stream is incorrect
+            final E obj = (E) in.readObject();
+            final int count = in.readInt();
+            if (obj == null || count < 1) {
+                throw new InvalidObjectException("Invalid entry: " + obj + ":" + count);
+            }
+            if (map.put(obj, new AtomicInteger(count)) != null) {
+                throw new InvalidObjectException("Duplicate entry: " + obj);
+            }
+            size.add(count);
+        }
+    }
+
+    /**
+     * Removes a number of occurrences of an element atomically.
+     *
+     * @param object  The element to remove
+     * @param occurrences  The number of occurrences to remove, may be zero
+     * @return The number of occurrences before the removal
+     * @throws IllegalArgumentException if occurrences is negative
+     */
+    @Override
+    public int remove(final Object object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        if (object == null) {
+            return 0;
+        }
+        while (true) {
+            final AtomicInteger counter = map.get(object);
+            if (counter == null) {
+                return 0;
+            }
+            final int oldCount = counter.get();
+            if (oldCount == 0) {
+                // the counter is being removed, a new one may follow
+                map.remove(object, counter);
+                continue;
+            }
+            if (occurrences == 0) {
+                return oldCount;
+            }
+            final int newCount = Math.max(oldCount - occurrences, 0);
+            if (counter.compareAndSet(oldCount, newCount)) {
+                size.add(newCount - oldCount);
+                if (newCount == 0) {
+                    map.remove(object, counter);
+                }
+                return oldCount;
+            }
+        }
+    }
+
+    /**
+     * Sets the number of occurrences of an element atomically.
+     *
+     * @param object  The element, must not be null
+     * @param count  The new number of occurrences, zero to remove the element
+     * @return The number of occurrences before the change
+     * @throws IllegalArgumentException if count is negative
+     * @throws NullPointerException if object is null
+     */
+    @Override
+    public int setCount(final E object, final int count) {
+        Objects.requireNonNull(object, "object");
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative.");
+        }
+        while (true) {
+            final AtomicInteger counter = map.get(object);
+            if (counter == null) {
+                if (count == 0) {
+                    return 0;
+                }
+                if (map.putIfAbsent(object, new AtomicInteger(count)) == null) {
+                    size.add(count);
+                    return 0;
+                }
+                continue;
+            }
+            final int oldCount = counter.get();
+            if (oldCount == 0) {
+                if (count == 0) {
+                    return 0;
+                }
+                if (map.replace(object, counter, new AtomicInteger(count))) {
+                    size.add(count);
+                    return 0;
+                }
+                continue;
+            }
+            if (counter.compareAndSet(oldCount, count)) {
+                size.add(count - oldCount);
+                if (count == 0) {
+                    map.remove(object, counter);
+                }
+                return oldCount;
+            }
+        }
+    }
+
+    /**
+     * Sets the number of occurrences of an element if it has an expected number of occurrences,
+     * atomically.
+     *
+     * @param object  The element, must not be null
+     * @param oldCount  The expected number of occurrences
+     * @param newCount  The new number of occurrences, zero to remove the element
+     * @return true if the element had the expected number of occurrences and was changed
+     * @throws IllegalArgumentException if oldCount or newCount is negative
+     * @throws NullPointerException if object is null
+     */
+    public boolean setCount(final E object, final int oldCount, final int newCount) {
+        Objects.requireNonNull(object, "object");
+        if (oldCount < 0 || newCount < 0) {
+            throw new IllegalArgumentException("Count must not be negative.");
+        }
+        while (true) {
+            final AtomicInteger counter = map.get(object);
+            final int current = counter == null ? 0 : counter.get();
+            if (current != oldCount) {
+                return false;
+            }
+            if (oldCount == newCount) {
+                return true;
+            }
+            if (current == 0) {
+                final boolean set = counter == null
+                        ? map.putIfAbsent(object, new AtomicInteger(newCount)) == null
+                        : map.replace(object, counter, new AtomicInteger(newCount));
+                if (set) {
+                    size.add(newCount);
+                    return true;
+                }
+                continue;
+            }
+            if (counter.compareAndSet(oldCount, newCount)) {
+                size.add(newCount - oldCount);
+                if (newCount == 0) {
+                    map.remove(object, counter);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in this multiset, or {@code Integer.MAX_VALUE}
+     * if the multiset contains more than {@code Integer.MAX_VALUE} elements.
+     *
+     * @return current size of the multiset
+     */
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(size.sum(), Integer.MAX_VALUE));
+    }
+
+    @Override
+    protected int uniqueElements() {
+        return map.size();
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // take a snapshot as the number of entries must be written first
+        final List<E> elements = new ArrayList<>();
+        final List<Integer> counts = new ArrayList<>();
+        for (final Map.Entry<E, AtomicInteger> entry : map.entrySet()) {
+            final int count = entry.getValue().get();
+            if (count > 0) {
+                elements.add(entry.getKey());
+                counts.add(count);
+            }
+        }
+        out.writeInt(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            out.writeObject(elements.get(i));
+            out.writeInt(counts.get(i));
+        }
+    }
+
+}
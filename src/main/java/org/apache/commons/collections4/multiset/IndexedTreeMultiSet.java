@@ -0,0 +1,653 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.apache.commons.collections4.SortedMultiSet;
+
+/**
+ * Implements {@link SortedMultiSet} with a balanced binary tree that knows the total
+ * count of every subtree, so that positions in the sorted sequence of occurrences can
+ * be queried in logarithmic time.
+ * <p>
+ * Each distinct element is a node of an AVL tree holding its count and the sum of the
+ * counts of its subtree. Besides the usual multiset operations, which take
+ * <i>O(log n)</i> time for <i>n</i> distinct elements like {@link TreeMultiSet},
+ * this allows:
+ * </p>
+ * <ul>
+ * <li>{@link #countBelow(Object)}: the number of occurrences of smaller elements,
+ * which is the index of the first occurrence of an element;</li>
+ * <li>{@link #select(long)}: the element at an index of the sorted occurrences;</li>
+ * <li>{@link #quantile(double)} and {@link #median()}: the elements at a fraction of
+ * the sorted occurrences, each element weighted by its count.</li>
+ * </ul>
+ * <p>
+ * For example, a multiset of latencies counts how many requests took each duration,
+ * and {@code quantile(0.99)} is the 99th percentile of all the requests.
+ * </p>
+ * <p>
+ * <strong>Note that IndexedTreeMultiSet is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this multiset from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this multiset using
+ * {@link org.apache.commons.collections4.MultiSetUtils#synchronizedSortedMultiSet(SortedMultiSet)}.
+ * </p>
+ *
+ * @param <E> The type held in the multiset
+ * @since 4.6.1
+ */
+public class IndexedTreeMultiSet<E> extends AbstractMultiSet<E> implements SortedMultiSet<E>, Serializable {
+
+    /**
+     * A view of the count of one element.
+     */
+    private final class CountEntry extends AbstractEntry<E> {
+
+        private final E element;
+
+        CountEntry(final E element) {
+            this.element = element;
+        }
+
+        @Override
+        public int getCount() {
+            return IndexedTreeMultiSet.this.getCount(element);
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+    }
+
+    /**
+     * Iterates over the nodes in order, keeping the path to the next node.
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+
+        /** The nodes whose element and right subtree are still to visit, the next on top */
+        private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+        /** The node last returned */
+        Node<E> current;
+
+        /** Whether the last element returned can be removed */
+        boolean canRemove;
+
+        int expectedModCount = modCount;
+
+        NodeIterator() {
+            pushLeft(root);
+        }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Moves to the next node.
+         *
+         * @return The node
+         */
+        final Node<E> nextNode() {
+            checkModCount();
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            current = stack.pop();
+            pushLeft(current.right);
+            canRemove = true;
+            return current;
+        }
+
+        private void pushLeft(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        /**
+         * Removes occurrences of the last element returned.
+         *
+         * @param occurrences The number of occurrences to remove
+         */
+        final void remove(final int occurrences) {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            final E element = current.element;
+            if (IndexedTreeMultiSet.this.remove(element, occurrences) <= occurrences) {
+                // the tree was rebalanced, find the path to the next node again
+                stack.clear();
+                Node<E> node = root;
+                while (node != null) {
+                    if (compare(element, node.element) < 0) {
+                        stack.push(node);
+                        node = node.left;
+                    } else {
+                        node = node.right;
+                    }
+                }
+            }
+            canRemove = false;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * A node of the tree.
+     */
+    private static final class Node<E> {
+
+        final E element;
+        int count;
+        /** The sum of the counts of the subtree */
+        long total;
+        int height = 1;
+        Node<E> left;
+        Node<E> right;
+
+        Node(final E element, final int count) {
+            this.element = element;
+            this.count = count;
+            this.total = count;
+        }
+    }
+
+    /** Serial version lock */
+    private static final long serialVersionUID = 20261019L;
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long total(final Node<?> node) {
+        return node == null ? 0 : node.total;
+    }
+
+    private static <E> Node<E> update(final Node<E> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.total = total(node.left) + node.count + total(node.right);
+        return node;
+    }
+
+    /** The comparator, null for natural ordering */
+    private final Comparator<? super E> comparator;
+
+    /** The root of the tree */
+    private transient Node<E> root;
+
+    /** The number of distinct elements */
+    private transient int distinct;
+
+    /** The modification count for fail fast iterators */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty {@link IndexedTreeMultiSet} using the natural ordering of the elements.
+     */
+    public IndexedTreeMultiSet() {
+        this((Comparator<? super E>) null);
+    }
+
+    /**
+     * Constructs an empty {@link IndexedTreeMultiSet} ordered by a comparator.
+     *
+     * @param comparator  The comparator to use, null for the natural ordering
+     */
+    public IndexedTreeMultiSet(final Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Constructs a multiset containing all the members of the given Iterable,
+     * using the natural ordering of the elements.
+     *
+     * @param iterable  An iterable to copy into this multiset
+     */
+    public IndexedTreeMultiSet(final Iterable<? extends E> iterable) {
+        this();
+        iterable.forEach(this::add);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the object to be added does not implement
+     * {@link Comparable} and the multiset is using natural ordering
+     * @throws NullPointerException if the specified element is null and this multiset uses
+     * natural ordering, or its comparator does not permit null elements
+     */
+    @Override
+    public int add(final E object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        if (comparator == null && !(object instanceof Comparable)) {
+            Objects.requireNonNull(object, "object");
+            throw new IllegalArgumentException("Objects of type " + object.getClass() + " cannot be added to " +
+                                               "a naturally ordered IndexedTreeMultiSet as it does not implement Comparable");
+        }
+        final Node<E> node = getNode(object);
+        if (occurrences == 0) {
+            return node != null ? node.count : 0;
+        }
+        modCount++;
+        if (node == null) {
+            root = insert(root, object, occurrences);
+            distinct++;
+            return 0;
+        }
+        final int oldCount = node.count;
+        final int applied = Math.min(occurrences, Integer.MAX_VALUE - oldCount);
+        node.count += applied;
+        addToPath(object, applied);
+        return oldCount;
+    }
+
+    /**
+     * Adds a change of count to the totals of the nodes from the root to an element present.
+     */
+    private void addToPath(final Object object, final long delta) {
+        Node<E> node = root;
+        while (node != null) {
+            node.total += delta;
+            final int cmp = compare(object, node.element);
+            if (cmp == 0) {
+                return;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+    }
+
+    private Node<E> balance(final Node<E> node) {
+        update(node);
+        final int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Clears the multiset.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        root = null;
+        distinct = 0;
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(final Object object, final E element) {
+        if (comparator == null) {
+            return ((Comparable<Object>) object).compareTo(element);
+        }
+        return comparator.compare((E) object, element);
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return getNode(object) != null;
+    }
+
+    /**
+     * Gets the number of occurrences of the elements less than the given element.
+     * <p>
+     * This is the index of the first occurrence of the element if it is present, and
+     * the index where it would be inserted otherwise.
+     * </p>
+     *
+     * @param object  The element, which need not be present
+     * @return The number of occurrences of smaller elements
+     * @throws ClassCastException if the element cannot be compared with the elements of this multiset
+     * @throws NullPointerException if the element is null and the ordering does not permit null elements
+     */
+    public long countBelow(final E object) {
+        long count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (compare(object, node.element) <= 0) {
+                node = node.left;
+            } else {
+                count += total(node.left) + node.count;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    protected Iterator<Entry<E>> createEntrySetIterator() {
+        return new NodeIterator<Entry<E>>() {
+            @Override
+            public Entry<E> next() {
+                return new CountEntry(nextNode().element);
+            }
+
+            @Override
+            public void remove() {
+                remove(Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    private Node<E> delete(final Node<E> node, final Object object) {
+        final int cmp = compare(object, node.element);
+        if (cmp < 0) {
+            node.left = delete(node.left, object);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, object);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // replace the node by the smallest node of its right subtree
+            Node<E> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteFirst(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node<E> deleteFirst(final Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteFirst(node.left);
+        return balance(node);
+    }
+
+    @Override
+    public E first() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<E> node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    @Override
+    public int getCount(final Object object) {
+        final Node<E> node = getNode(object);
+        return node != null ? node.count : 0;
+    }
+
+    private Node<E> getNode(final Object object) {
+        Node<E> node = root;
+        while (node != null) {
+            final int cmp = compare(object, node.element);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private Node<E> insert(final Node<E> node, final E object, final int count) {
+        if (node == null) {
+            return new Node<>(object, count);
+        }
+        if (compare(object, node.element) < 0) {
+            node.left = insert(node.left, object, count);
+        } else {
+            node.right = insert(node.right, object, count);
+        }
+        return balance(node);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new NodeIterator<E>() {
+            /** The occurrences of the current element not returned yet */
+            private int itemCount;
+
+            @Override
+            public boolean hasNext() {
+                return itemCount > 0 || super.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (itemCount == 0) {
+                    itemCount = nextNode().count;
+                } else {
+                    checkModCount();
+                    canRemove = true;
+                }
+                itemCount--;
+                return current.element;
+            }
+
+            @Override
+            public void remove() {
+                remove(1);
+            }
+        };
+    }
+
+    @Override
+    public E last() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<E> node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    /**
+     * Gets the weighted median: the middle element of the sorted occurrences, the lower
+     * one when their number is even. This is {@code quantile(0.5)}.
+     *
+     * @return The median element
+     * @throws NoSuchElementException if the multiset is empty
+     */
+    public E median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Gets the element below which a fraction of the occurrences lie, using the nearest
+     * rank method: the element at index {@code ceil(fraction * size) - 1} of the sorted
+     * occurrences, or the first element for a fraction of zero.
+     *
+     * @param fraction  The fraction, between zero and one
+     * @return The element
+     * @throws IllegalArgumentException if the fraction is not between zero and one
+     * @throws NoSuchElementException if the multiset is empty
+     */
+    public E quantile(final double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        final long index = (long) Math.ceil(fraction * root.total) - 1;
+        return select(Math.min(Math.max(index, 0), root.total - 1));
+    }
+
+    /**
+     * Deserializes the multiset in using a custom routine.
+     *
+     * @param in  The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int entrySize = in.readInt();
+        for (int i = 0; i < entrySize; i++) {
+            @SuppressWarnings("unchecked") // This will fail at runtime if the stream is incorrect
+            final E obj = (E) in.readObject();
+            final int count = in.readInt();
+            if (count < 1) {
+                throw new InvalidObjectException("Invalid count for entry: " + count);
+            }
+            if (add(obj, count) != 0) {
+                throw new InvalidObjectException("Duplicate entry: " + obj);
+            }
+        }
+    }
+
+    @Override
+    public int remove(final Object object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        final Node<E> node = getNode(object);
+        if (node == null) {
+            return 0;
+        }
+        final int oldCount = node.count;
+        if (occurrences == 0) {
+            return oldCount;
+        }
+        modCount++;
+        if (occurrences < oldCount) {
+            node.count -= occurrences;
+            addToPath(object, -occurrences);
+        } else {
+            root = delete(root, object);
+            distinct--;
+        }
+        return oldCount;
+    }
+
+    private Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private Node<E> rotateRight(final Node<E> node) {
+        final Node<E> left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    /**
+     * Gets the element at an index of the sorted occurrences: an element with a count of
+     * <i>c</i> is at <i>c</i> consecutive indices.
+     *
+     * @param index  The index, from zero to the number of occurrences excluded
+     * @return The element at the index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public E select(long index) {
+        if (index < 0 || index >= total(root)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + total(root));
+        }
+        Node<E> node = root;
+        while (true) {
+            final long leftTotal = total(node.left);
+            if (index < leftTotal) {
+                node = node.left;
+            } else if (index < leftTotal + node.count) {
+                return node.element;
+            } else {
+                index -= leftTotal + node.count;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in this multiset, or {@code Integer.MAX_VALUE}
+     * if the multiset contains more than {@code Integer.MAX_VALUE} elements.
+     *
+     * @return current size of the multiset
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(total(root), Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected int uniqueElements() {
+        return distinct;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        super.doWriteObject(out);
+    }
+
+}
@@ -0,0 +1,593 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.commons.collections4.MultiSet;
+
+/**
+ * Implements {@code MultiSet} with an open addressing hash table that holds the
+ * counts as primitive {@code int}s.
+ * <p>
+ * The elements are stored in an array probed linearly and their counts in a
+ * parallel {@code int} array, so a distinct element costs two array slots instead
+ * of the map entry and {@code MutableInteger} used by {@link HashMultiSet}: about
+ * a quarter of the memory when counting many distinct elements, and no allocation
+ * when the count of an element already present changes.
+ * </p>
+ * <p>
+ * {@link #forEachEntry(ObjIntConsumer)} visits the elements and their counts
+ * without allocating. The entries returned by {@link #entrySet()} are views that
+ * look their count up on each call to {@link MultiSet.Entry#getCount()}.
+ * </p>
+ * <p>
+ * The iteration order is unspecified. Null elements are supported.
+ * </p>
+ * <p>
+ * <strong>Note that OpenHashMultiSet is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this multiset from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this multiset using
+ * {@link org.apache.commons.collections4.MultiSetUtils#synchronizedMultiSet(org.apache.commons.collections4.MultiSet)
+ * MultiSetUtils.synchronizedMultiSet(MultiSet)}.
+ * </p>
+ *
+ * @param <E> The type held in the multiset
+ * @since 4.6.1
+ */
+public class OpenHashMultiSet<E> extends AbstractMultiSet<E> implements Serializable {
+
+    /**
+     * A view of the count of one element.
+     */
+    private final class CountEntry extends AbstractEntry<E> {
+
+        private final E element;
+
+        CountEntry(final E element) {
+            this.element = element;
+        }
+
+        @Override
+        public int getCount() {
+            return OpenHashMultiSet.this.getCount(element);
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+    }
+
+    /**
+     * Iterates over the occupied slots of the table.
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+
+        /** The next slot to examine */
+        int next;
+
+        /** The slot last returned, -1 if it cannot be removed */
+        int current = -1;
+
+        int expectedModCount = modCount;
+
+        SlotIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (next < elements.length && !isOccupied(elements[next])) {
+                next++;
+            }
+        }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < elements.length;
+        }
+
+        /**
+         * Moves to the next occupied slot.
+         *
+         * @return The slot
+         */
+        final int nextSlot() {
+            checkModCount();
+            if (next >= elements.length) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            advance();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            removeSlot(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /** Serial version lock */
+    private static final long serialVersionUID = 20261019L;
+
+    /** The default number of slots */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The largest number of slots */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** Stands for the null element in the table */
+    private static final Object NULL = new Object();
+
+    /** Marks a slot whose element was removed, so that probing continues past it */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * Gets the number of slots needed to hold a number of distinct elements.
+     */
+    private static int capacityFor(final int expectedElements) {
+        final long needed = expectedElements * 4L / 3 + 1;
+        if (needed >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    private static boolean isOccupied(final Object slot) {
+        return slot != null && slot != REMOVED;
+    }
+
+    private static Object mask(final Object element) {
+        return element == null ? NULL : element;
+    }
+
+    /** The elements, {@code null} for free slots */
+    private transient Object[] elements;
+
+    /** The counts, parallel to the elements */
+    private transient int[] counts;
+
+    /** The shift that turns a hash into a slot index */
+    private transient int shift;
+
+    /** The number of distinct elements */
+    private transient int distinct;
+
+    /** The number of removed slots */
+    private transient int removed;
+
+    /** The current total size of the multiset; kept exact past {@link Integer#MAX_VALUE}, {@link #size()} saturates */
+    private transient long size;
+
+    /** The modification count for fail fast iterators */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty {@link OpenHashMultiSet}.
+     */
+    public OpenHashMultiSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@link OpenHashMultiSet} sized for a number of distinct elements.
+     *
+     * @param expectedElements  The number of distinct elements expected
+     * @throws IllegalArgumentException if expectedElements is negative
+     */
+    public OpenHashMultiSet(final int expectedElements) {
+        if (expectedElements < 0) {
+            throw new IllegalArgumentException("Expected elements must not be negative.");
+        }
+        allocate(capacityFor(expectedElements));
+    }
+
+    /**
+     * Constructs a multiset containing all the members of the given Iterable.
+     *
+     * @param iterable  An iterable to copy into this multiset
+     */
+    public OpenHashMultiSet(final Iterable<? extends E> iterable) {
+        this();
+        iterable.forEach(this::add);
+    }
+
+    @Override
+    public int add(final E object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        final int slot = find(object);
+        if (slot >= 0) {
+            final int oldCount = counts[slot];
+            if (occurrences > 0) {
+                modCount++;
+                final int applied = Math.min(occurrences, Integer.MAX_VALUE - oldCount);
+                counts[slot] += applied;
+                size += applied;
+            }
+            return oldCount;
+        }
+        if (occurrences > 0) {
+            insert(-slot - 1, object, occurrences);
+        }
+        return 0;
+    }
+
+    private void allocate(final int capacity) {
+        elements = new Object[capacity];
+        counts = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /**
+     * Clears the multiset, keeping the size of the table.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(elements, null);
+        Arrays.fill(counts, 0);
+        distinct = 0;
+        removed = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return find(object) >= 0;
+    }
+
+    @Override
+    protected Iterator<Entry<E>> createEntrySetIterator() {
+        return new SlotIterator<Entry<E>>() {
+            @Override
+            public Entry<E> next() {
+                return new CountEntry(elementAt(nextSlot()));
+            }
+        };
+    }
+
+    @Override
+    protected Iterator<E> createUniqueSetIterator() {
+        return new SlotIterator<E>() {
+            @Override
+            public E next() {
+                return elementAt(nextSlot());
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(final int slot) {
+        final Object element = elements[slot];
+        return element == NULL ? null : (E) element;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof MultiSet)) {
+            return false;
+        }
+        final MultiSet<?> other = (MultiSet<?>) object;
+        if (other.size() != size()) {
+            return false;
+        }
+        for (int slot = 0; slot < elements.length; slot++) {
+            if (isOccupied(elements[slot]) && other.getCount(elementAt(slot)) != counts[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the slot of an element.
+     *
+     * @param object  The element
+     * @return The slot holding the element, or {@code -(slot + 1)} with the slot where it would be inserted
+     */
+    private int find(final Object object) {
+        final Object key = mask(object);
+        final int mask = elements.length - 1;
+        int firstRemoved = -1;
+        for (int slot = key.hashCode() * 0x9E3779B9 >>> shift;; slot = slot + 1 & mask) {
+            final Object current = elements[slot];
+            if (current == null) {
+                return -(firstRemoved >= 0 ? firstRemoved : slot) - 1;
+            }
+            if (current == REMOVED) {
+                if (firstRemoved < 0) {
+                    firstRemoved = slot;
+                }
+            } else if (current == key || current.equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Performs an action for each distinct element of this multiset and its count,
+     * without creating entry objects.
+     * <p>
+     * The action must not modify this multiset.
+     * </p>
+     *
+     * @param action  The action to perform, must not be null
+     * @throws NullPointerException if action is null
+     * @throws ConcurrentModificationException if the action modifies this multiset
+     */
+    public void forEachEntry(final ObjIntConsumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        final int expectedModCount = modCount;
+        for (int slot = 0; slot < elements.length; slot++) {
+            if (isOccupied(elements[slot])) {
+                action.accept(elementAt(slot), counts[slot]);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getCount(final Object object) {
+        final int slot = find(object);
+        return slot >= 0 ? counts[slot] : 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int total = 0;
+        for (int slot = 0; slot < elements.length; slot++) {
+            if (isOccupied(elements[slot])) {
+                total += Objects.hashCode(elementAt(slot)) ^ counts[slot];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Puts a new element in a free or removed slot.
+     */
+    private void insert(int slot, final E object, final int count) {
+        if (elements[slot] == null && distinct + removed + 1 > elements.length / 4 * 3) {
+            // too few free slots are left: drop the removed slots, and grow if half full
+            final int capacity = distinct + 1 > elements.length / 2 ? elements.length * 2 : elements.length;
+            if (capacity > MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("Too many distinct elements: " + distinct);
+            }
+            rehash(capacity);
+            slot = -find(object) - 1;
+        }
+        if (elements[slot] == REMOVED) {
+            removed--;
+        }
+        elements[slot] = mask(object);
+        counts[slot] = count;
+        distinct++;
+        size += count;
+        modCount++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return distinct == 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SlotIterator<E>() {
+            /** The occurrences of the current element not returned yet */
+            private int itemCount;
+
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return itemCount > 0 || super.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (itemCount == 0) {
+                    itemCount = counts[nextSlot()];
+                } else {
+                    checkModCount();
+                }
+                itemCount--;
+                canRemove = true;
+                return elementAt(current);
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                checkModCount();
+                canRemove = false;
+                if (counts[current] > 1) {
+                    // keep the slot while its remaining occurrences are returned
+                    counts[current]--;
+                    size--;
+                } else {
+                    super.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Deserializes the multiset in using a custom routine.
+     *
+     * @param in The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int entrySize = in.readInt();
+        if (entrySize < 0) {
+            throw new InvalidObjectException("Invalid entry count: " + entrySize);
+        }
+        allocate(capacityFor(entrySize));
+        for (int i = 0; i < entrySize; i++) {
+            @SuppressWarnings("unchecked") // This will fail at runtime if the stream is incorrect
+            final E obj = (E) in.readObject();
+            final int count = in.readInt();
+            if (count < 1) {
+                throw new InvalidObjectException("Invalid count for entry: " + count);
+            }
+            final int slot = find(obj);
+            if (slot >= 0) {
+                throw new InvalidObjectException("Duplicate entry: " + obj);
+            }
+            insert(-slot - 1, obj, count);
+        }
+    }
+
+    /**
+     * Moves the elements to a new table, dropping the removed slots.
+     */
+    private void rehash(final int capacity) {
+        final Object[] oldElements = elements;
+        final int[] oldCounts = counts;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldElements.length; i++) {
+            final Object key = oldElements[i];
+            if (isOccupied(key)) {
+                int slot = key.hashCode() * 0x9E3779B9 >>> shift;
+                while (elements[slot] != null) {
+                    slot = slot + 1 & mask;
+                }
+                elements[slot] = key;
+                counts[slot] = oldCounts[i];
+            }
+        }
+        removed = 0;
+    }
+
+    @Override
+    public int remove(final Object object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        final int slot = find(object);
+        if (slot < 0) {
+            return 0;
+        }
+        final int oldCount = counts[slot];
+        if (occurrences > 0) {
+            if (occurrences < oldCount) {
+                modCount++;
+                counts[slot] -= occurrences;
+                size -= occurrences;
+            } else {
+                removeSlot(slot);
+            }
+        }
+        return oldCount;
+    }
+
+    private void removeSlot(final int slot) {
+        size -= counts[slot];
+        elements[slot] = REMOVED;
+        counts[slot] = 0;
+        distinct--;
+        removed++;
+        modCount++;
+    }
+
+    @Override
+    public int setCount(final E object, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative.");
+        }
+        final int slot = find(object);
+        if (slot < 0) {
+            if (count > 0) {
+                insert(-slot - 1, object, count);
+            }
+            return 0;
+        }
+        final int oldCount = counts[slot];
+        if (count == 0) {
+            removeSlot(slot);
+        } else if (count != oldCount) {
+            modCount++;
+            counts[slot] = count;
+            size += count - oldCount;
+        }
+        return oldCount;
+    }
+
+    /**
+     * Returns the number of elements in this multiset, or {@code Integer.MAX_VALUE}
+     * if the multiset contains more than {@code Integer.MAX_VALUE} elements.
+     *
+     * @return current size of the multiset
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected int uniqueElements() {
+        return distinct;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        super.doWriteObject(out);
+    }
+
+}
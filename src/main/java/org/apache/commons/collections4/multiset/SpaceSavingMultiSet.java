@@ -0,0 +1,535 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.collections4.MultiSet;
+
+/**
+ * A {@code MultiSet} that approximates the counts of the most frequent elements of a
+ * stream in a fixed amount of memory, using the Space-Saving algorithm.
+ * <p>
+ * At most {@link #getCapacity()} distinct elements are kept. While there is room, the
+ * counts are exact. When an element that is not kept is added to a full multiset, it
+ * replaces the element with the smallest count and inherits that count, which is
+ * recorded as its {@linkplain #getError(Object) error}. The count of a kept element is
+ * therefore an upper bound of its true count, and its count minus its error a lower
+ * bound. Any element whose true count exceeds {@code size() / getCapacity()} is kept, so
+ * the heavy hitters of a stream with millions of distinct values are found with a few
+ * thousand counters. The most frequent elements are returned by
+ * {@link org.apache.commons.collections4.MultiSetUtils#topK(MultiSet, int)}.
+ * </p>
+ * <p>
+ * The sum of the counts is the number of occurrences added minus those removed, so
+ * {@link #size()} is exact. The kept elements are held in a binary heap ordered by
+ * count: adding and removing take <i>O(log m)</i> time for a capacity of <i>m</i>.
+ * </p>
+ * <p>
+ * Null elements are supported. The iteration order is unspecified.
+ * </p>
+ * <p>
+ * <strong>Note that SpaceSavingMultiSet is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this multiset from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this multiset using
+ * {@link org.apache.commons.collections4.MultiSetUtils#synchronizedMultiSet(MultiSet)
+ * MultiSetUtils.synchronizedMultiSet(MultiSet)}.
+ * </p>
+ *
+ * @param <E> The type held in the multiset
+ * @since 4.6.1
+ */
+public class SpaceSavingMultiSet<E> extends AbstractMultiSet<E> implements Serializable {
+
+    /**
+     * A view of the count of one element.
+     */
+    private final class CountEntry extends AbstractEntry<E> {
+
+        private final E element;
+
+        CountEntry(final E element) {
+            this.element = element;
+        }
+
+        @Override
+        public int getCount() {
+            return SpaceSavingMultiSet.this.getCount(element);
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+    }
+
+    /**
+     * A kept element with its count and its position in the heap.
+     */
+    private static final class Counter<E> {
+
+        E element;
+        int count;
+        int error;
+        int index;
+
+        Counter(final E element, final int count, final int error) {
+            this.element = element;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Iterates over a copy of the kept elements, as changing a count moves its counter in the heap.
+     */
+    private abstract class SnapshotIterator<T> implements Iterator<T> {
+
+        private final Object[] elements;
+
+        private int next;
+
+        /** Whether the last element returned can be removed */
+        boolean canRemove;
+
+        int expectedModCount = modCount;
+
+        SnapshotIterator() {
+            elements = new Object[used];
+            for (int i = 0; i < used; i++) {
+                elements[i] = heap[i].element;
+            }
+        }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < elements.length;
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return The element
+         */
+        @SuppressWarnings("unchecked")
+        final E nextElement() {
+            checkModCount();
+            if (next >= elements.length) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return (E) elements[next++];
+        }
+
+        /**
+         * Gets the last element returned.
+         *
+         * @return The element
+         */
+        @SuppressWarnings("unchecked")
+        final E current() {
+            return (E) elements[next - 1];
+        }
+
+        /**
+         * Removes occurrences of the last element returned.
+         *
+         * @param occurrences The number of occurrences to remove
+         */
+        final void remove(final int occurrences) {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            SpaceSavingMultiSet.this.remove(current(), occurrences);
+            canRemove = false;
+            expectedModCount = modCount;
+        }
+    }
+
+    /** Serial version lock */
+    private static final long serialVersionUID = 20261019L;
+
+    /** The maximum number of elements kept */
+    private final int capacity;
+
+    /** The counters by element */
+    private transient Map<E, Counter<E>> counters;
+
+    /** The counters as a binary min-heap by count */
+    private transient Counter<E>[] heap;
+
+    /** The number of counters in the heap */
+    private transient int used;
+
+    /** The sum of the counts; kept exact past {@link Integer#MAX_VALUE}, {@link #size()} saturates */
+    private transient long size;
+
+    /** The modification count for fail fast iterators */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty {@link SpaceSavingMultiSet}.
+     *
+     * @param capacity  The maximum number of distinct elements kept, at least one
+     * @throws IllegalArgumentException if capacity is less than one
+     */
+    public SpaceSavingMultiSet(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        init();
+    }
+
+    /**
+     * Adds a number of occurrences of an element.
+     * <p>
+     * If the element is not kept and the multiset is full, it replaces the element with
+     * the smallest count, and its count becomes that count plus the occurrences.
+     * The count of an element stops at {@link Integer#MAX_VALUE}.
+     * </p>
+     *
+     * @param object  The element to add
+     * @param occurrences  The number of occurrences to add, may be zero
+     * @return The count of the element before the addition, zero if it was not kept
+     * @throws IllegalArgumentException if occurrences is negative
+     */
+    @Override
+    public int add(final E object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        Counter<E> counter = counters.get(object);
+        final int oldCount = counter != null ? counter.count : 0;
+        if (occurrences == 0) {
+            return oldCount;
+        }
+        modCount++;
+        boolean appended = false;
+        if (counter == null) {
+            if (used < capacity) {
+                if (used == heap.length) {
+                    heap = Arrays.copyOf(heap, Math.min(capacity, heap.length * 2));
+                }
+                counter = new Counter<>(object, 0, 0);
+                place(counter, used++);
+                appended = true;
+            } else {
+                // evict the element with the smallest count, the new one takes over its count
+                counter = heap[0];
+                counters.remove(counter.element);
+                counter.element = object;
+                counter.error = counter.count;
+            }
+            counters.put(object, counter);
+        }
+        final int applied = Math.min(occurrences, Integer.MAX_VALUE - counter.count);
+        counter.count += applied;
+        size += applied;
+        if (appended) {
+            siftUp(counter.index);
+        } else {
+            siftDown(counter.index);
+        }
+        return oldCount;
+    }
+
+    /**
+     * Clears the multiset.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        counters.clear();
+        Arrays.fill(heap, 0, used, null);
+        used = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return counters.containsKey(object);
+    }
+
+    @Override
+    protected Iterator<Entry<E>> createEntrySetIterator() {
+        return new SnapshotIterator<Entry<E>>() {
+            @Override
+            public Entry<E> next() {
+                return new CountEntry(nextElement());
+            }
+
+            @Override
+            public void remove() {
+                remove(Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    /**
+     * Gets the maximum number of distinct elements kept.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the estimated number of occurrences of an element.
+     * <p>
+     * The count of a kept element is at least its true count and at most its true count
+     * plus its {@linkplain #getError(Object) error}.
+     * </p>
+     *
+     * @param object  The element
+     * @return The estimated count, zero if the element is not kept
+     */
+    @Override
+    public int getCount(final Object object) {
+        final Counter<E> counter = counters.get(object);
+        return counter != null ? counter.count : 0;
+    }
+
+    /**
+     * Gets the maximum overestimation of the count of an element, the count of the
+     * element it replaced when it was added.
+     *
+     * @param object  The element
+     * @return The error, zero if the count is exact or the element is not kept
+     */
+    public int getError(final Object object) {
+        final Counter<E> counter = counters.get(object);
+        return counter != null ? counter.error : 0;
+    }
+
+    private void init() {
+        counters = new HashMap<>();
+        @SuppressWarnings("unchecked") // the array only holds counters
+        final Counter<E>[] array = new Counter[Math.min(capacity, 16)];
+        heap = array;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return used == 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator<E>() {
+            /** The occurrences of the current element not returned yet */
+            private int itemCount;
+
+            @Override
+            public boolean hasNext() {
+                return itemCount > 0 || super.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (itemCount == 0) {
+                    final E element = nextElement();
+                    itemCount = getCount(element);
+                } else {
+                    checkModCount();
+                    canRemove = true;
+                }
+                itemCount--;
+                return current();
+            }
+
+            @Override
+            public void remove() {
+                remove(1);
+            }
+        };
+    }
+
+    /**
+     * Puts a counter at a position of the heap.
+     */
+    private void place(final Counter<E> counter, final int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * Deserializes the multiset in using a custom routine.
+     *
+     * @param in The input stream
+     * @throws IOException Thrown if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (capacity < 1) {
+            throw new InvalidObjectException("Invalid capacity: " + capacity);
+        }
+        init();
+        final int entrySize = in.readInt();
+        if (entrySize < 0 || entrySize > capacity) {
+            throw new InvalidObjectException("Invalid entry count: " + entrySize);
+        }
+        for (int i = 0; i < entrySize; i++) {
+            @SuppressWarnings("unchecked") // This will fail at runtime if the stream is incorrect
+            final E obj = (E) in.readObject();
+            final int count = in.readInt();
+            final int error = in.readInt();
+            if (count < 1 || error < 0) {
+                throw new InvalidObjectException("Invalid count for entry: " + count + ", error " + error);
+            }
+            if (counters.containsKey(obj)) {
+                throw new InvalidObjectException("Duplicate entry: " + obj);
+            }
+            add(obj, count);
+            counters.get(obj).error = error;
+        }
+    }
+
+    /**
+     * Removes a number of occurrences of an element.
+     * <p>
+     * The error of the element is not changed, so it may exceed the count afterwards.
+     * </p>
+     *
+     * @param object  The element to remove
+     * @param occurrences  The number of occurrences to remove, may be zero
+     * @return The count of the element before the removal
+     * @throws IllegalArgumentException if occurrences is negative
+     */
+    @Override
+    public int remove(final Object object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        final Counter<E> counter = counters.get(object);
+        if (counter == null) {
+            return 0;
+        }
+        final int oldCount = counter.count;
+        if (occurrences == 0) {
+            return oldCount;
+        }
+        modCount++;
+        if (occurrences < oldCount) {
+            counter.count -= occurrences;
+            size -= occurrences;
+            siftUp(counter.index);
+        } else {
+            counters.remove(object);
+            size -= oldCount;
+            final Counter<E> last = heap[--used];
+            heap[used] = null;
+            if (last != counter) {
+                place(last, counter.index);
+                siftDown(last.index);
+                siftUp(last.index);
+            }
+        }
+        return oldCount;
+    }
+
+    /**
+     * Moves a counter down the heap until its children have larger counts.
+     */
+    private void siftDown(int index) {
+        final Counter<E> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= used) {
+                break;
+            }
+            if (child + 1 < used && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    /**
+     * Moves a counter up the heap until its parent has a smaller count.
+     */
+    private void siftUp(int index) {
+        final Counter<E> counter = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    /**
+     * Returns the number of elements in this multiset, or {@code Integer.MAX_VALUE}
+     * if the multiset contains more than {@code Integer.MAX_VALUE} elements.
+     *
+     * @return current size of the multiset
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected int uniqueElements() {
+        return used;
+    }
+
+    /**
+     * Serializes this object to an ObjectOutputStream.
+     *
+     * @param out The target ObjectOutputStream.
+     * @throws IOException thrown when an I/O errors occur writing to the target stream.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(used);
+        for (int i = 0; i < used; i++) {
+            final Counter<E> counter = heap[i];
+            out.writeObject(counter.element);
+            out.writeInt(counter.count);
+            out.writeInt(counter.error);
+        }
+    }
+
+}
@@ -0,0 +1,686 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import org.apache.commons.collections4.OrderedMapIterator;
+import org.apache.commons.collections4.Trie;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+
+/**
+ * Base class for unmodifiable {@link Trie}s whose mappings are stored by position in trie order.
+ * <p>
+ * The structure of the trie is a crit-bit tree whose internal nodes are numbered in preorder.
+ * Each node has the index of the bit it branches on and the index of the first key of its
+ * right subtree. The position of a child is computed from that of its parent, so no child
+ * pointers are stored, and every subtree covers a contiguous range of positions. Sorted map
+ * views and prefix maps are such ranges.
+ * </p>
+ * <p>
+ * The tree is searched with <i>index keys</i> of type {@code T}, which subclasses may use
+ * to test bits faster than on the keys themselves.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @param <T> The type of the index keys
+ * @since 4.6.1
+ */
+abstract class AbstractIndexedTrie<K, V, T> extends AbstractBitwiseTrie<K, V> implements Unmodifiable {
+
+    /**
+     * An {@link OrderedMapIterator} over a range of the arrays.
+     */
+    private final class IndexedMapIterator implements OrderedMapIterator<K, V> {
+
+        private final int fromIndex;
+        private final int toIndex;
+        private int cursor;
+        private int last = -1;
+
+        IndexedMapIterator(final int fromIndex, final int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.cursor = fromIndex;
+        }
+
+        private int checkLast() {
+            if (last < 0) {
+                throw new IllegalStateException("Iterator getKey() can only be called after next() and before remove()");
+            }
+            return last;
+        }
+
+        @Override
+        public K getKey() {
+            return AbstractIndexedTrie.this.getKey(checkLast());
+        }
+
+        @Override
+        public V getValue() {
+            return AbstractIndexedTrie.this.getValue(checkLast());
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < toIndex;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > fromIndex;
+        }
+
+        @Override
+        public K next() {
+            if (cursor >= toIndex) {
+                throw new NoSuchElementException();
+            }
+            last = cursor++;
+            return AbstractIndexedTrie.this.getKey(last);
+        }
+
+        @Override
+        public K previous() {
+            if (cursor <= fromIndex) {
+                throw new NoSuchElementException();
+            }
+            last = --cursor;
+            return AbstractIndexedTrie.this.getKey(last);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A {@link SortedMap} view of a range of the arrays.
+     */
+    private final class RangeMap extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+        private final int fromIndex;
+        private final int toIndex;
+
+        RangeMap(final int fromIndex, final int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        private int checkRange(final K key) {
+            final int index = ceilingIndex(key);
+            if (index < fromIndex || index > toIndex) {
+                throw new IllegalArgumentException("Key is out of range: " + key);
+            }
+            return index;
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return AbstractIndexedTrie.this.comparator();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return inRange(indexOf(key));
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return Collections.unmodifiableSet(new RangeEntrySet(fromIndex, toIndex));
+        }
+
+        @Override
+        public K firstKey() {
+            if (fromIndex == toIndex) {
+                throw new NoSuchElementException();
+            }
+            return getKey(fromIndex);
+        }
+
+        @Override
+        public void forEach(final BiConsumer<? super K, ? super V> action) {
+            AbstractIndexedTrie.this.forEach(fromIndex, toIndex, action);
+        }
+
+        @Override
+        public V get(final Object key) {
+            final int index = indexOf(key);
+            return inRange(index) ? AbstractIndexedTrie.this.getValue(index) : null;
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(final K toKey) {
+            return new RangeMap(fromIndex, checkRange(toKey));
+        }
+
+        private boolean inRange(final int index) {
+            return index >= fromIndex && index < toIndex;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        @Override
+        public K lastKey() {
+            if (fromIndex == toIndex) {
+                throw new NoSuchElementException();
+            }
+            return getKey(toIndex - 1);
+        }
+
+        @Override
+        public V remove(final Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int size() {
+            return toIndex - fromIndex;
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+            final int from = checkRange(fromKey);
+            final int to = checkRange(toKey);
+            if (from > to) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            return new RangeMap(from, to);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(final K fromKey) {
+            return new RangeMap(checkRange(fromKey), toIndex);
+        }
+
+        @Override
+        public Collection<V> values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+    }
+
+    /**
+     * A {@link Set} view of the mappings in a range of the arrays.
+     */
+    private final class RangeEntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        private final int fromIndex;
+        private final int toIndex;
+
+        RangeEntrySet(final int fromIndex, final int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final int index = indexOf(entry.getKey());
+            return index >= fromIndex && index < toIndex && compare(AbstractIndexedTrie.this.getValue(index), entry.getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new Iterator<Map.Entry<K, V>>() {
+                private int cursor = fromIndex;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < toIndex;
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    if (cursor >= toIndex) {
+                        throw new NoSuchElementException();
+                    }
+                    final int index = cursor++;
+                    return new UnmodifiableMapEntry<>(getKey(index), AbstractIndexedTrie.this.getValue(index));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return toIndex - fromIndex;
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Builds the internal nodes from keys sorted in trie order.
+     * <p>
+     * The keys of a range differ first at the bit where its first and last keys differ,
+     * and those with that bit clear come first. The ranges are split iteratively, as the
+     * tree can be as deep as the longest key has bits.
+     * </p>
+     *
+     * @param <T>  the type of the index keys
+     * @param analyzer  the analyzer of the index keys
+     * @param keys  the index key at each position
+     * @param size  the number of keys
+     * @param bits  receives the bit index of each node, of length {@code size - 1}
+     * @param splits  receives the first position of the right subtree of each node, of length {@code size - 1}
+     * @throws IllegalArgumentException if two keys have the same bits
+     */
+    static <T> void buildNodes(final KeyAnalyzer<? super T> analyzer, final IntFunction<? extends T> keys, final int size,
+            final int[] bits, final int[] splits) {
+        if (size < 2) {
+            return;
+        }
+        final int[] stack = new int[2 * size];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size;
+        int node = 0;
+        while (top > 0) {
+            final int hi = stack[--top];
+            final int lo = stack[--top];
+            final T first = keys.apply(lo);
+            final T last = keys.apply(hi - 1);
+            final int bitIndex = analyzer.bitIndex(first, 0, analyzer.lengthInBits(first), last, 0, analyzer.lengthInBits(last));
+            if (!KeyAnalyzer.isValidBitIndex(bitIndex)) {
+                throw new IllegalArgumentException("Keys have the same bits: " + first + ", " + last);
+            }
+            // first key of the range with the bit set, the last key has it
+            int low = lo + 1;
+            int high = hi - 1;
+            while (low < high) {
+                final int mid = low + high >>> 1;
+                final T key = keys.apply(mid);
+                if (analyzer.isBitSet(key, bitIndex, analyzer.lengthInBits(key))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            bits[node] = bitIndex;
+            splits[node] = low;
+            node++;
+            // preorder: the left range is popped first
+            if (hi - low > 1) {
+                stack[top++] = low;
+                stack[top++] = hi;
+            }
+            if (low - lo > 1) {
+                stack[top++] = lo;
+                stack[top++] = low;
+            }
+        }
+    }
+
+    /**
+     * Constructs a new trie.
+     *
+     * @param keyAnalyzer  the analyzer of the keys, which orders them as the index keys
+     */
+    AbstractIndexedTrie(final KeyAnalyzer<? super K> keyAnalyzer) {
+        super(keyAnalyzer);
+    }
+
+    /**
+     * Gets the bit index the specified internal node branches on.
+     *
+     * @param node  the preorder number of the node
+     * @return the bit index
+     */
+    abstract int bitAt(int node);
+
+    /**
+     * Gets the position of the first key not before the given key in trie order.
+     *
+     * @param key  The key, not null
+     * @return The index of the key if it is present, else the index it would be inserted at
+     */
+    private int ceilingIndex(final K key) {
+        Objects.requireNonNull(key, "key");
+        final int index = search(key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return getKeyAnalyzer();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return Collections.unmodifiableSet(new RangeEntrySet(0, size()));
+    }
+
+    @Override
+    public K firstKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return getKey(0);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        forEach(0, size(), action);
+    }
+
+    private void forEach(final int fromIndex, final int toIndex, final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        for (int i = fromIndex; i < toIndex; i++) {
+            action.accept(getKey(i), getValue(i));
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        final int index = indexOf(key);
+        return index >= 0 ? getValue(index) : null;
+    }
+
+    /**
+     * Gets the index key at the specified position.
+     *
+     * @param index  the position
+     * @return the index key
+     */
+    abstract T getIndexKey(int index);
+
+    /**
+     * Gets the analyzer of the index keys.
+     *
+     * @return the analyzer
+     */
+    abstract KeyAnalyzer<? super T> getIndexKeyAnalyzer();
+
+    /**
+     * Gets the key at the specified position in trie order.
+     *
+     * @param index  the index of the key
+     * @return the key at the specified position
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public abstract K getKey(int index);
+
+    /**
+     * Gets the value at the specified position in trie order.
+     *
+     * @param index  the index of the value
+     * @return the value at the specified position
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public abstract V getValue(int index);
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        return new RangeMap(0, ceilingIndex(toKey));
+    }
+
+    /**
+     * Gets the position of the specified key in trie order, which is the number of keys before it.
+     *
+     * @param key  the key to find the index of
+     * @return the index, or -1 if not found
+     */
+    public int indexOf(final Object key) {
+        if (key == null) {
+            return -1;
+        }
+        final int index = search(castKey(key));
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public K lastKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return getKey(size() - 1);
+    }
+
+    @Override
+    public OrderedMapIterator<K, V> mapIterator() {
+        return new IndexedMapIterator(0, size());
+    }
+
+    @Override
+    public K nextKey(final K key) {
+        Objects.requireNonNull(key, "key");
+        final int index = indexOf(key);
+        return index >= 0 && index + 1 < size() ? getKey(index + 1) : null;
+    }
+
+    @Override
+    public SortedMap<K, V> prefixMap(final K key) {
+        final T prefix = toIndexKey(key);
+        final KeyAnalyzer<? super T> analyzer = getIndexKeyAnalyzer();
+        final int lengthInBits = analyzer.lengthInBits(prefix);
+        if (lengthInBits == 0) {
+            return this;
+        }
+        if (isEmpty()) {
+            return new RangeMap(0, 0);
+        }
+        // descend while the keys below the node may still differ within the prefix
+        int node = 0;
+        int lo = 0;
+        int hi = size();
+        while (hi - lo > 1 && bitAt(node) < lengthInBits) {
+            final int split = splitAt(node);
+            if (analyzer.isBitSet(prefix, bitAt(node), lengthInBits)) {
+                node += split - lo;
+                lo = split;
+            } else {
+                node++;
+                hi = split;
+            }
+        }
+        // the keys of the subtree agree on the bits of the prefix, check one of them
+        if (!analyzer.isPrefix(prefix, 0, lengthInBits, getIndexKey(lo))) {
+            return new RangeMap(lo, lo);
+        }
+        return new RangeMap(lo, hi);
+    }
+
+    @Override
+    public K previousKey(final K key) {
+        Objects.requireNonNull(key, "key");
+        final int index = indexOf(key);
+        return index > 0 ? getKey(index - 1) : null;
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @param value Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param m Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     *
+     * @param key Ignored.
+     * @throws UnsupportedOperationException Always thrown.
+     */
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Searches the crit-bit tree for a key.
+     * <p>
+     * The first descent follows the bits of the key to the only key it can be equal to.
+     * If that key is different, the second descent stops above the first bit where they
+     * differ, and the key goes before or after the whole subtree depending on that bit.
+     * </p>
+     *
+     * @param k  The key, not null
+     * @return The index of the key, or (-(insertion point) - 1) if it is not present
+     */
+    private int search(final K k) {
+        if (isEmpty()) {
+            return -1;
+        }
+        final T key = toIndexKey(k);
+        final KeyAnalyzer<? super T> analyzer = getIndexKeyAnalyzer();
+        final int lengthInBits = analyzer.lengthInBits(key);
+        int node = 0;
+        int lo = 0;
+        int hi = size();
+        while (hi - lo > 1) {
+            final int split = splitAt(node);
+            if (analyzer.isBitSet(key, bitAt(node), lengthInBits)) {
+                node += split - lo;
+                lo = split;
+            } else {
+                node++;
+                hi = split;
+            }
+        }
+        final T found = getIndexKey(lo);
+        final int cmp = analyzer.compare(key, found);
+        if (cmp == 0) {
+            return lo;
+        }
+        final int bitIndex = analyzer.bitIndex(key, 0, lengthInBits, found, 0, analyzer.lengthInBits(found));
+        if (!KeyAnalyzer.isValidBitIndex(bitIndex)) {
+            // same bits but not equal, order as the analyzer does
+            return cmp < 0 ? -lo - 1 : -lo - 2;
+        }
+        node = 0;
+        lo = 0;
+        hi = size();
+        while (hi - lo > 1 && bitAt(node) < bitIndex) {
+            final int split = splitAt(node);
+            if (analyzer.isBitSet(key, bitAt(node), lengthInBits)) {
+                node += split - lo;
+                lo = split;
+            } else {
+                node++;
+                hi = split;
+            }
+        }
+        return analyzer.isBitSet(key, bitIndex, lengthInBits) ? -hi - 1 : -lo - 1;
+    }
+
+    /**
+     * Gets the position of the first key of the right subtree of the specified internal node.
+     *
+     * @param node  the preorder number of the node
+     * @return the position
+     */
+    abstract int splitAt(int node);
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        final int from = ceilingIndex(fromKey);
+        final int to = ceilingIndex(toKey);
+        if (from > to) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new RangeMap(from, to);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        return new RangeMap(ceilingIndex(fromKey), size());
+    }
+
+    /**
+     * Converts a key to an index key.
+     *
+     * @param key  the key, not null
+     * @return the index key
+     */
+    abstract T toIndexKey(K key);
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+}
@@ -23,11 +23,13 @@ import java.io.ObjectOutputStream;
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -314,6 +316,95 @@ public abstract class AbstractPatriciaTrie<K, V> extends AbstractBitwiseTrie<K,
         }
     }
 
+    /**
+     * Finds the keys within a bounded edit distance of a key in one walk of the {@link Trie}.
+     * <p>
+     * Keys are compared element by element as defined by {@link KeyAnalyzer#bitsPerElement()}.
+     * A row of the Levenshtein table is kept for every element of the current path, so keys
+     * sharing a prefix share its rows, and a subtree is skipped as soon as every entry of the
+     * last row exceeds the maximum distance.
+     * </p>
+     */
+    private final class EditDistanceSearch {
+
+        private final K key;
+        private final int elements;
+        private final int maxDistance;
+        private final Map<K, V> result = new LinkedHashMap<>();
+        /** The rows of the table, the row at index i for the first i elements of the current path */
+        private int[][] rows;
+
+        EditDistanceSearch(final K key, final int maxDistance) {
+            this.key = key;
+            this.elements = lengthInBits(key) / bitsPerElement();
+            this.maxDistance = maxDistance;
+            rows = new int[Math.max(elements, 1) + maxDistance + 1][];
+            rows[0] = new int[elements + 1];
+            for (int j = 0; j <= elements; j++) {
+                rows[0][j] = j;
+            }
+        }
+
+        /**
+         * Fills the rows after the given depth with the elements of a key.
+         *
+         * @return The minimum of the last row
+         */
+        private int extend(final K other, final int depth, final int newDepth) {
+            final int bitsPerElement = bitsPerElement();
+            int min = 0;
+            for (int i = depth + 1; i <= newDepth; i++) {
+                if (i >= rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+                if (rows[i] == null) {
+                    rows[i] = new int[elements + 1];
+                }
+                final int[] previous = rows[i - 1];
+                final int[] row = rows[i];
+                row[0] = i;
+                min = i;
+                for (int j = 1; j <= elements; j++) {
+                    final int bitIndex = getKeyAnalyzer().bitIndex(other, (i - 1) * bitsPerElement, bitsPerElement,
+                            key, (j - 1) * bitsPerElement, bitsPerElement);
+                    final int cost = KeyAnalyzer.isEqualBitKey(bitIndex) || KeyAnalyzer.isNullBitKey(bitIndex) ? 0 : 1;
+                    row[j] = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + cost);
+                    min = Math.min(min, row[j]);
+                }
+            }
+            return min;
+        }
+
+        /**
+         * Visits a subtree whose keys share the first elements of the current path.
+         *
+         * @param h  The root of the subtree
+         * @param bitIndex  The bit index of its parent
+         * @param depth  The number of rows that are valid for the subtree
+         */
+        void search(final TrieEntry<K, V> h, final int bitIndex, final int depth) {
+            if (h.bitIndex <= bitIndex) {
+                if (!h.isEmpty()) {
+                    final int length = lengthInBits(h.key) / bitsPerElement();
+                    if (length > depth) {
+                        extend(h.key, depth, length);
+                    }
+                    if (rows[length][elements] <= maxDistance) {
+                        result.put(h.key, h.value);
+                    }
+                }
+                return;
+            }
+            // all the keys of the subtree have the same bits before the bit index of h
+            final int newDepth = Math.max(depth, Math.min(h.bitIndex / bitsPerElement(), lengthInBits(h.key) / bitsPerElement()));
+            if (newDepth > depth && extend(h.key, depth, newDepth) > maxDistance) {
+                return;
+            }
+            search(h.left, h.bitIndex, newDepth);
+            search(h.right, h.bitIndex, newDepth);
+        }
+    }
+
     /**
      * This is an entry set view of the {@link Trie} as returned by {@link Map#entrySet()}.
      */
@@ -1392,6 +1483,35 @@ public abstract class AbstractPatriciaTrie<K, V> extends AbstractBitwiseTrie<K,
         incrementModCount();
     }
 
+    /**
+     * Returns the mappings whose keys are within an edit distance of the given key.
+     * <p>
+     * The distance is the Levenshtein distance: the number of elements, as defined by
+     * {@link KeyAnalyzer#bitsPerElement()}, to insert, delete or substitute to turn one key
+     * into the other. For {@link org.apache.commons.collections4.trie.analyzer.StringKeyAnalyzer}
+     * an element is a {@code char}.
+     * </p>
+     * <p>
+     * The {@link Trie} is walked once. The distance to a common prefix is computed once for all
+     * the keys that share it, and subtrees whose prefix is already too far from the key are
+     * skipped, so only a small part of a large {@link Trie} is visited for small distances.
+     * </p>
+     *
+     * @param key  The key to search for
+     * @param maxDistance  The maximum distance, at least zero
+     * @return A new map of the mappings found, in the order of the {@link Trie}
+     * @throws IllegalArgumentException if maxDistance is negative
+     * @since 4.6.1
+     */
+    public Map<K, V> editDistanceMap(final K key, final int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must not be negative: " + maxDistance);
+        }
+        final EditDistanceSearch search = new EditDistanceSearch(key, maxDistance);
+        search.search(root.left, -1, 0);
+        return search.result;
+    }
+
     @Override
     public Set<Map.Entry<K, V>> entrySet() {
         if (entrySet == null) {
@@ -1661,6 +1781,17 @@ public abstract class AbstractPatriciaTrie<K, V> extends AbstractBitwiseTrie<K,
         incrementModCount();
     }
 
+    /**
+     * Tests whether the key of an entry is a prefix of a key.
+     */
+    private boolean isPrefixOf(final TrieEntry<K, V> entry, final K key, final int lengthInBits) {
+        if (entry.isEmpty()) {
+            return false;
+        }
+        final int length = lengthInBits(entry.key);
+        return length <= lengthInBits && getKeyAnalyzer().isPrefix(entry.key, 0, length, key);
+    }
+
     @Override
     public Set<K> keySet() {
         if (keySet == null) {
@@ -1691,6 +1822,56 @@ public abstract class AbstractPatriciaTrie<K, V> extends AbstractBitwiseTrie<K,
         throw new NoSuchElementException();
     }
 
+    /**
+     * Returns the entry whose key is the longest prefix of the given key, as used for routing
+     * tables and dictionary based tokenizers.
+     * <p>
+     * All the keys that are prefixes of a key lie on the path a lookup of that key follows, so
+     * this method costs the same as {@link #get(Object)}, whatever the number of prefixes.
+     * </p>
+     *
+     * @param key  The key to match
+     * @return The entry with the longest key that is a prefix of the given key or equal to it, null if there is none
+     * @since 4.6.1
+     */
+    public Map.Entry<K, V> longestPrefixOf(final K key) {
+        final int lengthInBits = lengthInBits(key);
+        // the root is not always on the path
+        TrieEntry<K, V> longest = isPrefixOf(root, key, lengthInBits) ? root : null;
+        TrieEntry<K, V> current = root.left;
+        TrieEntry<K, V> path = root;
+        while (true) {
+            if ((longest == null || lengthInBits(current.key) > lengthInBits(longest.key)) && isPrefixOf(current, key, lengthInBits)) {
+                longest = current;
+            }
+            if (current.bitIndex <= path.bitIndex) {
+                return longest;
+            }
+            path = current;
+            if (!isBitSet(key, current.bitIndex, lengthInBits)) {
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the key that is the longest prefix of the given key.
+     *
+     * @param key  The key to match
+     * @return The longest key that is a prefix of the given key or equal to it, null if there is none
+     * @see #longestPrefixOf(Object)
+     * @since 4.6.1
+     */
+    public K longestPrefixKeyOf(final K key) {
+        final Map.Entry<K, V> entry = longestPrefixOf(key);
+        if (entry == null) {
+            return null;
+        }
+        return entry.getKey();
+    }
+
     /**
      * Returns a key-value mapping associated with the greatest key strictly less than the given key, or null if there is no such key.
      */
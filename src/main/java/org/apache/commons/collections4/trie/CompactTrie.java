@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import java.util.Map;
+
+import org.apache.commons.collections4.Trie;
+
+/**
+ * An unmodifiable {@link Trie} that stores a snapshot of a bitwise trie in a few arrays.
+ * <p>
+ * The keys and values are held in two arrays in trie order. The structure of the trie is
+ * held as a crit-bit tree whose internal nodes are stored in preorder in two {@code int}
+ * arrays: the index of the bit the node branches on, and the index of the first key of
+ * its right subtree. The position of a child is computed from that of its parent, so no
+ * child pointers are stored and a trie of <i>n</i> mappings takes about
+ * <i>2n</i> references plus <i>2n</i> {@code int}s, compared with an object of seven
+ * fields per mapping for {@link PatriciaTrie}.
+ * </p>
+ * <p>
+ * Every subtree covers a contiguous range of the key array. Lookups test as many key bits
+ * as {@link PatriciaTrie} does, {@link #prefixMap(Object)} and the sorted map views are
+ * index ranges of the arrays, and the key at a given position is found in constant time
+ * with {@link #getKey(int)}.
+ * </p>
+ * <p>
+ * All modification methods throw {@link UnsupportedOperationException}. This class is
+ * thread-safe provided the keys and values are not changed.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public final class CompactTrie<K, V> extends AbstractIndexedTrie<K, V, K> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Factory method to create a compact copy of a trie.
+     * <p>
+     * If the trie is already a {@code CompactTrie} it is returned directly.
+     * </p>
+     *
+     * @param <K>  the key type
+     * @param <V>  the value type
+     * @param trie  The trie to copy, must not be null
+     * @return A new compact trie
+     * @throws NullPointerException if trie is null
+     */
+    public static <K, V> CompactTrie<K, V> compactTrie(final AbstractBitwiseTrie<K, ? extends V> trie) {
+        if (trie instanceof CompactTrie) {
+            @SuppressWarnings("unchecked") // safe to upcast
+            final CompactTrie<K, V> tmpTrie = (CompactTrie<K, V>) trie;
+            return tmpTrie;
+        }
+        return new CompactTrie<>(trie);
+    }
+
+    /** The keys, in trie order */
+    private final Object[] keys;
+
+    /** The values, parallel to the keys */
+    private final Object[] values;
+
+    /** The bit index each internal node branches on, in preorder */
+    private final int[] bits;
+
+    /** The index of the first key of the right subtree of each internal node, in preorder */
+    private final int[] splits;
+
+    /**
+     * Constructor that copies the mappings.
+     *
+     * @param trie  The trie to copy, must not be null
+     * @throws NullPointerException if trie is null
+     */
+    private CompactTrie(final AbstractBitwiseTrie<K, ? extends V> trie) {
+        super(trie.getKeyAnalyzer());
+        final int size = trie.size();
+        keys = new Object[size];
+        values = new Object[size];
+        int i = 0;
+        for (final Map.Entry<K, ? extends V> entry : trie.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        final int nodes = Math.max(size - 1, 0);
+        bits = new int[nodes];
+        splits = new int[nodes];
+        buildNodes(getKeyAnalyzer(), this::getKey, size, bits, splits);
+    }
+
+    @Override
+    int bitAt(final int node) {
+        return bits[node];
+    }
+
+    @Override
+    K getIndexKey(final int index) {
+        return getKey(index);
+    }
+
+    @Override
+    KeyAnalyzer<? super K> getIndexKeyAnalyzer() {
+        return getKeyAnalyzer();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K getKey(final int index) {
+        return (K) keys[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(final int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    int splitAt(final int node) {
+        return splits[node];
+    }
+
+    @Override
+    K toIndexKey(final K key) {
+        return key;
+    }
+
+}
@@ -0,0 +1,751 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.commons.collections4.OrderedMapIterator;
+import org.apache.commons.collections4.Trie;
+import org.apache.commons.collections4.iterators.UnmodifiableOrderedMapIterator;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+
+/**
+ * A thread-safe {@link Trie} for data that is read much more often than it is changed, as
+ * every write, even a single {@link #put(Object, Object) put}, costs O(n) time.
+ * <p>
+ * Reads go to an immutable {@link CompactTrie} snapshot held in a volatile field, so
+ * they take no lock and never wait for a writer. Writers synchronize on the trie, apply
+ * the change to a {@link PatriciaTrie} that holds the current content, and publish a new
+ * snapshot. Each published change therefore costs a rebuild of the snapshot, linear in
+ * the size of the trie: to change many mappings, use {@link #update(Consumer)}, which
+ * publishes once for the whole batch. Compound operations such as
+ * {@link #putIfAbsent(Object, Object)} and {@link #compute(Object, BiFunction)} are atomic.
+ * </p>
+ * <p>
+ * The views reflect changes to the trie, and changes made through them are made to the
+ * trie. Each operation on a view reads the snapshot current at that time, and iterators
+ * traverse the snapshot current when they were created, never throwing
+ * {@link java.util.ConcurrentModificationException}. {@link #mapIterator()} and
+ * {@link #snapshot()} are read-only.
+ * </p>
+ *
+ * @param <K> The type of the keys in this map
+ * @param <V> The type of the values in this map
+ * @since 4.6.1
+ */
+public class CopyOnWriteTrie<K, V> extends AbstractBitwiseTrie<K, V> {
+
+    /**
+     * The content given to {@link CopyOnWriteTrie#update(Consumer)}, which fails once the
+     * update has returned.
+     * <p>
+     * Views and iterators are those of the content, which the update then replaces by a
+     * copy, so that they no longer reach the content of the trie.
+     * </p>
+     */
+    private final class Batch implements Trie<K, V> {
+
+        /** The content being updated */
+        private final Master<K, V> trie = master;
+
+        private volatile boolean open = true;
+
+        @Override
+        public void clear() {
+            content().clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return content().comparator();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return content().containsKey(key);
+        }
+
+        @Override
+        public boolean containsValue(final Object value) {
+            return content().containsValue(value);
+        }
+
+        /**
+         * Gets the content, checking that the update is running.
+         */
+        private Master<K, V> content() {
+            if (!open) {
+                throw new IllegalStateException("The trie given to update() cannot be used after update() has returned");
+            }
+            return trie;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return content().entrySet();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj == this || content().equals(obj);
+        }
+
+        @Override
+        public K firstKey() {
+            return content().firstKey();
+        }
+
+        @Override
+        public V get(final Object key) {
+            return content().get(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return content().hashCode();
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(final K toKey) {
+            return content().headMap(toKey);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content().isEmpty();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return content().keySet();
+        }
+
+        @Override
+        public K lastKey() {
+            return content().lastKey();
+        }
+
+        @Override
+        public OrderedMapIterator<K, V> mapIterator() {
+            return content().mapIterator();
+        }
+
+        @Override
+        public K nextKey(final K key) {
+            return content().nextKey(key);
+        }
+
+        @Override
+        public SortedMap<K, V> prefixMap(final K key) {
+            return content().prefixMap(key);
+        }
+
+        @Override
+        public K previousKey(final K key) {
+            return content().previousKey(key);
+        }
+
+        @Override
+        public V put(final K key, final V value) {
+            return content().put(key, value);
+        }
+
+        @Override
+        public void putAll(final Map<? extends K, ? extends V> map) {
+            content().putAll(map);
+        }
+
+        @Override
+        public V remove(final Object key) {
+            return content().remove(key);
+        }
+
+        @Override
+        public int size() {
+            return content().size();
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+            return content().subMap(fromKey, toKey);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(final K fromKey) {
+            return content().tailMap(fromKey);
+        }
+
+        @Override
+        public String toString() {
+            return content().toString();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return content().values();
+        }
+    }
+
+    /**
+     * The mutable trie that holds the content, only used by writers.
+     */
+    private static final class Master<K, V> extends AbstractPatriciaTrie<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        Master(final KeyAnalyzer<? super K> keyAnalyzer) {
+            super(keyAnalyzer);
+        }
+
+        Master(final KeyAnalyzer<? super K> keyAnalyzer, final Map<? extends K, ? extends V> map) {
+            super(keyAnalyzer, map);
+        }
+    }
+
+    /**
+     * A live view of the trie, or of a range of it.
+     * <p>
+     * Reads are made on the range of the current snapshot given by a function, and writes
+     * of keys accepted by a predicate are made to the trie.
+     * </p>
+     */
+    private final class View extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+        private final Function<SortedMap<K, V>, SortedMap<K, V>> range;
+        private final Predicate<? super K> inRange;
+
+        View(final Function<SortedMap<K, V>, SortedMap<K, V>> range, final Predicate<? super K> inRange) {
+            this.range = range;
+            this.inRange = inRange;
+        }
+
+        private K checkRange(final K key) {
+            if (!inRange.test(key)) {
+                throw new IllegalArgumentException("Key is out of range: " + key);
+            }
+            return key;
+        }
+
+        /**
+         * Creates a view of a range of this view, which fails if the bounds are out of range.
+         */
+        private View createView(final Function<SortedMap<K, V>, SortedMap<K, V>> subRange, final Predicate<? super K> inSubRange) {
+            final Function<SortedMap<K, V>, SortedMap<K, V>> newRange = range.andThen(subRange);
+            newRange.apply(snapshot);
+            return new View(newRange, key -> inRange.test(key) && inSubRange.test(key));
+        }
+
+        @Override
+        public void clear() {
+            update(trie -> trie.keySet().removeIf(this::isInRange));
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return CopyOnWriteTrie.this.comparator();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return isInRange(key) && CopyOnWriteTrie.this.containsKey(key);
+        }
+
+        /**
+         * Gets the range of the current snapshot.
+         */
+        SortedMap<K, V> current() {
+            return range.apply(snapshot);
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new ViewEntrySet(this);
+        }
+
+        @Override
+        public K firstKey() {
+            return current().firstKey();
+        }
+
+        @Override
+        public V get(final Object key) {
+            return isInRange(key) ? CopyOnWriteTrie.this.get(key) : null;
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(final K toKey) {
+            return createView(map -> map.headMap(toKey), key -> compareKeys(key, toKey) < 0);
+        }
+
+        boolean isInRange(final Object key) {
+            return key != null && inRange.test(castKey(key));
+        }
+
+        @Override
+        public K lastKey() {
+            return current().lastKey();
+        }
+
+        @Override
+        public V put(final K key, final V value) {
+            return CopyOnWriteTrie.this.put(checkRange(key), value);
+        }
+
+        @Override
+        public V remove(final Object key) {
+            return isInRange(key) ? CopyOnWriteTrie.this.remove(key) : null;
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+            return createView(map -> map.subMap(fromKey, toKey),
+                key -> compareKeys(key, fromKey) >= 0 && compareKeys(key, toKey) < 0);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(final K fromKey) {
+            return createView(map -> map.tailMap(fromKey), key -> compareKeys(key, fromKey) >= 0);
+        }
+    }
+
+    /**
+     * The entry set of a {@link View}.
+     */
+    private final class ViewEntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        private final View view;
+
+        ViewEntrySet(final View view) {
+            this.view = view;
+        }
+
+        @Override
+        public void clear() {
+            view.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object key = entry.getKey();
+            final SortedMap<K, V> current = view.current();
+            return view.isInRange(key) && current.containsKey(key) && AbstractBitwiseTrie.compare(current.get(key), entry.getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final Iterator<Map.Entry<K, V>> iterator = view.current().entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                private K last;
+                private boolean canRemove;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    final Map.Entry<K, V> entry = iterator.next();
+                    last = entry.getKey();
+                    canRemove = true;
+                    return new WriteThroughEntry(last, entry.getValue());
+                }
+
+                @Override
+                public void remove() {
+                    if (!canRemove) {
+                        throw new IllegalStateException("Iterator remove() can only be called once after next()");
+                    }
+                    CopyOnWriteTrie.this.remove(last);
+                    canRemove = false;
+                }
+            };
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return view.isInRange(entry.getKey()) && CopyOnWriteTrie.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+    }
+
+    /**
+     * An entry whose {@link #setValue(Object)} puts the value in the trie.
+     */
+    private final class WriteThroughEntry extends AbstractMapEntry<K, V> {
+
+        WriteThroughEntry(final K key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    /** The mutable content, guarded by this */
+    private Master<K, V> master;
+
+    /** The published content */
+    private transient volatile CompactTrie<K, V> snapshot;
+
+    /** The view of the whole trie */
+    private transient View all;
+
+    /**
+     * Constructs a new empty trie.
+     *
+     * @param keyAnalyzer  the {@link KeyAnalyzer} to use, must not be null
+     * @throws NullPointerException if keyAnalyzer is null
+     */
+    public CopyOnWriteTrie(final KeyAnalyzer<? super K> keyAnalyzer) {
+        super(keyAnalyzer);
+        master = new Master<>(keyAnalyzer);
+        publish();
+    }
+
+    /**
+     * Constructs a new trie with the mappings of a map.
+     *
+     * @param keyAnalyzer  the {@link KeyAnalyzer} to use, must not be null
+     * @param map  the mappings to copy, must not be null
+     * @throws NullPointerException if keyAnalyzer or map is null
+     */
+    public CopyOnWriteTrie(final KeyAnalyzer<? super K> keyAnalyzer, final Map<? extends K, ? extends V> map) {
+        super(keyAnalyzer);
+        master = new Master<>(keyAnalyzer);
+        master.putAll(map);
+        publish();
+    }
+
+    private View all() {
+        if (all == null) {
+            all = new View(Function.identity(), key -> true);
+        }
+        return all;
+    }
+
+    @Override
+    public synchronized void clear() {
+        master.clear();
+        publish();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return getKeyAnalyzer();
+    }
+
+    private int compareKeys(final K key, final K other) {
+        return getKeyAnalyzer().compare(key, other);
+    }
+
+    @Override
+    public synchronized V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        try {
+            return master.compute(key, remappingFunction);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        try {
+            return master.computeIfAbsent(key, mappingFunction);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        try {
+            return master.computeIfPresent(key, remappingFunction);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return snapshot.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return snapshot.containsValue(value);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return all().entrySet();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj == this || snapshot.equals(obj);
+    }
+
+    @Override
+    public K firstKey() {
+        return snapshot.firstKey();
+    }
+
+    @Override
+    public V get(final Object key) {
+        return snapshot.get(key);
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshot.hashCode();
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        return all().headMap(toKey);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    @Override
+    public K lastKey() {
+        return snapshot.lastKey();
+    }
+
+    /**
+     * Gets a read-only iterator over the current snapshot.
+     *
+     * @return a map iterator
+     */
+    @Override
+    public OrderedMapIterator<K, V> mapIterator() {
+        return UnmodifiableOrderedMapIterator.unmodifiableOrderedMapIterator(snapshot.mapIterator());
+    }
+
+    @Override
+    public synchronized V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        try {
+            return master.merge(key, value, remappingFunction);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public K nextKey(final K key) {
+        return snapshot.nextKey(key);
+    }
+
+    @Override
+    public SortedMap<K, V> prefixMap(final K key) {
+        final int lengthInBits = lengthInBits(key);
+        return new View(map -> ((Trie<K, V>) map).prefixMap(key),
+            other -> getKeyAnalyzer().isPrefix(key, 0, lengthInBits, other));
+    }
+
+    @Override
+    public K previousKey(final K key) {
+        return snapshot.previousKey(key);
+    }
+
+    /**
+     * Publishes the content of the master trie, called while holding the lock.
+     */
+    private void publish() {
+        snapshot = CompactTrie.compactTrie(master);
+    }
+
+    @Override
+    public synchronized V put(final K key, final V value) {
+        final V previous = master.put(key, value);
+        publish();
+        return previous;
+    }
+
+    @Override
+    public synchronized void putAll(final Map<? extends K, ? extends V> map) {
+        master.putAll(map);
+        publish();
+    }
+
+    @Override
+    public synchronized V putIfAbsent(final K key, final V value) {
+        final V previous = master.putIfAbsent(key, value);
+        publish();
+        return previous;
+    }
+
+    /**
+     * Deserializes the trie and publishes its content.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        publish();
+    }
+
+    @Override
+    public synchronized V remove(final Object key) {
+        if (!snapshot.containsKey(key)) {
+            return null;
+        }
+        final V previous = master.remove(key);
+        publish();
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(final Object key, final Object value) {
+        if (!master.remove(key, value)) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    @Override
+    public synchronized V replace(final K key, final V value) {
+        final V previous = master.replace(key, value);
+        publish();
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean replace(final K key, final V oldValue, final V newValue) {
+        if (!master.replace(key, oldValue, newValue)) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    @Override
+    public synchronized void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        try {
+            master.replaceAll(function);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Gets an immutable snapshot of the current content of the trie.
+     * <p>
+     * This takes no lock and copies nothing.
+     * </p>
+     *
+     * @return the current content
+     */
+    public Trie<K, V> snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        return all().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        return all().tailMap(fromKey);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.toString();
+    }
+
+    /**
+     * Applies a batch of changes and publishes them at once.
+     * <p>
+     * The action is given the mutable content of the trie, which throws
+     * {@link IllegalStateException} once the update has returned. The content is then
+     * replaced by a copy, so that views and iterators kept from the action no longer change
+     * the trie: changes made through them are lost. Readers see either none or all of the
+     * changes. If the action throws, the changes it made before are published.
+     * </p>
+     *
+     * @param action  the changes to apply, must not be null
+     * @throws NullPointerException if action is null
+     */
+    public synchronized void update(final Consumer<? super Trie<K, V>> action) {
+        Objects.requireNonNull(action, "action");
+        final Batch batch = new Batch();
+        try {
+            action.accept(batch);
+        } finally {
+            batch.open = false;
+            // detach the views of the content the action may have kept
+            master = new Master<>(getKeyAnalyzer(), master);
+            publish();
+        }
+    }
+
+    @Override
+    public Collection<V> values() {
+        return all().values();
+    }
+
+}
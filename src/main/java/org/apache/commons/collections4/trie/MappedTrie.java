@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.collections4.Trie;
+import org.apache.commons.collections4.trie.analyzer.ByteArrayKeyAnalyzer;
+import org.apache.commons.collections4.trie.analyzer.ByteBufferKeyAnalyzer;
+import org.apache.commons.collections4.trie.analyzer.Utf8KeyAnalyzer;
+
+/**
+ * An unmodifiable {@link Trie} of strings that is read in place from a file or buffer.
+ * <p>
+ * A trie is written once with {@link #write(Map, Path)} and opened with
+ * {@link #open(Path)}, which maps the file into memory. Opening reads a fixed size
+ * header only: {@link #get(Object)}, {@link #prefixMap(Object)} and {@link #getKey(int)}
+ * work on the mapped bytes and decode just the keys and values they return. The pages of
+ * the file are loaded on demand and shared through the operating system's page cache by
+ * all processes that map the same file.
+ * </p>
+ * <p>
+ * Keys and values are stored in UTF-8 and the keys are ordered as {@link Utf8KeyAnalyzer}
+ * orders them, by code point. Keys and values with unpaired surrogates, which UTF-8 cannot
+ * encode, cannot be written, and such keys are never found. Values must not be null.
+ * </p>
+ * <p>
+ * The file holds, as big-endian {@code int}s, a header, the crit-bit tree described in
+ * {@link CompactTrie}, the end offsets of the keys and of the values, followed by the key
+ * and value bytes. A file is limited to 2GB.
+ * </p>
+ * <p>
+ * All modification methods throw {@link UnsupportedOperationException}. This class is
+ * thread-safe. It is not serializable, as its content is already a file.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class MappedTrie extends AbstractIndexedTrie<String, String, ByteBuffer> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The first int of the file, "Trie" in ASCII */
+    private static final int MAGIC = 0x54726965;
+
+    /** The version of the format */
+    private static final int VERSION = 1;
+
+    /** The magic number, version, size, and key and value byte counts */
+    private static final int HEADER_INTS = 5;
+
+    /**
+     * Opens a trie file by mapping it into memory.
+     * <p>
+     * The file must not be modified while the trie is used.
+     * </p>
+     *
+     * @param file  The file written by {@link #write(Map, Path)}, must not be null
+     * @return The trie
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a trie file
+     */
+    public static MappedTrie open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping remains valid once the channel is closed
+            return new MappedTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Creates a trie reading the bytes from the position of a buffer.
+     * <p>
+     * The buffer must not be modified while the trie is used.
+     * </p>
+     *
+     * @param buffer  The buffer holding the format written by {@link #write(Map, OutputStream)}, must not be null
+     * @return The trie
+     * @throws IllegalArgumentException if the buffer does not hold a trie
+     */
+    public static MappedTrie wrap(final ByteBuffer buffer) {
+        return new MappedTrie(buffer);
+    }
+
+    /**
+     * Encodes a key or value in UTF-8.
+     *
+     * @throws IllegalArgumentException if the string has an unpaired surrogate
+     */
+    private static byte[] encode(final String string, final String name) {
+        final int length = string.length();
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                throw new IllegalArgumentException("The " + name + " has an unpaired surrogate at index " + i + ", which UTF-8 cannot encode");
+            }
+        }
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the mappings of a map as a trie file.
+     *
+     * @param map  The mappings to write, must not be null
+     * @param file  The file to create or replace, must not be null
+     * @throws IOException if the file cannot be written
+     * @throws NullPointerException if a key or value is null
+     * @throws IllegalArgumentException if a key or value has an unpaired surrogate or the file would exceed 2GB
+     */
+    public static void write(final Map<String, String> map, final Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(map, out);
+        }
+    }
+
+    /**
+     * Writes the mappings of a map in the trie format.
+     * <p>
+     * The stream is not closed.
+     * </p>
+     *
+     * @param map  The mappings to write, must not be null
+     * @param out  The stream to write to, must not be null
+     * @throws IOException if the stream cannot be written
+     * @throws NullPointerException if a key or value is null
+     * @throws IllegalArgumentException if a key or value has an unpaired surrogate or the format would exceed 2GB
+     */
+    public static void write(final Map<String, String> map, final OutputStream out) throws IOException {
+        final int size = map.size();
+        final byte[][] keys = new byte[size][];
+        final byte[][] values = new byte[size][];
+        int i = 0;
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            keys[i] = encode(Objects.requireNonNull(entry.getKey(), "key"), "key");
+            values[i] = encode(Objects.requireNonNull(entry.getValue(), "value"), "value");
+            i++;
+        }
+        // sort the positions rather than the arrays to keep the values with their keys
+        final Integer[] order = new Integer[size];
+        for (i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> ByteArrayKeyAnalyzer.INSTANCE.compare(keys[a], keys[b]));
+        final int nodes = Math.max(size - 1, 0);
+        final int[] bits = new int[nodes];
+        final int[] splits = new int[nodes];
+        buildNodes(ByteArrayKeyAnalyzer.INSTANCE, index -> keys[order[index]], size, bits, splits);
+
+        long keyBytes = 0;
+        long valueBytes = 0;
+        for (i = 0; i < size; i++) {
+            keyBytes += keys[i].length;
+            valueBytes += values[i].length;
+        }
+        final long total = (HEADER_INTS + 2L * nodes + 2L * (size + 1)) * Integer.BYTES + keyBytes + valueBytes;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The trie needs " + total + " bytes, more than 2GB");
+        }
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(size);
+        data.writeInt((int) keyBytes);
+        data.writeInt((int) valueBytes);
+        for (final int bit : bits) {
+            data.writeInt(bit);
+        }
+        for (final int split : splits) {
+            data.writeInt(split);
+        }
+        int offset = 0;
+        data.writeInt(offset);
+        for (final Integer index : order) {
+            offset += keys[index].length;
+            data.writeInt(offset);
+        }
+        offset = 0;
+        data.writeInt(offset);
+        for (final Integer index : order) {
+            offset += values[index].length;
+            data.writeInt(offset);
+        }
+        for (final Integer index : order) {
+            data.write(keys[index]);
+        }
+        for (final Integer index : order) {
+            data.write(values[index]);
+        }
+        data.flush();
+    }
+
+    /** The bytes of the trie, starting at index zero */
+    private final ByteBuffer buffer;
+
+    /** The number of mappings */
+    private final int size;
+
+    /** The index of the first bit index */
+    private final int bitsOffset;
+
+    /** The index of the first split */
+    private final int splitsOffset;
+
+    /** The index of the first key offset */
+    private final int keyOffsetsOffset;
+
+    /** The index of the first value offset */
+    private final int valueOffsetsOffset;
+
+    /** The index of the first key byte */
+    private final int keysOffset;
+
+    /** The index of the first value byte */
+    private final int valuesOffset;
+
+    /**
+     * Constructor that reads the header.
+     *
+     * @param buffer  The buffer holding the trie from its position, must not be null
+     * @throws IllegalArgumentException if the buffer does not hold a trie
+     */
+    private MappedTrie(final ByteBuffer buffer) {
+        super(Utf8KeyAnalyzer.INSTANCE);
+        // a slice is big-endian and indexed from the start of the trie
+        this.buffer = buffer.slice();
+        if (this.buffer.capacity() < HEADER_INTS * Integer.BYTES || this.buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a trie");
+        }
+        final int version = this.buffer.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported trie version " + version);
+        }
+        size = this.buffer.getInt(2 * Integer.BYTES);
+        final int keyBytes = this.buffer.getInt(3 * Integer.BYTES);
+        final int valueBytes = this.buffer.getInt(4 * Integer.BYTES);
+        final int nodes = Math.max(size - 1, 0);
+        bitsOffset = HEADER_INTS * Integer.BYTES;
+        splitsOffset = bitsOffset + nodes * Integer.BYTES;
+        keyOffsetsOffset = splitsOffset + nodes * Integer.BYTES;
+        valueOffsetsOffset = keyOffsetsOffset + (size + 1) * Integer.BYTES;
+        keysOffset = valueOffsetsOffset + (size + 1) * Integer.BYTES;
+        valuesOffset = keysOffset + keyBytes;
+        if (size < 0 || keyBytes < 0 || valueBytes < 0 || (long) valuesOffset + valueBytes > this.buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated trie");
+        }
+    }
+
+    @Override
+    int bitAt(final int node) {
+        return buffer.getInt(bitsOffset + node * Integer.BYTES);
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 bytes between two offsets.
+     */
+    private String decode(final int start, final int end) {
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(start);
+        duplicate.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    ByteBuffer getIndexKey(final int index) {
+        final ByteBuffer key = buffer.duplicate();
+        key.limit(keysOffset + offsetAt(keyOffsetsOffset, index + 1));
+        key.position(keysOffset + offsetAt(keyOffsetsOffset, index));
+        return key;
+    }
+
+    @Override
+    KeyAnalyzer<? super ByteBuffer> getIndexKeyAnalyzer() {
+        return ByteBufferKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    public String getKey(final int index) {
+        checkIndex(index);
+        return decode(keysOffset + offsetAt(keyOffsetsOffset, index), keysOffset + offsetAt(keyOffsetsOffset, index + 1));
+    }
+
+    @Override
+    public String getValue(final int index) {
+        checkIndex(index);
+        return decode(valuesOffset + offsetAt(valueOffsetsOffset, index), valuesOffset + offsetAt(valueOffsetsOffset, index + 1));
+    }
+
+    /**
+     * Gets an entry of one of the offset tables.
+     */
+    private int offsetAt(final int tableOffset, final int index) {
+        return buffer.getInt(tableOffset + index * Integer.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    int splitAt(final int node) {
+        return buffer.getInt(splitsOffset + node * Integer.BYTES);
+    }
+
+    @Override
+    ByteBuffer toIndexKey(final String key) {
+        // an unpaired surrogate has no UTF-8 encoding, and its WTF-8 one matches no stored key
+        return ByteBuffer.wrap(Utf8KeyAnalyzer.getBytes(key));
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        throw new NotSerializableException(MappedTrie.class.getName());
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * Base class for {@link KeyAnalyzer}s of keys that are sequences of unsigned bytes.
+ * <p>
+ * Like {@link StringKeyAnalyzer}, every element of the key is preceded by a presence
+ * bit, so each byte takes {@link #LENGTH} bits and a key never has the same bits as
+ * one of its proper prefixes. Keys are ordered by unsigned lexicographic comparison
+ * of their bytes, a shorter key sorting before any key it is a prefix of.
+ * </p>
+ * <p>
+ * The first differing bit is found eight bytes at a time: the bytes are packed into
+ * big-endian {@code long}s, which are compared with XOR and
+ * {@link Long#numberOfLeadingZeros(long)}.
+ * </p>
+ *
+ * @param <K> The type of the keys
+ * @since 4.6.1
+ */
+abstract class AbstractByteKeyAnalyzer<K> extends KeyAnalyzer<K> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The number of bits per byte plus a presence bit. */
+    public static final int LENGTH = Byte.SIZE + 1;
+
+    /**
+     * Constructs a new instance.
+     */
+    AbstractByteKeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    public int bitIndex(final K key, final int offsetInBits, final int lengthInBits,
+                        final K other, final int otherOffsetInBits, final int otherLengthInBits) {
+        checkBoundaries(offsetInBits, lengthInBits);
+        checkBoundaries(otherOffsetInBits, otherLengthInBits);
+
+        final int length1 = lengthInBits / LENGTH;
+        final int length2 = other == null ? 0 : otherLengthInBits / LENGTH;
+        final int length = Math.min(length1, length2);
+
+        if (length > 0) {
+            final int bitIndex = mismatchBit(key, offsetInBits / LENGTH, other, otherOffsetInBits / LENGTH, length);
+            if (bitIndex >= 0) {
+                return bitIndex;
+            }
+        }
+        if (length1 != length2) {
+            // One has ended, the other has not. They differ at the presence bit of this byte.
+            return length * LENGTH;
+        }
+        if (length1 == 0) {
+            return NULL_BIT_KEY;
+        }
+        // Both keys are equal
+        return EQUAL_BIT_KEY;
+    }
+
+    @Override
+    public int bitsPerElement() {
+        return LENGTH;
+    }
+
+    /**
+     * Gets the unsigned byte at the specified index of the key.
+     *
+     * @param key  The key, not null
+     * @param index  The index of the byte, less than {@link #byteLength(Object)}
+     * @return The byte, between 0 and 255
+     */
+    abstract int byteAt(K key, int index);
+
+    /**
+     * Gets the number of bytes of the key.
+     *
+     * @param key  The key, not null
+     * @return The number of bytes
+     */
+    abstract int byteLength(K key);
+
+    private void checkBoundaries(final int offsetInBits, final int lengthInBits) {
+        if (offsetInBits % LENGTH != 0 || lengthInBits % LENGTH != 0) {
+            throw new IllegalArgumentException("The offsets and lengths must be at byte boundaries");
+        }
+    }
+
+    @Override
+    public int compare(final K o1, final K o2) {
+        if (o1 == null) {
+            return o2 == null ? 0 : -1;
+        }
+        if (o2 == null) {
+            return 1;
+        }
+        final int length1 = byteLength(o1);
+        final int length2 = byteLength(o2);
+        final int bitIndex = mismatchBit(o1, 0, o2, 0, Math.min(length1, length2));
+        if (bitIndex >= 0) {
+            return isBitSet(o1, bitIndex, length1 * LENGTH) ? 1 : -1;
+        }
+        return Integer.compare(length1, length2);
+    }
+
+    @Override
+    public boolean isBitSet(final K key, final int bitIndex, final int lengthInBits) {
+        if (key == null || bitIndex >= lengthInBits) {
+            return false;
+        }
+        final int bit = bitIndex % LENGTH;
+        if (bit == 0) {
+            return true;
+        }
+        return (byteAt(key, bitIndex / LENGTH) & 0x80 >>> bit - 1) != 0;
+    }
+
+    @Override
+    public boolean isPrefix(final K prefix, final int offsetInBits, final int lengthInBits, final K key) {
+        if (offsetInBits % LENGTH != 0 || lengthInBits % LENGTH != 0) {
+            throw new IllegalArgumentException("Cannot determine prefix outside of byte boundaries");
+        }
+        final int length = lengthInBits / LENGTH;
+        return length <= byteLength(key) && mismatchBit(prefix, offsetInBits / LENGTH, key, 0, length) < 0;
+    }
+
+    @Override
+    public int lengthInBits(final K key) {
+        return key != null ? byteLength(key) * LENGTH : 0;
+    }
+
+    /**
+     * Gets eight bytes of the key packed into a big-endian {@code long}.
+     * <p>
+     * This implementation calls {@link #byteAt(Object, int)} eight times.
+     * Subclasses override it when the key can be read a word at a time.
+     * </p>
+     *
+     * @param key  The key, not null
+     * @param index  The index of the first byte, at least eight bytes before the end of the key
+     * @return The packed bytes
+     */
+    long longAt(final K key, final int index) {
+        long value = 0;
+        for (int i = index; i < index + Long.BYTES; i++) {
+            value = value << Byte.SIZE | byteAt(key, i);
+        }
+        return value;
+    }
+
+    /**
+     * Finds the first differing bit of two byte ranges of the same length.
+     *
+     * @param key  The first key
+     * @param index  The index of the first byte in the first key
+     * @param other  The second key
+     * @param otherIndex  The index of the first byte in the second key
+     * @param length  The number of bytes to compare
+     * @return The index of the first differing bit relative to the start of the ranges, -1 if the ranges are equal
+     */
+    int mismatchBit(final K key, final int index, final K other, final int otherIndex, final int length) {
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES) {
+            final long x = longAt(key, index + i) ^ longAt(other, otherIndex + i);
+            if (x != 0) {
+                final int zeros = Long.numberOfLeadingZeros(x);
+                return (i + zeros / Byte.SIZE) * LENGTH + 1 + zeros % Byte.SIZE;
+            }
+        }
+        for (; i < length; i++) {
+            final int x = byteAt(key, index + i) ^ byteAt(other, otherIndex + i);
+            if (x != 0) {
+                return i * LENGTH + 1 + Integer.numberOfLeadingZeros(x) - (Integer.SIZE - Byte.SIZE);
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * A {@link KeyAnalyzer} for {@code byte[]} keys, such as binary identifiers or address prefixes.
+ * <p>
+ * The bytes are compared as unsigned values, eight at a time. A key sorts before any
+ * longer key it is a prefix of. Arrays used as keys must not be modified.
+ * </p>
+ * <p>
+ * This class is stateless.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class ByteArrayKeyAnalyzer extends AbstractByteKeyAnalyzer<byte[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** A singleton instance of {@link ByteArrayKeyAnalyzer}. */
+    public static final ByteArrayKeyAnalyzer INSTANCE = new ByteArrayKeyAnalyzer();
+
+    private ByteArrayKeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    int byteAt(final byte[] key, final int index) {
+        return key[index] & 0xff;
+    }
+
+    @Override
+    int byteLength(final byte[] key) {
+        return key.length;
+    }
+
+    @Override
+    long longAt(final byte[] key, final int index) {
+        return (key[index] & 0xffL) << 56
+            | (key[index + 1] & 0xffL) << 48
+            | (key[index + 2] & 0xffL) << 40
+            | (key[index + 3] & 0xffL) << 32
+            | (key[index + 4] & 0xffL) << 24
+            | (key[index + 5] & 0xffL) << 16
+            | (key[index + 6] & 0xffL) << 8
+            | key[index + 7] & 0xffL;
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * A {@link KeyAnalyzer} for {@link ByteBuffer} keys.
+ * <p>
+ * The key is made of the bytes between the position and the limit of the buffer,
+ * which are read with absolute gets, so the position is never changed. The bytes are
+ * compared as unsigned values, eight at a time, whatever the byte order of the buffer.
+ * A key sorts before any longer key it is a prefix of. Note that this differs from
+ * {@link ByteBuffer#compareTo(ByteBuffer)}, which compares signed bytes.
+ * Buffers used as keys must not be modified.
+ * </p>
+ * <p>
+ * This class is stateless.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class ByteBufferKeyAnalyzer extends AbstractByteKeyAnalyzer<ByteBuffer> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** A singleton instance of {@link ByteBufferKeyAnalyzer}. */
+    public static final ByteBufferKeyAnalyzer INSTANCE = new ByteBufferKeyAnalyzer();
+
+    private ByteBufferKeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    int byteAt(final ByteBuffer key, final int index) {
+        return key.get(key.position() + index) & 0xff;
+    }
+
+    @Override
+    int byteLength(final ByteBuffer key) {
+        return key.remaining();
+    }
+
+    @Override
+    long longAt(final ByteBuffer key, final int index) {
+        final long value = key.getLong(key.position() + index);
+        return key.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
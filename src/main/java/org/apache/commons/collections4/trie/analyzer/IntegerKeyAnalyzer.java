@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * A {@link KeyAnalyzer} for {@link Integer}s, analyzed as fixed-width 32 bit keys.
+ * <p>
+ * The sign bit is flipped before analysis, so the bit order of the keys is the natural
+ * order of the integers. The first differing bit is found with a single XOR and
+ * {@link Integer#numberOfLeadingZeros(int)}.
+ * </p>
+ * <p>
+ * This class is stateless.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class IntegerKeyAnalyzer extends KeyAnalyzer<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** A singleton instance of {@link IntegerKeyAnalyzer}. */
+    public static final IntegerKeyAnalyzer INSTANCE = new IntegerKeyAnalyzer();
+
+    /** The number of bits of a key. */
+    public static final int LENGTH = Integer.SIZE;
+
+    /** Returns the bits of the key, in natural order. */
+    private static int bits(final Integer key) {
+        return key.intValue() ^ Integer.MIN_VALUE;
+    }
+
+    /** Returns the bits from the offset for the length, aligned to the highest bit. */
+    private static int window(final int bits, final int offsetInBits, final int lengthInBits) {
+        if (lengthInBits <= 0 || offsetInBits >= LENGTH) {
+            return 0;
+        }
+        return bits << offsetInBits & -1 << LENGTH - Math.min(lengthInBits, LENGTH);
+    }
+
+    private IntegerKeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    public int bitIndex(final Integer key, final int offsetInBits, final int lengthInBits,
+                        final Integer other, final int otherOffsetInBits, final int otherLengthInBits) {
+        final int keyBits = window(bits(key), offsetInBits, lengthInBits);
+        final int otherBits = other == null ? 0 : window(bits(other), otherOffsetInBits, otherLengthInBits);
+        final int x = keyBits ^ otherBits;
+        if (x != 0) {
+            return Integer.numberOfLeadingZeros(x);
+        }
+        return keyBits == 0 ? NULL_BIT_KEY : EQUAL_BIT_KEY;
+    }
+
+    @Override
+    public int bitsPerElement() {
+        return 1;
+    }
+
+    @Override
+    public boolean isBitSet(final Integer key, final int bitIndex, final int lengthInBits) {
+        if (key == null || bitIndex >= lengthInBits || bitIndex >= LENGTH) {
+            return false;
+        }
+        return bits(key) << bitIndex < 0;
+    }
+
+    @Override
+    public boolean isPrefix(final Integer prefix, final int offsetInBits, final int lengthInBits, final Integer key) {
+        return window(bits(prefix), offsetInBits, lengthInBits) == window(bits(key), 0, lengthInBits);
+    }
+
+    @Override
+    public int lengthInBits(final Integer key) {
+        return key != null ? LENGTH : 0;
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * A {@link KeyAnalyzer} for {@link Long}s, analyzed as fixed-width 64 bit keys.
+ * <p>
+ * The sign bit is flipped before analysis, so the bit order of the keys is the natural
+ * order of the integers. The first differing bit is found with a single XOR and
+ * {@link Long#numberOfLeadingZeros(long)}.
+ * </p>
+ * <p>
+ * This class is stateless.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class LongKeyAnalyzer extends KeyAnalyzer<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** A singleton instance of {@link LongKeyAnalyzer}. */
+    public static final LongKeyAnalyzer INSTANCE = new LongKeyAnalyzer();
+
+    /** The number of bits of a key. */
+    public static final int LENGTH = Long.SIZE;
+
+    /** Returns the bits of the key, in natural order. */
+    private static long bits(final Long key) {
+        return key.longValue() ^ Long.MIN_VALUE;
+    }
+
+    /** Returns the bits from the offset for the length, aligned to the highest bit. */
+    private static long window(final long bits, final int offsetInBits, final int lengthInBits) {
+        if (lengthInBits <= 0 || offsetInBits >= LENGTH) {
+            return 0;
+        }
+        return bits << offsetInBits & -1L << LENGTH - Math.min(lengthInBits, LENGTH);
+    }
+
+    private LongKeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    public int bitIndex(final Long key, final int offsetInBits, final int lengthInBits,
+                        final Long other, final int otherOffsetInBits, final int otherLengthInBits) {
+        final long keyBits = window(bits(key), offsetInBits, lengthInBits);
+        final long otherBits = other == null ? 0 : window(bits(other), otherOffsetInBits, otherLengthInBits);
+        final long x = keyBits ^ otherBits;
+        if (x != 0) {
+            return Long.numberOfLeadingZeros(x);
+        }
+        return keyBits == 0 ? NULL_BIT_KEY : EQUAL_BIT_KEY;
+    }
+
+    @Override
+    public int bitsPerElement() {
+        return 1;
+    }
+
+    @Override
+    public boolean isBitSet(final Long key, final int bitIndex, final int lengthInBits) {
+        if (key == null || bitIndex >= lengthInBits || bitIndex >= LENGTH) {
+            return false;
+        }
+        return bits(key) << bitIndex < 0;
+    }
+
+    @Override
+    public boolean isPrefix(final Long prefix, final int offsetInBits, final int lengthInBits, final Long key) {
+        return window(bits(prefix), offsetInBits, lengthInBits) == window(bits(key), 0, lengthInBits);
+    }
+
+    @Override
+    public int lengthInBits(final Long key) {
+        return key != null ? LENGTH : 0;
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
@@ -66,30 +66,25 @@ public class StringKeyAnalyzer extends KeyAnalyzer<String> {
         final int beginIndex1 = offsetInBits / LENGTH;
         final int beginIndex2 = otherOffsetInBits / LENGTH;
 
-        final int endIndex1 = beginIndex1 + lengthInBits / LENGTH;
-        final int endIndex2 = other == null ? beginIndex2 : beginIndex2 + otherLengthInBits / LENGTH;
-
-        final int length = Math.max(endIndex1, endIndex2);
+        final int length1 = lengthInBits / LENGTH;
+        final int length2 = other == null ? 0 : otherLengthInBits / LENGTH;
+        final int length = Math.min(length1, length2);
 
+        // Compare whole chars, only the first differing pair is looked at bit by bit.
         for (int i = 0; i < length; i++) {
-            final int index1 = beginIndex1 + i;
-            final int index2 = beginIndex2 + i;
-
-            if (index1 < endIndex1 && other != null && index2 < endIndex2) {
-                final char k = key.charAt(index1);
-                final char f = other.charAt(index2);
-
-                if (k != f) {
-                    final int x = k ^ f;
-                    return i * LENGTH + 1 + Integer.numberOfLeadingZeros(x) - (LENGTH - 1);
-                }
-            } else {
-                // One has ended, the other has not. They differ at the presence bit of this block.
-                return i * LENGTH;
+            final char k = key.charAt(beginIndex1 + i);
+            final char f = other.charAt(beginIndex2 + i);
+            if (k != f) {
+                return i * LENGTH + 1 + Integer.numberOfLeadingZeros(k ^ f) - (LENGTH - 1);
             }
         }
 
-        if (lengthInBits == 0 && (other == null || otherLengthInBits == 0)) {
+        if (length1 != length2) {
+            // One has ended, the other has not. They differ at the presence bit of this block.
+            return length * LENGTH;
+        }
+
+        if (length1 == 0) {
             return NULL_BIT_KEY;
         }
 
@@ -125,8 +120,13 @@ public class StringKeyAnalyzer extends KeyAnalyzer<String> {
                     "Cannot determine prefix outside of Character boundaries");
         }
 
-        final String s1 = prefix.substring(offsetInBits / LENGTH, lengthInBits / LENGTH);
-        return key.startsWith(s1);
+        final int beginIndex = offsetInBits / LENGTH;
+        final int endIndex = lengthInBits / LENGTH;
+        if (beginIndex > endIndex || endIndex > prefix.length()) {
+            throw new StringIndexOutOfBoundsException("begin " + beginIndex + ", end " + endIndex + ", length " + prefix.length());
+        }
+        // same as key.startsWith(prefix.substring(beginIndex, endIndex)), without the copy
+        return key.regionMatches(0, prefix, beginIndex, endIndex - beginIndex);
     }
 
     @Override
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+
+/**
+ * A {@link KeyAnalyzer} for {@link CharSequence}s that works on their UTF-8 encoding.
+ * <p>
+ * The key is analyzed as the bytes of its UTF-8 encoding, which are derived from its
+ * characters on the fly without allocating. Unpaired surrogates are encoded in the three
+ * byte form of the other characters below {@code U+10000}, as WTF-8 does, so distinct
+ * sequences always have distinct encodings. Keys are therefore ordered by code point, an
+ * unpaired surrogate counting as the code point of its value, and supplementary characters
+ * sort after all other characters, unlike with {@link StringKeyAnalyzer}. A {@code String}
+ * and a {@code StringBuilder} with the same characters are the same key. Sequences used as
+ * keys must not be modified.
+ * </p>
+ * <p>
+ * Finding the first differing bit skips equal code points without encoding them.
+ * Checking a single bit locates its character from the start of the key, which only
+ * takes a comparison per character for ASCII text.
+ * </p>
+ * <p>
+ * This class is stateless.
+ * </p>
+ *
+ * @since 4.6.1
+ */
+public final class Utf8KeyAnalyzer extends AbstractByteKeyAnalyzer<CharSequence> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** A singleton instance of {@link Utf8KeyAnalyzer}. */
+    public static final Utf8KeyAnalyzer INSTANCE = new Utf8KeyAnalyzer();
+
+    /**
+     * Gets the bytes a key is analyzed as.
+     * <p>
+     * For a sequence without unpaired surrogates, these are the bytes of
+     * {@code key.toString().getBytes(StandardCharsets.UTF_8)}.
+     * </p>
+     *
+     * @param key  The key, must not be null
+     * @return A new array holding the encoding of the key
+     * @throws NullPointerException if the key is null
+     */
+    public static byte[] getBytes(final CharSequence key) {
+        final byte[] bytes = new byte[INSTANCE.byteLength(key)];
+        int n = 0;
+        for (int i = 0; i < key.length();) {
+            final int codePoint = Character.codePointAt(key, i);
+            final int length = utf8Length(codePoint);
+            for (int j = 0; j < length; j++) {
+                bytes[n++] = (byte) utf8Byte(codePoint, length, j);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds the character holding a byte of the encoding of a key.
+     *
+     * @return The index of the character in the high int, and the index of the byte
+     *  within the encoding of the character in the low int
+     */
+    private static long locate(final CharSequence key, final int byteIndex) {
+        int i = 0;
+        int start = 0;
+        while (true) {
+            final int codePoint = Character.codePointAt(key, i);
+            final int length = utf8Length(codePoint);
+            if (byteIndex < start + length) {
+                return (long) i << Integer.SIZE | byteIndex - start;
+            }
+            start += length;
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * Gets a byte of the UTF-8 encoding of a code point, which may be a surrogate.
+     */
+    private static int utf8Byte(final int codePoint, final int length, final int index) {
+        if (length == 1) {
+            return codePoint;
+        }
+        final int shift = 6 * (length - 1 - index);
+        if (index == 0) {
+            // the lead byte has as many high bits set as the encoding has bytes
+            return 0xf00 >>> length & 0xf0 | codePoint >>> shift;
+        }
+        return 0x80 | codePoint >>> shift & 0x3f;
+    }
+
+    /**
+     * Gets the length of the UTF-8 encoding of a code point, which may be a surrogate.
+     */
+    private static int utf8Length(final int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private Utf8KeyAnalyzer() {
+        // empty
+    }
+
+    @Override
+    int byteAt(final CharSequence key, final int index) {
+        final long at = locate(key, index);
+        final int codePoint = Character.codePointAt(key, (int) (at >>> Integer.SIZE));
+        return utf8Byte(codePoint, utf8Length(codePoint), (int) at);
+    }
+
+    @Override
+    int byteLength(final CharSequence key) {
+        final int length = key.length();
+        int bytes = 0;
+        for (int i = 0; i < length;) {
+            final int codePoint = Character.codePointAt(key, i);
+            bytes += utf8Length(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return bytes;
+    }
+
+    @Override
+    long longAt(final CharSequence key, final int index) {
+        final long at = locate(key, index);
+        int i = (int) (at >>> Integer.SIZE);
+        int j = (int) at;
+        int codePoint = Character.codePointAt(key, i);
+        int length = utf8Length(codePoint);
+        long value = 0;
+        for (int k = 0; k < Long.BYTES; k++) {
+            value = value << Byte.SIZE | utf8Byte(codePoint, length, j);
+            if (++j == length && k < Long.BYTES - 1) {
+                i += Character.charCount(codePoint);
+                codePoint = Character.codePointAt(key, i);
+                length = utf8Length(codePoint);
+                j = 0;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    int mismatchBit(final CharSequence key, final int index, final CharSequence other, final int otherIndex, final int length) {
+        if (length == 0) {
+            return -1;
+        }
+        final long at1 = locate(key, index);
+        final long at2 = locate(other, otherIndex);
+        int i1 = (int) (at1 >>> Integer.SIZE);
+        int j1 = (int) at1;
+        int i2 = (int) (at2 >>> Integer.SIZE);
+        int j2 = (int) at2;
+        int i = 0;
+        while (i < length) {
+            final int codePoint1 = Character.codePointAt(key, i1);
+            final int codePoint2 = Character.codePointAt(other, i2);
+            final int length1 = utf8Length(codePoint1);
+            final int length2 = utf8Length(codePoint2);
+            if (j1 == 0 && j2 == 0 && codePoint1 == codePoint2 && i + length1 <= length) {
+                // equal code points have equal encodings, skip them whole
+                i += length1;
+                i1 += Character.charCount(codePoint1);
+                i2 += Character.charCount(codePoint2);
+                continue;
+            }
+            while (j1 < length1 && j2 < length2 && i < length) {
+                final int x = utf8Byte(codePoint1, length1, j1++) ^ utf8Byte(codePoint2, length2, j2++);
+                if (x != 0) {
+                    return i * LENGTH + 1 + Integer.numberOfLeadingZeros(x) - (Integer.SIZE - Byte.SIZE);
+                }
+                i++;
+            }
+            if (j1 == length1) {
+                i1 += Character.charCount(codePoint1);
+                j1 = 0;
+            }
+            if (j2 == length2) {
+                i2 += Character.charCount(codePoint2);
+                j2 = 0;
+            }
+        }
+        return -1;
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
@@ -31,6 +31,7 @@ import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -364,6 +365,16 @@ class MapUtilsTest {
         final Exception exception = assertThrows(IllegalArgumentException.class, () -> MapUtils.fixedSizeSortedMap(new TreeMap<>()).put(1L, 1L));
     }
 
+    @Test
+    void testFrozenMap() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "1");
+        final Map<String, String> frozen = MapUtils.frozenMap(map);
+        map.put("b", "2");
+        assertEquals(Collections.singletonMap("a", "1"), frozen);
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("c", "3"));
+    }
+
     @Test
     void testGetBooleanValue() {
         final Map<String, Object> in = new HashMap<>();
@@ -32,6 +32,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections4.bag.HashBag;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
@@ -61,6 +63,23 @@ class MultiMapUtilsTest {
         assertThrows(UnsupportedOperationException.class, () -> map.put("key", "value"));
     }
 
+    @Test
+    void testFreeze() {
+        final MultiValuedMap<String, String> map = new HashSetValuedHashMap<>();
+        map.put("key1", "v1");
+        map.put("key1", "v2");
+        map.put("key2", "v3");
+        final ListValuedMap<String, String> frozen = MultiMapUtils.freeze(map);
+        assertEquals(3, frozen.size());
+        assertEquals(new HashSet<>(map.get("key1")), new HashSet<>(frozen.get("key1")));
+        assertEquals(Arrays.asList("v3"), frozen.get("key2"));
+        assertTrue(frozen.get("key3").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("key1", "v4"));
+        map.put("key1", "v4");
+        assertEquals(2, frozen.get("key1").size());
+        assertThrows(NullPointerException.class, () -> MultiMapUtils.freeze(null));
+    }
+
     @Test
     void testGetCollection() {
         assertNull(MultiMapUtils.getCollection(null, "key1"));
@@ -232,6 +251,41 @@ class MultiMapUtilsTest {
         assertTrue(MultiMapUtils.isEmpty(null));
     }
 
+    @Test
+    void testToListValuedMap() {
+        final ListValuedMap<Integer, Integer> map = IntStream.range(0, 1_000).boxed()
+                .collect(MultiMapUtils.toListValuedMap(i -> i % 7, i -> i));
+        assertTrue(map instanceof ArrayListValuedHashMap);
+        assertEquals(7, map.keySet().size());
+        assertEquals(1_000, map.size());
+        assertEquals(Arrays.asList(3, 10, 17), map.get(3).subList(0, 3));
+        final ListValuedMap<Integer, Integer> parallel = IntStream.range(0, 100_000).boxed().parallel()
+                .collect(MultiMapUtils.toListValuedMap(i -> i % 100, i -> i));
+        assertEquals(100_000, parallel.size());
+        for (int key = 0; key < 100; key++) {
+            final List<Integer> values = parallel.get(key);
+            assertEquals(1_000, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(key + i * 100, values.get(i));
+            }
+        }
+        assertThrows(NullPointerException.class, () -> MultiMapUtils.toListValuedMap(null, i -> i));
+    }
+
+    @Test
+    void testToMultiValuedMap() {
+        final SetValuedMap<String, Integer> map = Stream.of("b1", "a2", "b3", "a2", null)
+                .map(s -> s == null ? "c0" : s)
+                .collect(MultiMapUtils.toMultiValuedMap(s -> s.substring(0, 1), s -> Integer.valueOf(s.substring(1)),
+                        LinkedHashSetValuedLinkedHashMap::new));
+        assertEquals("{b=[1, 3], a=[2], c=[0]}", map.toString());
+        final MultiValuedMap<Integer, Integer> parallel = IntStream.range(0, 10_000).boxed().parallel()
+                .collect(MultiMapUtils.toMultiValuedMap(i -> i % 10, i -> i / 10, HashSetValuedHashMap::new));
+        assertEquals(10_000, parallel.size());
+        assertEquals(1_000, parallel.get(9).size());
+        assertThrows(NullPointerException.class, () -> MultiMapUtils.toMultiValuedMap(i -> i, i -> i, null));
+    }
+
     @Test
     void testTypeSafeEmptyMultiValuedMap() {
         final MultiValuedMap<String, String> map = MultiMapUtils.<String, String>emptyMultiValuedMap();
@@ -21,7 +21,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.collections4.multiset.HashMultiSet;
 import org.apache.commons.collections4.multiset.TreeMultiSet;
@@ -161,6 +165,44 @@ class MultiSetUtilsTest {
         synced.add("a"); // ensure adding works
     }
 
+    /**
+     * Tests {@link MultiSetUtils#topK(MultiSet, int)}.
+     */
+    @Test
+    void testTopK() {
+        final List<MultiSet.Entry<String>> top = MultiSetUtils.topK(multiSet, 2);
+        assertEquals(2, top.size());
+        assertEquals("d", top.get(0).getElement());
+        assertEquals(3, top.get(0).getCount());
+        assertEquals("a", top.get(1).getElement());
+        assertEquals(2, top.get(1).getCount());
+        // the entries keep the counts read
+        multiSet.add("d");
+        assertEquals(3, top.get(0).getCount());
+        assertEquals(4, MultiSetUtils.topK(multiSet, 10).size());
+        assertTrue(MultiSetUtils.topK(multiSet, 0).isEmpty());
+        assertTrue(MultiSetUtils.topK(new HashMultiSet<>(), 3).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> MultiSetUtils.topK(multiSet, -1));
+        assertThrows(NullPointerException.class, () -> MultiSetUtils.topK(null, 1));
+
+        final Random random = new Random(39);
+        final MultiSet<Integer> counts = new HashMultiSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            counts.add(random.nextInt(200), random.nextInt(50) + 1);
+        }
+        final List<Integer> expected = new ArrayList<>();
+        for (final MultiSet.Entry<Integer> entry : counts.entrySet()) {
+            expected.add(entry.getCount());
+        }
+        expected.sort(Collections.reverseOrder());
+        final List<Integer> actual = new ArrayList<>();
+        for (final MultiSet.Entry<Integer> entry : MultiSetUtils.topK(counts, 20)) {
+            assertEquals(counts.getCount(entry.getElement()), entry.getCount());
+            actual.add(entry.getCount());
+        }
+        assertEquals(expected.subList(0, 20), actual);
+    }
+
     /**
      * Tests {@link MultiSetUtils#transformingMultiSet(MultiSet, org.apache.commons.collections4.Transformer)}.
      */
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IntIdBidiMap}.
+ *
+ * @param <K> The key type.
+ */
+public class IntIdBidiMapTest<K> extends AbstractBidiMapTest<K, Integer> {
+
+    private static Integer[] ids(final int from, final int count) {
+        final Integer[] ids = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = from + i;
+        }
+        return ids;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public Integer[] getNewSampleValues() {
+        return ids(100, getSampleKeys().length);
+    }
+
+    @Override
+    public Integer[] getOtherValues() {
+        return ids(200, getOtherKeys().length);
+    }
+
+    @Override
+    public Integer[] getSampleValues() {
+        return ids(0, getSampleKeys().length);
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isSetValueSupported() {
+        return false;
+    }
+
+    @Override
+    public IntIdBidiMap<K> makeObject() {
+        return new IntIdBidiMap<>();
+    }
+
+    @Test
+    void testAgainstDualHashBidiMap() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>(0);
+        final DualHashBidiMap<String, Integer> expected = new DualHashBidiMap<>();
+        final Random random = new Random(47);
+        for (int i = 0; i < 50_000; i++) {
+            final String key = String.valueOf(random.nextInt(1_000));
+            final int id = random.nextInt(1_000);
+            switch (random.nextInt(4)) {
+            case 0:
+                assertEquals(expected.put(key, id), map.put(key, Integer.valueOf(id)));
+                break;
+            case 1:
+                final Integer previous = expected.put(key, id);
+                assertEquals(previous == null ? IntIdBidiMap.NO_ID : previous.intValue(), map.put(key, id));
+                break;
+            case 2:
+                final Integer removed = expected.remove(key);
+                assertEquals(removed == null ? IntIdBidiMap.NO_ID : removed.intValue(), map.removeKey(key));
+                break;
+            default:
+                assertEquals(expected.removeValue(id), map.removeId(id));
+                break;
+            }
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.inverseBidiMap(), map.inverseBidiMap());
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (int i = 0; i < 1_000; i++) {
+            final String key = String.valueOf(i);
+            assertEquals(expected.containsKey(key) ? expected.get(key).intValue() : IntIdBidiMap.NO_ID, map.getId(key));
+            assertEquals(expected.getKey(i), map.getKey(i));
+        }
+    }
+
+    @Test
+    void testAssignId() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>(0);
+        assertEquals(0, map.assignId("a"));
+        assertEquals(1, map.assignId("b"));
+        assertEquals(0, map.assignId("a"));
+        assertEquals(IntIdBidiMap.NO_ID, map.put("c", 5));
+        assertEquals(6, map.assignId("d"));
+        assertEquals("d", map.removeId(6));
+        assertEquals(7, map.assignId("e"));
+        assertEquals("c", map.getKey(5));
+        assertNull(map.getKey(4));
+        assertNull(map.getKey(-1));
+        assertNull(map.getKey(100));
+        assertFalse(map.containsId(6));
+        assertThrows(NullPointerException.class, () -> map.assignId(null));
+        assertThrows(IllegalArgumentException.class, () -> map.put("f", -1));
+        assertEquals(IntIdBidiMap.NO_ID, map.getId(null));
+        map.clear();
+        assertEquals(0, map.assignId("e"));
+    }
+
+    /**
+     * Override as the values are ids.
+     */
+    @Override
+    @Test
+    void testBidiPut() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>();
+        final BidiMap<Integer, String> inverse = map.inverseBidiMap();
+        map.put("A", Integer.valueOf(1));
+        assertEquals(Integer.valueOf(1), map.get("A"));
+        assertEquals("A", inverse.get(1));
+        map.put("A", Integer.valueOf(2));
+        assertEquals(1, map.size());
+        assertEquals("A", inverse.get(2));
+        map.put("B", Integer.valueOf(2));
+        assertEquals(1, map.size());
+        assertEquals(map.size(), inverse.size());
+        assertEquals("B", inverse.get(2));
+        map.put("E", Integer.valueOf(6));
+        assertEquals(2, map.size());
+        assertEquals(map.size(), inverse.size());
+        assertEquals(Integer.valueOf(6), map.get("E"));
+    }
+
+    @Test
+    void testEntrySetWithNegativeValue() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>();
+        map.put("a", 0);
+        final Map.Entry<String, Integer> absent = new DefaultMapEntry<>("absent", IntIdBidiMap.NO_ID);
+        assertFalse(map.entrySet().contains(absent));
+        assertFalse(map.entrySet().remove(absent));
+        assertFalse(map.entrySet().contains(new DefaultMapEntry<>(null, IntIdBidiMap.NO_ID)));
+        assertFalse(map.entrySet().contains(new DefaultMapEntry<>("a", -2)));
+        assertTrue(map.entrySet().contains(new DefaultMapEntry<>("a", 0)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testForEachId() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>();
+        map.put("c", 9);
+        map.put("a", 3);
+        map.put("b", 4);
+        final List<String> visited = new ArrayList<>();
+        map.forEachId((key, id) -> visited.add(key + id));
+        assertEquals(Arrays.asList("a3", "b4", "c9"), visited);
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map.keySet()));
+        assertEquals(Arrays.asList(3, 4, 9), new ArrayList<>(map.inverseBidiMap().keySet()));
+        assertThrows(NullPointerException.class, () -> map.forEachId(null));
+    }
+
+    @Test
+    void testPutMovesKeyAndId() {
+        final IntIdBidiMap<String> map = new IntIdBidiMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        assertEquals(1, map.put("a", 2));
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey("b"));
+        assertFalse(map.containsId(1));
+        assertNull(map.inverseBidiMap().put(1, "c"));
+        assertEquals("a", map.inverseBidiMap().put(2, "c"));
+        assertEquals(Integer.valueOf(2), map.get("c"));
+        assertEquals(1, map.size());
+        assertSame(map, map.inverseBidiMap().inverseBidiMap());
+        assertSame(map.inverseBidiMap(), map.inverseBidiMap());
+        assertTrue(map.containsValue(2));
+        assertFalse(map.containsValue("2"));
+    }
+
+//    void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map,
+//                "src/test/resources/org/apache/commons/collections4/data/test/IntIdBidiMap.emptyCollection.version4.6.1.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map,
+//                "src/test/resources/org/apache/commons/collections4/data/test/IntIdBidiMap.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -16,9 +16,20 @@
  */
 package org.apache.commons.collections4.bidimap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.TreeMap;
 
 import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.map.LinkedMap;
+import org.junit.jupiter.api.Test;
 
 /**
  * JUnit tests.
@@ -60,6 +71,144 @@ public class TreeBidiMapTest<K extends Comparable<K>, V extends Comparable<V>> e
         return new TreeBidiMap<>();
     }
 
+    /**
+     * Checks the red-black rules of one tree and returns its black height.
+     */
+    private static int assertRedBlack(final Object node, final int tree, final Field left, final Field right,
+            final Field black) throws ReflectiveOperationException {
+        if (node == null) {
+            return 1;
+        }
+        final Object leftChild = ((Object[]) left.get(node))[tree];
+        final Object rightChild = ((Object[]) right.get(node))[tree];
+        final boolean isBlack = ((boolean[]) black.get(node))[tree];
+        if (!isBlack) {
+            assertFalse(leftChild != null && !((boolean[]) black.get(leftChild))[tree], "red node with red child");
+            assertFalse(rightChild != null && !((boolean[]) black.get(rightChild))[tree], "red node with red child");
+        }
+        final int height = assertRedBlack(leftChild, tree, left, right, black);
+        assertEquals(height, assertRedBlack(rightChild, tree, left, right, black), "black height");
+        return height + (isBlack ? 1 : 0);
+    }
+
+    private static void assertPositions(final TreeBidiMap<Integer, Integer> map, final TreeMap<Integer, Integer> expected) {
+        assertEquals(expected, map);
+        final List<Integer> keys = new ArrayList<>(expected.keySet());
+        final List<Integer> values = new ArrayList<>(expected.values());
+        Collections.sort(values);
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i), map.getKeyAt(i));
+            assertEquals(i, map.indexOfKey(keys.get(i)));
+            assertEquals(values.get(i), map.getValueAt(i));
+            assertEquals(i, map.indexOfValue(values.get(i)));
+        }
+        assertEquals(values, new ArrayList<>(map.inverseBidiMap().keySet()));
+    }
+
+    @Test
+    void testBalancedAfterChanges() throws Exception {
+        final Field rootField = TreeBidiMap.class.getDeclaredField("rootNode");
+        final Field left = TreeBidiMap.Node.class.getDeclaredField("leftNode");
+        final Field right = TreeBidiMap.Node.class.getDeclaredField("rightNode");
+        final Field black = TreeBidiMap.Node.class.getDeclaredField("blackColor");
+        for (final Field field : new Field[] { rootField, left, right, black }) {
+            field.setAccessible(true);
+        }
+        final TreeBidiMap<Integer, Integer> map = new TreeBidiMap<>();
+        final Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            if (random.nextInt(3) == 0) {
+                map.remove(random.nextInt(300));
+            } else {
+                map.put(random.nextInt(300), random.nextInt(300));
+            }
+            final Object[] roots = (Object[]) rootField.get(map);
+            for (int tree = 0; tree < roots.length; tree++) {
+                assertFalse(roots[tree] != null && !((boolean[]) black.get(roots[tree]))[tree], "red root");
+                assertRedBlack(roots[tree], tree, left, right, black);
+            }
+        }
+    }
+
+    @Test
+    void testBuildFromSorted() {
+        final TreeMap<Integer, Integer> sorted = new TreeMap<>();
+        final Random random = new Random(17);
+        for (int i = 0; i < 5_000; i++) {
+            sorted.put(random.nextInt(), i);
+        }
+        final TreeBidiMap<Integer, Integer> ascendingValues = new TreeBidiMap<>(sorted);
+        assertPositions(ascendingValues, sorted);
+        // keys ascending, values not
+        final TreeMap<Integer, Integer> inverse = new TreeMap<>();
+        sorted.forEach((k, v) -> inverse.put(v, k));
+        final TreeBidiMap<Integer, Integer> map = new TreeBidiMap<>(inverse);
+        assertPositions(map, inverse);
+        assertEquals(new TreeBidiMap<>(map), map);
+        // the trees must still balance under later changes
+        for (int i = 0; i < 5_000; i += 3) {
+            map.remove(i);
+            inverse.remove(i);
+            map.put(-i - 1, i);
+            inverse.put(-i - 1, i);
+        }
+        assertPositions(map, inverse);
+    }
+
+    @Test
+    void testBuildFromSortedFallsBack() {
+        final TreeMap<String, String> duplicateValues = new TreeMap<>();
+        duplicateValues.put("A", "x");
+        duplicateValues.put("B", "y");
+        duplicateValues.put("C", "x");
+        final TreeBidiMap<String, String> map = new TreeBidiMap<>(duplicateValues);
+        assertEquals(2, map.size());
+        assertEquals("C", map.getKey("x"));
+        assertEquals("B", map.getKey("y"));
+
+        final LinkedMap<String, String> unsorted = new LinkedMap<>();
+        unsorted.put("B", "b");
+        unsorted.put("A", "a");
+        unsorted.put("C", "c");
+        final TreeBidiMap<String, String> copy = new TreeBidiMap<>(unsorted);
+        assertEquals(unsorted, copy);
+        assertEquals("A", copy.firstKey());
+        assertEquals(0, copy.indexOfValue("a"));
+
+        final TreeMap<String, String> nullValue = new TreeMap<>();
+        nullValue.put("A", null);
+        assertThrows(NullPointerException.class, () -> new TreeBidiMap<>(nullValue));
+    }
+
+    @Test
+    void testIndexOfAndGetAt() {
+        final TreeBidiMap<Integer, Integer> map = new TreeBidiMap<>();
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        final Random random = new Random(29);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                final Integer key = random.nextInt(500);
+                final Integer value = random.nextInt(500);
+                if (random.nextInt(3) == 0) {
+                    map.remove(key);
+                    expected.remove(key);
+                } else {
+                    map.put(key, value);
+                    expected.values().remove(value);
+                    expected.put(key, value);
+                }
+            }
+            assertPositions(map, expected);
+        }
+        assertEquals(-1, map.indexOfKey(-1));
+        assertEquals(-1, map.indexOfValue(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getKeyAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getValueAt(map.size()));
+        assertThrows(NullPointerException.class, () -> map.indexOfKey(null));
+        map.clear();
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getKeyAt(0));
+    }
+
 //    void testCreate() throws Exception {
 //        resetEmpty();
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/TreeBidiMap.emptyCollection.version4.obj");
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.trie.AbstractPatriciaTrie;
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.apache.commons.collections4.trie.analyzer.StringKeyAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link StringKeyAnalyzer} with its previous implementation in a Patricia trie,
+ * on keys that look like URLs and on keys that look like words.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=PatriciaTrieBenchmark}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class PatriciaTrieBenchmark {
+
+    /**
+     * The implementation of {@link StringKeyAnalyzer} before it compared whole characters
+     * and checked prefixes without copying.
+     */
+    static final class BaselineStringKeyAnalyzer extends KeyAnalyzer<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int LENGTH = StringKeyAnalyzer.LENGTH;
+
+        private static final int MSB = 0x8000;
+
+        @Override
+        public int bitIndex(final String key, final int offsetInBits, final int lengthInBits,
+                            final String other, final int otherOffsetInBits, final int otherLengthInBits) {
+            final int beginIndex1 = offsetInBits / LENGTH;
+            final int beginIndex2 = otherOffsetInBits / LENGTH;
+            final int endIndex1 = beginIndex1 + lengthInBits / LENGTH;
+            final int endIndex2 = other == null ? beginIndex2 : beginIndex2 + otherLengthInBits / LENGTH;
+            final int length = Math.max(endIndex1, endIndex2);
+            for (int i = 0; i < length; i++) {
+                final int index1 = beginIndex1 + i;
+                final int index2 = beginIndex2 + i;
+                if (index1 < endIndex1 && other != null && index2 < endIndex2) {
+                    final char k = key.charAt(index1);
+                    final char f = other.charAt(index2);
+                    if (k != f) {
+                        final int x = k ^ f;
+                        return i * LENGTH + 1 + Integer.numberOfLeadingZeros(x) - (LENGTH - 1);
+                    }
+                } else {
+                    return i * LENGTH;
+                }
+            }
+            if (lengthInBits == 0 && (other == null || otherLengthInBits == 0)) {
+                return NULL_BIT_KEY;
+            }
+            return EQUAL_BIT_KEY;
+        }
+
+        @Override
+        public int bitsPerElement() {
+            return LENGTH;
+        }
+
+        @Override
+        public int compare(final String o1, final String o2) {
+            return StringKeyAnalyzer.INSTANCE.compare(o1, o2);
+        }
+
+        @Override
+        public boolean isBitSet(final String key, final int bitIndex, final int lengthInBits) {
+            if (key == null || bitIndex >= lengthInBits) {
+                return false;
+            }
+            final int index = bitIndex / LENGTH;
+            final int bit = bitIndex % LENGTH;
+            if (bit == 0) {
+                return true;
+            }
+            return (key.charAt(index) & MSB >>> bit - 1) != 0;
+        }
+
+        @Override
+        public boolean isPrefix(final String prefix, final int offsetInBits, final int lengthInBits, final String key) {
+            final String s1 = prefix.substring(offsetInBits / LENGTH, lengthInBits / LENGTH);
+            return key.startsWith(s1);
+        }
+
+        @Override
+        public int lengthInBits(final String key) {
+            return key != null ? key.length() * LENGTH : 0;
+        }
+    }
+
+    /**
+     * A Patricia trie with a configurable key analyzer.
+     */
+    static final class Trie extends AbstractPatriciaTrie<String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        Trie(final KeyAnalyzer<? super String> keyAnalyzer) {
+            super(keyAnalyzer);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TrieState {
+
+        private static final String[] HOSTS = {"https://www.example.com", "https://commons.apache.org",
+            "https://en.wikipedia.org", "http://static.cdn.example.net", "https://api.example.org"};
+
+        private static final String[] SEGMENTS = {"proper", "collections", "wiki", "images", "v1", "users",
+            "index.html", "apidocs", "org", "apache", "commons", "search", "assets", "release-notes"};
+
+        @Param({"StringKeyAnalyzer", "Baseline"})
+        String analyzer;
+
+        @Param({"urls", "words"})
+        String dataset;
+
+        @Param({"10000"})
+        int size;
+
+        KeyAnalyzer<String> keyAnalyzer;
+
+        String[] keys;
+
+        /** Keys equal to, but not the same instances as, the keys in the trie. */
+        String[] lookupKeys;
+
+        String[] prefixes;
+
+        Trie trie;
+
+        private String randomUrl(final Random random) {
+            final StringBuilder builder = new StringBuilder(HOSTS[random.nextInt(HOSTS.length)]);
+            final int segments = 1 + random.nextInt(5);
+            for (int i = 0; i < segments; i++) {
+                builder.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            return builder.append('/').append(random.nextInt(1000)).toString();
+        }
+
+        private String randomWord(final Random random) {
+            // letters drawn with a skewed distribution so that words share prefixes
+            final char[] word = new char[3 + random.nextInt(8)];
+            for (int i = 0; i < word.length; i++) {
+                final int r = random.nextInt(26);
+                word[i] = (char) ('a' + r * r / 26);
+            }
+            return new String(word);
+        }
+
+        @Setup
+        public void setup() {
+            keyAnalyzer = "Baseline".equals(analyzer) ? new BaselineStringKeyAnalyzer() : StringKeyAnalyzer.INSTANCE;
+            final Random random = new Random(42);
+            keys = new String[size];
+            lookupKeys = new String[size];
+            prefixes = new String[size / 100];
+            for (int i = 0; i < size; i++) {
+                keys[i] = "urls".equals(dataset) ? randomUrl(random) : randomWord(random);
+                lookupKeys[i] = new String(keys[i]);
+            }
+            for (int i = 0; i < prefixes.length; i++) {
+                final String key = keys[random.nextInt(size)];
+                prefixes[i] = key.substring(0, 1 + random.nextInt(Math.min(key.length(), 30)));
+            }
+            trie = new Trie(keyAnalyzer);
+            for (final String key : keys) {
+                trie.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    public Trie put(final TrieState state) {
+        final Trie trie = new Trie(state.keyAnalyzer);
+        for (final String key : state.keys) {
+            trie.put(key, key);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public void get(final TrieState state, final Blackhole bh) {
+        final Trie trie = state.trie;
+        for (final String key : state.lookupKeys) {
+            bh.consume(trie.get(key));
+        }
+    }
+
+    @Benchmark
+    public void prefixMap(final TrieState state, final Blackhole bh) {
+        final Trie trie = state.trie;
+        for (final String prefix : state.prefixes) {
+            final SortedMap<String, String> map = trie.prefixMap(prefix);
+            for (final Map.Entry<String, String> entry : map.entrySet()) {
+                bh.consume(entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.collections4.map.Flat3Map;
+import org.apache.commons.collections4.map.Flat8Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link Flat8Map} with {@link Flat3Map} and {@link HashMap} for small maps.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=SmallMapBenchmark}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class SmallMapBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MapState {
+
+        @Param({"Flat3Map", "Flat8Map", "HashMap"})
+        String type;
+
+        @Param({"2", "4", "8"})
+        int size;
+
+        String[] keys;
+
+        /** Keys equal to, but not the same instances as, the keys in the map. */
+        String[] lookupKeys;
+
+        Supplier<Map<String, String>> factory;
+
+        Map<String, String> map;
+
+        @Setup
+        public void setup() {
+            switch (type) {
+            case "Flat3Map":
+                factory = Flat3Map::new;
+                break;
+            case "Flat8Map":
+                factory = Flat8Map::new;
+                break;
+            default:
+                factory = HashMap::new;
+                break;
+            }
+            keys = new String[size];
+            lookupKeys = new String[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = "attribute" + i;
+                lookupKeys[i] = new String(keys[i]);
+                lookupKeys[i].hashCode();
+            }
+            map = factory.get();
+            for (final String key : keys) {
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> build(final MapState state) {
+        final Map<String, String> map = state.factory.get();
+        for (final String key : state.keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void getHit(final MapState state, final Blackhole bh) {
+        final Map<String, String> map = state.map;
+        for (final String key : state.lookupKeys) {
+            bh.consume(map.get(key));
+        }
+    }
+
+    @Benchmark
+    public void getMiss(final MapState state, final Blackhole bh) {
+        final Map<String, String> map = state.map;
+        bh.consume(map.get("missing"));
+    }
+
+    @Benchmark
+    public void iterate(final MapState state, final Blackhole bh) {
+        for (final Map.Entry<String, String> entry : state.map.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ChunkedTreeList}.
+ */
+public class ChunkedTreeListTest<E> extends AbstractListTest<E> {
+
+    @Override
+    public ChunkedTreeList<E> makeObject() {
+        return new ChunkedTreeList<>();
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        final List<Integer> expected = new ArrayList<>();
+        final List<Integer> list = new ChunkedTreeList<>();
+        final Random random = new Random(7);
+        // grow well past a few levels, then shrink back to empty, to split and merge chunks and branches
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 100_000; i++) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                list.add(index, i);
+                if (i % 7 == 0) {
+                    final int setIndex = random.nextInt(expected.size());
+                    assertEquals(expected.set(setIndex, -i), list.set(setIndex, -i));
+                }
+            }
+            assertEquals(expected, list);
+            while (!expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+                if (expected.size() % 10_000 == 0) {
+                    assertEquals(expected, list);
+                    assertArrayEquals(expected.toArray(), list.toArray());
+                }
+            }
+        }
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    void testAppendAndRemoveFromFront() {
+        final List<Integer> list = new ChunkedTreeList<>();
+        for (int i = 0; i < 50_000; i++) {
+            list.add(i);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i, list.get(i));
+        }
+        for (int i = 0; i < 49_990; i++) {
+            assertEquals(i, list.remove(0));
+        }
+        assertEquals(10, list.size());
+        assertEquals(49_990, list.get(0));
+        assertEquals(49_999, list.get(9));
+    }
+
+    @Test
+    void testCopyConstructor() {
+        for (int size = 0; size < 5_000; size += size < 200 ? 1 : 97) {
+            final List<Integer> other = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                other.add(i);
+            }
+            final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(other);
+            assertEquals(other, list);
+            assertArrayEquals(other.toArray(), list.toArray());
+            final ListIterator<Integer> it = list.listIterator(size);
+            int i = size;
+            while (it.hasPrevious()) {
+                assertEquals(--i, it.previous().intValue());
+            }
+            list.add(size / 2, -1);
+            other.add(size / 2, -1);
+            list.remove(0);
+            other.remove(0);
+            assertEquals(other, list);
+        }
+    }
+
+    @Test
+    void testFailedIndexedChangeKeepsIteratorValid() {
+        final List<String> list = new ChunkedTreeList<>();
+        list.add("a");
+        list.add("b");
+        final ListIterator<String> it = list.listIterator();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(5, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.listIterator(3));
+        assertEquals(2, list.size());
+        assertEquals("a", it.next());
+    }
+
+    @Test
+    void testIteratorChangesAcrossChunks() {
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            expected.add(i);
+        }
+        final List<Integer> list = new ChunkedTreeList<>(expected);
+        final ListIterator<Integer> it = list.listIterator();
+        final ListIterator<Integer> expectedIt = expected.listIterator();
+        while (it.hasNext()) {
+            final Integer value = it.next();
+            assertEquals(expectedIt.next(), value);
+            if (value % 3 == 0) {
+                it.remove();
+                expectedIt.remove();
+            } else if (value % 3 == 1) {
+                it.set(-value);
+                expectedIt.set(-value);
+            } else {
+                it.add(value);
+                expectedIt.add(value);
+            }
+        }
+        assertEquals(expected, list);
+        while (it.hasPrevious()) {
+            assertEquals(expectedIt.previous(), it.previous());
+            if (it.previousIndex() % 5 == 0) {
+                it.remove();
+                expectedIt.remove();
+            }
+        }
+        assertEquals(expected, list);
+        assertFalse(it.hasPrevious());
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PersistentTreeList}.
+ */
+public class PersistentTreeListTest<E> extends AbstractListTest<E> {
+
+    private static List<Integer> range(final int from, final int to) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Override
+    public boolean isAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isSetSupported() {
+        return false;
+    }
+
+    @Override
+    public PersistentTreeList<E> makeFullCollection() {
+        return new PersistentTreeList<>(Arrays.asList(getFullElements()));
+    }
+
+    @Override
+    public PersistentTreeList<E> makeObject() {
+        return new PersistentTreeList<>();
+    }
+
+    @Test
+    void testConcatAndSplit() {
+        final Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            final int leftSize = random.nextInt(round < 100 ? 20 : 5_000);
+            final int rightSize = random.nextInt(round < 100 ? 20 : 5_000);
+            final PersistentTreeList<Integer> left = new PersistentTreeList<>(range(0, leftSize));
+            final PersistentTreeList<Integer> right = new PersistentTreeList<>(range(leftSize, leftSize + rightSize));
+            final PersistentTreeList<Integer> joined = left.concat(right);
+            assertEquals(range(0, leftSize + rightSize), joined);
+            final int from = random.nextInt(joined.size() + 1);
+            final int to = from + random.nextInt(joined.size() - from + 1);
+            final PersistentTreeList<Integer> middle = joined.subList(from, to);
+            assertEquals(range(from, to), middle);
+            assertEquals(joined, joined.subList(0, from).concat(middle).concat(joined.subList(to, joined.size())));
+            assertEquals(range(from, to).subList(0, middle.size() / 2), middle.subList(0, middle.size() / 2));
+        }
+        final PersistentTreeList<Integer> list = new PersistentTreeList<>(range(0, 3));
+        assertSame(list, list.concat(new PersistentTreeList<>()));
+        assertSame(list, new PersistentTreeList<Integer>().concat(list));
+        assertSame(list, list.subList(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> list.subList(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.subList(0, 4));
+        assertThrows(NullPointerException.class, () -> list.concat(null));
+    }
+
+    @Test
+    void testVersionsAreIndependent() {
+        final Random random = new Random(5);
+        final List<List<Integer>> expected = new ArrayList<>();
+        final List<PersistentTreeList<Integer>> versions = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        PersistentTreeList<Integer> version = new PersistentTreeList<>();
+        for (int i = 0; i < 3_000; i++) {
+            final int op = current.isEmpty() ? 0 : random.nextInt(4);
+            if (op == 0) {
+                final int index = random.nextInt(current.size() + 1);
+                current.add(index, i);
+                version = version.insert(index, i);
+            } else if (op == 1) {
+                final int index = random.nextInt(current.size());
+                current.remove(index);
+                version = version.delete(index);
+            } else if (op == 2) {
+                final int index = random.nextInt(current.size());
+                current.set(index, -i);
+                version = version.with(index, -i);
+            } else {
+                current.add(i);
+                version = version.append(i);
+            }
+            if (i % 100 == 0) {
+                expected.add(current);
+                versions.add(version);
+                current = new ArrayList<>(current);
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expected.get(i), versions.get(i));
+            assertArrayEquals(expected.get(i).toArray(), versions.get(i).toArray());
+            final List<Integer> forEach = new ArrayList<>();
+            versions.get(i).forEach(forEach::add);
+            assertEquals(expected.get(i), forEach);
+        }
+        final PersistentTreeList<Integer> list = versions.get(versions.size() - 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(list.size() + 1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.delete(list.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.with(-1, 0));
+        assertThrows(UnsupportedOperationException.class, () -> list.add(0));
+    }
+
+}
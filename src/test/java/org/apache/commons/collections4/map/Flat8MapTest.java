@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.iterators.AbstractMapIteratorTest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link Flat8Map}.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class Flat8MapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    @Nested
+    public class FlatMapIteratorTest extends AbstractMapIteratorTest<K, V> {
+
+        @Override
+        public V[] addSetValues() {
+            return getNewSampleValues();
+        }
+
+        @Override
+        public Map<K, V> getConfirmedMap() {
+            // assumes makeFullMapIterator() called first
+            return getConfirmed();
+        }
+
+        @Override
+        public IterableMap<K, V> getMap() {
+            // assumes makeFullMapIterator() called first
+            return Flat8MapTest.this.getMap();
+        }
+
+        @Override
+        public MapIterator<K, V> makeEmptyIterator() {
+            resetEmpty();
+            return Flat8MapTest.this.getMap().mapIterator();
+        }
+
+        @Override
+        public MapIterator<K, V> makeObject() {
+            resetFull();
+            return Flat8MapTest.this.getMap().mapIterator();
+        }
+
+        @Override
+        public boolean supportsRemove() {
+            return isRemoveSupported();
+        }
+
+        @Override
+        public boolean supportsSetValue() {
+            return isSetValueSupported();
+        }
+
+        @Override
+        public void verify() {
+            super.verify();
+            Flat8MapTest.this.verify();
+        }
+    }
+
+    /** A key with a constant hash code, to exercise the equals path after a hash match. */
+    private static final class CollidingKey {
+        private final String name;
+
+        CollidingKey(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Override
+    public BulkTest bulkTestMapIterator() {
+        return new FlatMapIteratorTest();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public Flat8Map<K, V> makeObject() {
+        return new Flat8Map<>();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testClone() {
+        final Flat8Map<K, V> map = makeObject();
+        map.put((K) "1", (V) "one");
+        map.put((K) "2", (V) "two");
+        final Flat8Map<K, V> cloned = map.clone();
+        assertNotSame(map, cloned);
+        assertEquals(map, cloned);
+        cloned.put((K) "3", (V) "three");
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("3"));
+        cloned.remove("1");
+        assertEquals("one", map.get("1"));
+    }
+
+    @Test
+    void testCollidingHashCodes() {
+        final Flat8Map<CollidingKey, Integer> map = new Flat8Map<>();
+        for (int i = 0; i < 8; i++) {
+            map.put(new CollidingKey(Integer.toString(i)), i);
+        }
+        assertEquals(8, map.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, map.get(new CollidingKey(Integer.toString(i))));
+        }
+        assertNull(map.get(new CollidingKey("x")));
+        assertEquals(3, map.remove(new CollidingKey("3")));
+        assertFalse(map.containsKey(new CollidingKey("3")));
+        assertEquals(7, map.get(new CollidingKey("7")));
+    }
+
+    @Test
+    void testConvertToDelegateAndBack() {
+        final Flat8Map<String, Integer> map = new Flat8Map<>();
+        final Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 9; i++) {
+            map.put(Integer.toString(i), i);
+            expected.put(Integer.toString(i), i);
+            assertEquals(expected, map);
+            assertEquals(expected.hashCode(), map.hashCode());
+        }
+        assertEquals(9, map.size());
+        map.remove("0");
+        assertEquals(8, map.size());
+        assertEquals(8, map.get("8"));
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put("a", 1);
+        assertEquals(1, map.get("a"));
+        assertEquals("{a=1}", map.toString());
+    }
+
+    @Test
+    void testIteratorRemoveVisitsAll() {
+        final Flat8Map<String, Integer> map = new Flat8Map<>();
+        for (int i = 0; i < 8; i++) {
+            map.put(Integer.toString(i), i);
+        }
+        int seen = 0;
+        for (final Iterator<Integer> it = map.values().iterator(); it.hasNext();) {
+            final int value = it.next();
+            seen |= 1 << value;
+            if (value % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(0xFF, seen);
+        assertEquals(4, map.size());
+        for (int i = 1; i < 8; i += 2) {
+            assertEquals(i, map.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    void testNullKey() {
+        final Flat8Map<String, String> map = new Flat8Map<>();
+        map.put("a", "A");
+        assertNull(map.get(null));
+        map.put(null, "nothing");
+        assertTrue(map.containsKey(null));
+        assertEquals("nothing", map.get(null));
+        assertEquals("nothing", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertEquals("A", map.get("a"));
+    }
+
+    @Test
+    void testPutAllLarge() {
+        final Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            source.put(Integer.toString(i), i);
+        }
+        final Flat8Map<String, Integer> map = new Flat8Map<>(source);
+        assertEquals(source, map);
+        assertEquals(source, new Flat8Map<>(map));
+    }
+
+//    void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/Flat8Map.emptyCollection.version4.6.1.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/Flat8Map.fullCollection.version4.6.1.obj");
+//    }
+
+}
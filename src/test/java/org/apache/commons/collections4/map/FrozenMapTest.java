@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link FrozenMap}.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class FrozenMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    static final class SingleHashCode {
+
+        private final int id;
+
+        SingleHashCode(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof SingleHashCode && ((SingleHashCode) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 12;
+        }
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public IterableMap<K, V> makeFullMap() {
+        final Map<K, V> m = new HashMap<>();
+        addSampleMappings(m);
+        return FrozenMap.frozenMap(m);
+    }
+
+    @Override
+    public IterableMap<K, V> makeObject() {
+        return FrozenMap.frozenMap(new HashMap<>());
+    }
+
+    @Test
+    void testCollidingKeys() {
+        final Map<SingleHashCode, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new SingleHashCode(i), i);
+        }
+        final FrozenMap<SingleHashCode, Integer> frozen = FrozenMap.frozenMap(map);
+        assertEquals(map, frozen);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, frozen.get(new SingleHashCode(i)));
+        }
+        assertNull(frozen.get(new SingleHashCode(100)));
+    }
+
+    @Test
+    void testCopiesMap() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "1");
+        final FrozenMap<String, String> frozen = FrozenMap.frozenMap(map);
+        map.put("b", "2");
+        map.put("a", "3");
+        assertEquals(1, frozen.size());
+        assertEquals("1", frozen.get("a"));
+        assertFalse(frozen.containsKey("b"));
+    }
+
+    @Test
+    void testDecorateFactory() {
+        final IterableMap<K, V> map = makeFullMap();
+        assertSame(map, FrozenMap.frozenMap(map));
+
+        assertThrows(NullPointerException.class, () -> FrozenMap.frozenMap(null));
+    }
+
+    @Test
+    void testIterationOrder() {
+        final Map<Integer, String> map = new LinkedHashMap<>();
+        for (int i = 1000; i > 0; i -= 7) {
+            map.put(i, String.valueOf(i));
+        }
+        final FrozenMap<Integer, String> frozen = FrozenMap.frozenMap(map);
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(frozen.keySet()));
+        assertEquals(new ArrayList<>(map.values()), new ArrayList<>(frozen.values()));
+        final List<Integer> keys = new ArrayList<>();
+        for (final MapIterator<Integer, String> it = frozen.mapIterator(); it.hasNext();) {
+            keys.add(it.next());
+            assertEquals(String.valueOf(it.getKey()), it.getValue());
+        }
+        assertEquals(new ArrayList<>(map.keySet()), keys);
+        final List<Integer> forEachKeys = new ArrayList<>();
+        frozen.forEach((k, v) -> forEachKeys.add(k));
+        assertEquals(keys, forEachKeys);
+    }
+
+    @Test
+    void testNullKey() {
+        final Map<String, String> map = new HashMap<>();
+        map.put(null, "n");
+        map.put("a", null);
+        final FrozenMap<String, String> frozen = FrozenMap.frozenMap(map);
+        assertTrue(frozen.containsKey(null));
+        assertEquals("n", frozen.get(null));
+        assertTrue(frozen.containsKey("a"));
+        assertNull(frozen.get("a"));
+        assertEquals("x", frozen.getOrDefault("b", "x"));
+    }
+
+    @Test
+    void testUnmodifiable() {
+        assertTrue(makeObject() instanceof Unmodifiable);
+        assertTrue(makeFullMap() instanceof Unmodifiable);
+    }
+
+}
@@ -17,10 +17,16 @@
 package org.apache.commons.collections4.map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InvalidObjectException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -34,6 +40,27 @@ import org.junit.jupiter.params.provider.ValueSource;
  */
 public class HashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
 
+    /** A key counting the calls to its hash code. */
+    private static final class CountingKey {
+        private final int id;
+        private int hashCodeCalls;
+
+        CountingKey(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CountingKey && ((CountingKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            hashCodeCalls++;
+            return id;
+        }
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
@@ -82,6 +109,91 @@ public class HashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertEquals(1, map.data.length);
     }
 
+    @Test
+    void testPutAllFromHashedMapReusesHashCodes() {
+        final HashedMap<CountingKey, Integer> source = new HashedMap<>();
+        final CountingKey[] keys = new CountingKey[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CountingKey(i);
+            source.put(keys[i], i);
+        }
+        final HashedMap<CountingKey, Integer> copy = new HashedMap<>();
+        copy.put(keys[0], -1);
+        final int[] before = Arrays.stream(keys).mapToInt(k -> k.hashCodeCalls).toArray();
+        copy.putAll(source);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(before[i], keys[i].hashCodeCalls);
+        }
+        assertEquals(source, copy);
+        assertEquals(0, copy.get(keys[0]));
+        // a different source type uses the slow path
+        final Map<CountingKey, Integer> other = new HashMap<>(source);
+        final HashedMap<CountingKey, Integer> copy2 = new HashedMap<>();
+        copy2.putAll(other);
+        assertEquals(source, copy2);
+    }
+
+    @Test
+    void testPutAllFromSubclassRecomputesHashCodes() {
+        final HashedMap<CountingKey, Integer> source = new HashedMap<CountingKey, Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int hash(final Object key) {
+                return 0;
+            }
+        };
+        final CountingKey[] keys = new CountingKey[10];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CountingKey(i);
+            source.put(keys[i], i);
+        }
+        assertFalse(source.hasDefaultKeyHandling());
+        final HashedMap<CountingKey, Integer> copy = new HashedMap<>();
+        assertTrue(copy.hasDefaultKeyHandling());
+        copy.putAll(source);
+        for (final CountingKey key : keys) {
+            assertEquals(1, key.hashCodeCalls);
+            assertEquals(key.id, copy.get(key));
+        }
+    }
+
+    @Test
+    void testRemoveAllKeys() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>();
+        for (int i = 0; i < 20; i++) {
+            map.put(i, i);
+        }
+        assertTrue(map.removeAll(Arrays.asList(1, 3, 5, 100)));
+        assertEquals(17, map.size());
+        assertFalse(map.containsKey(3));
+        assertFalse(map.removeAll(Arrays.asList(100, 101)));
+        assertTrue(map.keySet().removeAll(new HashSet<>(Arrays.asList(0, 2))));
+        assertEquals(15, map.size());
+        assertTrue(map.keySet().removeAll(map.keySet()));
+        assertTrue(map.isEmpty());
+        assertThrows(NullPointerException.class, () -> map.removeAll(null));
+    }
+
+    @Test
+    void testRetainAllKeys() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>(4);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final HashSet<Integer> keep = new HashSet<>(Arrays.asList(7, 42, 99, 1000));
+        assertTrue(map.retainAll(keep));
+        assertEquals(3, map.size());
+        assertEquals(42, map.get(42));
+        assertFalse(map.keySet().retainAll(keep));
+        assertTrue(map.keySet().retainAll(Arrays.asList(42)));
+        assertEquals(1, map.size());
+        map.put(null, 0);
+        assertTrue(map.retainAll(Arrays.asList((Integer) null)));
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey(null));
+    }
+
     @Test
     void testInternalState() {
         final HashedMap<Integer, Integer> map = new HashedMap<>(42, 0.75f);
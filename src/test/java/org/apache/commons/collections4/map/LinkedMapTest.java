@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.InvalidObjectException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -253,6 +254,36 @@ public class LinkedMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/LinkedMap.fullCollection.version4.obj");
 //    }
 
+    @Test
+    void testPutAllFromLinkedMapKeepsOrder() {
+        final LinkedMap<Integer, String> source = new LinkedMap<>();
+        for (int i = 50; i > 0; i--) {
+            source.put(i, Integer.toString(i));
+        }
+        final LinkedMap<Integer, String> copy = new LinkedMap<>();
+        copy.put(25, "first");
+        copy.putAll(source);
+        assertEquals(50, copy.size());
+        assertEquals(Integer.valueOf(25), copy.firstKey());
+        assertEquals("25", copy.get(Integer.valueOf(25)));
+        final List<Integer> expected = new ArrayList<>(source.keySet());
+        expected.remove(Integer.valueOf(25));
+        expected.add(0, 25);
+        assertEquals(expected, new ArrayList<>(copy.keySet()));
+    }
+
+    @Test
+    void testRetainAllKeysKeepsOrder() {
+        final LinkedMap<Integer, String> map = new LinkedMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, Integer.toString(i));
+        }
+        map.retainAll(Arrays.asList(8, 2, 5));
+        assertEquals(Arrays.asList(2, 5, 8), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(2), map.firstKey());
+        assertEquals(Integer.valueOf(8), map.lastKey());
+    }
+
     @Test
     void testRemoveByIndex() {
         resetEmpty();
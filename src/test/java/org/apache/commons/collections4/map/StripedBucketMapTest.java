@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link StripedBucketMap}.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class StripedBucketMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public StripedBucketMap<K, V> makeObject() {
+        return new StripedBucketMap<>(4, 4);
+    }
+
+    @Test
+    void testAtomic() {
+        final StripedBucketMap<String, Integer> map = new StripedBucketMap<>();
+        map.atomic(() -> {
+            for (int i = 0; i < 100; i++) {
+                map.put(Integer.toString(i), i);
+            }
+        });
+        assertEquals(100, map.size());
+        assertThrows(NullPointerException.class, () -> map.atomic(null));
+    }
+
+    @Test
+    void testConcurrentWritesAndReads() throws Exception {
+        final StripedBucketMap<Integer, Integer> map = new StripedBucketMap<>(0, 4);
+        final int threads = 4;
+        final int perThread = 5_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * perThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + perThread; i++) {
+                        map.put(i, i);
+                        assertEquals(Integer.valueOf(i), map.get(i));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread, map.size());
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+    }
+
+    @Test
+    void testCtors() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedBucketMap<K, V>(0));
+        assertThrows(IllegalArgumentException.class, () -> new StripedBucketMap<K, V>(-1, 4));
+        assertEquals(16, new StripedBucketMap<K, V>().stripes());
+        assertEquals(1, new StripedBucketMap<K, V>(1).stripes());
+        assertEquals(8, new StripedBucketMap<K, V>(5).stripes());
+    }
+
+    @Test
+    void testEntrySetValueWritesThrough() {
+        final StripedBucketMap<String, String> map = new StripedBucketMap<>();
+        map.put("a", "1");
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            assertEquals("1", entry.setValue("2"));
+            assertEquals("2", entry.getValue());
+        }
+        assertEquals("2", map.get("a"));
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        final StripedBucketMap<Integer, String> map = new StripedBucketMap<>(0, 1);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i, Integer.toString(i));
+        }
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(Integer.toString(i), map.get(i));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertEquals(Integer.toString(i), map.remove(i));
+        }
+        assertEquals(5_000, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+
+    @Test
+    void testNullKeyAndValue() {
+        final StripedBucketMap<String, String> map = new StripedBucketMap<>();
+        map.put(null, "A");
+        assertTrue(map.containsKey(null));
+        assertEquals("A", map.get(null));
+        map.put("B", null);
+        assertTrue(map.containsValue(null));
+        assertTrue(map.containsKey("B"));
+        assertFalse(map.containsKey("C"));
+    }
+
+    @Test
+    void testPutIfAbsentAndConditionalRemove() {
+        final StripedBucketMap<String, String> map = new StripedBucketMap<>();
+        assertNull(map.putIfAbsent("a", "1"));
+        assertEquals("1", map.putIfAbsent("a", "2"));
+        assertEquals("1", map.get("a"));
+        map.put("b", null);
+        assertNull(map.putIfAbsent("b", "3"));
+        assertEquals("3", map.get("b"));
+        assertFalse(map.remove("a", "2"));
+        assertTrue(map.remove("a", "1"));
+        assertFalse(map.containsKey("a"));
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests {@link WeightedLRUMap}.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class WeightedLRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
+
+    static class MockWeightedLRUMapBlocksRemove extends WeightedLRUMap<String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        MockWeightedLRUMapBlocksRemove(final long maxWeight, final boolean scanUntilRemovable) {
+            super(maxWeight, LENGTH_WEIGHER, scanUntilRemovable);
+        }
+
+        @Override
+        protected boolean removeLRU(final LinkEntry<String, String> entry) {
+            return !"keep".equals(entry.getKey());
+        }
+    }
+
+    private static final WeightedLRUMap.Weigher<String, String> LENGTH_WEIGHER = (k, v) -> v == null ? 0 : v.length();
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public WeightedLRUMap<K, V> getMap() {
+        return (WeightedLRUMap<K, V>) super.getMap();
+    }
+
+    @Override
+    public boolean isGetStructuralModify() {
+        return true;
+    }
+
+    @Override
+    public WeightedLRUMap<K, V> makeFullMap() {
+        return (WeightedLRUMap<K, V>) super.makeFullMap();
+    }
+
+    @Override
+    public WeightedLRUMap<K, V> makeObject() {
+        return new WeightedLRUMap<>(100);
+    }
+
+    @Test
+    void testClearResetsWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaa");
+        map.put("b", "bbb");
+        map.clear();
+        assertEquals(0, map.weight());
+        map.put("c", "cccccccccc");
+        assertEquals(10, map.weight());
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testClone() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaa");
+        map.put("b", "bbb");
+        final WeightedLRUMap<String, String> cloned = map.clone();
+        assertEquals(map, cloned);
+        assertEquals(6, cloned.weight());
+        assertEquals(10, cloned.maxWeight());
+    }
+
+    @Test
+    void testCtors() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<K, V>(0), "maxWeight must be positive");
+        assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<K, V>(-1, (k, v) -> 1), "maxWeight must be positive");
+        assertThrows(NullPointerException.class, () -> new WeightedLRUMap<K, V>(10, null));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<K, V>(10, (k, v) -> 1, -1, 0.75f, false),
+                "initialSize must not be negative");
+    }
+
+    @Test
+    void testEvictsUntilWeightFits() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaaa");
+        map.put("b", "bbbb");
+        assertEquals(8, map.weight());
+        assertFalse(map.isFull());
+        map.get("a");
+        map.put("c", "cccccccc");  // removes b, then a
+        assertEquals(Arrays.asList("c"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(8, map.weight());
+        map.put("d", "dd");
+        assertEquals(10, map.weight());
+        assertTrue(map.isFull());
+        assertEquals(Integer.MAX_VALUE, map.maxSize());
+    }
+
+    @Test
+    void testFullMapKeepsEntriesWhileWeightFits() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaaa");
+        map.put("b", "bbbbbb");
+        assertTrue(map.isFull());
+        map.put("c", "");
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(10, map.weight());
+        map.put("d", "d");  // removes a only
+        assertEquals(Arrays.asList("b", "c", "d"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(7, map.weight());
+    }
+
+    @Test
+    void testHeavyEntryIsKept() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(5, LENGTH_WEIGHER);
+        map.put("a", "a");
+        map.put("b", "bbbbbbbb");
+        assertEquals(1, map.size());
+        assertEquals("bbbbbbbb", map.get("b"));
+        assertEquals(8, map.weight());
+        map.put("c", "c");
+        assertEquals(1, map.size());
+        assertEquals(1, map.weight());
+    }
+
+    @Test
+    void testNegativeWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(5, (k, v) -> -1);
+        assertThrows(IllegalArgumentException.class, () -> map.put("a", "a"));
+    }
+
+    @Test
+    void testRemoveLRUBlocksRemove() {
+        final WeightedLRUMap<String, String> map = new MockWeightedLRUMapBlocksRemove(4, false);
+        map.put("keep", "kk");
+        map.put("b", "bb");
+        map.put("c", "cc");  // should remove keep, but this is blocked
+        assertEquals(3, map.size());
+        assertEquals(6, map.weight());
+    }
+
+    @Test
+    void testRemoveLRUBlocksRemoveScan() {
+        final WeightedLRUMap<String, String> map = new MockWeightedLRUMapBlocksRemove(4, true);
+        map.put("keep", "kk");
+        map.put("b", "bb");
+        map.put("c", "cc");  // keep is blocked, removes b
+        assertEquals(2, map.size());
+        assertTrue(map.containsKey("keep"));
+        assertTrue(map.containsKey("c"));
+        assertEquals(4, map.weight());
+    }
+
+    @Test
+    void testRemoveUpdatesWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaa");
+        map.put("b", "bbbb");
+        assertEquals("aaa", map.remove("a"));
+        assertEquals(4, map.weight());
+        final MapIterator<String, String> it = map.mapIterator();
+        it.next();
+        it.remove();
+        assertEquals(0, map.weight());
+    }
+
+    @Test
+    void testSetValueUpdatesWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaa");
+        map.put("b", "bbb");
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            entry.setValue("xxxxxx");
+        }
+        assertEquals(12, map.weight());
+        assertEquals(2, map.size());
+        map.put("c", "c");  // now removes a
+        assertFalse(map.containsKey("a"));
+        assertEquals(2, map.size());
+        assertEquals(7, map.weight());
+    }
+
+    @Test
+    void testUpdateUpdatesWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, LENGTH_WEIGHER);
+        map.put("a", "aaa");
+        map.put("b", "bbb");
+        map.put("a", "a");
+        assertEquals(4, map.weight());
+        map.put("b", "bbbbbbbbbb");  // removes a
+        assertEquals(10, map.weight());
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey("b"));
+    }
+
+//    void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/WeightedLRUMap.emptyCollection.version4.6.1.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/WeightedLRUMap.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.util.ArrayList;
@@ -1011,6 +1012,30 @@ public abstract class AbstractMultiValuedMapTest<K, V> extends AbstractObjectTes
         assertTrue(getMap().isEmpty());
     }
 
+    @Test
+    void testMapIteratorRemoveSome() {
+        assumeTrue(isRemoveSupported());
+        resetFull();
+        final int size = getMap().size();
+        final MapIterator<K, V> mapIt = getMap().mapIterator();
+        int removed = 0;
+        for (int i = 0; mapIt.hasNext(); i++) {
+            final K key = mapIt.next();
+            if (i % 3 != 1) {
+                mapIt.remove();
+                assertThrows(IllegalStateException.class, mapIt::remove);
+                removed++;
+            } else {
+                assertEquals(key, mapIt.getKey());
+                assertTrue(getMap().containsMapping(key, mapIt.getValue()));
+            }
+        }
+        assertEquals(size - removed, getMap().size());
+        for (final K key : getMap().keySet()) {
+            assertFalse(getMap().get(key).isEmpty());
+        }
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void testMapIteratorUnsupportedSet() {
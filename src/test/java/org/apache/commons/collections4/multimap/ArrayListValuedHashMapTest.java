@@ -28,8 +28,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.collections4.ListValuedMap;
+import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.collection.AbstractCollectionTest;
 import org.junit.jupiter.api.Test;
@@ -94,6 +96,35 @@ public class ArrayListValuedHashMapTest<K, V> extends AbstractMultiValuedMapTest
         assertNotSame(map1.hashCode(), map2.hashCode());
     }
 
+    @Test
+    void testIteratorsSkipClearedSubList() {
+        final ArrayListValuedHashMap<String, Integer> map = new ArrayListValuedHashMap<>();
+        map.put("a", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        // clearing a view of the list leaves an empty list in the map
+        map.get("b").subList(0, 1).clear();
+        final List<String> entries = new ArrayList<>();
+        for (final Map.Entry<String, Integer> entry : map.entries()) {
+            entries.add(entry.getKey() + "=" + entry.getValue());
+        }
+        assertEquals(Arrays.asList("a=1", "a=2"), entries);
+        final MapIterator<String, Integer> it = map.mapIterator();
+        final List<String> mappings = new ArrayList<>();
+        while (it.hasNext()) {
+            mappings.add(it.next() + "=" + it.getValue());
+        }
+        assertEquals(Arrays.asList("a=1", "a=2"), mappings);
+        assertThrows(NoSuchElementException.class, it::next);
+        final MapIterator<String, Integer> removing = map.mapIterator();
+        removing.next();
+        removing.remove();
+        removing.next();
+        removing.remove();
+        assertFalse(removing.hasNext());
+        assertFalse(map.containsKey("a"));
+    }
+
     @Test
     void testInverted() {
         final ArrayListValuedHashMap<String, String> shopping = new ArrayListValuedHashMap<>(4);
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.apache.commons.collections4.ListValuedMap;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompactListValuedHashMap}.
+ */
+public class CompactListValuedHashMapTest<K, V> extends AbstractMultiValuedMapTest<K, V> {
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public ListValuedMap<K, V> makeObject() {
+        return new CompactListValuedHashMap<>();
+    }
+
+    @Test
+    void testAgainstArrayListValuedHashMap() {
+        final CompactListValuedHashMap<Integer, Integer> map = new CompactListValuedHashMap<>();
+        final ArrayListValuedHashMap<Integer, Integer> expected = new ArrayListValuedHashMap<>();
+        final Random random = new Random(41);
+        for (int i = 0; i < 20_000; i++) {
+            final Integer key = random.nextInt(50);
+            final List<Integer> list = map.get(key);
+            final List<Integer> expectedList = expected.get(key);
+            final int size = expectedList.size();
+            switch (random.nextInt(5)) {
+            case 0:
+                map.put(key, i);
+                expected.put(key, i);
+                break;
+            case 1:
+                final int index = random.nextInt(size + 1);
+                list.add(index, i);
+                expectedList.add(index, i);
+                break;
+            case 2:
+                if (size > 0) {
+                    final int removed = random.nextInt(size);
+                    assertEquals(expectedList.remove(removed), list.remove(removed));
+                }
+                break;
+            case 3:
+                if (size > 0) {
+                    final int set = random.nextInt(size);
+                    assertEquals(expectedList.set(set, i), list.set(set, i));
+                }
+                break;
+            default:
+                if (random.nextInt(20) == 0) {
+                    map.trimToSize();
+                }
+                map.removeMapping(key, i - 1);
+                expected.removeMapping(key, i - 1);
+                break;
+            }
+            assertEquals(expectedList, list);
+        }
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.keySet(), map.keySet());
+    }
+
+    @Test
+    void testCompactListValuedHashMap() {
+        final ListValuedMap<String, String> map = new CompactListValuedHashMap<>(
+                Collections.singletonMap("A", "W"));
+        assertEquals(Collections.singletonList("W"), map.get("A"));
+        final ListValuedMap<String, String> copy = new CompactListValuedHashMap<>(map);
+        assertEquals(map, copy);
+        assertEquals("{}", new CompactListValuedHashMap<>(Collections.emptyMap()).toString());
+    }
+
+    @Test
+    void testInverted() {
+        final CompactListValuedHashMap<String, String> shopping = new CompactListValuedHashMap<>();
+        shopping.put("Alice", "Bread");
+        shopping.put("Alice", "Milk");
+        shopping.put("Alice", "Milk");
+        shopping.put("Bob", "Pizza");
+        shopping.put("Bob", "Bread");
+        shopping.put("Bob", "Bread");
+        final CompactListValuedHashMap<String, String> inverted = shopping.inverted();
+        assertEquals(Arrays.asList("Bob", "Bob", "Alice"), inverted.get("Bread"));
+        assertEquals(Arrays.asList("Alice", "Alice"), inverted.get("Milk"));
+        assertEquals(Collections.singletonList("Bob"), inverted.get("Pizza"));
+        assertEquals(3, inverted.keySet().size());
+    }
+
+    @Test
+    void testListValuedMapAddByIndexInvalidIndexLeavesKeyAbsent() {
+        final ListValuedMap<String, String> listMap = new CompactListValuedHashMap<>();
+        final List<String> list = listMap.get("A");
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(1, "a1"));
+        assertFalse(listMap.containsKey("A"));
+        assertTrue(listMap.get("A").isEmpty());
+        assertEquals(0, listMap.size());
+    }
+
+    @Test
+    void testListValuedMapRemoveViaListIterator() {
+        final ListValuedMap<String, String> listMap = new CompactListValuedHashMap<>();
+        ListIterator<String> listIt = listMap.get("B").listIterator();
+        listIt.add("b1");
+        listIt.add("b2");
+        assertEquals(2, listMap.size());
+        listIt = listMap.get("B").listIterator();
+        while (listIt.hasNext()) {
+            listIt.next();
+            listIt.remove();
+        }
+        assertFalse(listMap.containsKey("B"));
+        listIt.add("b1");
+        listIt.add("b2");
+        assertEquals(Arrays.asList("b1", "b2"), listMap.get("B"));
+    }
+
+    @Test
+    void testValuesTakenForStorage() {
+        final CompactListValuedHashMap<String, Object> map = new CompactListValuedHashMap<>();
+        final Object[] array = {"x", "y"};
+        final List<Object> list = new ArrayList<>(Arrays.asList("u", "v"));
+        map.put("array", array);
+        map.put("list", list);
+        map.put("null", null);
+        assertEquals(1, map.get("array").size());
+        assertSame(array, map.get("array").get(0));
+        assertEquals(1, map.get("list").size());
+        assertSame(list, map.get("list").get(0));
+        assertEquals(1, map.get("null").size());
+        assertNull(map.get("null").get(0));
+        assertTrue(map.containsMapping("null", null));
+        map.put("null", null);
+        assertEquals(Arrays.asList(null, null), map.get("null"));
+        map.get("null").remove(0);
+        assertEquals(Collections.singletonList(null), map.get("null"));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void testTrimToSize() {
+        final CompactListValuedHashMap<String, Integer> listMap = new CompactListValuedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            listMap.put("A", i);
+        }
+        listMap.put("B", 1);
+        listMap.get("A").subList(1, 20).clear();
+        listMap.trimToSize();
+        assertEquals(Collections.singletonList(0), listMap.get("A"));
+        assertEquals(Collections.singletonList(1), listMap.get("B"));
+        listMap.put("A", 1);
+        assertArrayEquals(new Object[] {0, 1}, listMap.get("A").toArray());
+    }
+
+//    void testCreate() throws Exception {
+//        writeExternalFormToDisk((java.io.Serializable) makeObject(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/CompactListValuedHashMap.emptyCollection.version4.6.1.obj");
+//        writeExternalFormToDisk((java.io.Serializable) makeFullMap(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/CompactListValuedHashMap.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.SetValuedMap;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ConcurrentSetValuedHashMap}.
+ */
+public class ConcurrentSetValuedHashMapTest<K, V> extends AbstractMultiValuedMapTest<K, V> {
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isHashSetValue() {
+        return true;
+    }
+
+    @Override
+    public MultiValuedMap<K, V> makeConfirmedMap() {
+        return new HashSetValuedHashMap<>();
+    }
+
+    @Override
+    public SetValuedMap<K, V> makeObject() {
+        return new ConcurrentSetValuedHashMap<>();
+    }
+
+    @Test
+    void testConcurrentPutAndRemoveMapping() throws Exception {
+        final ConcurrentSetValuedHashMap<Integer, Integer> map = new ConcurrentSetValuedHashMap<>();
+        final int threads = 4;
+        final int rounds = 20_000;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final Integer value = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < rounds; i++) {
+                        final Integer key = i % 3;
+                        // the set of the key may be emptied and removed by the other threads
+                        assertTrue(map.put(key, value));
+                        assertTrue(map.containsMapping(key, value));
+                        assertTrue(map.get(key).remove(value));
+                        map.put(-1, value * rounds + i);
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, map.keySet().size());
+        assertEquals(threads * rounds, map.get(-1).size());
+        assertEquals(threads * rounds, map.size());
+    }
+
+    @Test
+    void testConcurrentSetValuedHashMap() {
+        final SetValuedMap<String, String> map = new ConcurrentSetValuedHashMap<>();
+        map.putAll("A", Arrays.asList("W", "X", "W"));
+        final SetValuedMap<String, String> copy = new ConcurrentSetValuedHashMap<>(map);
+        assertEquals(map, copy);
+        assertEquals(new HashSet<>(Arrays.asList("W", "X")), copy.get("A"));
+        assertEquals(map, new HashSetValuedHashMap<>(map));
+    }
+
+    @Test
+    void testIteratorsAreWeaklyConsistent() {
+        final SetValuedMap<String, String> map = new ConcurrentSetValuedHashMap<>();
+        map.put("A", "a1");
+        map.put("A", "a2");
+        map.put("B", "b1");
+        final Iterator<String> it = map.values().iterator();
+        it.next();
+        it.remove();
+        map.put("C", "c1");
+        map.remove("B");
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        assertFalse(map.containsKey("A"));
+        assertFalse(map.containsKey("B"));
+        // the new key may or may not have been seen
+        assertTrue(map.size() <= 1);
+    }
+
+    @Test
+    void testNullKeysAndValues() {
+        final SetValuedMap<String, String> map = new ConcurrentSetValuedHashMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(null, "a"));
+        assertThrows(NullPointerException.class, () -> map.put("A", null));
+        assertThrows(NullPointerException.class, () -> map.putAll("A", Arrays.asList("a", null)));
+        assertFalse(map.containsKey("A"));
+        assertFalse(map.containsKey(null));
+        assertFalse(map.containsMapping("A", null));
+        assertFalse(map.removeMapping(null, "a"));
+        assertTrue(map.remove(null).isEmpty());
+    }
+
+    @Test
+    void testValueSetChangesMap() {
+        final SetValuedMap<String, String> map = new ConcurrentSetValuedHashMap<>();
+        final Set<String> set = map.get("A");
+        assertTrue(set.add("a1"));
+        assertFalse(set.add("a1"));
+        assertTrue(set.addAll(Arrays.asList("a2", "a3")));
+        assertEquals(3, map.size());
+        final Iterator<String> it = set.iterator();
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        assertFalse(map.containsKey("A"));
+        assertTrue(set.isEmpty());
+        set.add("a4");
+        assertTrue(map.containsMapping("A", "a4"));
+        set.clear();
+        assertTrue(map.isEmpty());
+    }
+
+//    void testCreate() throws Exception {
+//        writeExternalFormToDisk((java.io.Serializable) makeObject(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/ConcurrentSetValuedHashMap.emptyCollection.version4.6.1.obj");
+//        writeExternalFormToDisk((java.io.Serializable) makeFullMap(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/ConcurrentSetValuedHashMap.fullCollection.version4.6.1.obj");
+//    }
+
+}
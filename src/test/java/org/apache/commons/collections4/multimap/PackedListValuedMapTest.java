@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multimap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.ListValuedMap;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PackedListValuedMap}.
+ */
+public class PackedListValuedMapTest<K, V> extends AbstractMultiValuedMapTest<K, V> {
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public boolean isAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    protected MultiValuedMap<K, V> makeFullMap() {
+        final MultiValuedMap<K, V> map = new ArrayListValuedHashMap<>();
+        addSampleMappings(map);
+        return PackedListValuedMap.packedListValuedMap(map);
+    }
+
+    @Override
+    public ListValuedMap<K, V> makeObject() {
+        return PackedListValuedMap.packedListValuedMap(new ArrayListValuedHashMap<>());
+    }
+
+    @Test
+    void testAgainstSource() {
+        final ArrayListValuedLinkedHashMap<Integer, Integer> source = new ArrayListValuedLinkedHashMap<>();
+        final Random random = new Random(43);
+        for (int i = 0; i < 10_000; i++) {
+            // keys colliding in the table, and a null key and values
+            final Integer key = random.nextInt(20) == 0 ? null : random.nextInt(2_000) * 64;
+            source.put(key, random.nextInt(10) == 0 ? null : i);
+        }
+        final PackedListValuedMap<Integer, Integer> packed = PackedListValuedMap.packedListValuedMap(source);
+        assertEquals(source, packed);
+        assertEquals(source.hashCode(), packed.hashCode());
+        assertEquals(source.size(), packed.size());
+        assertEquals(new ArrayList<>(source.keySet()), new ArrayList<>(packed.keySet()));
+        assertEquals(new ArrayList<>(source.values()), packed.values());
+        for (int key = -64; key < 2_000 * 64; key += 32) {
+            assertEquals(source.get(key), packed.get(key));
+            assertEquals(source.containsKey(key), packed.containsKey(key));
+        }
+        assertEquals(source.get(null), packed.get(null));
+        assertEquals(source.inverted(), packed.inverted());
+    }
+
+    @Test
+    void testFactory() {
+        final MultiValuedMap<K, V> map = makeFullMap();
+        assertSame(map, PackedListValuedMap.packedListValuedMap(map));
+        assertThrows(NullPointerException.class, () -> PackedListValuedMap.packedListValuedMap(null));
+    }
+
+    @Test
+    void testGetIsUnmodifiableView() {
+        final ArrayListValuedHashMap<String, String> source = new ArrayListValuedHashMap<>();
+        source.putAll("A", Arrays.asList("a1", "a2", "a3"));
+        source.put("B", "b1");
+        final ListValuedMap<String, String> packed = PackedListValuedMap.packedListValuedMap(source);
+        final List<String> list = packed.get("A");
+        assertEquals(Arrays.asList("a1", "a2", "a3"), list);
+        assertEquals(Arrays.asList("a2", "a3"), list.subList(1, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("a4"));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, "a4"));
+        assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> packed.get("C").add("c1"));
+        assertEquals(Collections.emptyList(), packed.get("C"));
+        assertFalse(packed.containsKey("C"));
+        assertTrue(packed.containsMapping("B", "b1"));
+        assertTrue(packed.containsValue("a3"));
+        source.put("A", "a4");
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    void testModificationsUnsupported() {
+        final ListValuedMap<String, String> packed = PackedListValuedMap.packedListValuedMap(
+                new ArrayListValuedHashMap<>(Collections.singletonMap("A", "a1")));
+        assertThrows(UnsupportedOperationException.class, () -> packed.put("A", "a2"));
+        assertThrows(UnsupportedOperationException.class, () -> packed.putAll("A", Arrays.asList("a2")));
+        assertThrows(UnsupportedOperationException.class, () -> packed.putAll(new HashMap<>()));
+        assertThrows(UnsupportedOperationException.class, () -> packed.putAll(new ArrayListValuedHashMap<>()));
+        assertThrows(UnsupportedOperationException.class, () -> packed.remove("A"));
+        assertThrows(UnsupportedOperationException.class, () -> packed.removeMapping("A", "a1"));
+        assertThrows(UnsupportedOperationException.class, packed::clear);
+        assertThrows(UnsupportedOperationException.class, () -> packed.keySet().remove("A"));
+        assertThrows(UnsupportedOperationException.class, () -> packed.values().clear());
+        assertThrows(UnsupportedOperationException.class, () -> packed.asMap().remove("A"));
+        assertEquals(1, packed.size());
+    }
+
+//    void testCreate() throws Exception {
+//        writeExternalFormToDisk((java.io.Serializable) makeObject(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/PackedListValuedMap.emptyCollection.version4.6.1.obj");
+//        writeExternalFormToDisk((java.io.Serializable) makeFullMap(),
+//                "src/test/resources/org/apache/commons/collections4/data/test/PackedListValuedMap.fullCollection.version4.6.1.obj");
+//    }
+
+}
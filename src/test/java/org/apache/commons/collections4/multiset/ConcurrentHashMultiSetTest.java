@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InvalidObjectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.MultiSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractMultiSetTest} for exercising the
+ * {@link ConcurrentHashMultiSet} implementation.
+ */
+public class ConcurrentHashMultiSetTest<T> extends AbstractMultiSetTest<T> {
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return UNORDERED;
+    }
+
+    @Override
+    public boolean isNullSupported() {
+        return false;
+    }
+
+    @Override
+    public MultiSet<T> makeObject() {
+        return new ConcurrentHashMultiSet<>();
+    }
+
+    @Test
+    void testAddClampsCountToIntegerMaxValue() {
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        set.add("X", Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, set.add("X", 1));
+        assertEquals(Integer.MAX_VALUE, set.getCount("X"));
+        assertEquals(Integer.MAX_VALUE, set.size());
+    }
+
+    @Test
+    void testConcurrentAddAndRemove() throws Exception {
+        final ConcurrentHashMultiSet<Integer> set = new ConcurrentHashMultiSet<>();
+        final int threads = 4;
+        final int rounds = 20_000;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < rounds; i++) {
+                        final Integer element = i % 10;
+                        set.add(element, 3);
+                        // the counter may be removed and created again by the other threads
+                        assertTrue(set.remove(element, 2) >= 2);
+                        set.add(-1);
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * rounds, set.getCount(-1));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(threads * rounds / 10, set.getCount(i));
+        }
+        assertEquals(2 * threads * rounds, set.size());
+        assertEquals(11, set.uniqueSet().size());
+    }
+
+    @Test
+    void testConcurrentSetCount() throws Exception {
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        final int threads = 4;
+        final int rounds = 10_000;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < rounds; i++) {
+                        // increment with a compare-and-set loop, going through zero
+                        int count;
+                        do {
+                            count = set.getCount("A");
+                        } while (!set.setCount("A", count, (count + 1) % 3));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * rounds % 3, set.getCount("A"));
+        assertEquals(threads * rounds % 3, set.size());
+    }
+
+    @Test
+    void testConstructorFromIterable() {
+        final Iterable<String> iterable = () -> Arrays.asList("a", "b", "a").iterator();
+        final MultiSet<String> multiset = new ConcurrentHashMultiSet<>(iterable);
+        assertEquals(3, multiset.size());
+        assertEquals(2, multiset.getCount("a"));
+        assertEquals(1, multiset.getCount("b"));
+    }
+
+    @Test
+    void testDeserializeRejectsNonPositiveCount() throws Exception {
+        final int marker = 0x11223344;
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        set.add("Y", marker);
+        final byte[] byteArray = serialize(set);
+        for (final int count : new int[] {0, -7}) {
+            final byte[] bytes = byteArray.clone();
+            replaceInt(bytes, marker, count);
+            assertThrows(InvalidObjectException.class, () -> deserialize(bytes));
+        }
+    }
+
+    @Test
+    void testIteratorIsWeaklyConsistent() {
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        set.add("a", 2);
+        set.add("b", 2);
+        final Iterator<MultiSet.Entry<String>> it = set.entrySet().iterator();
+        final MultiSet.Entry<String> entry = it.next();
+        set.add(entry.getElement(), 3);
+        assertEquals(5, entry.getCount());
+        set.remove(entry.getElement(), 5);
+        assertTrue(it.hasNext());
+        it.next();
+        assertFalse(it.hasNext());
+        assertEquals(2, set.size());
+    }
+
+    /**
+     * The iterators are weakly consistent rather than fail-fast.
+     */
+    @Override
+    @Test
+    void testMultiSetIteratorFail() {
+        final MultiSet<String> multiset = new ConcurrentHashMultiSet<>();
+        multiset.add("A");
+        multiset.add("A");
+        multiset.add("B");
+        final Iterator<String> it = multiset.iterator();
+        it.next();
+        multiset.remove("A");
+        it.next();
+    }
+
+    @Test
+    void testNullElements() {
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        assertThrows(NullPointerException.class, () -> set.add(null));
+        assertThrows(NullPointerException.class, () -> set.setCount(null, 1));
+        assertEquals(0, set.getCount(null));
+        assertEquals(0, set.remove(null, 1));
+        assertFalse(set.contains(null));
+    }
+
+    @Test
+    void testSetCountConditional() {
+        final ConcurrentHashMultiSet<String> set = new ConcurrentHashMultiSet<>();
+        assertTrue(set.setCount("a", 0, 2));
+        assertFalse(set.setCount("a", 1, 3));
+        assertEquals(2, set.getCount("a"));
+        assertTrue(set.setCount("a", 2, 0));
+        assertFalse(set.contains("a"));
+        assertTrue(set.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> set.setCount("a", -1, 0));
+    }
+
+//    void testCreate() throws Exception {
+//        MultiSet<T> multiset = makeObject();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/data/test/ConcurrentHashMultiSet.emptyCollection.version4.6.1.obj");
+//        multiset = makeFullCollection();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/data/test/ConcurrentHashMultiSet.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InvalidObjectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiSet;
+import org.apache.commons.collections4.SortedMultiSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractSortedMultiSetTest} for exercising the
+ * {@link IndexedTreeMultiSet} implementation.
+ */
+public class IndexedTreeMultiSetTest<T> extends AbstractSortedMultiSetTest<T> {
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public SortedMultiSet<T> makeObject() {
+        return new IndexedTreeMultiSet<>();
+    }
+
+    @Test
+    void testAddNonComparable() {
+        final MultiSet<Object> multiset = new IndexedTreeMultiSet<>();
+
+        assertThrows(IllegalArgumentException.class, () -> multiset.add(new Object()));
+    }
+
+    @Test
+    void testAddNull() {
+        final MultiSet<Object> multiset = new IndexedTreeMultiSet<>();
+
+        assertThrows(NullPointerException.class, () -> multiset.add(null));
+
+        final MultiSet<String> multiset2 = new IndexedTreeMultiSet<>(String::compareTo);
+        multiset2.add("a");
+
+        assertThrows(NullPointerException.class, () -> multiset2.add(null));
+    }
+
+    @Test
+    void testComparator() {
+        final SortedMultiSet<String> multiset = new IndexedTreeMultiSet<>();
+        assertNull(multiset.comparator(), "natural order, so comparator should be null");
+
+        final IndexedTreeMultiSet<String> multiset2 = new IndexedTreeMultiSet<>(String.CASE_INSENSITIVE_ORDER);
+        assertEquals(String.CASE_INSENSITIVE_ORDER, multiset2.comparator());
+        multiset2.add("b", 2);
+        multiset2.add("A");
+        multiset2.add("B");
+        assertEquals(3, multiset2.getCount("B"));
+        assertEquals("A", multiset2.first());
+        assertEquals(1, multiset2.countBelow("b"));
+    }
+
+    @Test
+    void testConstructorFromIterable() {
+        final Iterable<String> iterable = () -> Arrays.asList("b", "a", "b").iterator();
+        final SortedMultiSet<String> multiset = new IndexedTreeMultiSet<>(iterable);
+        assertEquals(3, multiset.size());
+        assertEquals(2, multiset.getCount("b"));
+        assertEquals("a", multiset.first());
+        assertEquals("b", multiset.last());
+    }
+
+    @Test
+    void testDeserializeRejectsNonPositiveCount() throws Exception {
+        final int marker = 0x11223344;
+        final IndexedTreeMultiSet<String> set = new IndexedTreeMultiSet<>();
+        set.add("Y", marker);
+        final byte[] byteArray = serialize(set);
+        for (final int count : new int[] {0, -7}) {
+            final byte[] bytes = byteArray.clone();
+            replaceInt(bytes, marker, count);
+            assertThrows(InvalidObjectException.class, () -> deserialize(bytes));
+        }
+    }
+
+    @Test
+    void testIteratorRemoveWhileRebalancing() {
+        final IndexedTreeMultiSet<Integer> set = new IndexedTreeMultiSet<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(i, i % 3 + 1);
+            expected.addAll(Collections.nCopies(i % 3 + 1, i));
+        }
+        final List<Integer> seen = new ArrayList<>();
+        final Iterator<Integer> it = set.iterator();
+        while (it.hasNext()) {
+            final Integer element = it.next();
+            seen.add(element);
+            if (element % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(expected, seen);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? 0 : i % 3 + 1, set.getCount(i));
+        }
+        final Iterator<MultiSet.Entry<Integer>> entries = set.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getElement() % 3 == 0) {
+                entries.remove();
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 || i % 3 == 0 ? 0 : i % 3 + 1, set.getCount(i));
+        }
+    }
+
+    @Test
+    void testOrderStatistics() {
+        final IndexedTreeMultiSet<Integer> set = new IndexedTreeMultiSet<>();
+        final List<Integer> sorted = new ArrayList<>();
+        final Random random = new Random(40);
+        for (int i = 0; i < 5_000; i++) {
+            final Integer element = random.nextInt(500);
+            final int count = random.nextInt(4);
+            if (random.nextInt(4) == 0) {
+                final int removed = Math.min(count, set.getCount(element));
+                set.remove(element, count);
+                for (int j = 0; j < removed; j++) {
+                    sorted.remove(element);
+                }
+            } else {
+                set.add(element, count);
+                sorted.addAll(Collections.nCopies(count, element));
+            }
+        }
+        Collections.sort(sorted);
+        assertEquals(sorted.size(), set.size());
+        assertEquals(sorted, new ArrayList<>(set));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), set.select(i));
+        }
+        for (int element = -1; element <= 500; element++) {
+            int below = 0;
+            while (below < sorted.size() && sorted.get(below) < element) {
+                below++;
+            }
+            assertEquals(below, set.countBelow(element));
+        }
+        assertEquals(sorted.get((sorted.size() - 1) / 2), set.median());
+        assertEquals(sorted.get(0), set.quantile(0));
+        assertEquals(sorted.get(sorted.size() - 1), set.quantile(1));
+        final int p99 = (int) Math.ceil(0.99 * sorted.size()) - 1;
+        assertEquals(sorted.get(p99), set.quantile(0.99));
+    }
+
+    @Test
+    void testOrdering() {
+        final IndexedTreeMultiSet<String> multiset = new IndexedTreeMultiSet<>();
+        multiset.add("C");
+        multiset.add("A", 2);
+        multiset.add("B");
+        multiset.add("D", 3);
+        assertEquals("A", multiset.toArray()[0], "Should get elements in correct order");
+        assertEquals("A", multiset.toArray()[1], "Should get elements in correct order");
+        assertEquals("B", multiset.toArray()[2], "Should get elements in correct order");
+        assertEquals("A", multiset.first(), "Should get first key");
+        assertEquals("D", multiset.last(), "Should get last key");
+    }
+
+    @Test
+    void testWeightedMedian() {
+        final IndexedTreeMultiSet<Integer> set = new IndexedTreeMultiSet<>();
+        assertThrows(NoSuchElementException.class, set::median);
+        assertThrows(IndexOutOfBoundsException.class, () -> set.select(0));
+        set.add(10, 1);
+        set.add(20, 1);
+        set.add(30, 5);
+        assertEquals(30, set.median());
+        assertEquals(10, set.quantile(0.1));
+        assertEquals(20, set.quantile(0.25));
+        assertEquals(2, set.countBelow(25));
+        assertEquals(2, set.countBelow(30));
+        assertEquals(7, set.countBelow(31));
+        assertThrows(IllegalArgumentException.class, () -> set.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> set.quantile(Double.NaN));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.select(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.select(-1));
+    }
+
+//    void testCreate() throws Exception {
+//        MultiSet<T> multiset = makeObject();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/org/apache/commons/collections4/data/test/IndexedTreeMultiSet.emptyCollection.version4.6.1.obj");
+//        multiset = makeFullCollection();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/org/apache/commons/collections4/data/test/IndexedTreeMultiSet.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+
+import org.apache.commons.collections4.OrderedMapIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.map.AbstractSortedMapTest;
+import org.apache.commons.collections4.trie.analyzer.IntegerKeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompactTrie}.
+ *
+ * @param <V> The value type.
+ */
+public class CompactTrieTest<V> extends AbstractSortedMapTest<String, V> {
+
+    /**
+     * A Patricia trie of integers.
+     */
+    private static final class IntegerTrie extends AbstractPatriciaTrie<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        IntegerTrie() {
+            super(IntegerKeyAnalyzer.INSTANCE);
+        }
+    }
+
+    private static String randomWord(final Random random) {
+        final char[] word = new char[random.nextInt(6)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(word);
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public CompactTrie<String, V> makeFullMap() {
+        final PatriciaTrie<V> trie = new PatriciaTrie<>();
+        addSampleMappings(trie);
+        return CompactTrie.compactTrie(trie);
+    }
+
+    @Override
+    public CompactTrie<String, V> makeObject() {
+        return CompactTrie.compactTrie(new PatriciaTrie<>());
+    }
+
+    @Test
+    void testDecorateFactory() {
+        final CompactTrie<String, V> trie = makeFullMap();
+        assertSame(trie, CompactTrie.compactTrie(trie));
+        assertThrows(NullPointerException.class, () -> CompactTrie.compactTrie(null));
+    }
+
+    @Test
+    void testIndexes() {
+        final PatriciaTrie<Integer> source = new PatriciaTrie<>();
+        final Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            source.put(randomWord(random), i);
+        }
+        final CompactTrie<String, Integer> trie = CompactTrie.compactTrie(source);
+        final List<String> keys = new ArrayList<>(source.keySet());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i), trie.getKey(i));
+            assertEquals(source.get(keys.get(i)), trie.getValue(i));
+            assertEquals(i, trie.indexOf(keys.get(i)));
+        }
+        assertEquals(-1, trie.indexOf("zzz"));
+        assertEquals(-1, trie.indexOf(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> trie.getKey(keys.size()));
+    }
+
+    @Test
+    void testIntegerKeys() {
+        final IntegerTrie source = new IntegerTrie();
+        final Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            final int key = random.nextInt(2000) - 1000;
+            source.put(key, key);
+        }
+        source.put(0, 0);
+        source.put(Integer.MIN_VALUE, Integer.MIN_VALUE);
+        final CompactTrie<Integer, Integer> trie = CompactTrie.compactTrie(source);
+        assertEquals(source, trie);
+        assertEquals(new ArrayList<>(source.keySet()), new ArrayList<>(trie.keySet()));
+        for (int key = -1100; key < 1100; key++) {
+            assertEquals(source.get(key), trie.get(key));
+            assertEquals(source.headMap(key), trie.headMap(key));
+            assertEquals(source.tailMap(key), trie.tailMap(key));
+        }
+    }
+
+    @Test
+    void testMapIterator() {
+        final CompactTrie<String, V> trie = makeFullMap();
+        final OrderedMapIterator<String, V> it = trie.mapIterator();
+        assertThrows(IllegalStateException.class, it::getKey);
+        final List<String> keys = new ArrayList<>();
+        while (it.hasNext()) {
+            keys.add(it.next());
+            assertEquals(trie.get(it.getKey()), it.getValue());
+        }
+        assertEquals(new ArrayList<>(trie.keySet()), keys);
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            assertTrue(it.hasPrevious());
+            assertEquals(keys.get(i), it.previous());
+        }
+        assertFalse(it.hasPrevious());
+        assertThrows(UnsupportedOperationException.class, it::remove);
+    }
+
+    @Test
+    void testNextAndPreviousKey() {
+        final PatriciaTrie<String> source = new PatriciaTrie<>();
+        source.put("a", "a");
+        source.put("ab", "ab");
+        source.put("b", "b");
+        final CompactTrie<String, String> trie = CompactTrie.compactTrie(source);
+        assertEquals("ab", trie.nextKey("a"));
+        assertNull(trie.nextKey("b"));
+        assertNull(trie.nextKey("c"));
+        assertEquals("ab", trie.previousKey("b"));
+        assertNull(trie.previousKey("a"));
+        assertThrows(NullPointerException.class, () -> trie.nextKey(null));
+    }
+
+    @Test
+    void testPrefixMapAndRanges() {
+        final PatriciaTrie<Integer> source = new PatriciaTrie<>();
+        final Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            source.put(randomWord(random), i);
+        }
+        final CompactTrie<String, Integer> trie = CompactTrie.compactTrie(source);
+        assertEquals(source, trie);
+        for (int i = 0; i < 300; i++) {
+            final String key = randomWord(random) + (i % 7 == 0 ? "d" : "");
+            assertEquals(source.get(key), trie.get(key));
+            assertEquals(source.containsKey(key), trie.containsKey(key));
+            final SortedMap<String, Integer> prefixMap = trie.prefixMap(key);
+            assertEquals(source.prefixMap(key), prefixMap);
+            assertEquals(new ArrayList<>(source.prefixMap(key).keySet()), new ArrayList<>(prefixMap.keySet()));
+            assertEquals(source.headMap(key), trie.headMap(key));
+            assertEquals(source.tailMap(key), trie.tailMap(key));
+        }
+        assertSame(trie, trie.prefixMap(""));
+        assertTrue(trie.prefixMap("d").isEmpty());
+    }
+
+    @Test
+    void testUnmodifiable() {
+        final CompactTrie<String, V> trie = makeFullMap();
+        assertTrue(trie instanceof Unmodifiable);
+        assertThrows(UnsupportedOperationException.class, () -> trie.put("x", null));
+        assertThrows(UnsupportedOperationException.class, () -> trie.remove("x"));
+        assertThrows(UnsupportedOperationException.class, trie::clear);
+        assertThrows(UnsupportedOperationException.class, () -> trie.prefixMap("").clear());
+    }
+
+//    void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/CompactTrie.emptyCollection.version4.6.1.obj");
+//        resetFull();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/CompactTrie.fullCollection.version4.6.1.obj");
+//    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.map.AbstractMapTest;
+import org.apache.commons.collections4.trie.analyzer.Utf8KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link MappedTrie}.
+ * <p>
+ * The keys are decoded on each access, so the sorted map tests, which expect the same
+ * key instances, are replaced by comparisons with a {@link TreeMap}.
+ * </p>
+ */
+public class MappedTrieTest extends AbstractMapTest<MappedTrie, String, String> {
+
+    private static final String[] SYLLABLES = {"a", "b", "ab", "é", "中", "😀", "z"};
+
+    private static MappedTrie copy(final Map<String, String> map) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            MappedTrie.write(map, out);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MappedTrie.wrap(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private static Map<String, String> randomMap(final Random random, final int size) {
+        final Map<String, String> map = new HashMap<>();
+        while (map.size() < size) {
+            final String key = randomWord(random);
+            map.put(key, key + map.size());
+        }
+        return map;
+    }
+
+    private static String randomWord(final Random random) {
+        final StringBuilder builder = new StringBuilder();
+        final int length = random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            builder.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.6.1";
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isTestSerialization() {
+        return false;
+    }
+
+    @Override
+    public MappedTrie makeFullMap() {
+        final Map<String, String> map = new HashMap<>();
+        addSampleMappings(map);
+        return copy(map);
+    }
+
+    @Override
+    public MappedTrie makeObject() {
+        return copy(new HashMap<>());
+    }
+
+    @Test
+    void testInvalidContent() {
+        assertThrows(IllegalArgumentException.class, () -> MappedTrie.wrap(ByteBuffer.allocate(3)));
+        assertThrows(IllegalArgumentException.class, () -> MappedTrie.wrap(ByteBuffer.allocate(64)));
+        final Map<String, String> map = new HashMap<>();
+        map.put("a\ud800", "1");
+        map.put("a\udc00", "2");
+        assertThrows(IllegalArgumentException.class, () -> copy(map));
+        map.clear();
+        map.put("a", null);
+        assertThrows(NullPointerException.class, () -> copy(map));
+    }
+
+    @Test
+    void testMatchesSortedMap() {
+        final Random random = new Random(5);
+        final Map<String, String> source = randomMap(random, 400);
+        final TreeMap<String, String> expected = new TreeMap<>(Utf8KeyAnalyzer.INSTANCE);
+        expected.putAll(source);
+        final MappedTrie trie = copy(source);
+        assertEquals(expected, trie);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(trie.keySet()));
+        final PatriciaTrie<String> patriciaTrie = new PatriciaTrie<>(source);
+        for (int i = 0; i < 400; i++) {
+            final String key = randomWord(random);
+            assertEquals(expected.get(key), trie.get(key));
+            assertEquals(expected.headMap(key), trie.headMap(key));
+            assertEquals(expected.tailMap(key), trie.tailMap(key));
+            final SortedMap<String, String> prefixMap = trie.prefixMap(key);
+            assertEquals(patriciaTrie.prefixMap(key), prefixMap);
+            assertEquals(prefixMap.size(), new ArrayList<>(prefixMap.keySet()).size());
+        }
+        int index = 0;
+        for (final String key : expected.keySet()) {
+            assertEquals(key, trie.getKey(index));
+            assertEquals(expected.get(key), trie.getValue(index));
+            assertEquals(index, trie.indexOf(key));
+            index++;
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> trie.getKey(400));
+    }
+
+    @Test
+    void testOpenFile() throws IOException {
+        final Path file = Files.createTempFile("MappedTrieTest", ".trie");
+        try {
+            final Map<String, String> source = randomMap(new Random(9), 100);
+            MappedTrie.write(source, file);
+            final MappedTrie trie = MappedTrie.open(file);
+            assertEquals(source, trie);
+            assertTrue(trie instanceof Unmodifiable);
+            assertNull(trie.get("missing"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testUnpairedSurrogates() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("\ud800", "1");
+        assertThrows(IllegalArgumentException.class, () -> copy(map));
+        map.clear();
+        map.put("a", "\udc00");
+        assertThrows(IllegalArgumentException.class, () -> copy(map));
+        map.clear();
+        map.put("?", "1");
+        map.put("a?", "2");
+        map.put("�", "3");
+        final MappedTrie trie = copy(map);
+        assertEquals("1", trie.get("?"));
+        assertNull(trie.get("\ud800"));
+        assertNull(trie.get("a\udc00"));
+        assertNull(trie.get("\udfff"));
+        assertTrue(trie.prefixMap("a\ud800").isEmpty());
+        assertEquals(-1, trie.indexOf("\ud800"));
+    }
+
+    @Test
+    void testWrapAtPosition() {
+        final Map<String, String> source = randomMap(new Random(13), 20);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(42);
+        assertEquals(source, MappedTrie.wrap((ByteBuffer) ByteBuffer.wrap(copyBytes(source, out)).position(1)));
+    }
+
+    private byte[] copyBytes(final Map<String, String> map, final ByteArrayOutputStream out) {
+        try {
+            MappedTrie.write(map, out);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -29,8 +29,10 @@ import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.CyclicBarrier;
@@ -53,6 +55,33 @@ import org.junit.jupiter.api.Test;
  */
 public class PatriciaTrieTest<V> extends AbstractSortedMapTest<String, V> {
 
+    private static int editDistance(final String a, final String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + cost);
+            }
+            final int[] tmp = previous;
+            previous = row;
+            row = tmp;
+        }
+        return previous[b.length()];
+    }
+
+    private static String randomKey(final Random random) {
+        final char[] chars = new char[random.nextInt(7)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = "abc\u00e9\u0000".charAt(random.nextInt(5));
+        }
+        return new String(chars);
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
@@ -232,6 +261,42 @@ public class PatriciaTrieTest<V> extends AbstractSortedMapTest<String, V> {
         assertEquals(0, trie.size());
     }
 
+    @Test
+    void testEditDistanceMap() {
+        final PatriciaTrie<String> trie = new PatriciaTrie<>();
+        trie.put("kitten", "kitten");
+        trie.put("sitting", "sitting");
+        trie.put("mitten", "mitten");
+        trie.put("kit", "kit");
+        assertEquals(Arrays.asList("kitten"), new ArrayList<>(trie.editDistanceMap("kitten", 0).keySet()));
+        assertEquals(Arrays.asList("kitten", "mitten"), new ArrayList<>(trie.editDistanceMap("kitten", 1).keySet()));
+        assertEquals(Arrays.asList("kit", "kitten", "mitten", "sitting"), new ArrayList<>(trie.editDistanceMap("kitten", 3).keySet()));
+        assertEquals("mitten", trie.editDistanceMap("mittens", 1).get("mitten"));
+        assertTrue(trie.editDistanceMap("zzzzzzzzzz", 2).isEmpty());
+        assertTrue(new PatriciaTrie<String>().editDistanceMap("kitten", 2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> trie.editDistanceMap("kitten", -1));
+
+        final Random random = new Random(36);
+        for (int round = 0; round < 20; round++) {
+            trie.clear();
+            for (int i = 0; i < 200; i++) {
+                final String key = randomKey(random);
+                trie.put(key, key);
+            }
+            for (int i = 0; i < 50; i++) {
+                final String key = randomKey(random);
+                final int maxDistance = random.nextInt(4);
+                final List<String> expected = new ArrayList<>();
+                for (final String candidate : trie.keySet()) {
+                    if (editDistance(candidate, key) <= maxDistance) {
+                        expected.add(candidate);
+                    }
+                }
+                assertEquals(expected, new ArrayList<>(trie.editDistanceMap(key, maxDistance).keySet()), key);
+            }
+        }
+    }
+
     @Test
     void testHeadMap() {
         final PatriciaTrie<String> trie = new PatriciaTrie<>();
@@ -283,6 +348,45 @@ public class PatriciaTrieTest<V> extends AbstractSortedMapTest<String, V> {
         assertNull(headMap.get("ge"));
     }
 
+    @Test
+    void testLongestPrefixOf() {
+        final PatriciaTrie<String> trie = new PatriciaTrie<>();
+        assertNull(trie.longestPrefixOf("abc"));
+        trie.put("a", "1");
+        trie.put("abc", "3");
+        trie.put("abd", "3'");
+        trie.put("b", "1'");
+        assertEquals("abc", trie.longestPrefixKeyOf("abcdef"));
+        assertEquals("3", trie.longestPrefixOf("abc").getValue());
+        assertEquals("a", trie.longestPrefixKeyOf("ab"));
+        assertEquals("a", trie.longestPrefixKeyOf("aXc"));
+        assertNull(trie.longestPrefixOf("c"));
+        assertNull(trie.longestPrefixOf(""));
+        trie.put("", "0");
+        assertEquals("", trie.longestPrefixKeyOf("c"));
+        assertEquals("", trie.longestPrefixKeyOf(""));
+        assertEquals("abd", trie.longestPrefixKeyOf("abd"));
+
+        final Random random = new Random(36);
+        for (int round = 0; round < 20; round++) {
+            trie.clear();
+            for (int i = 0; i < 100; i++) {
+                final String key = randomKey(random);
+                trie.put(key, key);
+            }
+            for (int i = 0; i < 200; i++) {
+                final String key = randomKey(random);
+                String expected = null;
+                for (final String candidate : trie.keySet()) {
+                    if (key.startsWith(candidate) && (expected == null || candidate.length() > expected.length())) {
+                        expected = candidate;
+                    }
+                }
+                assertEquals(expected, trie.longestPrefixKeyOf(key), key);
+            }
+        }
+    }
+
     @Test
     void testNullTerminatedKey1() {
         final PatriciaTrie<Integer> trie = new PatriciaTrie<>();
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.collections4.trie.AbstractPatriciaTrie;
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Abstract test class for {@link KeyAnalyzer} implementations.
+ * <p>
+ * Checks the analyzer against a bit by bit reference and a PATRICIA trie built on it against a {@link TreeMap}.
+ * </p>
+ *
+ * @param <K> The key type.
+ */
+public abstract class AbstractKeyAnalyzerTest<K> {
+
+    /**
+     * A trie using the analyzer under test.
+     */
+    static final class TestTrie<K, V> extends AbstractPatriciaTrie<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        TestTrie(final KeyAnalyzer<? super K> keyAnalyzer) {
+            super(keyAnalyzer);
+        }
+    }
+
+    private static final int KEYS = 2_000;
+
+    /**
+     * Returns a key with the same content as the given one, but not the same instance.
+     */
+    protected abstract K copy(K key);
+
+    /**
+     * Returns whether deserialization resolves to the same instance.
+     */
+    protected boolean isSingleton() {
+        return true;
+    }
+
+    /**
+     * Returns the analyzer under test.
+     */
+    protected abstract KeyAnalyzer<K> makeAnalyzer();
+
+    /**
+     * Returns a random key, drawn from a small alphabet so that keys share prefixes.
+     */
+    protected abstract K randomKey(Random random);
+
+    /**
+     * Returns whether the key starts with the prefix, or null if the analyzer has no notion of element prefixes.
+     */
+    protected abstract Boolean startsWith(K key, K prefix);
+
+    private int referenceBitIndex(final KeyAnalyzer<K> analyzer, final K key, final K other) {
+        final int length1 = analyzer.lengthInBits(key);
+        final int length2 = analyzer.lengthInBits(other);
+        boolean allZero = true;
+        for (int i = 0; i < Math.max(length1, length2); i++) {
+            final boolean bit = analyzer.isBitSet(key, i, length1);
+            if (bit != analyzer.isBitSet(other, i, length2)) {
+                return i;
+            }
+            allZero &= !bit;
+        }
+        return allZero ? KeyAnalyzer.NULL_BIT_KEY : KeyAnalyzer.EQUAL_BIT_KEY;
+    }
+
+    @Test
+    void testBitIndexMatchesBitByBitReference() {
+        final KeyAnalyzer<K> analyzer = makeAnalyzer();
+        final Random random = new Random(1);
+        for (int i = 0; i < KEYS; i++) {
+            final K key = randomKey(random);
+            final K other = i % 10 == 0 ? copy(key) : randomKey(random);
+            final int expected = referenceBitIndex(analyzer, key, other);
+            assertEquals(expected, analyzer.bitIndex(key, 0, analyzer.lengthInBits(key), other, 0, analyzer.lengthInBits(other)),
+                () -> key + " " + other);
+            if (expected >= 0) {
+                // the order follows the first differing bit
+                assertEquals(analyzer.isBitSet(key, expected, analyzer.lengthInBits(key)) ? 1 : -1,
+                    Integer.signum(analyzer.compare(key, other)), () -> key + " " + other);
+            } else {
+                assertEquals(0, analyzer.compare(key, other));
+            }
+        }
+    }
+
+    @Test
+    void testSerializationKeepsSingleton() throws Exception {
+        final KeyAnalyzer<K> analyzer = makeAnalyzer();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(analyzer);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            final Object result = in.readObject();
+            if (isSingleton()) {
+                assertSame(analyzer, result);
+            } else {
+                assertEquals(analyzer.getClass(), result.getClass());
+            }
+        }
+    }
+
+    @Test
+    void testTrieMatchesTreeMap() {
+        final KeyAnalyzer<K> analyzer = makeAnalyzer();
+        final TestTrie<K, Integer> trie = new TestTrie<>(analyzer);
+        final TreeMap<K, Integer> expected = new TreeMap<>(analyzer);
+        final Random random = new Random(2);
+        final List<K> keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            final K key = randomKey(random);
+            keys.add(key);
+            assertEquals(expected.put(key, i), trie.put(key, i));
+        }
+        assertEntries(expected, trie);
+        for (final K key : keys) {
+            assertEquals(expected.get(key), trie.get(copy(key)));
+        }
+        for (int i = 0; i < keys.size(); i += 3) {
+            final K key = keys.get(i);
+            assertEquals(expected.remove(key), trie.remove(copy(key)));
+        }
+        assertEntries(expected, trie);
+        for (int i = 0; i < 200; i++) {
+            final K prefix = randomKey(random);
+            if (startsWith(prefix, prefix) == null) {
+                assertEquals(expected.containsKey(prefix) ? 1 : 0, trie.prefixMap(prefix).size());
+                continue;
+            }
+            final SortedMap<K, Integer> prefixed = new TreeMap<>(analyzer);
+            for (final Map.Entry<K, Integer> entry : expected.entrySet()) {
+                if (startsWith(entry.getKey(), prefix)) {
+                    prefixed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            assertEntries(prefixed, trie.prefixMap(prefix));
+        }
+    }
+
+    private void assertEntries(final SortedMap<K, Integer> expected, final SortedMap<K, Integer> actual) {
+        final KeyAnalyzer<K> analyzer = makeAnalyzer();
+        assertEquals(expected.size(), actual.size());
+        final Iterator<Map.Entry<K, Integer>> it = actual.entrySet().iterator();
+        for (final Map.Entry<K, Integer> entry : expected.entrySet()) {
+            final Map.Entry<K, Integer> other = it.next();
+            assertEquals(0, analyzer.compare(entry.getKey(), other.getKey()));
+            assertEquals(entry.getValue(), other.getValue());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ByteArrayKeyAnalyzer}.
+ */
+public class ByteArrayKeyAnalyzerTest extends AbstractKeyAnalyzerTest<byte[]> {
+
+    private static final byte[] ALPHABET = {0, 1, 0x7f, (byte) 0x80, (byte) 0xff};
+
+    @Override
+    protected byte[] copy(final byte[] key) {
+        return key.clone();
+    }
+
+    @Override
+    protected KeyAnalyzer<byte[]> makeAnalyzer() {
+        return ByteArrayKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected byte[] randomKey(final Random random) {
+        final byte[] key = new byte[random.nextInt(20)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return key;
+    }
+
+    @Override
+    protected Boolean startsWith(final byte[] key, final byte[] prefix) {
+        return key.length >= prefix.length && Arrays.equals(Arrays.copyOf(key, prefix.length), prefix);
+    }
+
+    @Test
+    void testBitIndexAfterFirstWord() {
+        final byte[] key = new byte[20];
+        final byte[] other = key.clone();
+        other[13] = 0x10;
+        assertEquals(13 * ByteArrayKeyAnalyzer.LENGTH + 1 + 3, ByteArrayKeyAnalyzer.INSTANCE.bitIndex(key, 0, 20 * 9, other, 0, 20 * 9));
+        assertEquals(0, ByteArrayKeyAnalyzer.INSTANCE.bitIndex(key, 9, 9, other, 0, 0));
+    }
+
+    @Test
+    void testCompareIsUnsigned() {
+        final ByteArrayKeyAnalyzer analyzer = ByteArrayKeyAnalyzer.INSTANCE;
+        assertTrue(analyzer.compare(new byte[] {1}, new byte[] {(byte) 0x80}) < 0);
+        assertTrue(analyzer.compare(new byte[] {1}, new byte[] {1, 0}) < 0);
+        assertEquals(0, analyzer.compare(new byte[] {1, 2}, new byte[] {1, 2}));
+        assertTrue(analyzer.isPrefix(new byte[] {9, 1, 2}, 9, 18, new byte[] {1, 2, 3}));
+        assertFalse(analyzer.isPrefix(new byte[] {1, 2, 3, 4}, 0, 36, new byte[] {1, 2, 3}));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ByteBufferKeyAnalyzer}.
+ */
+public class ByteBufferKeyAnalyzerTest extends AbstractKeyAnalyzerTest<ByteBuffer> {
+
+    private static final byte[] ALPHABET = {0, 1, 0x7f, (byte) 0x80, (byte) 0xff};
+
+    @Override
+    protected ByteBuffer copy(final ByteBuffer key) {
+        final ByteBuffer copy = ByteBuffer.allocateDirect(key.remaining());
+        copy.put(key.duplicate()).flip();
+        return copy;
+    }
+
+    @Override
+    protected KeyAnalyzer<ByteBuffer> makeAnalyzer() {
+        return ByteBufferKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected ByteBuffer randomKey(final Random random) {
+        // leading garbage before the position, in either byte order
+        final int offset = random.nextInt(3);
+        final byte[] bytes = new byte[offset + random.nextInt(20)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        final ByteBuffer key = ByteBuffer.wrap(bytes);
+        key.position(offset);
+        return key.order(random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    protected Boolean startsWith(final ByteBuffer key, final ByteBuffer prefix) {
+        if (key.remaining() < prefix.remaining()) {
+            return false;
+        }
+        final ByteBuffer start = key.duplicate();
+        start.limit(start.position() + prefix.remaining());
+        return start.equals(prefix);
+    }
+
+    @Test
+    void testPositionIsNotChanged() {
+        final ByteBuffer key = ByteBuffer.wrap(new byte[] {5, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        key.position(1);
+        final ByteBuffer other = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 10}).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBufferKeyAnalyzer analyzer = ByteBufferKeyAnalyzer.INSTANCE;
+        assertEquals(8 * ByteBufferKeyAnalyzer.LENGTH + 1 + 6, analyzer.bitIndex(key, 0, 81, other, 0, 81));
+        assertTrue(analyzer.compare(key, other) < 0);
+        assertEquals(1, key.position());
+        assertEquals(0, other.position());
+    }
+}
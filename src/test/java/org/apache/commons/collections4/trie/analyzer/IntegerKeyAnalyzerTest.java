@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IntegerKeyAnalyzer}.
+ */
+public class IntegerKeyAnalyzerTest extends AbstractKeyAnalyzerTest<Integer> {
+
+    private static final int[] SPECIAL = {0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+    @Override
+    @SuppressWarnings("deprecation") // deliberately not the cached instance
+    protected Integer copy(final Integer key) {
+        return new Integer(key.intValue());
+    }
+
+    @Override
+    protected KeyAnalyzer<Integer> makeAnalyzer() {
+        return IntegerKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected Integer randomKey(final Random random) {
+        if (random.nextInt(20) == 0) {
+            return SPECIAL[random.nextInt(SPECIAL.length)];
+        }
+        return random.nextInt(1 << 12) - (1 << 11) << random.nextInt(20);
+    }
+
+    @Override
+    protected Boolean startsWith(final Integer key, final Integer prefix) {
+        return null;
+    }
+
+    @Test
+    void testBitPrefixes() {
+        final IntegerKeyAnalyzer analyzer = IntegerKeyAnalyzer.INSTANCE;
+        // 10.1.0.0/16 contains 10.1.2.3
+        final int network = 10 << 24 | 1 << 16;
+        final int address = network | 2 << 8 | 3;
+        assertTrue(analyzer.isPrefix(network, 0, 16, address));
+        assertFalse(analyzer.isPrefix(network, 0, 24, address));
+        assertEquals(22, analyzer.bitIndex(network, 0, 32, address, 0, 32));
+        assertEquals(KeyAnalyzer.NULL_BIT_KEY, analyzer.bitIndex(Integer.MIN_VALUE, 0, 32, null, 0, 0));
+        assertTrue(analyzer.compare(-1, 1) < 0);
+    }
+}
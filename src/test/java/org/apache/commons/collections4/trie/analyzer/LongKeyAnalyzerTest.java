@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link LongKeyAnalyzer}.
+ */
+public class LongKeyAnalyzerTest extends AbstractKeyAnalyzerTest<Long> {
+
+    private static final long[] SPECIAL = {0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE};
+
+    @Override
+    @SuppressWarnings("deprecation") // deliberately not the cached instance
+    protected Long copy(final Long key) {
+        return new Long(key.longValue());
+    }
+
+    @Override
+    protected KeyAnalyzer<Long> makeAnalyzer() {
+        return LongKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected Long randomKey(final Random random) {
+        if (random.nextInt(20) == 0) {
+            return SPECIAL[random.nextInt(SPECIAL.length)];
+        }
+        return (long) (random.nextInt(1 << 12) - (1 << 11)) << random.nextInt(52);
+    }
+
+    @Override
+    protected Boolean startsWith(final Long key, final Long prefix) {
+        return null;
+    }
+
+    @Test
+    void testBitIndex() {
+        final LongKeyAnalyzer analyzer = LongKeyAnalyzer.INSTANCE;
+        assertEquals(63, analyzer.bitIndex(2L, 0, 64, 3L, 0, 64));
+        assertEquals(0, analyzer.bitIndex(-1L, 0, 64, 1L, 0, 64));
+        assertEquals(KeyAnalyzer.EQUAL_BIT_KEY, analyzer.bitIndex(7L, 0, 64, 7L, 0, 64));
+        assertEquals(KeyAnalyzer.NULL_BIT_KEY, analyzer.bitIndex(Long.MIN_VALUE, 0, 64, Long.MIN_VALUE, 0, 64));
+        assertTrue(analyzer.compare(Long.MIN_VALUE, Long.MAX_VALUE) < 0);
+    }
+}
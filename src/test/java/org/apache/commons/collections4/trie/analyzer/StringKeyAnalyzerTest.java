@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link StringKeyAnalyzer}.
+ */
+public class StringKeyAnalyzerTest extends AbstractKeyAnalyzerTest<String> {
+
+    private static final char[] ALPHABET = {'\u0000', '\u0001', 'a', 'b', '\u00ff', '\u0100', '\uffff'};
+
+    @Override
+    protected String copy(final String key) {
+        return new String(key.toCharArray());
+    }
+
+    @Override
+    protected boolean isSingleton() {
+        return false;
+    }
+
+    @Override
+    protected KeyAnalyzer<String> makeAnalyzer() {
+        return StringKeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected String randomKey(final Random random) {
+        final char[] key = new char[random.nextInt(12)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(key);
+    }
+
+    @Override
+    protected Boolean startsWith(final String key, final String prefix) {
+        return key.startsWith(prefix);
+    }
+
+    @Test
+    void testBitIndexWithOffsets() {
+        final StringKeyAnalyzer analyzer = StringKeyAnalyzer.INSTANCE;
+        final int length = StringKeyAnalyzer.LENGTH;
+        assertEquals(KeyAnalyzer.EQUAL_BIT_KEY, analyzer.bitIndex("xabc", length, 3 * length, "abc", 0, 3 * length));
+        assertEquals(2 * length + 1 + 15, analyzer.bitIndex("xabc", length, 3 * length, "abb", 0, 3 * length));
+        assertEquals(3 * length, analyzer.bitIndex("abc", 0, 3 * length, "abcd", 0, 4 * length));
+        assertEquals(0, analyzer.bitIndex("abc", 0, 3 * length, null, 0, 0));
+        assertEquals(KeyAnalyzer.NULL_BIT_KEY, analyzer.bitIndex("", 0, 0, null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.bitIndex("abc", 1, 3 * length, "abc", 0, 3 * length));
+    }
+
+    @Test
+    void testIsPrefix() {
+        final StringKeyAnalyzer analyzer = StringKeyAnalyzer.INSTANCE;
+        final int length = StringKeyAnalyzer.LENGTH;
+        assertTrue(analyzer.isPrefix("abc", 0, 2 * length, "abd"));
+        assertFalse(analyzer.isPrefix("abc", 0, 3 * length, "abd"));
+        assertTrue(analyzer.isPrefix("xab", length, 3 * length, "abd"));
+        assertFalse(analyzer.isPrefix("abc", 0, 3 * length, "ab"));
+        assertThrows(IndexOutOfBoundsException.class, () -> analyzer.isPrefix("abc", 0, 4 * length, "abcd"));
+    }
+}
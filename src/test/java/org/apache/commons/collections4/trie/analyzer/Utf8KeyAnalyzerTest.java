@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.trie.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.trie.KeyAnalyzer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link Utf8KeyAnalyzer}.
+ */
+public class Utf8KeyAnalyzerTest extends AbstractKeyAnalyzerTest<CharSequence> {
+
+    private static final String[] ALPHABET = {"\u0000", "a", "b", "é", "߿", "€", "￿", "😀", "\ud83d", "\ude00"};
+
+    private static int compareBytes(final byte[] bytes1, final byte[] bytes2) {
+        for (int i = 0; i < Math.min(bytes1.length, bytes2.length); i++) {
+            if (bytes1[i] != bytes2[i]) {
+                return Integer.compare(bytes1[i] & 0xff, bytes2[i] & 0xff);
+            }
+        }
+        return Integer.compare(bytes1.length, bytes2.length);
+    }
+
+    /**
+     * Encodes each code point, including unpaired surrogates, as UTF-8 does.
+     */
+    private static byte[] encode(final CharSequence key) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        key.codePoints().forEach(codePoint -> {
+            if (codePoint < 0x80) {
+                out.write(codePoint);
+            } else if (codePoint < 0x800) {
+                out.write(0xc0 | codePoint >>> 6);
+                out.write(0x80 | codePoint & 0x3f);
+            } else if (codePoint < 0x10000) {
+                out.write(0xe0 | codePoint >>> 12);
+                out.write(0x80 | codePoint >>> 6 & 0x3f);
+                out.write(0x80 | codePoint & 0x3f);
+            } else {
+                out.write(0xf0 | codePoint >>> 18);
+                out.write(0x80 | codePoint >>> 12 & 0x3f);
+                out.write(0x80 | codePoint >>> 6 & 0x3f);
+                out.write(0x80 | codePoint & 0x3f);
+            }
+        });
+        return out.toByteArray();
+    }
+
+    @Override
+    protected CharSequence copy(final CharSequence key) {
+        return new StringBuilder(key);
+    }
+
+    @Override
+    protected KeyAnalyzer<CharSequence> makeAnalyzer() {
+        return Utf8KeyAnalyzer.INSTANCE;
+    }
+
+    @Override
+    protected CharSequence randomKey(final Random random) {
+        final StringBuilder key = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            key.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return key.toString();
+    }
+
+    @Override
+    protected Boolean startsWith(final CharSequence key, final CharSequence prefix) {
+        final byte[] keyBytes = encode(key);
+        final byte[] prefixBytes = encode(prefix);
+        return keyBytes.length >= prefixBytes.length && compareBytes(Arrays.copyOf(keyBytes, prefixBytes.length), prefixBytes) == 0;
+    }
+
+    @Test
+    void testGetBytes() {
+        final Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            final CharSequence key = randomKey(random);
+            assertArrayEquals(encode(key), Utf8KeyAnalyzer.getBytes(key));
+        }
+        assertArrayEquals("a\u00e9\u20ac\ud83d\ude00".getBytes(StandardCharsets.UTF_8), Utf8KeyAnalyzer.getBytes("a\u00e9\u20ac\ud83d\ude00"));
+    }
+
+    @Test
+    void testLengthAndOrderMatchEncoding() {
+        final Random random = new Random(3);
+        final List<CharSequence> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final CharSequence key = randomKey(random);
+            assertEquals(encode(key).length * Utf8KeyAnalyzer.LENGTH, Utf8KeyAnalyzer.INSTANCE.lengthInBits(key));
+            keys.add(key);
+        }
+        final List<CharSequence> expected = new ArrayList<>(keys);
+        expected.sort((a, b) -> compareBytes(encode(a), encode(b)));
+        Collections.sort(keys, Utf8KeyAnalyzer.INSTANCE);
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(0, compareBytes(encode(expected.get(i)), encode(keys.get(i))));
+        }
+    }
+
+    @Test
+    void testUnpairedSurrogatesAreDistinctKeys() {
+        final String[] keys = {"?", "\ud800", "\udc00", "\ufffd", "\udc00\ud800"};
+        final TestTrie<CharSequence, String> trie = new TestTrie<>(Utf8KeyAnalyzer.INSTANCE);
+        for (final String key : keys) {
+            trie.put(key, key);
+        }
+        assertEquals(keys.length, trie.size());
+        for (final String key : keys) {
+            assertEquals(key, trie.get(key));
+            for (final String other : keys) {
+                assertEquals(key.equals(other), Utf8KeyAnalyzer.INSTANCE.compare(key, other) == 0);
+            }
+        }
+        assertTrue(Utf8KeyAnalyzer.INSTANCE.compare("\ud7ff", "\ud800") < 0);
+        assertTrue(Utf8KeyAnalyzer.INSTANCE.compare("\udfff", "\ue000") < 0);
+    }
+}